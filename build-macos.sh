@@ -30,25 +30,71 @@ echo "Using Java:"
 java -version 2>&1 | head -1
 echo ""
 
-# Clean output directory
+# Clean output directories
 echo "Cleaning output directory..."
-rm -rf out
+rm -rf out out-java11 out-java21 out-check
 mkdir -p out
 
+# Major version of this JDK's javac ("1.8.0_392" -> 8, "21.0.2" -> 21)
+JAVAC_VERSION=$(javac -version 2>&1 | awk '{print $2}')
+JAVAC_MAJOR=${JAVAC_VERSION%%.*}
+if [[ "$JAVAC_MAJOR" == "1" ]]; then
+    JAVAC_MAJOR=8
+fi
+
 # Compile CLI updater (targeting Java 8 for Prism Launcher compatibility)
 echo "Compiling ModUpdater.java..."
-if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -d out src/ModUpdater.java; then
+if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -d out src/ModUpdater.java src/JsonPullReader.java src/LauncherHttp.java src/LauncherTrace.java; then
     echo "Build failed: ModUpdater.java"
     exit 1
 fi
 
 # Compile GUI updater (targeting Java 8 for Prism Launcher compatibility)
 echo "Compiling ModUpdaterGUI.java..."
-if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -d out src/ModUpdaterGUI.java src/LauncherBootstrap.java; then
+if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -d out src/ModUpdaterGUI.java src/LauncherBootstrap.java src/JsonPullReader.java src/LauncherHttp.java src/LauncherTrace.java src/LauncherRuntime.java; then
     echo "Build failed: ModUpdaterGUI.java"
     exit 1
 fi
 
+# Multi-release overrides for the GUI jar (HTTP/2 on 11+, virtual threads on 21+).
+# Skipped when this JDK is too old to compile them; the Java 8 classes still work everywhere.
+# When this JDK is older than 21, point JAVA21_HOME at a JDK 21 to build them anyway.
+JAVAC11=""
+JAVAC21=""
+GUI_JAR=jar
+if (( JAVAC_MAJOR >= 11 )); then
+    JAVAC11=javac
+fi
+if (( JAVAC_MAJOR >= 21 )); then
+    JAVAC21=javac
+elif [[ -n "$JAVA21_HOME" ]]; then
+    JAVAC21="$JAVA21_HOME/bin/javac"
+    JAVAC11=${JAVAC11:-$JAVAC21}
+    # An older jar tool rejects the Java 21 class files when validating the jar
+    GUI_JAR="$JAVA21_HOME/bin/jar"
+else
+    echo "Note: javac $JAVAC_MAJOR cannot build the Java 21 overrides; set JAVA21_HOME to include them."
+fi
+GUI_RELEASES=()
+if [[ -n "$JAVAC11" ]]; then
+    echo "Compiling Java 11 overrides..."
+    mkdir -p out-java11
+    if ! "$JAVAC11" -encoding UTF-8 --release 11 -cp out -d out-java11 src/java11/*.java; then
+        echo "Build failed: Java 11 overrides"
+        exit 1
+    fi
+    GUI_RELEASES+=(--release 11 -C out-java11 .)
+fi
+if [[ -n "$JAVAC21" ]]; then
+    echo "Compiling Java 21 overrides..."
+    mkdir -p out-java21
+    if ! "$JAVAC21" -encoding UTF-8 --release 21 -cp out-java11:out -d out-java21 src/java21/*.java; then
+        echo "Build failed: Java 21 overrides"
+        exit 1
+    fi
+    GUI_RELEASES+=(--release 21 -C out-java21 .)
+fi
+
 # Compile launcher promoter helper
 echo "Compiling LauncherUpdatePromoter.java..."
 if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -d out src/LauncherUpdatePromoter.java; then
@@ -56,6 +102,37 @@ if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -d out src/Launch
     exit 1
 fi
 
+# Check the JSON readers against the saved GitHub API payloads
+echo "Running JSON reader checks..."
+mkdir -p out-check
+if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -cp out -d out-check src/check/JsonPullReaderCheck.java; then
+    echo "Build failed: JsonPullReaderCheck.java"
+    exit 1
+fi
+if ! java -cp out:out-check JsonPullReaderCheck src/check/data; then
+    echo "Build failed: JSON reader checks"
+    exit 1
+fi
+
+# Check the download paths against local stand-in servers
+echo "Running download checks..."
+if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -cp out -d out-check src/check/HedgedConnectionCheck.java src/check/ResourceTreeSyncCheck.java src/check/SegmentedDownloadCheck.java; then
+    echo "Build failed: download checks"
+    exit 1
+fi
+if ! java -cp out:out-check HedgedConnectionCheck; then
+    echo "Build failed: hedged request check"
+    exit 1
+fi
+if ! java -cp out:out-check ResourceTreeSyncCheck; then
+    echo "Build failed: resource tree sync check"
+    exit 1
+fi
+if ! java -cp out:out-check SegmentedDownloadCheck; then
+    echo "Build failed: segmented download check"
+    exit 1
+fi
+
 # Copy bg.png resource to output (if needed by GUI)
 if [[ -f src/bg.png ]]; then
     echo "Copying bg.png resource..."
@@ -71,11 +148,28 @@ fi
 
 # Create GUI jar
 echo "Creating mod-updater-gui.jar..."
-if ! jar cfe mod-updater-gui.jar LauncherBootstrap -C out .; then
+if ! "$GUI_JAR" cfe mod-updater-gui.jar LauncherBootstrap -C out . "${GUI_RELEASES[@]}"; then
     echo "Build failed: jar creation for GUI"
     exit 1
 fi
 
+# Load LauncherRuntime from the jar and check the JVM picks the copy for its version
+echo "Checking multi-release runtime selection..."
+if ! javac -encoding UTF-8 -source 8 -target 8 -Xlint:-options -d out-check src/check/LauncherRuntimeCheck.java; then
+    echo "Build failed: LauncherRuntimeCheck.java"
+    exit 1
+fi
+if ! java -cp out-check LauncherRuntimeCheck mod-updater-gui.jar; then
+    echo "Build failed: multi-release runtime check"
+    exit 1
+fi
+if [[ -n "$JAVA21_HOME" ]] && (( JAVAC_MAJOR < 21 )); then
+    if ! "$JAVA21_HOME/bin/java" -cp out-check LauncherRuntimeCheck mod-updater-gui.jar; then
+        echo "Build failed: multi-release runtime check on Java 21"
+        exit 1
+    fi
+fi
+
 # Create launcher promoter jar
 echo "Creating launcher-promoter.jar..."
 if ! jar cfe launcher-promoter.jar LauncherUpdatePromoter -C out .; then
@@ -4,13 +4,21 @@ REM Builds both CLI and GUI versions
 
 echo Building Mod Updater...
 
-REM Clean output directory
+REM Clean output directories
 if exist out rmdir /s /q out
+if exist out-java11 rmdir /s /q out-java11
+if exist out-java21 rmdir /s /q out-java21
+if exist out-check rmdir /s /q out-check
 mkdir out
 
+REM Major version of this JDK's javac ("1.8.0_392" -> 8, "21.0.2" -> 21)
+for /f "tokens=2" %%v in ('javac -version 2^>^&1') do set JAVAC_VERSION=%%v
+for /f "delims=." %%m in ("%JAVAC_VERSION%") do set JAVAC_MAJOR=%%m
+if "%JAVAC_MAJOR%"=="1" set JAVAC_MAJOR=8
+
 REM Compile CLI updater
 echo Compiling ModUpdater.java...
-javac -encoding UTF-8 -d out src/ModUpdater.java
+javac -encoding UTF-8 -d out src/ModUpdater.java src/JsonPullReader.java src/LauncherHttp.java src/LauncherTrace.java
 if errorlevel 1 (
     echo Build failed: ModUpdater.java
     exit /b 1
@@ -18,11 +26,50 @@ if errorlevel 1 (
 
 REM Compile GUI updater
 echo Compiling ModUpdaterGUI.java...
-javac -encoding UTF-8 -d out src/ModUpdaterGUI.java src/LauncherBootstrap.java
+javac -encoding UTF-8 -d out src/ModUpdaterGUI.java src/LauncherBootstrap.java src/JsonPullReader.java src/LauncherHttp.java src/LauncherTrace.java src/LauncherRuntime.java
 if errorlevel 1 (
     echo Build failed: ModUpdaterGUI.java
     exit /b 1
 )
+
+REM Multi-release overrides for the GUI jar (HTTP/2 on 11+, virtual threads on 21+).
+REM Skipped when this JDK is too old to compile them; the Java 8 classes still work everywhere.
+REM When this JDK is older than 21, point JAVA21_HOME at a JDK 21 to build them anyway.
+set JAVAC11=
+set JAVAC21=
+set GUI_JAR=jar
+if %JAVAC_MAJOR% GEQ 11 set JAVAC11=javac
+if %JAVAC_MAJOR% GEQ 21 (
+    set JAVAC21=javac
+) else if defined JAVA21_HOME (
+    set "JAVAC21=%JAVA21_HOME%\bin\javac"
+    REM An older jar tool rejects the Java 21 class files when validating the jar
+    set "GUI_JAR=%JAVA21_HOME%\bin\jar"
+) else (
+    echo Note: javac %JAVAC_MAJOR% cannot build the Java 21 overrides; set JAVA21_HOME to include them.
+)
+if not defined JAVAC11 if defined JAVAC21 set "JAVAC11=%JAVAC21%"
+set GUI_RELEASES=
+if defined JAVAC11 (
+    echo Compiling Java 11 overrides...
+    mkdir out-java11
+    "%JAVAC11%" -encoding UTF-8 --release 11 -cp out -d out-java11 src/java11/*.java
+    if errorlevel 1 (
+        echo Build failed: Java 11 overrides
+        exit /b 1
+    )
+    set GUI_RELEASES=--release 11 -C out-java11 .
+)
+if defined JAVAC21 (
+    echo Compiling Java 21 overrides...
+    mkdir out-java21
+    "%JAVAC21%" -encoding UTF-8 --release 21 -cp out-java11;out -d out-java21 src/java21/*.java
+    if errorlevel 1 (
+        echo Build failed: Java 21 overrides
+        exit /b 1
+    )
+    set GUI_RELEASES=--release 11 -C out-java11 . --release 21 -C out-java21 .
+)
 
 REM Compile launcher promoter helper
 echo Compiling LauncherUpdatePromoter.java...
@@ -32,6 +79,43 @@ if errorlevel 1 (
     exit /b 1
 )
 
+REM Check the JSON readers against the saved GitHub API payloads
+echo Running JSON reader checks...
+mkdir out-check
+javac -encoding UTF-8 -cp out -d out-check src/check/JsonPullReaderCheck.java
+if errorlevel 1 (
+    echo Build failed: JsonPullReaderCheck.java
+    exit /b 1
+)
+java -cp out;out-check JsonPullReaderCheck src/check/data
+if errorlevel 1 (
+    echo Build failed: JSON reader checks
+    exit /b 1
+)
+
+REM Check the download paths against local stand-in servers
+echo Running download checks...
+javac -encoding UTF-8 -cp out -d out-check src/check/HedgedConnectionCheck.java src/check/ResourceTreeSyncCheck.java src/check/SegmentedDownloadCheck.java
+if errorlevel 1 (
+    echo Build failed: download checks
+    exit /b 1
+)
+java -cp out;out-check HedgedConnectionCheck
+if errorlevel 1 (
+    echo Build failed: hedged request check
+    exit /b 1
+)
+java -cp out;out-check ResourceTreeSyncCheck
+if errorlevel 1 (
+    echo Build failed: resource tree sync check
+    exit /b 1
+)
+java -cp out;out-check SegmentedDownloadCheck
+if errorlevel 1 (
+    echo Build failed: segmented download check
+    exit /b 1
+)
+
 REM Copy bg.png resource to output (if needed by GUI)
 if exist src/bg.png copy src/bg.png out\bg.png >nul 2>&1
 
@@ -45,11 +129,31 @@ if errorlevel 1 (
 
 REM Create GUI jar
 echo Creating mod-updater-gui.jar...
-jar cfe mod-updater-gui.jar LauncherBootstrap -C out .
+"%GUI_JAR%" cfe mod-updater-gui.jar LauncherBootstrap -C out . %GUI_RELEASES%
 if errorlevel 1 (
     echo Build failed: jar creation for GUI
     exit /b 1
 )
+
+REM Load LauncherRuntime from the jar and check the JVM picks the copy for its version
+echo Checking multi-release runtime selection...
+javac -encoding UTF-8 -d out-check src/check/LauncherRuntimeCheck.java
+if errorlevel 1 (
+    echo Build failed: LauncherRuntimeCheck.java
+    exit /b 1
+)
+java -cp out-check LauncherRuntimeCheck mod-updater-gui.jar
+if errorlevel 1 (
+    echo Build failed: multi-release runtime check
+    exit /b 1
+)
+if defined JAVA21_HOME if %JAVAC_MAJOR% LSS 21 (
+    "%JAVA21_HOME%\bin\java" -cp out-check LauncherRuntimeCheck mod-updater-gui.jar
+    if errorlevel 1 (
+        echo Build failed: multi-release runtime check on Java 21
+        exit /b 1
+    )
+)
 
 REM Create launcher promoter jar
 echo Creating launcher-promoter.jar...
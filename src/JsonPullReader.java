@@ -0,0 +1,180 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+// Pull-style JSON reader shared by ModUpdater (CLI) and ModUpdaterGUI for GitHub
+// API responses.
+//
+// It reads straight from the connection stream through a fixed char buffer, so
+// callers can stop as soon as they have what they need (e.g. the first element of
+// /releases) and skip everything else without materialising it. Separators are
+// treated leniently: ',' and ':' are skipped like whitespace, which is fine for
+// trusted API output. JsonPullReaderCheck exercises it against saved payloads.
+final class JsonPullReader {
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private final StringBuilder sb = new StringBuilder(128);
+    private int pos;
+    private int limit;
+
+    JsonPullReader(InputStream in) {
+        this.in = new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /** Next significant character without consuming it, or -1 at end of input. */
+    int peek() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) return -1;
+            char c = buf[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == ':') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    boolean hasNext() throws IOException {
+        int c = peek();
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    void beginObject() throws IOException { expect('{'); }
+    void endObject() throws IOException { expect('}'); }
+    void beginArray() throws IOException { expect('['); }
+    void endArray() throws IOException { expect(']'); }
+
+    String nextName() throws IOException {
+        return nextString();
+    }
+
+    String nextString() throws IOException {
+        expect('"');
+        sb.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) throw new EOFException("Unterminated JSON string");
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append((char) c);
+                continue;
+            }
+            int n = read();
+            switch (n) {
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int h = Character.digit(read(), 16);
+                        if (h < 0) throw new IOException("Malformed JSON unicode escape");
+                        code = (code << 4) | h;
+                    }
+                    sb.append((char) code);
+                    break;
+                case -1: throw new EOFException("Unterminated JSON string");
+                default: sb.append((char) n);
+            }
+        }
+    }
+
+    /** String value, or null for JSON null / any non-string value (which is skipped). */
+    String nextStringOrNull() throws IOException {
+        if (peek() == '"') return nextString();
+        skipValue();
+        return null;
+    }
+
+    /** Boolean value, or {@code fallback} for null / any non-boolean value. */
+    boolean nextBoolean(boolean fallback) throws IOException {
+        int c = peek();
+        if (c != 't' && c != 'f') {
+            skipValue();
+            return fallback;
+        }
+        return "true".equals(readLiteral());
+    }
+
+    /** Integral number value, or {@code fallback} for null / any non-number value. */
+    long nextLong(long fallback) throws IOException {
+        int c = peek();
+        if (c != '-' && (c < '0' || c > '9')) {
+            skipValue();
+            return fallback;
+        }
+        String literal = readLiteral();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            pos++;
+            skipStringBody();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                int ch = read();
+                if (ch == -1) throw new EOFException("Unterminated JSON value");
+                if (ch == '"') skipStringBody();
+                else if (ch == '{' || ch == '[') depth++;
+                else if (ch == '}' || ch == ']') depth--;
+            } while (depth > 0);
+        } else if (c != -1) {
+            readLiteral();
+        }
+    }
+
+    private void skipStringBody() throws IOException {
+        while (true) {
+            int ch = read();
+            if (ch == -1) throw new EOFException("Unterminated JSON string");
+            if (ch == '\\') read();
+            else if (ch == '"') return;
+        }
+    }
+
+    /** Reads a bare literal (number, true, false, null) up to the next delimiter. */
+    private String readLiteral() throws IOException {
+        sb.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) break;
+            char c = buf[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t') break;
+            sb.append(c);
+            pos++;
+        }
+        return sb.toString();
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peek();
+        if (c != expected) {
+            throw new IOException("Malformed JSON: expected '" + expected + "' but found " + (c == -1 ? "end of input" : "'" + (char) c + "'"));
+        }
+        pos++;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -1,3 +1,15 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 // Minimal bootstrap entrypoint that runs before any Swing/AWT classes load.
 //
 // This exists specifically to work around Steam Deck Game Mode (gamescope)
@@ -9,22 +21,63 @@
 public final class LauncherBootstrap {
 
     public static void main(String[] args) {
+        // Timestamps start here so ModUpdaterGUI's static initializers show up in the trace
+        LauncherTrace.start();
+
         // If we are on Steam Deck / gamescope and not already using X11, relaunch
-        // the JVM with GDK_BACKEND=x11 so Swing renders correctly.
-        if (relaunchForSteamDeck(args)) {
+        // the JVM with GDK_BACKEND=x11 so Swing renders correctly. This is decided
+        // first so the auto-launch checks below run once, in the process that may
+        // go on to show the window with their results.
+        if (needsSteamDeckRelaunch() && relaunchForSteamDeck(args)) {
             return; // child process takes over
         }
 
+        // Auto-launch needs no window: when nothing needs updating the game starts
+        // straight away, without AWT. ModUpdaterGUI is only loaded here when
+        // auto-launch was asked for.
+        if (autoLaunchRequested(args)) {
+            if (ModUpdaterGUI.autoLaunch(args)) {
+                System.exit(0);
+                return;
+            }
+        }
+
         // Once the environment is correct, continue into the real launcher.
         ModUpdaterGUI.main(args);
     }
 
+    /**
+     * Cheap pre-check for --autoLaunch true or autoLaunch=true in the config file, so
+     * ModUpdaterGUI's static initializers stay untouched when the feature is off.
+     */
+    private static boolean autoLaunchRequested(String[] args) {
+        String configArg = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if ("--autoLaunch".equals(args[i])) {
+                return "true".equalsIgnoreCase(args[i + 1].trim());
+            }
+            if ("--config".equals(args[i])) {
+                configArg = args[i + 1];
+            }
+        }
+        Path configPath = configArg != null
+                ? Paths.get(configArg)
+                : Paths.get("tools", "mod-updater", "updater.properties");
+        if (!Files.isRegularFile(configPath)) return false;
+        Properties cfg = new Properties();
+        try (InputStream in = Files.newInputStream(configPath)) {
+            cfg.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return false;
+        }
+        return "true".equalsIgnoreCase(cfg.getProperty("autoLaunch", "false").trim());
+    }
+
     /**
      * On Linux with gamescope (Steam Deck game mode), we need GDK_BACKEND=x11
-     * set BEFORE Java starts. This method detects if we're missing it and
-     * relaunches with the correct environment.
+     * set BEFORE Java starts. This detects if we're missing it.
      */
-    private static boolean relaunchForSteamDeck(String[] args) {
+    private static boolean needsSteamDeckRelaunch() {
         // Only applies to Linux
         String os = System.getProperty("os.name", "").toLowerCase();
         if (!os.contains("linux")) return false;
@@ -43,15 +96,17 @@ public final class LauncherBootstrap {
         String steamDeck = System.getenv("SteamDeck");
         boolean isSteamEnvironment = steamRuntime != null || "1".equals(steamDeck);
 
-        if (!possiblyGamescope && !isSteamEnvironment) return false;
+        return possiblyGamescope || isSteamEnvironment;
+    }
 
-        // We need to relaunch with GDK_BACKEND=x11
+    /** Relaunches this JVM with GDK_BACKEND=x11 and exits with the child's status. */
+    private static boolean relaunchForSteamDeck(String[] args) {
         try {
             String javaHome = System.getProperty("java.home");
-            String javaBin = javaHome + java.io.File.separator + "bin" + java.io.File.separator + "java";
+            String javaBin = javaHome + File.separator + "bin" + File.separator + "java";
             String classpath = System.getProperty("java.class.path");
 
-            java.util.List<String> cmd = new java.util.ArrayList<>();
+            List<String> cmd = new ArrayList<>();
             cmd.add(javaBin);
             cmd.add("-cp");
             cmd.add(classpath);
@@ -0,0 +1,521 @@
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+// HTTP plumbing shared by ModUpdater (CLI) and ModUpdaterGUI.
+//
+// HttpURLConnection only returns a socket to the JVM keep-alive cache once the
+// response body has been read to the end and closed; a body that is abandoned
+// half-read, or an error stream that is never touched, costs a fresh TCP + TLS
+// handshake on the next request to the same host. Call sites therefore go
+// through status()/body()/errorBody()/discard() here, which drain what is left
+// of a response (up to DRAIN_LIMIT_BYTES) before closing it, decode gzip when
+// it was negotiated, and keep per-host counters that are logged at exit.
+final class LauncherHttp {
+
+    /** Leftover response bytes read on close so the connection can be reused; larger remainders are dropped. */
+    private static final int DRAIN_LIMIT_BYTES = 64 * 1024;
+
+    /** Error bodies are only ever shown truncated, so there is no point buffering more than this. */
+    private static final int ERROR_BODY_LIMIT_BYTES = 64 * 1024;
+
+    /**
+     * Idle keep-alive sockets kept per destination. The JDK default (5) is below the
+     * segment count of a parallel download, which then reconnects on every round.
+     */
+    private static final String MAX_IDLE_CONNECTIONS_PER_HOST = "8";
+
+    /**
+     * OS trust bundle paths used to supplement outdated Java truststores.
+     * These are best-effort fallbacks and are ignored when missing.
+     */
+    private static final String[] OS_CA_BUNDLE_PATHS = {
+        "/etc/ssl/certs/ca-certificates.crt",
+        "/etc/pki/tls/certs/ca-bundle.crt",
+        "/etc/ssl/cert.pem"
+    };
+
+    /** Lazy-initialized TLS context that merges Java and OS trust roots. */
+    private static volatile SSLContext TLS_CONTEXT;
+    private static volatile boolean TLS_CONTEXT_INIT_FAILED;
+    private static final Object TLS_CONTEXT_LOCK = new Object();
+
+    /**
+     * The one socket factory every HttpsURLConnection gets. The keep-alive cache only
+     * reuses a connection opened through the same factory instance, and
+     * SSLContext.getSocketFactory() returns a new one per call.
+     */
+    private static volatile SSLSocketFactory TLS_SOCKET_FACTORY;
+
+    /** Per-host request counters, keyed by lower-case host name. */
+    private static final Map<String, HostMetrics> HOST_METRICS = new TreeMap<String, HostMetrics>();
+
+    static {
+        // Must be set before the first HttpURLConnection loads the keep-alive cache
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", MAX_IDLE_CONNECTIONS_PER_HOST);
+        }
+        Thread hook = new Thread(new Runnable() {
+            public void run() {
+                logMetrics();
+            }
+        }, "ModUpdater-HttpMetrics");
+        try {
+            Runtime.getRuntime().addShutdownHook(hook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down
+        }
+    }
+
+    private LauncherHttp() {}
+
+    /**
+     * Opens an HTTP/HTTPS connection with consistent timeout/user-agent settings.
+     * HTTPS connections use a compatibility trust manager that adds OS trust roots.
+     */
+    static HttpURLConnection open(String url, int connectTimeoutMs, int readTimeoutMs, String userAgent) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setConnectTimeout(connectTimeoutMs);
+        conn.setReadTimeout(readTimeoutMs);
+        if (userAgent != null && !userAgent.isEmpty()) {
+            conn.setRequestProperty("User-Agent", userAgent);
+        }
+        if (conn instanceof HttpsURLConnection) {
+            SSLSocketFactory factory = tlsSocketFactory();
+            if (factory != null) {
+                ((HttpsURLConnection) conn).setSSLSocketFactory(factory);
+            }
+        }
+        return conn;
+    }
+
+    /**
+     * Asks for a gzip-encoded body; {@link #body} and {@link #errorBody} undo it. Only for
+     * text/JSON requests: on binary downloads it would break Range offsets and Content-Length.
+     */
+    static void acceptGzip(HttpURLConnection conn) {
+        conn.setRequestProperty("Accept-Encoding", "gzip");
+    }
+
+    /** Sends the request and returns the status code, recording it in the host's counters. */
+    static int status(HttpURLConnection conn) throws IOException {
+        HostMetrics metrics = metricsFor(conn.getURL());
+        LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.HTTP, traceName(conn.getRequestMethod(), conn.getURL()));
+        long startNs = System.nanoTime();
+        try {
+            int code = conn.getResponseCode();
+            metrics.recordResponse(System.nanoTime() - startNs, code >= 400 || code < 0);
+            span.arg("status", code).arg("contentLength", conn.getContentLengthLong());
+            return code;
+        } catch (IOException ex) {
+            metrics.recordResponse(System.nanoTime() - startNs, true);
+            span.arg("status", -1).arg("error", String.valueOf(ex));
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Response body of a successful request, gzip-decoded if the server compressed it.
+     * Closing the stream drains the rest of the response so the socket can be reused.
+     */
+    static InputStream body(HttpURLConnection conn) throws IOException {
+        InputStream raw = conn.getInputStream();
+        return decode(conn.getHeaderField("Content-Encoding"), new ReleasingInputStream(raw, metricsFor(conn.getURL()), traceBody(conn.getURL())));
+    }
+
+    /** Error body as text (bounded, decoded); the error stream is always drained and closed. Never null. */
+    static String errorBody(HttpURLConnection conn) {
+        InputStream raw = conn.getErrorStream();
+        if (raw == null) return "";
+        InputStream in = null;
+        try {
+            in = decode(conn.getHeaderField("Content-Encoding"), new ReleasingInputStream(raw, metricsFor(conn.getURL()), traceBody(conn.getURL())));
+            byte[] buf = new byte[8192];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int n;
+            while (out.size() < ERROR_BODY_LIMIT_BYTES && (n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            return "";
+        } finally {
+            closeQuietly(in != null ? in : raw);
+        }
+    }
+
+    /**
+     * Drains and closes whatever response is pending (body, error body, or the empty body
+     * of a HEAD/304) without reading it, so the connection goes back to the keep-alive cache.
+     */
+    static void discard(HttpURLConnection conn) {
+        InputStream raw;
+        try {
+            raw = conn.getInputStream();
+        } catch (IOException ex) {
+            raw = conn.getErrorStream();
+        }
+        if (raw != null) {
+            closeQuietly(new ReleasingInputStream(raw, metricsFor(conn.getURL()), traceBody(conn.getURL())));
+        }
+    }
+
+    /** A response received through another transport (the Java 11+ HTTP/2 client in LauncherRuntime). */
+    static final class Response {
+        final int status;
+        final long contentLength;
+        /** Decoded body; close it even when the status is not a success. */
+        final InputStream body;
+
+        Response(int status, long contentLength, InputStream body) {
+            this.status = status;
+            this.contentLength = contentLength;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Books a response from another transport into the host counters and wraps its body the
+     * way {@link #body} does. {@code raw} may be null for a failed exchange, which returns null.
+     */
+    static Response adopt(URL url, long headerNanos, int status, long contentLength, String contentEncoding, InputStream raw) throws IOException {
+        HostMetrics metrics = metricsFor(url);
+        metrics.recordResponse(headerNanos, raw == null || status >= 400 || status < 0);
+        LauncherTrace.beginAt(LauncherTrace.HTTP, traceName("GET", url), System.nanoTime() - headerNanos)
+                .arg("status", status).arg("contentLength", contentLength).arg("transport", "http2").end();
+        if (raw == null) return null;
+        return new Response(status, contentLength, decode(contentEncoding, new ReleasingInputStream(raw, metrics, traceBody(url))));
+    }
+
+    /** Trace label of a request: method, host and path (query strings are left out). */
+    private static String traceName(String method, URL url) {
+        if (url == null) return method;
+        return method + " " + url.getHost() + url.getPath();
+    }
+
+    /** Span over reading one response body, closed with the bytes received. */
+    private static LauncherTrace.Span traceBody(URL url) {
+        return LauncherTrace.begin(LauncherTrace.HTTP, "read " + (url != null ? url.getHost() : ""));
+    }
+
+    private static InputStream decode(String encoding, InputStream in) throws IOException {
+        if (encoding != null && "gzip".equals(encoding.trim().toLowerCase(Locale.ROOT))) {
+            return new GZIPInputStream(in, 8192);
+        }
+        return in;
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException ignored) {}
+    }
+
+    /** Counts bytes received, and on close reads out a bounded remainder before closing. */
+    private static final class ReleasingInputStream extends FilterInputStream {
+        private final HostMetrics metrics;
+        private final LauncherTrace.Span span;
+        private long received;
+        private boolean closed;
+
+        ReleasingInputStream(InputStream in, HostMetrics metrics, LauncherTrace.Span span) {
+            super(in);
+            this.metrics = metrics;
+            this.span = span;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                metrics.recordBytes(1L);
+                received++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                metrics.recordBytes(n);
+                received += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                metrics.recordBytes(skipped);
+                received += skipped;
+            }
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                byte[] buf = new byte[8192];
+                long drained = 0L;
+                int n;
+                while (drained < DRAIN_LIMIT_BYTES && (n = in.read(buf)) != -1) {
+                    drained += n;
+                }
+                metrics.recordBytes(drained);
+                received += drained;
+            } catch (IOException ignored) {
+                // The socket is lost either way; closing below still frees it
+            } finally {
+                span.arg("bytes", received).end();
+                in.close();
+            }
+        }
+    }
+
+    // =========================================================================
+    // PER-HOST METRICS
+    // =========================================================================
+
+    private static final class HostMetrics {
+        long requests;
+        long failures;
+        long bytes;
+        long headerNanos;
+
+        synchronized void recordResponse(long elapsedNs, boolean failed) {
+            requests++;
+            if (failed) failures++;
+            headerNanos += elapsedNs;
+        }
+
+        synchronized void recordBytes(long n) {
+            bytes += n;
+        }
+    }
+
+    private static HostMetrics metricsFor(URL url) {
+        String host = url != null && url.getHost() != null ? url.getHost().toLowerCase(Locale.ROOT) : "";
+        synchronized (HOST_METRICS) {
+            HostMetrics metrics = HOST_METRICS.get(host);
+            if (metrics == null) {
+                metrics = new HostMetrics();
+                HOST_METRICS.put(host, metrics);
+            }
+            return metrics;
+        }
+    }
+
+    /** One line per host contacted this session; empty when nothing was requested. */
+    static List<String> metricsSummary() {
+        List<String> lines = new ArrayList<String>();
+        synchronized (HOST_METRICS) {
+            for (Map.Entry<String, HostMetrics> e : HOST_METRICS.entrySet()) {
+                HostMetrics m = e.getValue();
+                synchronized (m) {
+                    if (m.requests == 0) continue;
+                    long avgMs = m.headerNanos / m.requests / 1000000L;
+                    lines.add(e.getKey() + ": " + m.requests + " request(s), " + m.failures + " failed, "
+                            + m.bytes + " bytes, " + avgMs + " ms avg to headers");
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static void logMetrics() {
+        List<String> lines = metricsSummary();
+        for (int i = 0; i < lines.size(); i++) {
+            System.out.println("[mod-updater] HTTP " + lines.get(i));
+        }
+    }
+
+    // =========================================================================
+    // TLS TRUST
+    // =========================================================================
+
+    /** Trust-merged TLS context for HTTPS, or null to use the JVM default trust store. */
+    static SSLContext tlsContext() {
+        if (TLS_CONTEXT != null || TLS_CONTEXT_INIT_FAILED) {
+            return TLS_CONTEXT;
+        }
+        synchronized (TLS_CONTEXT_LOCK) {
+            if (TLS_CONTEXT != null || TLS_CONTEXT_INIT_FAILED) {
+                return TLS_CONTEXT;
+            }
+            try {
+                List<X509TrustManager> managers = new ArrayList<X509TrustManager>();
+                X509TrustManager defaultManager = loadDefaultTrustManager();
+                if (defaultManager != null) {
+                    managers.add(defaultManager);
+                }
+                X509TrustManager windowsManager = loadTrustManagerFromKeyStore("Windows-ROOT");
+                if (windowsManager != null) {
+                    managers.add(windowsManager);
+                }
+                X509TrustManager osBundleManager = loadTrustManagerFromSystemCaBundle();
+                if (osBundleManager != null) {
+                    managers.add(osBundleManager);
+                }
+                if (managers.isEmpty()) {
+                    TLS_CONTEXT_INIT_FAILED = true;
+                    return null;
+                }
+
+                X509TrustManager merged = managers.size() == 1 ? managers.get(0) : mergeTrustManagers(managers);
+                SSLContext ctx = SSLContext.getInstance("TLS");
+                ctx.init(null, new TrustManager[] { merged }, new SecureRandom());
+                TLS_SOCKET_FACTORY = ctx.getSocketFactory();
+                TLS_CONTEXT = ctx;
+                return TLS_CONTEXT;
+            } catch (Exception ex) {
+                TLS_CONTEXT_INIT_FAILED = true;
+                System.err.println("[mod-updater] TLS compatibility initialization failed; using default JVM trust store only: " + ex.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /** Socket factory of {@link #tlsContext()}, built once; null when that context is unavailable. */
+    static SSLSocketFactory tlsSocketFactory() {
+        return tlsContext() != null ? TLS_SOCKET_FACTORY : null;
+    }
+
+    private static X509TrustManager loadDefaultTrustManager() throws GeneralSecurityException {
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init((KeyStore) null);
+        return firstX509TrustManager(tmf.getTrustManagers());
+    }
+
+    private static X509TrustManager loadTrustManagerFromKeyStore(String keyStoreType) {
+        try {
+            KeyStore ks = KeyStore.getInstance(keyStoreType);
+            ks.load(null, null);
+            return loadTrustManager(ks);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static X509TrustManager loadTrustManagerFromSystemCaBundle() {
+        for (int i = 0; i < OS_CA_BUNDLE_PATHS.length; i++) {
+            Path bundlePath = Paths.get(OS_CA_BUNDLE_PATHS[i]);
+            if (!Files.isRegularFile(bundlePath)) {
+                continue;
+            }
+            try (InputStream in = Files.newInputStream(bundlePath)) {
+                CertificateFactory cf = CertificateFactory.getInstance("X.509");
+                Collection<? extends Certificate> certs = cf.generateCertificates(in);
+                if (certs == null || certs.isEmpty()) {
+                    continue;
+                }
+                KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+                ks.load(null, null);
+                int idx = 0;
+                for (Certificate cert : certs) {
+                    ks.setCertificateEntry("os-ca-" + idx++, cert);
+                }
+                return loadTrustManager(ks);
+            } catch (Exception ignored) {
+                // Try next candidate path.
+            }
+        }
+        return null;
+    }
+
+    private static X509TrustManager loadTrustManager(KeyStore keyStore) throws GeneralSecurityException {
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(keyStore);
+        return firstX509TrustManager(tmf.getTrustManagers());
+    }
+
+    private static X509TrustManager firstX509TrustManager(TrustManager[] trustManagers) {
+        if (trustManagers == null) {
+            return null;
+        }
+        for (int i = 0; i < trustManagers.length; i++) {
+            if (trustManagers[i] instanceof X509TrustManager) {
+                return (X509TrustManager) trustManagers[i];
+            }
+        }
+        return null;
+    }
+
+    private static X509TrustManager mergeTrustManagers(final List<X509TrustManager> managers) {
+        return new X509TrustManager() {
+            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+                CertificateException last = null;
+                for (int i = 0; i < managers.size(); i++) {
+                    try {
+                        managers.get(i).checkClientTrusted(chain, authType);
+                        return;
+                    } catch (CertificateException ex) {
+                        last = ex;
+                    }
+                }
+                if (last != null) throw last;
+                throw new CertificateException("No trust manager accepted the client certificate chain.");
+            }
+
+            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+                CertificateException last = null;
+                for (int i = 0; i < managers.size(); i++) {
+                    try {
+                        managers.get(i).checkServerTrusted(chain, authType);
+                        return;
+                    } catch (CertificateException ex) {
+                        last = ex;
+                    }
+                }
+                if (last != null) throw last;
+                throw new CertificateException("No trust manager accepted the server certificate chain.");
+            }
+
+            public X509Certificate[] getAcceptedIssuers() {
+                LinkedHashSet<X509Certificate> issuers = new LinkedHashSet<X509Certificate>();
+                for (int i = 0; i < managers.size(); i++) {
+                    X509Certificate[] certs = managers.get(i).getAcceptedIssuers();
+                    if (certs != null && certs.length > 0) {
+                        issuers.addAll(Arrays.asList(certs));
+                    }
+                }
+                return issuers.toArray(new X509Certificate[issuers.size()]);
+            }
+        };
+    }
+}
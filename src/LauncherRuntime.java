@@ -0,0 +1,40 @@
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Runtime-specific fast paths, Java 8 baseline.
+//
+// mod-updater-gui.jar is a multi-release jar: on Java 11+ the JVM loads the copy
+// of this class built from src/java11 (HTTP/2 client), and on Java 21+ the one
+// from src/java21 (HTTP/2 client plus virtual threads). Every copy must declare
+// the same package-private methods with the same signatures.
+final class LauncherRuntime {
+
+    private LauncherRuntime() {}
+
+    /** Which copy of this class the JVM picked, for the startup log. */
+    static String implementation() {
+        return "java8 (HttpURLConnection, platform threads)";
+    }
+
+    /** Fixed-size pool of daemon workers named {@code namePrefix-1}, {@code namePrefix-2}, ... */
+    static ExecutorService newWorkerPool(final String namePrefix, int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count;
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, namePrefix + "-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * GET over a multiplexed HTTP/2 connection, following redirects. Returns null when this
+     * runtime has no such transport; callers then use {@link LauncherHttp#open}.
+     */
+    static LauncherHttp.Response http2Get(String url, int timeoutMs, String userAgent) throws IOException {
+        return null;
+    }
+}
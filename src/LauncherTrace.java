@@ -0,0 +1,355 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Startup phase tracer shared by ModUpdaterGUI and the HTTP plumbing.
+//
+// Recording starts with start() (first thing in the GUI entry points) so the
+// static initializers are covered, and is kept only when updater.properties
+// (or --traceStartup) turns it on; configure() drops the buffer otherwise.
+// finish() writes startup-trace.json next to updater.properties in Chrome
+// trace format (chrome://tracing, https://ui.perfetto.dev) and appends a
+// one-line summary to startup-trace.log so launches can be compared across
+// machines. The CLI never calls start(), so every call here is a no-op there.
+final class LauncherTrace {
+
+    static final String TRACE_FILE_NAME = "startup-trace.json";
+    static final String SUMMARY_FILE_NAME = "startup-trace.log";
+
+    /** Cap on buffered events; a long session's download segments must not grow the buffer without bound. */
+    private static final int MAX_EVENTS = 4096;
+
+    /** Category of the top-level startup phases listed in the summary line. */
+    static final String PHASE = "phase";
+    static final String HTTP = "http";
+
+    private static final Object LOCK = new Object();
+    private static final List<Event> EVENTS = new ArrayList<Event>();
+    /** Thread id to name, for the trace viewer's lane labels. */
+    private static final Map<Long, String> THREADS = new LinkedHashMap<Long, String>();
+    private static volatile boolean RECORDING;
+    private static long ORIGIN_NS;
+    private static long ORIGIN_WALL_MS;
+    private static Path REPORT_DIR;
+    private static boolean STARTED;
+    private static boolean FINISHED;
+    private static int DROPPED;
+
+    /** Returned while not recording; every method on it does nothing. */
+    private static final Span DISABLED = new Span(null, null, 0L);
+
+    private LauncherTrace() {}
+
+    /** Starts buffering events; later calls are ignored. The origin of every timestamp is this call. */
+    static void start() {
+        synchronized (LOCK) {
+            if (STARTED) return;
+            STARTED = true;
+            ORIGIN_NS = System.nanoTime();
+            ORIGIN_WALL_MS = System.currentTimeMillis();
+            RECORDING = true;
+        }
+        Thread hook = new Thread(new Runnable() {
+            public void run() {
+                finish();
+            }
+        }, "ModUpdater-TraceWriter");
+        try {
+            Runtime.getRuntime().addShutdownHook(hook);
+        } catch (IllegalStateException ignored) {
+            // Already shutting down
+        }
+    }
+
+    /**
+     * Keeps the trace and writes it to {@code reportDir} on finish(), or stops recording and
+     * drops what was buffered when tracing is off. Called once the config has been read.
+     */
+    static void configure(boolean enabled, Path reportDir) {
+        synchronized (LOCK) {
+            if (!STARTED || FINISHED) return;
+            if (enabled && reportDir != null) {
+                REPORT_DIR = reportDir;
+            } else {
+                RECORDING = false;
+                EVENTS.clear();
+                THREADS.clear();
+            }
+        }
+    }
+
+    static boolean enabled() {
+        return RECORDING;
+    }
+
+    /** Opens a span on the calling thread; end() it in a finally block. */
+    static Span begin(String category, String name) {
+        if (!RECORDING) return DISABLED;
+        return new Span(category, name, System.nanoTime());
+    }
+
+    /** A span whose start was measured by the caller, e.g. a response timed by another transport. */
+    static Span beginAt(String category, String name, long startNs) {
+        if (!RECORDING) return DISABLED;
+        return new Span(category, name, startNs);
+    }
+
+    /** A point in time, such as the first paint of the launcher window. */
+    static void mark(String category, String name) {
+        if (!RECORDING) return;
+        record(new Event(category, name, System.nanoTime(), -1L, null));
+    }
+
+    /**
+     * Writes the report and stops recording; only the first call does anything. Safe to
+     * call from a shutdown hook, so a launch that exits early still leaves a trace.
+     */
+    static void finish() {
+        List<Event> events;
+        Map<Long, String> threads;
+        Path dir;
+        long originNs;
+        long originWallMs;
+        int dropped;
+        synchronized (LOCK) {
+            if (!STARTED || FINISHED) return;
+            FINISHED = true;
+            boolean keep = RECORDING && REPORT_DIR != null;
+            RECORDING = false;
+            if (!keep) return;
+            events = new ArrayList<Event>(EVENTS);
+            threads = new LinkedHashMap<Long, String>(THREADS);
+            dir = REPORT_DIR;
+            originNs = ORIGIN_NS;
+            originWallMs = ORIGIN_WALL_MS;
+            dropped = DROPPED;
+            EVENTS.clear();
+            THREADS.clear();
+        }
+        // Spans are recorded when they end; list them by start, parents before children
+        Collections.sort(events, new Comparator<Event>() {
+            public int compare(Event a, Event b) {
+                return a.startNs != b.startNs ? (a.startNs < b.startNs ? -1 : 1) : Long.compare(b.durationNs, a.durationNs);
+            }
+        });
+        String summary = summaryLine(events, originNs, originWallMs, dropped);
+        try {
+            Files.createDirectories(dir);
+            Path trace = dir.resolve(TRACE_FILE_NAME);
+            Path tmp = dir.resolve(TRACE_FILE_NAME + ".tmp");
+            Files.write(tmp, traceJson(events, threads, originNs, originWallMs).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, trace, StandardCopyOption.REPLACE_EXISTING);
+            Files.write(dir.resolve(SUMMARY_FILE_NAME), (summary + System.getProperty("line.separator", "\n")).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.out.println("[mod-updater] Startup trace: " + summary);
+            System.out.println("[mod-updater] Startup trace written to " + trace.toAbsolutePath());
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Could not write startup trace: " + ex.getMessage());
+        }
+    }
+
+    private static void record(Event event) {
+        Thread current = Thread.currentThread();
+        synchronized (LOCK) {
+            if (!RECORDING) return;
+            if (EVENTS.size() >= MAX_EVENTS) {
+                DROPPED++;
+                return;
+            }
+            EVENTS.add(event);
+            if (!THREADS.containsKey(event.tid)) {
+                THREADS.put(event.tid, current.getName());
+            }
+        }
+    }
+
+    /** A timed section of work; arguments show up in the trace viewer's detail pane. */
+    static final class Span {
+        private final String category;
+        private final String name;
+        private final long startNs;
+        private Map<String, Object> args;
+        private boolean ended;
+
+        Span(String category, String name, long startNs) {
+            this.category = category;
+            this.name = name;
+            this.startNs = startNs;
+        }
+
+        Span arg(String key, Object value) {
+            if (this == DISABLED) return this;
+            if (args == null) args = new LinkedHashMap<String, Object>();
+            args.put(key, value);
+            return this;
+        }
+
+        void end() {
+            if (this == DISABLED || ended) return;
+            ended = true;
+            record(new Event(category, name, startNs, System.nanoTime() - startNs, args));
+        }
+    }
+
+    private static final class Event {
+        final String category;
+        final String name;
+        final long startNs;
+        /** -1 for an instant event. */
+        final long durationNs;
+        final Map<String, Object> args;
+        final long tid;
+
+        Event(String category, String name, long startNs, long durationNs, Map<String, Object> args) {
+            this.category = category;
+            this.name = name;
+            this.startNs = startNs;
+            this.durationNs = durationNs;
+            this.args = args;
+            this.tid = Thread.currentThread().getId();
+        }
+    }
+
+    // =========================================================================
+    // REPORT
+    // =========================================================================
+
+    private static String traceJson(List<Event> events, Map<Long, String> threads, long originNs, long originWallMs) {
+        StringBuilder sb = new StringBuilder(256 + events.size() * 160);
+        sb.append("{\"displayTimeUnit\":\"ms\",\"otherData\":{\"startedAt\":");
+        appendJsonString(sb, isoTime(originWallMs));
+        sb.append(",\"java\":");
+        appendJsonString(sb, System.getProperty("java.version", ""));
+        sb.append(",\"os\":");
+        appendJsonString(sb, System.getProperty("os.name", "") + " " + System.getProperty("os.arch", ""));
+        sb.append("},\"traceEvents\":[\n");
+        boolean first = true;
+        for (Map.Entry<Long, String> e : threads.entrySet()) {
+            if (!first) sb.append(",\n");
+            first = false;
+            sb.append("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":").append(e.getKey()).append(",\"args\":{\"name\":");
+            appendJsonString(sb, e.getValue());
+            sb.append("}}");
+        }
+        for (int i = 0; i < events.size(); i++) {
+            Event ev = events.get(i);
+            if (!first) sb.append(",\n");
+            first = false;
+            sb.append("{\"ph\":\"").append(ev.durationNs < 0 ? "i" : "X").append("\",\"cat\":");
+            appendJsonString(sb, ev.category);
+            sb.append(",\"name\":");
+            appendJsonString(sb, ev.name);
+            sb.append(",\"pid\":1,\"tid\":").append(ev.tid);
+            sb.append(",\"ts\":").append(micros(ev.startNs - originNs));
+            if (ev.durationNs < 0) {
+                sb.append(",\"s\":\"g\"");
+            } else {
+                sb.append(",\"dur\":").append(micros(ev.durationNs));
+            }
+            if (ev.args != null && !ev.args.isEmpty()) {
+                sb.append(",\"args\":{");
+                boolean firstArg = true;
+                for (Map.Entry<String, Object> a : ev.args.entrySet()) {
+                    if (!firstArg) sb.append(',');
+                    firstArg = false;
+                    appendJsonString(sb, a.getKey());
+                    sb.append(':');
+                    Object v = a.getValue();
+                    if (v instanceof Number || v instanceof Boolean) {
+                        sb.append(v);
+                    } else {
+                        appendJsonString(sb, String.valueOf(v));
+                    }
+                }
+                sb.append('}');
+            }
+            sb.append('}');
+        }
+        sb.append("\n]}\n");
+        return sb.toString();
+    }
+
+    /** Start time, phase durations in order, marks as time since start, then HTTP totals. */
+    private static String summaryLine(List<Event> events, long originNs, long originWallMs, int dropped) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(isoTime(originWallMs));
+        long requests = 0L;
+        long failed = 0L;
+        long bytes = 0L;
+        long endNs = originNs;
+        for (int i = 0; i < events.size(); i++) {
+            Event ev = events.get(i);
+            long evEnd = ev.startNs + Math.max(0L, ev.durationNs);
+            if (evEnd > endNs) endNs = evEnd;
+            if (PHASE.equals(ev.category)) {
+                sb.append(' ').append(ev.name.replace(' ', '_')).append('=');
+                if (ev.durationNs < 0) {
+                    sb.append('@').append(millis(ev.startNs - originNs));
+                } else {
+                    sb.append(millis(ev.durationNs));
+                }
+                sb.append("ms");
+            } else if (HTTP.equals(ev.category) && ev.args != null) {
+                Object status = ev.args.get("status");
+                if (status != null) {
+                    requests++;
+                    if (!(status instanceof Integer) || (Integer) status < 0 || (Integer) status >= 400) failed++;
+                }
+                Object n = ev.args.get("bytes");
+                if (n instanceof Number) bytes += ((Number) n).longValue();
+            }
+        }
+        sb.append(" total=").append(millis(endNs - originNs)).append("ms");
+        sb.append(" http=").append(requests).append("req/").append(failed).append("failed/").append(bytes).append('B');
+        if (dropped > 0) sb.append(" dropped=").append(dropped);
+        return sb.toString();
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000L;
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1000000L;
+    }
+
+    private static String isoTime(long wallMs) {
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", Locale.ROOT);
+        return fmt.format(new Date(wallMs));
+    }
+
+    private static void appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
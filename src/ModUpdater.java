@@ -5,35 +5,25 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.security.GeneralSecurityException;
-import java.security.KeyStore;
-import java.security.SecureRandom;
-import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
-import java.util.Arrays;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Collection;
-import java.util.LinkedHashSet;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.TrustManagerFactory;
-import javax.net.ssl.X509TrustManager;
 
 /**
  * Cross-platform Java CLI updater for Prism/MultiMC Minecraft instances.
@@ -90,21 +80,6 @@ public final class ModUpdater {
     private static final String DEFAULT_SERVER_ASSET_REGEX = "server\\.jar";
     private static final String LAN_SERVER_DIR_NAME = "lan-server";
     private static final String LAN_SERVER_JAR_NAME = "server.jar";
-    
-    /**
-     * OS trust bundle paths used to supplement outdated Java truststores.
-     * These are best-effort fallbacks and are ignored when missing.
-     */
-    private static final String[] OS_CA_BUNDLE_PATHS = {
-        "/etc/ssl/certs/ca-certificates.crt",
-        "/etc/pki/tls/certs/ca-bundle.crt",
-        "/etc/ssl/cert.pem"
-    };
-    
-    /** Lazy-initialized TLS socket factory that merges Java and OS trust roots. */
-    private static volatile SSLSocketFactory TLS_SOCKET_FACTORY;
-    private static volatile boolean TLS_SOCKET_FACTORY_INIT_FAILED;
-    private static final Object TLS_SOCKET_FACTORY_LOCK = new Object();
 
     // =========================================================================
     // MAIN ENTRY POINT
@@ -196,7 +171,7 @@ public final class ModUpdater {
                 }
 
                 // Download the new version to a temp file
-                Path downloaded = downloadToTemp(asset.url, asset.name);
+                Path downloaded = downloadToTemp(asset);
 
                 // Backup existing version if present
                 if (existing != null) {
@@ -231,7 +206,7 @@ public final class ModUpdater {
                 }
 
                 // Download, backup, and replace
-                Path downloaded = downloadToTemp(asset.url, asset.name);
+                Path downloaded = downloadToTemp(asset);
                 Path backup = withUniqueSuffix(clientJarPath, ".bak");
                 log("Backing up -> " + backup);
                 Files.copy(clientJarPath, backup, StandardCopyOption.REPLACE_EXISTING);
@@ -404,166 +379,11 @@ public final class ModUpdater {
     }
     
     /**
-     * Opens an HTTP/HTTPS connection with consistent timeout/user-agent settings.
-     * HTTPS connections use a compatibility trust manager that adds OS trust roots.
+     * Opens an HTTP/HTTPS connection with consistent timeout/user-agent settings; see
+     * {@link LauncherHttp} for the trust roots and for how responses must be released.
      */
     private static HttpURLConnection openHttpConnection(String url, int connectTimeoutMs, int readTimeoutMs, String userAgent) throws IOException {
-        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-        conn.setConnectTimeout(connectTimeoutMs);
-        conn.setReadTimeout(readTimeoutMs);
-        if (userAgent != null && !userAgent.isEmpty()) {
-            conn.setRequestProperty("User-Agent", userAgent);
-        }
-        if (conn instanceof HttpsURLConnection) {
-            SSLSocketFactory factory = getTlsSocketFactory();
-            if (factory != null) {
-                ((HttpsURLConnection) conn).setSSLSocketFactory(factory);
-            }
-        }
-        return conn;
-    }
-    
-    private static SSLSocketFactory getTlsSocketFactory() {
-        if (TLS_SOCKET_FACTORY != null || TLS_SOCKET_FACTORY_INIT_FAILED) {
-            return TLS_SOCKET_FACTORY;
-        }
-        synchronized (TLS_SOCKET_FACTORY_LOCK) {
-            if (TLS_SOCKET_FACTORY != null || TLS_SOCKET_FACTORY_INIT_FAILED) {
-                return TLS_SOCKET_FACTORY;
-            }
-            try {
-                List<X509TrustManager> managers = new ArrayList<X509TrustManager>();
-                X509TrustManager defaultManager = loadDefaultTrustManager();
-                if (defaultManager != null) {
-                    managers.add(defaultManager);
-                }
-                X509TrustManager windowsManager = loadTrustManagerFromKeyStore("Windows-ROOT");
-                if (windowsManager != null) {
-                    managers.add(windowsManager);
-                }
-                X509TrustManager osBundleManager = loadTrustManagerFromSystemCaBundle();
-                if (osBundleManager != null) {
-                    managers.add(osBundleManager);
-                }
-                if (managers.isEmpty()) {
-                    TLS_SOCKET_FACTORY_INIT_FAILED = true;
-                    return null;
-                }
-                
-                X509TrustManager merged = managers.size() == 1 ? managers.get(0) : mergeTrustManagers(managers);
-                SSLContext ctx = SSLContext.getInstance("TLS");
-                ctx.init(null, new TrustManager[] { merged }, new SecureRandom());
-                TLS_SOCKET_FACTORY = ctx.getSocketFactory();
-                return TLS_SOCKET_FACTORY;
-            } catch (Exception ex) {
-                TLS_SOCKET_FACTORY_INIT_FAILED = true;
-                logErr("TLS compatibility initialization failed; using default JVM trust store only: " + ex.getMessage());
-                return null;
-            }
-        }
-    }
-    
-    private static X509TrustManager loadDefaultTrustManager() throws GeneralSecurityException {
-        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-        tmf.init((KeyStore) null);
-        return firstX509TrustManager(tmf.getTrustManagers());
-    }
-    
-    private static X509TrustManager loadTrustManagerFromKeyStore(String keyStoreType) {
-        try {
-            KeyStore ks = KeyStore.getInstance(keyStoreType);
-            ks.load(null, null);
-            return loadTrustManager(ks);
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-    
-    private static X509TrustManager loadTrustManagerFromSystemCaBundle() {
-        for (int i = 0; i < OS_CA_BUNDLE_PATHS.length; i++) {
-            Path bundlePath = Paths.get(OS_CA_BUNDLE_PATHS[i]);
-            if (!Files.isRegularFile(bundlePath)) {
-                continue;
-            }
-            try (InputStream in = Files.newInputStream(bundlePath)) {
-                CertificateFactory cf = CertificateFactory.getInstance("X.509");
-                Collection<? extends Certificate> certs = cf.generateCertificates(in);
-                if (certs == null || certs.isEmpty()) {
-                    continue;
-                }
-                KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-                ks.load(null, null);
-                int idx = 0;
-                for (Certificate cert : certs) {
-                    ks.setCertificateEntry("os-ca-" + idx++, cert);
-                }
-                return loadTrustManager(ks);
-            } catch (Exception ignored) {
-                // Try next candidate path.
-            }
-        }
-        return null;
-    }
-    
-    private static X509TrustManager loadTrustManager(KeyStore keyStore) throws GeneralSecurityException {
-        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-        tmf.init(keyStore);
-        return firstX509TrustManager(tmf.getTrustManagers());
-    }
-    
-    private static X509TrustManager firstX509TrustManager(TrustManager[] trustManagers) {
-        if (trustManagers == null) {
-            return null;
-        }
-        for (int i = 0; i < trustManagers.length; i++) {
-            if (trustManagers[i] instanceof X509TrustManager) {
-                return (X509TrustManager) trustManagers[i];
-            }
-        }
-        return null;
-    }
-    
-    private static X509TrustManager mergeTrustManagers(final List<X509TrustManager> managers) {
-        return new X509TrustManager() {
-            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-                CertificateException last = null;
-                for (int i = 0; i < managers.size(); i++) {
-                    try {
-                        managers.get(i).checkClientTrusted(chain, authType);
-                        return;
-                    } catch (CertificateException ex) {
-                        last = ex;
-                    }
-                }
-                if (last != null) throw last;
-                throw new CertificateException("No trust manager accepted the client certificate chain.");
-            }
-            
-            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-                CertificateException last = null;
-                for (int i = 0; i < managers.size(); i++) {
-                    try {
-                        managers.get(i).checkServerTrusted(chain, authType);
-                        return;
-                    } catch (CertificateException ex) {
-                        last = ex;
-                    }
-                }
-                if (last != null) throw last;
-                throw new CertificateException("No trust manager accepted the server certificate chain.");
-            }
-            
-            public X509Certificate[] getAcceptedIssuers() {
-                LinkedHashSet<X509Certificate> issuers = new LinkedHashSet<X509Certificate>();
-                for (int i = 0; i < managers.size(); i++) {
-                    X509Certificate[] certs = managers.get(i).getAcceptedIssuers();
-                    if (certs != null && certs.length > 0) {
-                        issuers.addAll(Arrays.asList(certs));
-                    }
-                }
-                return issuers.toArray(new X509Certificate[issuers.size()]);
-            }
-        };
+        return LauncherHttp.open(url, connectTimeoutMs, readTimeoutMs, userAgent);
     }
 
     /**
@@ -626,84 +446,180 @@ public final class ModUpdater {
      * @throws IOException If API request fails
      */
     private static LatestRelease fetchLatestRelease(String repo) throws IOException {
+        // Conditional-request validators from the previous run (null on first run)
+        ReleaseCacheEntry cached = loadReleaseCache(repo);
+        String token = getenv("GITHUB_TOKEN");
+
         // Try /releases/latest endpoint first
         String url = String.format(GITHUB_API_LATEST, repo);
-        HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdater/1.0");
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Accept", "application/vnd.github+json");
+        HttpURLConnection conn = openGitHubApiConnection(url, token, cached != null && "latest".equals(cached.source) ? cached : null);
         
-        // Add auth token if available (for higher rate limits)
-        String token = getenv("GITHUB_TOKEN");
-        if (token != null && !token.trim().isEmpty()) {
-            conn.setRequestProperty("Authorization", "token " + token.trim());
+        int code = LauncherHttp.status(conn);
+        if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            LauncherHttp.discard(conn);
+            log("Release metadata unchanged (HTTP 304); using cached release " + cached.release.tag);
+            return cached.release;
         }
-        
-        int code = conn.getResponseCode();
-        InputStream in = code >= 200 && code < 300 ? conn.getInputStream() : conn.getErrorStream();
-        String body = readAll(in);
+        if (code >= 200 && code < 300) {
+            LatestRelease release;
+            try (InputStream in = LauncherHttp.body(conn)) {
+                release = readRelease(in);
+            }
+            storeReleaseCache(repo, "latest", conn, release);
+            return release;
+        }
+        String body = LauncherHttp.errorBody(conn);
         
         // If /releases/latest returns 404, fall back to /releases list
         if (code == 404) {
             String fallbackUrl = "https://api.github.com/repos/" + repo + "/releases";
-            HttpURLConnection fallbackConn = openHttpConnection(fallbackUrl, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdater/1.0");
-            fallbackConn.setRequestMethod("GET");
-            fallbackConn.setRequestProperty("Accept", "application/vnd.github+json");
-            if (token != null && !token.trim().isEmpty()) {
-                fallbackConn.setRequestProperty("Authorization", "token " + token.trim());
+            HttpURLConnection fallbackConn = openGitHubApiConnection(fallbackUrl, token, cached != null && "releases".equals(cached.source) ? cached : null);
+            int fallbackCode = LauncherHttp.status(fallbackConn);
+            if (fallbackCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                LauncherHttp.discard(fallbackConn);
+                log("Release list unchanged (HTTP 304); using cached release " + cached.release.tag);
+                return cached.release;
             }
-            int fallbackCode = fallbackConn.getResponseCode();
-            InputStream fallbackIn = fallbackCode >= 200 && fallbackCode < 300 ? fallbackConn.getInputStream() : fallbackConn.getErrorStream();
-            String fallbackBody = readAll(fallbackIn);
             if (fallbackCode < 200 || fallbackCode >= 300) {
+                String fallbackBody = LauncherHttp.errorBody(fallbackConn);
+                LatestRelease stale = staleReleaseOnRateLimit(fallbackConn, fallbackCode, cached);
+                if (stale != null) return stale;
                 throw new IOException("GitHub API error: HTTP " + fallbackCode + " " + truncateErrorBody(fallbackBody));
             }
-            return parseFirstReleaseFromArray(fallbackBody);
+            // Only the first (most recent) release in the array is read
+            LatestRelease release;
+            try (InputStream fallbackIn = LauncherHttp.body(fallbackConn)) {
+                release = readRelease(fallbackIn);
+            }
+            storeReleaseCache(repo, "releases", fallbackConn, release);
+            return release;
         }
         
-        if (code < 200 || code >= 300) {
-            throw new IOException("GitHub API error: HTTP " + code + " " + truncateErrorBody(body));
+        LatestRelease stale = staleReleaseOnRateLimit(conn, code, cached);
+        if (stale != null) return stale;
+        throw new IOException("GitHub API error: HTTP " + code + " " + truncateErrorBody(body));
+    }
+
+    /**
+     * Opens a GitHub API GET request, adding the auth token (for higher rate limits)
+     * and If-None-Match / If-Modified-Since validators when a cached copy exists.
+     */
+    private static HttpURLConnection openGitHubApiConnection(String url, String token, ReleaseCacheEntry validator) throws IOException {
+        HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdater/1.0");
+        conn.setRequestMethod("GET");
+        conn.setUseCaches(false);
+        conn.setRequestProperty("Accept", "application/vnd.github+json");
+        LauncherHttp.acceptGzip(conn);
+        if (token != null && !token.trim().isEmpty()) {
+            conn.setRequestProperty("Authorization", "token " + token.trim());
+        }
+        if (validator != null) {
+            if (validator.etag != null) conn.setRequestProperty("If-None-Match", validator.etag);
+            if (validator.lastModified != null) conn.setRequestProperty("If-Modified-Since", validator.lastModified);
         }
-        return parseLatestRelease(body);
+        return conn;
     }
-    
+
+    /** Rate-limited with a cached release on disk: reuse it instead of failing. */
+    private static LatestRelease staleReleaseOnRateLimit(HttpURLConnection conn, int code, ReleaseCacheEntry cached) {
+        if (cached == null || !isRateLimited(conn, code)) return null;
+        logErr("GitHub API returned HTTP " + code + "; using cached release " + cached.release.tag);
+        return cached.release;
+    }
+
     /**
-     * Parses the first release from a JSON array of releases.
-     * 
-     * Used as a fallback when /releases/latest returns 404.
-     * The first element in the array is the most recent release.
-     * 
-     * @param json JSON array string from GitHub API
-     * @return Parsed release information
+     * True for 429, and for a 403 that GitHub marks as a rate limit (no requests
+     * left, or a Retry-After for the secondary limits). Other 403s (bad token,
+     * private or renamed repo, abuse block) are real errors.
      */
-    private static LatestRelease parseFirstReleaseFromArray(String json) {
-        int start = json.indexOf('[');
-        if (start < 0) return parseLatestRelease(json);
-        
-        // Find the first { after the [
-        int braceStart = json.indexOf('{', start);
-        if (braceStart < 0) return new LatestRelease();
-        
-        // Find the matching closing }
-        int depth = 0;
-        int braceEnd = -1;
-        for (int i = braceStart; i < json.length(); i++) {
-            char c = json.charAt(i);
-            if (c == '{') depth++;
-            else if (c == '}') {
-                depth--;
-                if (depth == 0) {
-                    braceEnd = i;
-                    break;
-                }
-            }
+    private static boolean isRateLimited(HttpURLConnection conn, int code) {
+        if (code == 429) return true;
+        if (code != 403) return false;
+        String remaining = conn.getHeaderField("X-RateLimit-Remaining");
+        return (remaining != null && "0".equals(remaining.trim())) || conn.getHeaderField("Retry-After") != null;
+    }
+
+    /**
+     * Location of the per-repo release cache: release-cache/ next to the updater jar
+     * (tools/mod-updater in Prism instances), falling back to the working directory.
+     */
+    private static Path releaseCachePath(String repo) {
+        Path base = null;
+        try {
+            Path jar = Paths.get(ModUpdater.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            base = Files.isDirectory(jar) ? jar : jar.getParent();
+        } catch (Exception ignored) {
         }
-        if (braceEnd < 0) return new LatestRelease();
-        
-        // Extract and parse just the first release object
-        String firstRelease = json.substring(braceStart, braceEnd + 1);
-        return parseLatestRelease(firstRelease);
+        if (base == null) base = Paths.get("tools", "mod-updater");
+        return base.resolve("release-cache").resolve(repo.replaceAll("[^A-Za-z0-9._-]", "_") + ".properties");
     }
 
+    private static ReleaseCacheEntry loadReleaseCache(String repo) {
+        Path file = releaseCachePath(repo);
+        if (!Files.isRegularFile(file)) return null;
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            p.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        ReleaseCacheEntry entry = new ReleaseCacheEntry();
+        entry.source = p.getProperty("source");
+        entry.etag = p.getProperty("etag");
+        entry.lastModified = p.getProperty("lastModified");
+        if (entry.source == null || (entry.etag == null && entry.lastModified == null)) return null;
+        LatestRelease r = new LatestRelease();
+        r.tag = p.getProperty("tag");
+        r.assets = new ArrayList<>();
+        int count = 0;
+        try { count = Integer.parseInt(p.getProperty("assets", "0")); } catch (NumberFormatException ignored) {}
+        for (int i = 0; i < count; i++) {
+            ReleaseAsset a = new ReleaseAsset();
+            a.name = p.getProperty("asset." + i + ".name");
+            a.url = p.getProperty("asset." + i + ".url");
+            try { a.size = Long.parseLong(p.getProperty("asset." + i + ".size", "-1")); } catch (NumberFormatException ignored) {}
+            a.digest = p.getProperty("asset." + i + ".digest");
+            a.updatedAt = p.getProperty("asset." + i + ".updatedAt");
+            if (a.name != null && a.url != null) r.assets.add(a);
+        }
+        linkChecksumSidecars(r.assets);
+        entry.release = r;
+        return entry;
+    }
+
+    private static void storeReleaseCache(String repo, String source, HttpURLConnection conn, LatestRelease release) {
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+        if (release == null || (etag == null && lastModified == null)) return;
+        Properties p = new Properties();
+        p.setProperty("repo", repo);
+        p.setProperty("source", source);
+        if (etag != null) p.setProperty("etag", etag);
+        if (lastModified != null) p.setProperty("lastModified", lastModified);
+        if (release.tag != null) p.setProperty("tag", release.tag);
+        List<ReleaseAsset> assets = release.assets != null ? release.assets : new ArrayList<ReleaseAsset>();
+        p.setProperty("assets", String.valueOf(assets.size()));
+        for (int i = 0; i < assets.size(); i++) {
+            ReleaseAsset a = assets.get(i);
+            p.setProperty("asset." + i + ".name", a.name);
+            p.setProperty("asset." + i + ".url", a.url);
+            if (a.size >= 0) p.setProperty("asset." + i + ".size", String.valueOf(a.size));
+            if (a.digest != null) p.setProperty("asset." + i + ".digest", a.digest);
+            if (a.updatedAt != null) p.setProperty("asset." + i + ".updatedAt", a.updatedAt);
+        }
+        Path file = releaseCachePath(repo);
+        try {
+            ensureDir(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (Writer w = new OutputStreamWriter(Files.newOutputStream(tmp), StandardCharsets.UTF_8)) {
+                p.store(w, "Cached GitHub release metadata (conditional request validators)");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logErr("Failed to write release cache: " + e.getMessage());
+        }
+    }
+    
     /**
      * Reads all content from an input stream into a string.
      * 
@@ -741,124 +657,70 @@ public final class ModUpdater {
     // =========================================================================
 
     /**
-     * Parses a GitHub release JSON object into a LatestRelease.
+     * Reads a release from a GitHub API response stream in a single pass.
      * 
-     * Uses simple regex-based parsing to avoid external JSON library dependencies.
-     * This keeps the updater lightweight and easy to deploy.
+     * Accepts either a release object (/releases/latest) or an array
+     * (/releases); for an array only the first (most recent) element is
+     * parsed and the remainder of the payload is never read.
      * 
-     * @param json JSON string representing a release object
+     * @param in Response body stream
      * @return Parsed release information
+     * @throws IOException If the stream cannot be read or is malformed
      */
-    private static LatestRelease parseLatestRelease(String json) {
-        LatestRelease r = new LatestRelease();
-        r.tag = extractString(json, "\"tag_name\"\\s*:\\s*\"(.*?)\"");
-        r.assets = extractAssets(json);
-        return r;
-    }
-
-    /**
-     * Extracts a string value from JSON using a regex pattern.
-     * 
-     * @param text JSON text to search
-     * @param regex Pattern with a capture group for the value
-     * @return Extracted and unescaped value, or null if not found
-     */
-    private static String extractString(String text, String regex) {
-        Matcher m = Pattern.compile(regex, Pattern.DOTALL).matcher(text);
-        if (m.find()) return unescapeJson(m.group(1));
-        return null;
-    }
-
-    /**
-     * Extracts the list of assets from a release JSON object.
-     * 
-     * Parses the "assets" array and extracts name and download URL for each.
-     * 
-     * @param json Release JSON object
-     * @return List of release assets
-     */
-    private static List<ReleaseAsset> extractAssets(String json) {
-        List<ReleaseAsset> list = new ArrayList<ReleaseAsset>();
+    private static LatestRelease readRelease(InputStream in) throws IOException {
+        JsonPullReader r = new JsonPullReader(in);
+        LatestRelease release = new LatestRelease();
+        release.assets = new ArrayList<>();
+        int first = r.peek();
+        if (first == '[') {
+            r.beginArray();
+            if (!r.hasNext()) return release; // No releases yet
+            first = r.peek();
+        }
+        if (first != '{') return release;
         
-        // Find the assets array
-        int idx = json.indexOf("\"assets\"");
-        if (idx < 0) return list;
-        int startArray = json.indexOf('[', idx);
-        if (startArray < 0) return list;
-        int endArray = findMatchingBracket(json, startArray);
-        if (endArray < 0) return list;
-        String assetsArray = json.substring(startArray + 1, endArray);
-
-        // Extract each asset object
-        Pattern objPat = Pattern.compile("\\{(.*?)\\}", Pattern.DOTALL);
-        Matcher m = objPat.matcher(assetsArray);
-        while (m.find()) {
-            String obj = m.group(1);
-            String name = extractString(obj, "\"name\"\\s*:\\s*\"(.*?)\"");
-            String url = extractString(obj, "\"browser_download_url\"\\s*:\\s*\"(.*?)\"");
-            if (name != null && url != null) {
-                ReleaseAsset a = new ReleaseAsset();
-                a.name = name;
-                a.url = url;
-                list.add(a);
-            }
+        r.beginObject();
+        while (r.hasNext()) {
+            // Only top-level keys of the release object are matched here
+            String field = r.nextName();
+            if ("tag_name".equals(field)) release.tag = r.nextStringOrNull();
+            else if ("assets".equals(field) && r.peek() == '[') readReleaseAssets(r, release.assets);
+            else r.skipValue();
         }
-        return list;
+        r.endObject();
+        return release;
     }
 
     /**
-     * Finds the index of the closing bracket matching an opening bracket.
+     * Reads the "assets" array of a release, keeping entries that have a
+     * download URL.
      * 
-     * @param s String to search
-     * @param openIdx Index of the opening bracket '['
-     * @return Index of matching ']', or -1 if not found
+     * @param r Reader positioned at the opening '[' of the array
+     * @param out List receiving the parsed assets
      */
-    private static int findMatchingBracket(String s, int openIdx) {
-        int depth = 0;
-        for (int i = openIdx; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '[') depth++;
-            else if (c == ']') {
-                depth--;
-                if (depth == 0) return i;
+    private static void readReleaseAssets(JsonPullReader r, List<ReleaseAsset> out) throws IOException {
+        r.beginArray();
+        while (r.hasNext()) {
+            if (r.peek() != '{') {
+                r.skipValue();
+                continue;
             }
-        }
-        return -1;
-    }
-
-    /**
-     * Unescapes common JSON escape sequences.
-     * 
-     * Handles: quotes, backslashes, slashes, backspace, formfeed, newline, 
-     * carriage return, tab, and unicode escapes.
-     * 
-     * @param s JSON-escaped string
-     * @return Unescaped string
-     */
-    private static String unescapeJson(String s) {
-        StringBuilder out = new StringBuilder(s.length());
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '\\' && i + 1 < s.length()) {
-                char n = s.charAt(i + 1);
-                if (n == '"' || n == '\\' || n == '/') { out.append(n); i++; }
-                else if (n == 'b') { out.append('\b'); i++; }
-                else if (n == 'f') { out.append('\f'); i++; }
-                else if (n == 'n') { out.append('\n'); i++; }
-                else if (n == 'r') { out.append('\r'); i++; }
-                else if (n == 't') { out.append('\t'); i++; }
-                else if (n == 'u' && i + 5 < s.length()) {
-                    // Handle unicode escape sequence (backslash-u followed by 4 hex digits)
-                    String hex = s.substring(i + 2, i + 6);
-                    try { out.append((char) Integer.parseInt(hex, 16)); } 
-                    catch (NumberFormatException ignored) { out.append('?'); }
-                    i += 5;
-                } else { out.append(n); i++; }
-            } else {
-                out.append(c);
+            ReleaseAsset a = new ReleaseAsset();
+            r.beginObject();
+            while (r.hasNext()) {
+                String field = r.nextName();
+                if ("name".equals(field)) a.name = r.nextStringOrNull();
+                else if ("browser_download_url".equals(field)) a.url = r.nextStringOrNull();
+                else if ("size".equals(field)) a.size = r.nextLong(-1L);
+                else if ("digest".equals(field)) a.digest = r.nextStringOrNull();
+                else if ("updated_at".equals(field)) a.updatedAt = r.nextStringOrNull();
+                else r.skipValue();
             }
+            r.endObject();
+            if (a.name != null && a.url != null) out.add(a);
         }
-        return out.toString();
+        r.endArray();
+        linkChecksumSidecars(out);
     }
 
     /**
@@ -897,7 +759,7 @@ public final class ModUpdater {
             return;
         }
         ensureDir(lanServerDir);
-        Path downloaded = downloadToTemp(serverAsset.url, serverAsset.name);
+        Path downloaded = downloadToTemp(serverAsset);
         if (Files.isRegularFile(dest)) {
             Path backup = withUniqueSuffix(dest, ".bak");
             log("Backing up LAN server jar -> " + backup);
@@ -911,46 +773,137 @@ public final class ModUpdater {
     // DOWNLOAD
     // =========================================================================
 
+    /**
+     * Downloads a release asset to a temporary location, verified against its published
+     * SHA-256 (the API "digest" field, else a "<name>.sha256" asset in the same release).
+     * 
+     * A copy that fails verification is fetched once more with caches bypassed, since a
+     * stale CDN or proxy copy is the usual cause.
+     * 
+     * @param asset Release asset to download
+     * @return Path to downloaded file
+     * @throws IOException If download or verification fails
+     */
+    private static Path downloadToTemp(ReleaseAsset asset) throws IOException {
+        String expectedSha256 = expectedSha256(asset);
+        try {
+            return downloadToTemp(asset.url, asset.name, expectedSha256, false);
+        } catch (ChecksumMismatchException ex) {
+            logErr(ex.getMessage() + "; downloading again without caches");
+            return downloadToTemp(asset.url, asset.name, expectedSha256, true);
+        }
+    }
+
     /**
      * Downloads a file from a URL to a temporary location.
      * 
      * The file is downloaded to the system temp directory with the suggested name.
      * This allows atomic move operations when installing to the final destination.
+     * The SHA-256 is computed from the same buffers that are written, so verifying
+     * needs no second read of the file.
      * 
      * @param url URL to download from
      * @param suggestedName Filename to use in temp directory
+     * @param expectedSha256 Hex SHA-256 the content must match, or null to skip verification
+     * @param noCache Whether to ask intermediate caches to revalidate
      * @return Path to downloaded file
-     * @throws IOException If download fails
+     * @throws IOException If download fails or the content does not match
      */
-    private static Path downloadToTemp(String url, String suggestedName) throws IOException {
+    private static Path downloadToTemp(String url, String suggestedName, String expectedSha256, boolean noCache) throws IOException {
         String tmpDir = System.getProperty("java.io.tmpdir");
         Path tmp = Paths.get(tmpDir, suggestedName);
         
         HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdater/1.0");
+        if (noCache) {
+            conn.setRequestProperty("Cache-Control", "no-cache, no-store, max-age=0");
+            conn.setRequestProperty("Pragma", "no-cache");
+        }
         
-        int code = conn.getResponseCode();
+        int code = LauncherHttp.status(conn);
         if (code < 200 || code >= 300) {
-            InputStream err = conn.getErrorStream();
-            String body = err != null ? readAll(err) : "";
+            String body = LauncherHttp.errorBody(conn);
             throw new IOException("Download failed: HTTP " + code + "\n" + body);
         }
         
-        // Stream download to temp file
-        InputStream in = new BufferedInputStream(conn.getInputStream());
+        // Stream download to temp file, hashing as it is written
+        MessageDigest sha256 = newSha256();
+        InputStream in = new BufferedInputStream(LauncherHttp.body(conn));
         FileOutputStream out = new FileOutputStream(tmp.toFile());
         byte[] buf = new byte[64 * 1024]; // 64KB buffer
         int n;
         try {
             while ((n = in.read(buf)) != -1) {
                 out.write(buf, 0, n);
+                sha256.update(buf, 0, n);
             }
         } finally {
             try { in.close(); } catch (IOException ignored) {}
             try { out.close(); } catch (IOException ignored) {}
         }
+        if (expectedSha256 != null) {
+            String actual = toHex(sha256.digest());
+            if (!expectedSha256.equalsIgnoreCase(actual)) {
+                Files.deleteIfExists(tmp);
+                throw new ChecksumMismatchException("Checksum mismatch for " + suggestedName + ": expected sha256 " + expectedSha256 + " but got " + actual);
+            }
+            log("Verified sha256 of " + suggestedName);
+        }
         return tmp;
     }
 
+    /**
+     * Published SHA-256 of an asset: the API digest, else the first 64-digit hex token
+     * of its "<name>.sha256" sidecar. Null (download unverified) when neither is available.
+     */
+    private static String expectedSha256(ReleaseAsset asset) {
+        if (asset.digest != null && asset.digest.regionMatches(true, 0, "sha256:", 0, 7)) {
+            String hex = asset.digest.substring(7).trim().toLowerCase(Locale.ROOT);
+            if (hex.matches("[0-9a-f]{64}")) return hex;
+        }
+        if (asset.checksumUrl == null) return null;
+        try {
+            HttpURLConnection conn = openHttpConnection(asset.checksumUrl, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdater/1.0");
+            int code = LauncherHttp.status(conn);
+            if (code >= 200 && code < 300) {
+                String text;
+                try (InputStream in = LauncherHttp.body(conn)) {
+                    text = readAll(in);
+                }
+                Matcher m = Pattern.compile("(?<![0-9a-fA-F])[0-9a-fA-F]{64}(?![0-9a-fA-F])").matcher(text);
+                if (m.find()) return m.group().toLowerCase(Locale.ROOT);
+            } else {
+                LauncherHttp.discard(conn);
+            }
+        } catch (IOException ignored) {}
+        logErr("Could not read " + asset.name + ".sha256; downloading unverified");
+        return null;
+    }
+
+    /** Points each asset at a "<name>.sha256" sidecar published alongside it, if any. */
+    private static void linkChecksumSidecars(List<ReleaseAsset> assets) {
+        Map<String, String> urlsByName = new HashMap<>();
+        for (ReleaseAsset a : assets) urlsByName.put(a.name, a.url);
+        for (ReleaseAsset a : assets) a.checksumUrl = urlsByName.get(a.name + ".sha256");
+    }
+
+    private static MessageDigest newSha256() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("SHA-256 not available", ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] digits = "0123456789abcdef".toCharArray();
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = digits[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = digits[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+
     // =========================================================================
     // USER INTERACTION
     // =========================================================================
@@ -1003,6 +956,18 @@ public final class ModUpdater {
         List<ReleaseAsset> assets;
     }
 
+    /**
+     * Cached release metadata plus the validators (ETag / Last-Modified) used
+     * to revalidate it with a conditional request.
+     */
+    private static final class ReleaseCacheEntry {
+        /** Endpoint the entry came from: "latest" or "releases" */
+        String source;
+        String etag;
+        String lastModified;
+        LatestRelease release;
+    }
+
     /**
      * Represents a downloadable asset attached to a GitHub release.
      */
@@ -1011,5 +976,20 @@ public final class ModUpdater {
         String name;
         /** Direct download URL */
         String url;
+        /** Size in bytes as reported by the API, or -1 if unknown */
+        long size = -1L;
+        /** Content digest as reported by the API (e.g., "sha256:..."), or null */
+        String digest;
+        /** Last modification timestamp of the asset (ISO-8601) */
+        String updatedAt;
+        /** URL of a "<name>.sha256" asset in the same release, or null */
+        String checksumUrl;
+    }
+
+    /** Downloaded bytes do not hash to the published checksum. */
+    private static final class ChecksumMismatchException extends IOException {
+        ChecksumMismatchException(String message) {
+            super(message);
+        }
     }
 }
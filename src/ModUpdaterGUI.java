@@ -8,12 +8,6 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.text.EditorKit;
 import javax.swing.text.html.HTMLDocument;
 import javax.swing.text.html.HTMLEditorKit;
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.TrustManagerFactory;
-import javax.net.ssl.X509TrustManager;
 
 // AWT graphics and windowing
 import java.awt.*;
@@ -28,27 +22,41 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.ProtocolException;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.security.GeneralSecurityException;
-import java.security.KeyStore;
-import java.security.SecureRandom;
-import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
-import java.security.cert.X509Certificate;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 // Collections and utilities
 import java.util.List;
 import java.util.*;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 // Archive handling
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipFile;
@@ -134,6 +142,8 @@ import java.util.zip.ZipFile;
  * --newsUrl <url>      URL for embedded news/patch notes page
  * --resourcePackBranch <branch> Stable resource sync branch (default: main)
  * --resourcePackBetaBranch <branch> Beta resource sync branch (default: beta)
+ * --autoLaunch <true|false> Skip the launcher window when nothing needs updating
+ * --traceStartup <true|false> Write startup-trace.json/.log next to updater.properties
  * 
  * =============================================================================
  * CONFIGURATION FILE (updater.properties)
@@ -149,6 +159,8 @@ import java.util.zip.ZipFile;
  *   launcherRepo=YourOrg/launcher-updates
  *   resourcePackBranch=main
  *   resourcePackBetaBranch=beta
+ *   autoLaunch=false
+ *   traceStartup=false
  * 
  * @author Minecraft Oldschool Edition Team
  * @see ModUpdater CLI version of this updater
@@ -221,65 +233,166 @@ public final class ModUpdaterGUI {
     /** Resource archive download timeout in milliseconds (45 seconds). */
     private static final int RESOURCE_ARCHIVE_TIMEOUT_MS = 45000;
     
+    /** Threads for the startup checks (branch state, launcher update, news page). */
+    private static final int STARTUP_TASK_THREADS = 3;
+    
+    /** Threads decoding the UI font, button texture, window icons and logo. */
+    private static final int UI_ASSET_THREADS = 2;
+    
     /** Number of attempts per resource archive candidate URL. */
     private static final int RESOURCE_ARCHIVE_RETRIES = 3;
     
     /** Base delay for resource archive retry backoff. */
     private static final long RESOURCE_ARCHIVE_RETRY_BASE_DELAY_MS = 750L;
     
+    /** Hedge delay before any first-byte time has been observed. */
+    private static final long HEDGE_DEFAULT_DELAY_MS = 1500L;
+    
+    /** Bounds for the adaptive hedge delay (a multiple of the recent first-byte time). */
+    private static final long HEDGE_MIN_DELAY_MS = 250L;
+    private static final long HEDGE_MAX_DELAY_MS = 4000L;
+    
+    /** Per-mirror latency/throughput/failure history, in the launcher data dir. */
+    private static final String MIRROR_STATS_NAME = "mirror-stats.properties";
+    
+    /** Success and failure counts lose half their weight over this period. */
+    private static final long MIRROR_STATS_HALF_LIFE_MS = 3L * 24L * 60L * 60L * 1000L;
+    
+    /** Assumed first-byte time, throughput and archive size for mirrors without history. */
+    private static final double MIRROR_PRIOR_FIRST_BYTE_MS = 1000.0;
+    private static final double MIRROR_PRIOR_BYTES_PER_SECOND = 1024.0 * 1024.0;
+    private static final long MIRROR_PRIOR_ARCHIVE_BYTES = 16L * 1024L * 1024L;
+    
+    /** Rough cost of a failed attempt (timeouts, retries) when estimating time to success. */
+    private static final double MIRROR_FAILURE_COST_MS = 10000.0;
+    
+    /** Chance per sync of moving the least recently tried mirror to the front. */
+    private static final double MIRROR_PROBE_CHANCE = 0.1;
+    
+    /** A mirror not tried for this long is always probed. */
+    private static final long MIRROR_PROBE_INTERVAL_MS = 24L * 60L * 60L * 1000L;
+    
+    /** Sub-directory of java.io.tmpdir holding resumable .part downloads and their validator sidecars. */
+    private static final String DOWNLOAD_PART_DIR_NAME = "mcose-downloads";
+    
+    /** How long a download waits for another process downloading the same URL. */
+    private static final long DOWNLOAD_LOCK_WAIT_MS = 10L * 60L * 1000L;
+    
+    /** Poll interval while waiting for that lock. */
+    private static final long DOWNLOAD_LOCK_POLL_MS = 250L;
+    
+    /** Attempts per release asset download; attempts after the first resume from the .part file. */
+    private static final int DOWNLOAD_ATTEMPTS = 3;
+    
+    /** First bytes of a "<asset>.<fromTag>.delta" release asset; see applyBinaryDelta. */
+    private static final byte[] DELTA_MAGIC = "MCDELTA1".getBytes(StandardCharsets.US_ASCII);
+    
+    /** Entry-level jar updates give up once the changed entries add up to more than this fraction of the jar. */
+    private static final double ZIP_DIFF_MAX_CHANGED_FRACTION = 0.6;
+    
+    /** Changed entries closer together than this are fetched with one Range request. */
+    private static final long ZIP_DIFF_COALESCE_GAP_BYTES = 64L * 1024L;
+    
+    /** Entry-level jar updates give up rather than issue more Range requests than this. */
+    private static final int ZIP_DIFF_MAX_RANGES = 64;
+    
+    /** Assets smaller than this are always fetched over one connection. */
+    private static final long SEGMENTED_DOWNLOAD_MIN_BYTES = 4L * 1024L * 1024L;
+    
+    /** Default size cap of the shared, content-addressed download cache. */
+    private static final long DEFAULT_DOWNLOAD_CACHE_MAX_MB = 1024L;
+    
+    /** URL -> sha256 index file inside the download cache. */
+    private static final String DOWNLOAD_CACHE_INDEX_NAME = "url-index.properties";
+    
+    /** Upper bound for the downloadConnections setting. */
+    private static final int MAX_DOWNLOAD_CONNECTIONS = 8;
+    
+    /** Above this many changed files a per-file resource sync loses to one archive download. */
+    private static final int RESOURCE_TREE_MAX_CHANGED_FILES = 300;
+    
+    /** Parallel connections for per-file resource fetches. */
+    private static final int RESOURCE_FETCH_THREADS = 6;
+    
+    /** Upper bound for worker threads inflating resource archive entries. */
+    private static final int RESOURCE_EXTRACT_MAX_THREADS = 8;
+    
+    /** Staging directory (under .minecraft) for entries extracted while the archive streams in. */
+    private static final String RESOURCE_STAGING_DIR_NAME = ".resources-staging";
+    
+    /** Sibling of resources/ that a FULL sync builds before swapping it in. */
+    private static final String RESOURCE_NEXT_DIR_NAME = "resources.next";
+    
+    /** Previous resources/ tree after a FULL sync swap, discarded by a later launcher session. */
+    private static final String RESOURCE_ROLLBACK_DIR_NAME = "resources.rollback";
+    
+    /** Staging tree of the background SMART sync that runs while the launcher window is idle. */
+    private static final String RESOURCE_PREFETCH_DIR_NAME = "resources.prefetch";
+    
+    /** A background sync staged longer ago than this is discarded on Play and the pack synced afresh. */
+    private static final long BACKGROUND_SYNC_MAX_AGE_MS = 10L * 60L * 1000L;
+    
     /** Maximum per-run detailed resource file log lines for each category. */
     private static final int RESOURCE_SYNC_DETAIL_LOG_LIMIT = 120;
     
     /** GitHub API endpoint template for fetching the latest release from a repository */
     private static final String GITHUB_API_LATEST = "https://api.github.com/repos/%s/releases/latest";
+    /**
+     * Hosts behind the resource pack head check and per-file sync. Not final so the
+     * build checks can point them at local stand-in servers.
+     */
+    private static String RESOURCE_API_BASE = "https://api.github.com";
+    private static String RESOURCE_RAW_BASE = "https://raw.githubusercontent.com";
+
+    /** File in the launcher data dir caching size, mtime and git blob hash of local resource assets. */
+    private static final String RESOURCE_INDEX_NAME = "resource-index.properties";
+    /** File in the launcher data dir recording the resource pack commit last synced per repo/branch. */
+    private static final String RESOURCE_SYNC_STATE_NAME = "resource-sync-state.properties";
+    /** Sub-directory of the launcher data dir holding conditional-request release metadata. */
+    private static final String RELEASE_CACHE_DIR_NAME = "release-cache";
+
+    /**
+     * Directory for launcher-owned state files (tools/mod-updater in Prism instances).
+     * Set from main() once the config path is known; see launcherDataDir().
+     */
+    private static volatile Path LAUNCHER_DATA_DIR;
+    
+    /** Set by autoLaunch() when it decided the GUI is needed; main() reuses its settings and checks. */
+    private static volatile AutoLaunchHandoff AUTO_LAUNCH_HANDOFF;
+    private static final Object MIRROR_STATS_LOCK = new Object();
+    /** Guards url-index.properties within this process; a file lock covers other instances. */
+    private static final Object DOWNLOAD_CACHE_INDEX_LOCK = new Object();
+    /** Smoothed time to first byte of winning hedged requests, or -1 before the first one. */
+    private static volatile double HEDGE_FIRST_BYTE_EWMA_MS = -1.0;
+    /** Scope that openHttpConnection registers with on this thread, if any; see ConnectionScope. */
+    private static final ThreadLocal<ConnectionScope> CONNECTION_SCOPE = new ThreadLocal<ConnectionScope>();
+    /** Start of this launcher process; rollback trees older than this came from an earlier session. */
+    private static final long LAUNCHER_SESSION_START_MS = System.currentTimeMillis();
+    /** Size cap of the shared download cache (downloadCacheMaxMb in updater.properties); 0 disables the cache. */
+    private static volatile long DOWNLOAD_CACHE_MAX_BYTES = DEFAULT_DOWNLOAD_CACHE_MAX_MB * 1024L * 1024L;
+    /** Parallel byte-range connections per release asset download (downloadConnections in updater.properties); 1 disables segmented mode. */
+    private static volatile int DOWNLOAD_CONNECTIONS = 1;
 
     /** Optional companion server jar shipped next to patch.jar for Open To Multiplayer. */
     private static final String DEFAULT_SERVER_JAR_REGEX = "server\\.jar";
     private static final String LAN_SERVER_DIR_NAME = "lan-server";
     private static final String LAN_SERVER_JAR_NAME = "server.jar";
-    
-    /**
-     * OS trust bundle paths used to supplement outdated Java truststores.
-     * These are best-effort fallbacks and are ignored when missing.
-     */
-    private static final String[] OS_CA_BUNDLE_PATHS = {
-        "/etc/ssl/certs/ca-certificates.crt",
-        "/etc/pki/tls/certs/ca-bundle.crt",
-        "/etc/ssl/cert.pem"
-    };
-    
-    /** Lazy-initialized TLS socket factory that merges Java and OS trust roots. */
-    private static volatile SSLSocketFactory TLS_SOCKET_FACTORY;
-    private static volatile boolean TLS_SOCKET_FACTORY_INIT_FAILED;
-    private static final Object TLS_SOCKET_FACTORY_LOCK = new Object();
     
     // =========================================================================
     // CONSTANTS - UI Fonts and Textures
     // =========================================================================
     
     /** 
-     * Base font for UI elements. Attempts to use classic JRE fonts for authentic look.
-     * Falls back to system default if classic fonts unavailable.
+     * Base font, button texture, window icons and logo, each decoded once on a
+     * background loader; see uiBaseFont(), buttonTexture(), appIcons().
      */
-    private static final Font UI_BASE_FONT = detectBaseFont();
+    private static final UiAssets UI_ASSETS = new UiAssets();
     
     /** 
      * Instance directory path, set from command-line args.
      * Used for loading icons and other instance-specific resources.
      */
     private static String INSTANCE_DIR;
-    
-    /** 
-     * Pixel-style font for retro text rendering.
-     * If the game font can't be loaded, falls back to default LAF font.
-     */
-    private static final Font PIXEL_FONT = loadGameFont();
-    
-    /** 
-     * Texture atlas for classic Minecraft-style buttons.
-     * Contains normal, hover, and pressed button states.
-     */
-    private static final BufferedImage BUTTON_TEXTURE = loadButtonTexture();
 
     // =========================================================================
     // CONSTANTS - Bouncy Castle Cryptography Library
@@ -293,6 +406,8 @@ public final class ModUpdaterGUI {
     private static final String BC_VERSION = "1.78.1";
     private static final String BC_JAR_NAME = "bcprov-jdk18on-1.78.1.jar";
     private static final String BC_MAVEN_URL = "https://repo1.maven.org/maven2/org/bouncycastle/bcprov-jdk18on/1.78.1/bcprov-jdk18on-1.78.1.jar";
+    /** Second Maven Central host serving the same artifact; tried when a copy fails its checksum. */
+    private static final String BC_MAVEN_MIRROR_URL = "https://repo.maven.apache.org/maven2/org/bouncycastle/bcprov-jdk18on/1.78.1/bcprov-jdk18on-1.78.1.jar";
 
     // =========================================================================
     // MAIN ENTRY POINT
@@ -317,10 +432,12 @@ public final class ModUpdaterGUI {
      * @param args Command-line arguments (see class javadoc for options)
      */
     public static void main(String[] args) {
+        LauncherTrace.start();
         try {
             // =================================================================
             // STEP 1: Configure Swing Look-and-Feel
             // =================================================================
+            LauncherTrace.Span lafSpan = LauncherTrace.begin(LauncherTrace.PHASE, "lookAndFeel");
             // Disable font antialiasing for authentic blocky 2011-era text
             try {
                 System.setProperty("awt.useSystemAAFontSettings", "off");
@@ -332,125 +449,31 @@ public final class ModUpdaterGUI {
                 UIManager.setLookAndFeel(UIManager.getCrossPlatformLookAndFeelClassName()); 
             } catch (Exception ignored) {}
             
+            // Decode the game font and button texture while the config is read and
+            // the update checks run; must come before applyUIFont replaces Label.font
+            startUiAssetLoading();
+            
             // Apply classic JRE fonts (Lucida Sans family) for authentic 2011 look
             try {
                 Font baseUi = new Font("Lucida Sans", Font.PLAIN, 12);
                 applyUIFont(baseUi);
             } catch (Throwable ignored) {}
+            lafSpan.end();
             
-            // =================================================================
-            // STEP 3: Parse Arguments and Load Configuration
-            // =================================================================
-            Map<String, String> cli = parseArgs(args);
-            Properties cfg = loadConfig(cli.get("--config"));
-
-            // Required: GitHub repository for game updates (e.g., "YourOrg/YourMod")
-            String repo = value(cli, cfg, "repo", null);
-            if (repo == null) {
-                throw new IllegalArgumentException("Missing 'repo' (owner/repo). Provide in --config or as --repo.");
-            }
-
-            // Optional: Secondary repository for beta/development releases
-            String betaRepo = value(cli, cfg, "betaRepo", null);
-
-            // Regex patterns for identifying release assets
-            String jarRegex = value(cli, cfg, "jarRegex", "patch\\.jar");   // Pattern for mod JAR
-            String serverJarRegex = normalizeOptionalRegex(value(cli, cfg, "serverJarRegex", DEFAULT_SERVER_JAR_REGEX)); // Optional LAN server JAR
-            String assetsRegex = value(cli, cfg, "assetsRegex", null);       // Pattern for assets ZIP (optional)
-            
-            // Installation mode: mods (default), clientJar (legacy), or jarmods
-            String mode = value(cli, cfg, "mode", "mods");
-            String jarmodName = value(cli, cfg, "jarmodName", "mod.jar");
-            
-            // Optional URL for embedded news/patch notes page
-            String newsUrl = value(cli, cfg, "newsUrl", null);
-            
-            // Auto-migrate old newsUrl to new domain if needed
-            newsUrl = migrateNewsUrl(newsUrl, cfg, cli.get("--config"));
-            
-            // Launcher self-update configuration
-            String launcherRepo = value(cli, cfg, "launcherRepo", "MinecraftOldschoolEdition/launcher-updates");
-            String launcherJarRegex = value(cli, cfg, "launcherJarRegex", "mod-updater-gui\\.jar");
-            
-            // Resource pack repository (assets synced before each launch)
-            String resourcePackRepo = value(cli, cfg, "resourcePackRepo", "MinecraftOldschoolEdition/resourcepack");
-            String resourcePackBranch = value(cli, cfg, "resourcePackBranch", "main");
-            String resourcePackBetaBranch = value(cli, cfg, "resourcePackBetaBranch", "beta");
-
-            // =================================================================
-            // STEP 4: Resolve Directory Paths
-            // =================================================================
-            // Resolve the .minecraft directory from various sources
-            Path minecraftDir = resolveMinecraftDir(
-                firstNonNull(cli.get("--minecraftDir"), cfg.getProperty("minecraftDir")),
-                firstNonNull(cli.get("--instanceDir"), cfg.getProperty("instanceDir")),
-                getenv("MC_DIR")
-            );
-            if (minecraftDir == null) {
-                throw new IllegalArgumentException("Unable to resolve Minecraft directory. Set minecraftDir in config or pass --minecraftDir / --instanceDir.");
-            }
-
-            // Resolve the instance root directory (parent of .minecraft in Prism)
-            Path instanceRoot = resolveInstanceRoot(minecraftDir, firstNonNull(cli.get("--instanceDir"), cfg.getProperty("instanceDir")));
-            INSTANCE_DIR = firstNonNull(cli.get("--instanceDir"), cfg.getProperty("instanceDir"));
-
-            // =================================================================
-            // STEP 5: Handle Pending Launcher Updates
-            // =================================================================
-            // Find where this JAR is running from
-            Path launcherJarPath = locateSelfJar();
-            
-            // Apply any staged launcher update (from previous session)
-            applyStagedLauncherUpdate(launcherJarPath, instanceRoot);
-            
-            // For jarmods mode, try to derive the jarmod name from existing files
-            if (instanceRoot != null) {
-                String derivedJarmod = derivePatchJarmodName(instanceRoot, jarmodName);
-                if (derivedJarmod != null && derivedJarmod.length() > 0) {
-                    jarmodName = derivedJarmod;
-                }
-            }
-
-            // =================================================================
-            // STEP 6: Fetch Update State from GitHub
-            // =================================================================
-            // Check if beta updates are enabled in config
-            boolean useBetaUpdates = "true".equalsIgnoreCase(cfg.getProperty("useBetaUpdates"));
+            System.out.println("[mod-updater] Java " + System.getProperty("java.version") + "; runtime fast path: " + LauncherRuntime.implementation());
             
-            // Fetch the current update state (checks installed version vs latest release)
-            BranchContext branch = fetchBranchState(useBetaUpdates, repo, betaRepo, jarRegex, serverJarRegex, assetsRegex, minecraftDir, instanceRoot, mode, jarmodName);
+            // Settings (and startup checks) of an auto-launch attempt that needs the GUI after all
+            AutoLaunchHandoff handoff = AUTO_LAUNCH_HANDOFF;
+            LaunchSettings settings = handoff != null ? handoff.settings : resolveLaunchSettings(args);
+            StartupTasks startup = handoff != null ? handoff.startup : startStartupTasks(settings);
+            startUiImageLoading(settings.minecraftDir);
             
             // Find the dirt background image for the classic look
-            Path bgPath = findBgPath(minecraftDir);
-
-            // Determine config file path for saving settings changes
-            String cliConfig = cli.get("--config");
-            Path configPath = (cliConfig != null) ? Paths.get(cliConfig) : Paths.get("tools", "mod-updater", "updater.properties");
+            Path bgPath = findBgPath(settings.minecraftDir);
 
-            // =================================================================
-            // STEP 7: Build Launcher State and Show GUI
-            // =================================================================
-            // Package all state into a single object for the GUI
-            LauncherState state = new LauncherState();
-            state.hasUpdate = !branch.upToDate;           // Is a game update available?
-            state.releaseRepo = repo;                      // Main release repository
-            state.betaRepo = betaRepo;                     // Beta release repository
-            state.useBetaUpdates = useBetaUpdates;         // Beta updates enabled?
-            state.configPath = configPath;                 // Path to config file
-            state.instanceRoot = instanceRoot;             // Instance root directory
-            state.launcherUpdate = checkLauncherUpdate(launcherRepo, launcherJarRegex, launcherJarPath, instanceRoot);
-            if (wasRestartedAfterLauncherUpdate() && state.launcherUpdate != null) {
-                state.launcherUpdate.updateAvailable = false;
-            }
-            state.branch = branch;                         // Current branch context
-            state.resourcePackRepo = resourcePackRepo;     // Resource pack repository
-            state.resourcePackBranch = resourcePackBranch; // Stable resource pack branch
-            state.resourcePackBetaBranch = resourcePackBetaBranch; // Beta resource pack branch
-            state.minecraftDir = minecraftDir;             // Minecraft directory for assets
-            state.launchArgs = args != null ? (String[]) args.clone() : new String[0];
-            
             // Display the launcher GUI (blocks until user closes it)
-            showLauncher(bgPath, minecraftDir, instanceRoot, mode, jarRegex, serverJarRegex, assetsRegex, jarmodName, state, newsUrl);
+            showLauncher(bgPath, settings.minecraftDir, settings.instanceRoot, settings.mode, settings.jarRegex, settings.serverJarRegex,
+                    settings.assetsRegex, settings.jarmodName, settings.state, settings.newsUrl, startup);
         } catch (Throwable t) {
             // If the updater fails for any reason, log/show the error but do NOT
             // fail the outer launcher; exit with 0 so the game can still start.
@@ -463,6 +486,221 @@ public final class ModUpdaterGUI {
         }
     }
 
+    /**
+     * Steps 3 to 5 of main(): arguments, configuration, directories and any staged
+     * launcher update. Touches no AWT class, so the auto-launch check can use it too.
+     */
+    private static LaunchSettings resolveLaunchSettings(String[] args) throws IOException {
+        // =================================================================
+        // STEP 3: Parse Arguments and Load Configuration
+        // =================================================================
+        Map<String, String> cli = parseArgs(args);
+        LauncherTrace.Span configSpan = LauncherTrace.begin(LauncherTrace.PHASE, "loadConfig");
+        Properties cfg;
+        try {
+            cfg = loadConfig(cli.get("--config"));
+        } finally {
+            configSpan.end();
+        }
+
+        // Required: GitHub repository for game updates (e.g., "YourOrg/YourMod")
+        String repo = value(cli, cfg, "repo", null);
+        if (repo == null) {
+            throw new IllegalArgumentException("Missing 'repo' (owner/repo). Provide in --config or as --repo.");
+        }
+
+        // Optional: Secondary repository for beta/development releases
+        String betaRepo = value(cli, cfg, "betaRepo", null);
+
+        // Regex patterns for identifying release assets
+        String jarRegex = value(cli, cfg, "jarRegex", "patch\\.jar");   // Pattern for mod JAR
+        String serverJarRegex = normalizeOptionalRegex(value(cli, cfg, "serverJarRegex", DEFAULT_SERVER_JAR_REGEX)); // Optional LAN server JAR
+        String assetsRegex = value(cli, cfg, "assetsRegex", null);       // Pattern for assets ZIP (optional)
+        
+        // Installation mode: mods (default), clientJar (legacy), or jarmods
+        String mode = value(cli, cfg, "mode", "mods");
+        String jarmodName = value(cli, cfg, "jarmodName", "mod.jar");
+        
+        // Optional URL for embedded news/patch notes page
+        String newsUrl = value(cli, cfg, "newsUrl", null);
+        
+        // Auto-migrate old newsUrl to new domain if needed
+        newsUrl = migrateNewsUrl(newsUrl, cfg, cli.get("--config"));
+        
+        // Launcher self-update configuration
+        String launcherRepo = value(cli, cfg, "launcherRepo", "MinecraftOldschoolEdition/launcher-updates");
+        String launcherJarRegex = value(cli, cfg, "launcherJarRegex", "mod-updater-gui\\.jar");
+        
+        // Resource pack repository (assets synced before each launch)
+        String resourcePackRepo = value(cli, cfg, "resourcePackRepo", "MinecraftOldschoolEdition/resourcepack");
+        String resourcePackBranch = value(cli, cfg, "resourcePackBranch", "main");
+        String resourcePackBetaBranch = value(cli, cfg, "resourcePackBetaBranch", "beta");
+
+        // =================================================================
+        // STEP 4: Resolve Directory Paths
+        // =================================================================
+        // Resolve the .minecraft directory from various sources
+        Path minecraftDir = resolveMinecraftDir(
+            firstNonNull(cli.get("--minecraftDir"), cfg.getProperty("minecraftDir")),
+            firstNonNull(cli.get("--instanceDir"), cfg.getProperty("instanceDir")),
+            getenv("MC_DIR")
+        );
+        if (minecraftDir == null) {
+            throw new IllegalArgumentException("Unable to resolve Minecraft directory. Set minecraftDir in config or pass --minecraftDir / --instanceDir.");
+        }
+
+        // Resolve the instance root directory (parent of .minecraft in Prism)
+        Path instanceRoot = resolveInstanceRoot(minecraftDir, firstNonNull(cli.get("--instanceDir"), cfg.getProperty("instanceDir")));
+        INSTANCE_DIR = firstNonNull(cli.get("--instanceDir"), cfg.getProperty("instanceDir"));
+
+        // Determine config file path for saving settings changes; launcher state
+        // files (release metadata cache, etc.) live next to it.
+        String cliConfig = cli.get("--config");
+        Path configPath = (cliConfig != null) ? Paths.get(cliConfig) : Paths.get("tools", "mod-updater", "updater.properties");
+        Path configDir = configPath.toAbsolutePath().getParent();
+        if (configDir != null) {
+            LAUNCHER_DATA_DIR = configDir;
+        }
+        LauncherTrace.configure("true".equalsIgnoreCase(value(cli, cfg, "traceStartup", "false").trim()), configDir);
+        DOWNLOAD_CONNECTIONS = parseDownloadConnections(cfg.getProperty("downloadConnections"));
+        long cacheMb = parseLongOrDefault(cfg.getProperty("downloadCacheMaxMb"), DEFAULT_DOWNLOAD_CACHE_MAX_MB);
+        DOWNLOAD_CACHE_MAX_BYTES = Math.max(0L, cacheMb) * 1024L * 1024L;
+
+        // =================================================================
+        // STEP 5: Handle Pending Launcher Updates
+        // =================================================================
+        // Find where this JAR is running from
+        Path launcherJarPath = locateSelfJar();
+        
+        // Apply any staged launcher update (from previous session)
+        LauncherTrace.Span stagedSpan = LauncherTrace.begin(LauncherTrace.PHASE, "applyStagedLauncherUpdate");
+        try {
+            applyStagedLauncherUpdate(launcherJarPath, instanceRoot);
+        } finally {
+            stagedSpan.end();
+        }
+        
+        // For jarmods mode, try to derive the jarmod name from existing files
+        if (instanceRoot != null) {
+            String derivedJarmod = derivePatchJarmodName(instanceRoot, jarmodName);
+            if (derivedJarmod != null && derivedJarmod.length() > 0) {
+                jarmodName = derivedJarmod;
+            }
+        }
+
+        // Check if beta updates are enabled in config
+        boolean useBetaUpdates = "true".equalsIgnoreCase(cfg.getProperty("useBetaUpdates"));
+        
+        // =================================================================
+        // STEP 7: Build Launcher State
+        // =================================================================
+        // Package all state into a single object for the GUI
+        LauncherState state = new LauncherState();
+        state.releaseRepo = repo;                      // Main release repository
+        state.betaRepo = betaRepo;                     // Beta release repository
+        state.useBetaUpdates = useBetaUpdates;         // Beta updates enabled?
+        state.configPath = configPath;                 // Path to config file
+        state.instanceRoot = instanceRoot;             // Instance root directory
+        // hasUpdate, branch and launcherUpdate are filled in when the startup checks finish
+        state.resourcePackRepo = resourcePackRepo;     // Resource pack repository
+        state.resourcePackBranch = resourcePackBranch; // Stable resource pack branch
+        state.resourcePackBetaBranch = resourcePackBetaBranch; // Beta resource pack branch
+        state.minecraftDir = minecraftDir;             // Minecraft directory for assets
+        state.launchArgs = args != null ? (String[]) args.clone() : new String[0];
+        
+        LaunchSettings settings = new LaunchSettings();
+        settings.state = state;
+        settings.jarRegex = jarRegex;
+        settings.serverJarRegex = serverJarRegex;
+        settings.assetsRegex = assetsRegex;
+        settings.mode = mode;
+        settings.jarmodName = jarmodName;
+        settings.newsUrl = newsUrl;
+        settings.launcherRepo = launcherRepo;
+        settings.launcherJarRegex = launcherJarRegex;
+        settings.launcherJarPath = launcherJarPath;
+        settings.minecraftDir = minecraftDir;
+        settings.instanceRoot = instanceRoot;
+        settings.autoLaunch = "true".equalsIgnoreCase(value(cli, cfg, "autoLaunch", "false").trim());
+        return settings;
+    }
+
+    /**
+     * Auto-launch mode for unattended machines (kiosks, LAN parties), entered from
+     * LauncherBootstrap before any window opens (on Steam Deck, in the relaunched
+     * X11 process, so the checks run only once). Runs the startup
+     * checks headless and, when neither the game nor the launcher has an update, does
+     * the SMART resource sync with console output only. Returns true when the game can
+     * start without the GUI; false hands the checks already in flight to main(), which
+     * then shows the launcher so the player can update or see the error.
+     */
+    static boolean autoLaunch(String[] args) {
+        LaunchSettings settings = null;
+        StartupTasks startup = null;
+        try {
+            settings = resolveLaunchSettings(args);
+            startup = startStartupTasks(settings);
+            if (!settings.autoLaunch) {
+                return handOffToLauncher(settings, startup, "auto-launch is not enabled");
+            }
+            System.out.println("[mod-updater] Auto-launch: checking for updates without the launcher window.");
+            BranchContext ctx = awaitTaskResult(startup.branch);
+            if (!ctx.upToDate) {
+                return handOffToLauncher(settings, startup, "update " + (ctx.latest != null ? ctx.latest.tag : "") + " available");
+            }
+            LauncherUpdateState update = null;
+            try {
+                update = awaitTaskResult(startup.launcherUpdate);
+            } catch (Exception ex) {
+                System.err.println("[mod-updater] Launcher self-update check failed: " + ex.getMessage());
+            }
+            LauncherState state = settings.state;
+            state.branch = ctx;
+            state.launcherUpdate = update;
+            if (hasBlockingLauncherSelfUpdate(state)) {
+                return handOffToLauncher(settings, startup, "launcher update available");
+            }
+            LauncherTrace.Span syncSpan = LauncherTrace.begin(LauncherTrace.PHASE, "syncResourcePack");
+            ResourceSyncResult syncResult;
+            try {
+                syncResult = syncResourcePack(
+                        state.resourcePackRepo,
+                        currentResourcePackBranch(state),
+                        state.minecraftDir,
+                        ResourceSyncMode.SMART,
+                        false);
+            } finally {
+                syncSpan.end();
+            }
+            logResourceSyncResult(syncResult);
+            installMacOSPatch(state.instanceRoot);
+            installNetMinecraftJsonPatch(state.instanceRoot);
+            LauncherTrace.mark(LauncherTrace.PHASE, "autoLaunchReady");
+            LauncherTrace.finish();
+            System.out.println("[mod-updater] Auto-launch: up to date (" + (ctx.latest != null ? ctx.latest.tag : "no release") + "); starting the game.");
+            return true;
+        } catch (Throwable t) {
+            System.err.println("[mod-updater] Auto-launch: " + t + "; opening the launcher.");
+            return settings != null && startup != null && handOffToLauncher(settings, startup, null);
+        }
+    }
+
+    private static boolean handOffToLauncher(LaunchSettings settings, StartupTasks startup, String reason) {
+        if (reason != null && settings.autoLaunch) {
+            System.out.println("[mod-updater] Auto-launch: " + reason + "; opening the launcher.");
+        }
+        AutoLaunchHandoff handoff = new AutoLaunchHandoff();
+        handoff.settings = settings;
+        handoff.startup = startup;
+        AUTO_LAUNCH_HANDOFF = handoff;
+        return false;
+    }
+
+    private static StartupTasks startStartupTasks(LaunchSettings s) {
+        return startStartupTasks(s.state.useBetaUpdates, s.state.releaseRepo, s.state.betaRepo, s.jarRegex, s.serverJarRegex, s.assetsRegex,
+                s.minecraftDir, s.instanceRoot, s.mode, s.jarmodName, s.launcherRepo, s.launcherJarRegex, s.launcherJarPath, s.newsUrl);
+    }
+
     private static Map<String, String> parseArgs(String[] args) {
         Map<String, String> map = new HashMap<String, String>();
         for (int i = 0; i < args.length; i++) {
@@ -470,7 +708,8 @@ public final class ModUpdaterGUI {
             if ("--config".equals(a) || "--repo".equals(a) || "--betaRepo".equals(a) || "--jarRegex".equals(a) || "--serverJarRegex".equals(a) || "--assetsRegex".equals(a)
                 || "--minecraftDir".equals(a) || "--instanceDir".equals(a) || "--mode".equals(a)
                 || "--jarmodName".equals(a) || "--newsUrl".equals(a)
-                || "--resourcePackRepo".equals(a) || "--resourcePackBranch".equals(a) || "--resourcePackBetaBranch".equals(a)) {
+                || "--resourcePackRepo".equals(a) || "--resourcePackBranch".equals(a) || "--resourcePackBetaBranch".equals(a)
+                || "--autoLaunch".equals(a) || "--traceStartup".equals(a)) {
                 if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
                 map.put(a, args[++i]);
             } else {
@@ -633,6 +872,17 @@ public final class ModUpdaterGUI {
         return CANONICAL_NEWS_URL;
     }
 
+    private static int parseDownloadConnections(String value) {
+        if (value == null || value.trim().isEmpty()) return 1;
+        try {
+            int n = Integer.parseInt(value.trim());
+            return Math.max(1, Math.min(MAX_DOWNLOAD_CONNECTIONS, n));
+        } catch (NumberFormatException ex) {
+            System.err.println("[mod-updater] Ignoring invalid downloadConnections value: " + value);
+            return 1;
+        }
+    }
+
     private static String firstNonNull(String a, String b) {
         return a != null ? a : b;
     }
@@ -685,6 +935,30 @@ public final class ModUpdaterGUI {
         String resourcePackBetaBranch;
         Path minecraftDir;
         String[] launchArgs;
+        /** Null until the launcher window opens. */
+        BackgroundResourceSync backgroundSync;
+    }
+
+    /** What main() resolves from the command line and updater.properties before any window exists. */
+    private static final class LaunchSettings {
+        LauncherState state;
+        String jarRegex;
+        String serverJarRegex;
+        String assetsRegex;
+        String mode;
+        String jarmodName;
+        String newsUrl;
+        String launcherRepo;
+        String launcherJarRegex;
+        Path launcherJarPath;
+        Path minecraftDir;
+        Path instanceRoot;
+        boolean autoLaunch;
+    }
+
+    private static final class AutoLaunchHandoff {
+        LaunchSettings settings;
+        StartupTasks startup;
     }
 
     private static final class BranchContext {
@@ -704,6 +978,14 @@ public final class ModUpdaterGUI {
         Path launcherJar;
         String currentVersion;
     }
+
+    /** Pending results of the network checks started in main() before the window is shown. */
+    private static final class StartupTasks {
+        Future<BranchContext> branch;
+        Future<LauncherUpdateState> launcherUpdate;
+        /** Null when no news URL is configured. */
+        Future<NewsPage> news;
+    }
     
     private enum ResourceSyncMode {
         SMART,
@@ -720,6 +1002,55 @@ public final class ModUpdaterGUI {
         }
     }
     
+    /** Winner of a hedged request: its candidate index and a stream positioned at the first byte. */
+    private static final class HedgedResponse {
+        final int index;
+        final HttpURLConnection conn;
+        final InputStream in;
+        final long firstByteMs;
+        
+        HedgedResponse(int index, HttpURLConnection conn, InputStream in, long firstByteMs) {
+            this.index = index;
+            this.conn = conn;
+            this.in = in;
+            this.firstByteMs = firstByteMs;
+        }
+    }
+    
+    private static final class HedgeFailure {
+        final int index;
+        final IOException error;
+        
+        HedgeFailure(int index, IOException error) {
+            this.index = index;
+            this.error = error;
+        }
+    }
+    
+    /**
+     * Decayed history of one mirror host. Counts are weighted by age; first-byte time
+     * and throughput are moving averages.
+     */
+    private static final class MirrorStats {
+        double successes;
+        double failures;
+        double firstByteMs = -1.0;
+        double bytesPerSecond = -1.0;
+        long updated;
+        
+        double successProbability() {
+            return (successes + 1.0) / (successes + failures + 2.0);
+        }
+        
+        /** Expected milliseconds until expectedBytes have been fetched from this mirror. */
+        double expectedMillis(long expectedBytes) {
+            double ttfb = firstByteMs >= 0 ? firstByteMs : MIRROR_PRIOR_FIRST_BYTE_MS;
+            double rate = bytesPerSecond > 0 ? bytesPerSecond : MIRROR_PRIOR_BYTES_PER_SECOND;
+            double p = successProbability();
+            return ttfb + expectedBytes * 1000.0 / rate + (1.0 - p) / p * MIRROR_FAILURE_COST_MS;
+        }
+    }
+    
     private static final class ResourceArchiveDownload {
         final Path zipPath;
         final String url;
@@ -732,98 +1063,522 @@ public final class ModUpdaterGUI {
         }
     }
     
-    private static final class ResourceSyncResult {
-        boolean success;
-        String sourceUrl;
-        String sourceBranch;
-        ResourceSyncMode mode;
-        int copiedFiles;
-        int langFilesRefreshed;
-        int missingFilesCopied;
-        int skippedExistingFiles;
-        final List<String> missingAssetDetails = new ArrayList<String>();
-        final List<String> refreshedLanguageDetails = new ArrayList<String>();
-        int suppressedMissingDetails;
-        int suppressedLanguageDetails;
-        final List<String> attempts = new ArrayList<String>();
-        final List<String> errors = new ArrayList<String>();
+    /** Files under assets/ at one commit, from the recursive git tree API. */
+    private static final class ResourceTree {
+        boolean truncated;
+        final List<ResourceTreeBlob> blobs = new ArrayList<ResourceTreeBlob>();
+    }
+    
+    /** One archive entry selected for writing, with the outcome filled in by its worker. */
+    private static final class PlannedAssetEntry {
+        final ZipEntry entry;
+        final String relNorm;
+        final Path dest;
+        final boolean isLangFile;
+        final boolean replaceExisting;
+        final boolean existedBefore;
+        String previousLangSha;
+        Path staged;
+        long crc32 = -1L;
+        boolean written;
+        String writtenSha;
         
-        void addMissingAssetDetail(String path) {
-            if (path == null) return;
-            if (missingAssetDetails.size() < RESOURCE_SYNC_DETAIL_LOG_LIMIT) {
-                missingAssetDetails.add(path);
-            } else {
-                suppressedMissingDetails++;
+        PlannedAssetEntry(ZipEntry entry, String relNorm, Path dest, boolean isLangFile, boolean replaceExisting, boolean existedBefore) {
+            this.entry = entry;
+            this.relNorm = relNorm;
+            this.dest = dest;
+            this.isLangFile = isLangFile;
+            this.replaceExisting = replaceExisting;
+            this.existedBefore = existedBefore;
+        }
+    }
+    
+    /**
+     * Passes bytes through while counting them and keeping the last few, enough to
+     * locate the end-of-central-directory record once a streamed archive ends. When
+     * given a copy stream, every byte read is also written there.
+     */
+    private static final class ZipTailInputStream extends FilterInputStream {
+        /** Fixed part of the end record plus its longest possible comment. */
+        private static final int TAIL_BYTES = 22 + 0xFFFF;
+        private final byte[] ring = new byte[TAIL_BYTES];
+        private final OutputStream copy;
+        private long total;
+        
+        ZipTailInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                if (copy != null) copy.write(b);
+                ring[(int) (total % TAIL_BYTES)] = (byte) b;
+                total++;
             }
+            return b;
         }
         
-        void addRefreshedLanguageDetail(String path) {
-            if (path == null) return;
-            if (refreshedLanguageDetails.size() < RESOURCE_SYNC_DETAIL_LOG_LIMIT) {
-                refreshedLanguageDetails.add(path);
-            } else {
-                suppressedLanguageDetails++;
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                if (copy != null) copy.write(b, off, n);
+                remember(b, off, n);
             }
+            return n;
         }
         
-        String describeFailure() {
-            StringBuilder sb = new StringBuilder();
-            if (!attempts.isEmpty()) {
-                sb.append("Attempts: ");
-                for (int i = 0; i < attempts.size(); i++) {
-                    if (i > 0) sb.append(" | ");
-                    sb.append(attempts.get(i));
-                }
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes still have to pass through the tail buffer
+            byte[] scratch = new byte[(int) Math.min(Math.max(n, 0L), 8192L)];
+            int read = read(scratch, 0, scratch.length);
+            return Math.max(read, 0);
+        }
+        
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+        
+        private void remember(byte[] b, int off, int len) {
+            if (len > TAIL_BYTES) {
+                off += len - TAIL_BYTES;
+                total += len - TAIL_BYTES;
+                len = TAIL_BYTES;
             }
-            if (!errors.isEmpty()) {
-                if (sb.length() > 0) sb.append(" | ");
-                sb.append("Errors: ");
-                for (int i = 0; i < errors.size(); i++) {
-                    if (i > 0) sb.append(" | ");
-                    sb.append(errors.get(i));
-                }
+            while (len > 0) {
+                int pos = (int) (total % TAIL_BYTES);
+                int chunk = Math.min(len, TAIL_BYTES - pos);
+                System.arraycopy(b, off, ring, pos, chunk);
+                off += chunk;
+                len -= chunk;
+                total += chunk;
             }
-            return sb.toString();
+        }
+        
+        long totalBytes() {
+            return total;
+        }
+        
+        /** The last min(total, TAIL_BYTES) bytes, oldest first. */
+        byte[] tailBytes() {
+            int size = (int) Math.min(total, (long) TAIL_BYTES);
+            byte[] out = new byte[size];
+            int start = (int) ((total - size) % TAIL_BYTES);
+            int first = Math.min(size, TAIL_BYTES - start);
+            System.arraycopy(ring, start, out, 0, first);
+            System.arraycopy(ring, 0, out, first, size - first);
+            return out;
         }
     }
-
-    private static void saveBetaSetting(Path configPath, boolean useBeta) {
-        if (configPath == null) return;
-        try {
-            if (!Files.exists(configPath)) return;
-            List<String> lines = Files.readAllLines(configPath, StandardCharsets.UTF_8);
-            boolean found = false;
-            String key = "useBetaUpdates";
-            String val = useBeta ? "true" : "false";
-            List<String> newLines = new ArrayList<String>();
-            for (String line : lines) {
-                String trim = line.trim();
-                if (trim.startsWith(key + "=") || trim.startsWith(key + " =")) {
-                    newLines.add(key + "=" + val);
-                    found = true;
-                } else {
-                    newLines.add(line);
-                }
-            }
-            if (!found) {
-                newLines.add("");
-                newLines.add("# Automatically toggled by launcher");
-                newLines.add(key + "=" + val);
-            }
-            Files.write(configPath, newLines, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            System.err.println("Failed to save config: " + e.getMessage());
+    
+    private static final class ResourceTreeBlob {
+        final String path;
+        final String sha;
+        final long size;
+        
+        ResourceTreeBlob(String path, String sha, long size) {
+            this.path = path;
+            this.sha = sha;
+            this.size = size;
         }
     }
-
-    private static BranchContext fetchBranchState(
-            boolean useBeta,
-            String releaseRepo,
-            String betaRepo,
-            String jarRegex,
-            String serverJarRegex,
-            String assetsRegex,
-            Path minecraftDir,
+    
+    /**
+     * Local view of resources/assets: path -> size, mtime, git blob SHA-1 and CRC-32.
+     * Built with a single directory walk; hashes persisted from earlier runs are reused
+     * while a file's size and mtime are unchanged, so only touched files are re-read.
+     * A FULL sync's staging tree is indexed under the live tree's root, since the two
+     * share files through hard links and the staging tree becomes the live one.
+     */
+    private static final class ResourceAssetIndex {
+        private static final class Entry {
+            long size;
+            long mtime;
+            String sha1;
+            long crc32 = -1L;
+        }
+        
+        private final Path resourcesDir;
+        private final Path persistedRoot;
+        private final Path indexFile;
+        private final Map<String, Entry> entries = new HashMap<String, Entry>();
+        private boolean dirty;
+        
+        private ResourceAssetIndex(Path resourcesDir, Path persistedRoot, Path indexFile) {
+            this.resourcesDir = resourcesDir;
+            this.persistedRoot = persistedRoot;
+            this.indexFile = indexFile;
+        }
+        
+        static ResourceAssetIndex load(final Path resourcesDir, Path persistedRoot, Path indexFile) throws IOException {
+            final ResourceAssetIndex index = new ResourceAssetIndex(resourcesDir, persistedRoot, indexFile);
+            Properties persisted = readPropertiesQuietly(indexFile);
+            if (persisted != null && !persistedRoot.toAbsolutePath().toString().equals(persisted.getProperty("@root"))) {
+                persisted = null; // Index belongs to another .minecraft
+            }
+            final Properties known = persisted != null ? persisted : new Properties();
+            Path assetsRoot = resourcesDir.resolve("assets");
+            if (!Files.isDirectory(assetsRoot)) {
+                index.dirty = true;
+                return index;
+            }
+            Files.walkFileTree(assetsRoot, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+                    String rel = resourcesDir.relativize(file).toString().replace('\\', '/');
+                    Entry e = new Entry();
+                    e.size = attrs.size();
+                    e.mtime = attrs.lastModifiedTime().toMillis();
+                    String stored = known.getProperty(rel);
+                    if (stored != null) {
+                        String[] parts = stored.split(",", -1);
+                        if (parts.length >= 3 && parts[0].equals(String.valueOf(e.size)) && parts[1].equals(String.valueOf(e.mtime))) {
+                            e.sha1 = parts[2].length() > 0 ? parts[2] : null;
+                            e.crc32 = parts.length >= 4 ? parseLongOrDefault(parts[3], -1L) : -1L;
+                        }
+                    }
+                    if (e.sha1 == null) index.dirty = true;
+                    index.entries.put(rel, e);
+                    return FileVisitResult.CONTINUE;
+                }
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            if (known.size() - 1 != index.entries.size()) index.dirty = true;
+            return index;
+        }
+        
+        synchronized boolean contains(String rel) {
+            return entries.containsKey(rel);
+        }
+        
+        /** Git blob SHA-1 of a local file, hashing it only if the cached value is stale. */
+        synchronized String gitBlobSha1(String rel) throws IOException {
+            Entry e = entries.get(rel);
+            if (e == null) return null;
+            if (e.sha1 == null) {
+                e.sha1 = ModUpdaterGUI.gitBlobSha1(resourcesDir.resolve(rel));
+                dirty = true;
+            }
+            return e.sha1;
+        }
+        
+        /** True when the local file has this size and CRC-32, hashing it only if the cached CRC is stale. */
+        synchronized boolean matchesCrc32(String rel, long size, long crc32) throws IOException {
+            Entry e = entries.get(rel);
+            if (e == null || size < 0 || crc32 < 0 || e.size != size) return false;
+            if (e.crc32 < 0) {
+                e.crc32 = ModUpdaterGUI.crc32(resourcesDir.resolve(rel));
+                dirty = true;
+            }
+            return e.crc32 == crc32;
+        }
+        
+        synchronized void record(String rel, Path file, String sha1) throws IOException {
+            record(rel, file, sha1, -1L);
+        }
+        
+        synchronized void record(String rel, Path file, String sha1, long crc32) throws IOException {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            Entry e = new Entry();
+            e.size = attrs.size();
+            e.mtime = attrs.lastModifiedTime().toMillis();
+            e.sha1 = sha1;
+            e.crc32 = crc32;
+            entries.put(rel, e);
+            dirty = true;
+        }
+        
+        /**
+         * Size, mtime and file key of the saved index, or null if there is none. save()
+         * replaces the file by rename, so each save yields a new stamp.
+         */
+        static String savedStamp(Path indexFile) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(indexFile, BasicFileAttributes.class);
+                return attrs.size() + "," + attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS) + "," + attrs.fileKey();
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+        
+        synchronized void save() {
+            if (!dirty) return;
+            Properties p = new Properties();
+            p.setProperty("@root", persistedRoot.toAbsolutePath().toString());
+            for (Map.Entry<String, Entry> me : entries.entrySet()) {
+                Entry e = me.getValue();
+                if (e.sha1 != null || e.crc32 >= 0) {
+                    p.setProperty(me.getKey(), e.size + "," + e.mtime + "," + (e.sha1 != null ? e.sha1 : "") + "," + (e.crc32 >= 0 ? String.valueOf(e.crc32) : ""));
+                }
+            }
+            try {
+                writePropertiesAtomically(indexFile, p, "Resource asset index: path=size,mtime,git-blob-sha1,crc32");
+                dirty = false;
+            } catch (IOException ex) {
+                System.err.println("[mod-updater] Failed to save resource index: " + ex.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Commit the resource pack branch points at, plus the persisted state of the last
+     * successful sync it is compared with.
+     */
+    private static final class ResourcePackHead {
+        final Path statePath;
+        final Properties state;
+        final String key;
+        String sha;
+        String etag;
+        
+        ResourcePackHead(Path statePath, Properties state, String key) {
+            this.statePath = statePath;
+            this.state = state;
+            this.key = key;
+        }
+        
+        /**
+         * True when the last sync into this .minecraft used the same commit and the
+         * resource asset index has not been saved since. Every write into resources/assets
+         * by the launcher (patch jar assets included) and every rebuild that notices
+         * deleted or edited files saves the index, so any of those forces a real sync.
+         */
+        boolean matchesLastSync(Path minecraftDir) {
+            if (sha == null || !sha.equals(state.getProperty(key + ".sha"))) return false;
+            String dir = minecraftDir.toAbsolutePath().normalize().toString();
+            if (!dir.equals(state.getProperty(key + ".minecraftDir"))) return false;
+            if (!Files.isDirectory(minecraftDir.resolve("resources").resolve("assets"))) return false;
+            String recorded = state.getProperty(key + ".assetIndex");
+            return recorded != null && recorded.equals(ResourceAssetIndex.savedStamp(launcherDataDir().resolve(RESOURCE_INDEX_NAME)));
+        }
+    }
+    
+    /** A SMART sync applied to resources.prefetch, waiting to be committed to resources/. */
+    private static final class StagedResourceSync {
+        String repo;
+        String branch;
+        ResourcePackHead head;
+        /** Null when the branch head was unchanged and nothing had to be staged. */
+        Path dir;
+        ResourceSyncResult result;
+        long stagedAtMs;
+    }
+    
+    /**
+     * Runs stageResourcePackSync on one worker thread while the launcher window sits
+     * idle, so the pack download is off the path between Play and the game starting.
+     * Restarting queues a fresh run behind the cancelled one, so two runs never share
+     * the staging tree.
+     */
+    private static final class BackgroundResourceSync {
+        private final ExecutorService pool = LauncherRuntime.newWorkerPool("ModUpdater-BackgroundSync", 1);
+        private Future<StagedResourceSync> current;
+        private AtomicBoolean currentCancelled;
+        private ConnectionScope currentConnections;
+        private String repo;
+        private String branch;
+        
+        synchronized void start(final String repo, final String branch, final Path minecraftDir) {
+            cancel();
+            final AtomicBoolean cancelled = new AtomicBoolean(false);
+            final ConnectionScope connections = new ConnectionScope();
+            this.repo = repo;
+            this.branch = branch;
+            this.currentCancelled = cancelled;
+            this.currentConnections = connections;
+            this.current = pool.submit(new Callable<StagedResourceSync>() {
+                public StagedResourceSync call() throws IOException {
+                    CONNECTION_SCOPE.set(connections);
+                    try {
+                        return stageResourcePackSync(repo, branch, minecraftDir, cancelled);
+                    } finally {
+                        CONNECTION_SCOPE.remove();
+                        connections.clear();
+                    }
+                }
+            });
+        }
+        
+        synchronized void cancel() {
+            if (current == null) return;
+            currentCancelled.set(true);
+            current.cancel(true);
+            // Interrupting the worker does not unblock a socket read
+            currentConnections.disconnectAll();
+            current = null;
+            System.out.println("[mod-updater] Background resource sync: cancelled (branch=" + normalizeResourcePackBranch(branch) + ").");
+        }
+        
+        /**
+         * The staged sync for repo/branch, waiting for it if it is still running; null when
+         * there is none to use. A run for another branch is cancelled.
+         */
+        StagedResourceSync take(String repo, String branch) {
+            Future<StagedResourceSync> f;
+            synchronized (this) {
+                if (current == null) return null;
+                if (!equalsSafe(this.repo, repo) || !equalsSafe(this.branch, branch)) {
+                    cancel();
+                    return null;
+                }
+                f = current;
+                current = null;
+            }
+            try {
+                return f.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                System.err.println("[mod-updater] Background resource sync failed (" + cause.getMessage() + "); syncing now.");
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * HTTP connections opened on behalf of one background sync, so cancelling it can
+     * disconnect whatever is still blocked on the network. openHttpConnection registers
+     * with the scope of the current thread; helper threads of the sync adopt it.
+     */
+    private static final class ConnectionScope {
+        private final List<HttpURLConnection> open = new ArrayList<HttpURLConnection>();
+        private boolean closed;
+        
+        synchronized void add(HttpURLConnection conn) {
+            if (closed) {
+                conn.disconnect();
+            } else {
+                open.add(conn);
+            }
+        }
+        
+        /**
+         * Disconnects every connection, including any opened from now on. Called from
+         * the EDT, so the disconnects run in the background: each one waits for the
+         * read in progress on its connection, and a read that is stalled outright only
+         * ends at its read timeout.
+         */
+        synchronized void disconnectAll() {
+            closed = true;
+            disconnectInBackground(new ArrayList<HttpURLConnection>(open));
+            open.clear();
+        }
+        
+        /** Forgets the connections of a finished run without touching them. */
+        synchronized void clear() {
+            open.clear();
+        }
+    }
+    
+    private static final class ResourceSyncResult {
+        boolean success;
+        /** Sync skipped because the branch head matched the last successful sync. */
+        boolean unchangedHead;
+        String sourceUrl;
+        String sourceBranch;
+        ResourceSyncMode mode;
+        int copiedFiles;
+        int langFilesRefreshed;
+        int missingFilesCopied;
+        int skippedExistingFiles;
+        final List<String> missingAssetDetails = new ArrayList<String>();
+        final List<String> refreshedLanguageDetails = new ArrayList<String>();
+        int suppressedMissingDetails;
+        int suppressedLanguageDetails;
+        final List<String> attempts = new ArrayList<String>();
+        final List<String> errors = new ArrayList<String>();
+        /** Every assets/ path the applied source contains; a clean FULL sync prunes the rest. */
+        final Set<String> sourceAssetPaths = new HashSet<String>();
+        /** Paths (relative to resources/) this sync wrote, in write-tally order; a staged sync commits exactly these. */
+        final Set<String> writtenPaths = new LinkedHashSet<String>();
+        
+        void addMissingAssetDetail(String path) {
+            if (path == null) return;
+            if (missingAssetDetails.size() < RESOURCE_SYNC_DETAIL_LOG_LIMIT) {
+                missingAssetDetails.add(path);
+            } else {
+                suppressedMissingDetails++;
+            }
+        }
+        
+        void addRefreshedLanguageDetail(String path) {
+            if (path == null) return;
+            if (refreshedLanguageDetails.size() < RESOURCE_SYNC_DETAIL_LOG_LIMIT) {
+                refreshedLanguageDetails.add(path);
+            } else {
+                suppressedLanguageDetails++;
+            }
+        }
+        
+        String describeFailure() {
+            StringBuilder sb = new StringBuilder();
+            if (!attempts.isEmpty()) {
+                sb.append("Attempts: ");
+                for (int i = 0; i < attempts.size(); i++) {
+                    if (i > 0) sb.append(" | ");
+                    sb.append(attempts.get(i));
+                }
+            }
+            if (!errors.isEmpty()) {
+                if (sb.length() > 0) sb.append(" | ");
+                sb.append("Errors: ");
+                for (int i = 0; i < errors.size(); i++) {
+                    if (i > 0) sb.append(" | ");
+                    sb.append(errors.get(i));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private static void saveBetaSetting(Path configPath, boolean useBeta) {
+        if (configPath == null) return;
+        try {
+            if (!Files.exists(configPath)) return;
+            List<String> lines = Files.readAllLines(configPath, StandardCharsets.UTF_8);
+            boolean found = false;
+            String key = "useBetaUpdates";
+            String val = useBeta ? "true" : "false";
+            List<String> newLines = new ArrayList<String>();
+            for (String line : lines) {
+                String trim = line.trim();
+                if (trim.startsWith(key + "=") || trim.startsWith(key + " =")) {
+                    newLines.add(key + "=" + val);
+                    found = true;
+                } else {
+                    newLines.add(line);
+                }
+            }
+            if (!found) {
+                newLines.add("");
+                newLines.add("# Automatically toggled by launcher");
+                newLines.add(key + "=" + val);
+            }
+            Files.write(configPath, newLines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Failed to save config: " + e.getMessage());
+        }
+    }
+
+    private static BranchContext fetchBranchState(
+            boolean useBeta,
+            String releaseRepo,
+            String betaRepo,
+            String jarRegex,
+            String serverJarRegex,
+            String assetsRegex,
+            Path minecraftDir,
             Path instanceRoot,
             String mode,
             String jarmodName) throws IOException {
@@ -854,6 +1609,91 @@ public final class ModUpdaterGUI {
         ctx.assetsZip = assetsZip;
         ctx.upToDate = upToDate;
         return ctx;
+    }
+
+    /**
+     * Submits the startup network checks to a small bounded pool. Each check does its
+     * own TLS handshake and GitHub round trip, so running them side by side roughly
+     * halves the time until the Play button is usable on slow links.
+     */
+    private static StartupTasks startStartupTasks(
+            final boolean useBeta,
+            final String releaseRepo,
+            final String betaRepo,
+            final String jarRegex,
+            final String serverJarRegex,
+            final String assetsRegex,
+            final Path minecraftDir,
+            final Path instanceRoot,
+            final String mode,
+            final String jarmodName,
+            final String launcherRepo,
+            final String launcherJarRegex,
+            final Path launcherJarPath,
+            final String newsUrl) {
+
+        ExecutorService executor = Executors.newFixedThreadPool(STARTUP_TASK_THREADS, new ThreadFactory() {
+            private int count;
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ModUpdater-Startup-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        StartupTasks tasks = new StartupTasks();
+        tasks.branch = executor.submit(new Callable<BranchContext>() {
+            public BranchContext call() throws Exception {
+                LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "fetchBranchState");
+                try {
+                    return fetchBranchState(useBeta, releaseRepo, betaRepo, jarRegex, serverJarRegex, assetsRegex, minecraftDir, instanceRoot, mode, jarmodName);
+                } finally {
+                    span.end();
+                }
+            }
+        });
+        tasks.launcherUpdate = executor.submit(new Callable<LauncherUpdateState>() {
+            public LauncherUpdateState call() {
+                LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "checkLauncherUpdate");
+                LauncherUpdateState update;
+                try {
+                    update = checkLauncherUpdate(launcherRepo, launcherJarRegex, launcherJarPath, instanceRoot);
+                } finally {
+                    span.end();
+                }
+                if (wasRestartedAfterLauncherUpdate() && update != null) {
+                    update.updateAvailable = false;
+                }
+                return update;
+            }
+        });
+        final String url = newsUrl != null ? newsUrl.trim() : "";
+        if (!url.isEmpty()) {
+            tasks.news = executor.submit(new Callable<NewsPage>() {
+                public NewsPage call() throws Exception {
+                    LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "fetchNewsPage");
+                    try {
+                        return fetchNewsPage(url);
+                    } finally {
+                        span.end();
+                    }
+                }
+            });
+        }
+        // No further work is queued; let the pool threads die once these finish.
+        executor.shutdown();
+        return tasks;
+    }
+
+    /** Waits for a background task and rethrows its original failure rather than the ExecutionException wrapper. */
+    private static <T> T awaitTaskResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw ex;
+        }
     }
 
     private static Path locateSelfJar() {
@@ -905,15 +1745,17 @@ public final class ModUpdaterGUI {
             }
             String currentVersion = detectLauncherVersion(launcherJar, instanceRoot);
             if (currentVersion == null && latest.tag != null && Files.isRegularFile(launcherJar)) {
-                try {
-                    long localSize = Files.size(launcherJar);
-                    Long remoteSize = fetchRemoteContentLength(asset.url);
-                    if (remoteSize != null && remoteSize.longValue() == localSize) {
-                        currentVersion = latest.tag;
-                        writeLauncherVersionMarker(launcherJar, currentVersion);
-                        writeLauncherVersionJson(instanceRoot, currentVersion);
-                    }
-                } catch (IOException ignored) {}
+                // No version marker: the jar is the latest release only if its bytes hash to the published digest
+                ExpectedDigest expected = expectedAssetDigest(asset);
+                if (expected != null) {
+                    try {
+                        if (expected.hex.equalsIgnoreCase(fileDigestHex(launcherJar, expected.algorithm))) {
+                            currentVersion = latest.tag;
+                            writeLauncherVersionMarker(launcherJar, currentVersion);
+                            writeLauncherVersionJson(instanceRoot, currentVersion);
+                        }
+                    } catch (IOException ignored) {}
+                }
             }
             boolean needsUpdate = currentVersion == null || latest.tag == null || !latest.tag.equals(currentVersion);
             state.latest = latest;
@@ -930,19 +1772,26 @@ public final class ModUpdaterGUI {
             System.err.println("[mod-updater] Launcher self-update check failed: " + t.getMessage());
         }
         return state;
-    }
-
-    private static Long fetchRemoteContentLength(String url) throws IOException {
+    }
+
+    /** HEAD request (following redirects) for length, validators and Range support; null on a non-success status. */
+    private static RemoteFileInfo fetchRemoteFileInfo(String url) throws IOException {
         HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
         try {
             conn.setRequestMethod("HEAD");
         } catch (ProtocolException ignored) {}
-        int code = conn.getResponseCode();
-        if (code >= 200 && code < 400) {
-            long len = conn.getContentLengthLong();
-            return len >= 0 ? Long.valueOf(len) : null;
+        conn.setInstanceFollowRedirects(true);
+        int code = LauncherHttp.status(conn);
+        LauncherHttp.discard(conn);
+        if (code < 200 || code >= 400) {
+            return null;
         }
-        return null;
+        RemoteFileInfo info = new RemoteFileInfo();
+        info.length = conn.getContentLengthLong();
+        info.etag = conn.getHeaderField("ETag");
+        info.lastModified = conn.getHeaderField("Last-Modified");
+        info.acceptRanges = conn.getHeaderField("Accept-Ranges");
+        return info;
     }
 
     private static String detectLauncherVersion(Path jarPath, Path instanceRoot) {
@@ -1097,10 +1946,19 @@ public final class ModUpdaterGUI {
      * HTTP client, then falls back to release notes if loading fails.
      */
     private static void loadNewsPage(final JEditorPane newsPane, final String newsUrl, final LatestRelease fallbackLatest) {
+        loadNewsPage(newsPane, newsUrl, fallbackLatest, null);
+    }
+    
+    /**
+     * Variant used at startup: the news page (and the release used as fallback
+     * content) may still be in flight on the startup pool, so wait for those
+     * results instead of issuing new requests.
+     */
+    private static void loadNewsPage(final JEditorPane newsPane, final String newsUrl, final LatestRelease fallbackLatest, final StartupTasks startup) {
         if (newsPane == null) return;
         
         String url = newsUrl != null ? newsUrl.trim() : "";
-        if (url.isEmpty()) {
+        if (url.isEmpty() && startup == null) {
             setNewsHtml(newsPane, buildReleaseHtml(fallbackLatest, null), null);
             newsPane.setCaretPosition(0);
             return;
@@ -1116,15 +1974,21 @@ public final class ModUpdaterGUI {
                 URL baseUrl = null;
                 Exception loadError = null;
                 try {
-                    NewsPage page = fetchNewsPage(targetUrl);
-                    html = page.html;
-                    baseUrl = page.baseUrl;
-                    if (html == null || html.trim().isEmpty()) {
-                        throw new IOException("News page returned empty content.");
+                    if (targetUrl.isEmpty()) {
+                        html = buildReleaseHtml(startupFallbackLatest(startup, fallbackLatest), null);
+                    } else {
+                        NewsPage page = startup != null && startup.news != null
+                                ? awaitTaskResult(startup.news)
+                                : fetchNewsPage(targetUrl);
+                        html = page.html;
+                        baseUrl = page.baseUrl;
+                        if (html == null || html.trim().isEmpty()) {
+                            throw new IOException("News page returned empty content.");
+                        }
                     }
                 } catch (Exception ex) {
                     loadError = ex;
-                    html = buildReleaseHtml(fallbackLatest, ex);
+                    html = buildReleaseHtml(startupFallbackLatest(startup, fallbackLatest), ex);
                 }
                 
                 final String finalHtml = html;
@@ -1145,22 +2009,36 @@ public final class ModUpdaterGUI {
         loader.start();
     }
     
+    private static LatestRelease startupFallbackLatest(StartupTasks startup, LatestRelease fallbackLatest) {
+        if (fallbackLatest != null || startup == null || startup.branch == null) return fallbackLatest;
+        try {
+            BranchContext ctx = awaitTaskResult(startup.branch);
+            return ctx != null ? ctx.latest : null;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+    
     private static NewsPage fetchNewsPage(String newsUrl) throws IOException {
         HttpURLConnection conn = openHttpConnection(newsUrl, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
         conn.setRequestMethod("GET");
         conn.setUseCaches(false);
         conn.setInstanceFollowRedirects(true);
         conn.setRequestProperty("Accept", "text/html,application/xhtml+xml,*/*;q=0.8");
+        LauncherHttp.acceptGzip(conn);
         
-        int code = conn.getResponseCode();
+        int code = LauncherHttp.status(conn);
         if (code < 200 || code >= 300) {
-            InputStream err = conn.getErrorStream();
-            String body = err != null ? readAll(err) : "";
+            String body = LauncherHttp.errorBody(conn);
             throw new IOException("News page HTTP " + code + " " + truncateErrorBody(body));
         }
         
-        String html = readAll(conn.getInputStream());
-        return new NewsPage(html, conn.getURL());
+        InputStream in = LauncherHttp.body(conn);
+        try {
+            return new NewsPage(readAll(in), conn.getURL());
+        } finally {
+            closeQuietly(in);
+        }
     }
     
     private static void setNewsHtml(JEditorPane newsPane, String html, URL baseUrl) {
@@ -1199,7 +2077,8 @@ public final class ModUpdaterGUI {
             final String assetsRegex,
             final String jarmodName,
             final LauncherState launcherState,
-            final String newsUrl) {
+            final String newsUrl,
+            final StartupTasks startup) {
 
         // Use a latch to keep the main thread alive until the GUI window closes.
         // Without this, the main thread exits immediately after invokeLater returns,
@@ -1208,6 +2087,9 @@ public final class ModUpdaterGUI {
 
         SwingUtilities.invokeLater(new Runnable() {
             public void run() {
+                // Every component below paints with these; wait once here rather than per use
+                awaitUiAssets();
+                LauncherTrace.Span windowSpan = LauncherTrace.begin(LauncherTrace.PHASE, "showLauncher");
                 final JFrame frame = new JFrame("Minecraft Oldschool Edition Launcher");
                 frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
                 frame.setMinimumSize(new Dimension(854, 480));
@@ -1215,14 +2097,25 @@ public final class ModUpdaterGUI {
                 frame.setSize(900, 520);
                 frame.setLocationRelativeTo(null);
 
-                List<Image> icons = loadAppIcons();
+                List<Image> icons = appIcons();
                 if (!icons.isEmpty()) {
                     frame.setIconImages(icons);
                     Image best = pickLargestIcon(icons);
                     if (best != null) frame.setIconImage(best);
                 }
 
-                JPanel root = new JPanel(new BorderLayout());
+                JPanel root = new JPanel(new BorderLayout()) {
+                    private boolean painted;
+
+                    @Override
+                    protected void paintComponent(Graphics g) {
+                        super.paintComponent(g);
+                        if (!painted) {
+                            painted = true;
+                            LauncherTrace.mark(LauncherTrace.PHASE, "firstPaint");
+                        }
+                    }
+                };
                 // Match the embedded news page background so there is no visible
                 // grey border around the web content area in the client.
                 Color newsBg = new Color(16, 16, 16);
@@ -1246,7 +2139,7 @@ public final class ModUpdaterGUI {
                 // Use a slightly smaller base font so embedded pages (like mcupdate.tumblr.com
                 // or your cloned patch-notes page) render closer to their original size inside
                 // the launcher window and leave enough room for the sidebar.
-                Font baseNewsFont = UI_BASE_FONT != null ? UI_BASE_FONT : newsPane.getFont();
+                Font baseNewsFont = uiBaseFont(newsPane.getFont());
                 if (baseNewsFont != null) {
                     newsPane.setFont(baseNewsFont.deriveFont(Font.PLAIN, 10f));
                 }
@@ -1328,8 +2221,8 @@ public final class ModUpdaterGUI {
                         yesButton.putClientProperty("baseH", Integer.valueOf(baseH));
                         noButton.putClientProperty("baseW", Integer.valueOf(baseW));
                         noButton.putClientProperty("baseH", Integer.valueOf(baseH));
-                        yesButton.setFont((UI_BASE_FONT != null ? UI_BASE_FONT : yesButton.getFont()).deriveFont(Font.PLAIN, 11.15f));
-                        noButton.setFont((UI_BASE_FONT != null ? UI_BASE_FONT : noButton.getFont()).deriveFont(Font.PLAIN, 11.15f));
+                        yesButton.setFont(uiBaseFont(yesButton.getFont()).deriveFont(Font.PLAIN, 11.15f));
+                        noButton.setFont(uiBaseFont(noButton.getFont()).deriveFont(Font.PLAIN, 11.15f));
                         yesButton.revalidate();
                         noButton.revalidate();
                         int sidePad = 48 * k;
@@ -1393,7 +2286,7 @@ public final class ModUpdaterGUI {
                 logoLabel.setVerticalAlignment(SwingConstants.CENTER);
                 logoLabel.setBorder(new EmptyBorder(8, 12, 8, 0)); // inset a bit from the left edge
                 try {
-                    Image logoImg = loadLauncherLogoImage(minecraftDir);
+                    Image logoImg = launcherLogo(minecraftDir);
                     if (logoImg != null) {
                         // Scale to better match the original launcher logo height.
                         int targetH = 48;
@@ -1439,7 +2332,7 @@ public final class ModUpdaterGUI {
                 updateLauncherButton.setVisible(hasLauncherUpdate);
 
                 // Load the nested patch notes "web page"
-                loadNewsPage(newsPane, newsUrl, currentLatest(launcherState));
+                loadNewsPage(newsPane, newsUrl, currentLatest(launcherState), startup);
                 newsPane.addHyperlinkListener(new javax.swing.event.HyperlinkListener() {
                     public void hyperlinkUpdate(javax.swing.event.HyperlinkEvent e) {
                         if (e.getEventType() == javax.swing.event.HyperlinkEvent.EventType.ACTIVATED) {
@@ -1506,10 +2399,8 @@ public final class ModUpdaterGUI {
                                     if (launcherState != null && launcherState.resourcePackRepo != null) {
                                         ui.setPhaseText("Syncing resource pack...");
                                         ui.progress(10);
-                                        ResourceSyncResult syncResult = syncResourcePack(
-                                                launcherState.resourcePackRepo,
-                                                currentResourcePackBranch(launcherState),
-                                                launcherState.minecraftDir,
+                                        ResourceSyncResult syncResult = syncResourcePackForLaunch(
+                                                launcherState,
                                                 ResourceSyncMode.SMART,
                                                 false);
                                         logResourceSyncResult(syncResult);
@@ -1538,8 +2429,15 @@ public final class ModUpdaterGUI {
                 optionsButton.addActionListener(new AbstractAction() {
                     public void actionPerformed(ActionEvent e) {
                         boolean previousBeta = launcherState != null && launcherState.useBetaUpdates;
+                        boolean previousForce = launcherState != null && launcherState.forceUpdate;
                         showLauncherOptions(frame, minecraftDir, launcherState);
                         boolean currentBeta = launcherState != null && launcherState.useBetaUpdates;
+                        if (launcherState != null && previousBeta != currentBeta) {
+                            // Restarted by refreshBranchAsync once the new branch is checked
+                            if (launcherState.backgroundSync != null) launcherState.backgroundSync.cancel();
+                        } else if (launcherState != null && previousForce != launcherState.forceUpdate) {
+                            restartBackgroundResourceSync(launcherState);
+                        }
                         if (launcherState != null && previousBeta != currentBeta) {
                             refreshBranchAsync(
                                     launcherState,
@@ -1592,10 +2490,8 @@ public final class ModUpdaterGUI {
                                     // Sync resource pack before launching
                                     ui.setPhaseText(forceResync ? "Force-syncing resource pack..." : "Syncing resource pack...");
                                     if (launcherState != null) {
-                                        ResourceSyncResult syncResult = syncResourcePack(
-                                                launcherState.resourcePackRepo,
-                                                currentResourcePackBranch(launcherState),
-                                                launcherState.minecraftDir,
+                                        ResourceSyncResult syncResult = syncResourcePackForLaunch(
+                                                launcherState,
                                                 syncMode,
                                                 strictSync);
                                         logResourceSyncResult(syncResult);
@@ -1638,10 +2534,8 @@ public final class ModUpdaterGUI {
                                     if (launcherState != null && launcherState.resourcePackRepo != null) {
                                         ui.setPhaseText("Syncing resource pack...");
                                         ui.progress(10);
-                                        ResourceSyncResult syncResult = syncResourcePack(
-                                                launcherState.resourcePackRepo,
-                                                currentResourcePackBranch(launcherState),
-                                                launcherState.minecraftDir,
+                                        ResourceSyncResult syncResult = syncResourcePackForLaunch(
+                                                launcherState,
                                                 ResourceSyncMode.SMART,
                                                 false);
                                         logResourceSyncResult(syncResult);
@@ -1675,6 +2569,20 @@ public final class ModUpdaterGUI {
                 });
 
                 frame.setVisible(true);
+                windowSpan.end();
+                
+                // Stage the resource pack sync while the player reads the news; with startup
+                // checks pending it starts once they have settled the branch
+                if (launcherState != null) {
+                    launcherState.backgroundSync = new BackgroundResourceSync();
+                    if (startup == null) {
+                        restartBackgroundResourceSync(launcherState);
+                    }
+                }
+                
+                if (startup != null) {
+                    awaitStartupChecks(startup, launcherState, playButton, optionsButton, updateLauncherButton);
+                }
                 
                 // Note: The game now automatically re-launches itself with -XstartOnFirstThread
                 // on macOS when needed, so we no longer need to warn about JVM arguments.
@@ -1690,15 +2598,75 @@ public final class ModUpdaterGUI {
         }
     }
 
-    private static boolean startMandatoryLauncherSelfUpdate(
-            final JFrame frame,
-            final LauncherState launcherState,
-            final JPanel cardPanel,
-            final CardLayout cards,
-            final JComponent bottomBg,
-            final JComponent root,
-            final ProgressCanvas progressCanvas) {
-
+    /**
+     * Keeps Play and Options disabled until the startup checks land, then publishes
+     * their results into the launcher state on the EDT. A failed branch check is
+     * fatal exactly like it was before the window existed: report it and exit 0 so
+     * the game can still start.
+     */
+    private static void awaitStartupChecks(
+            final StartupTasks startup,
+            final LauncherState launcherState,
+            final JButton playButton,
+            final JButton optionsButton,
+            final JButton updateLauncherButton) {
+
+        playButton.setEnabled(false);
+        playButton.setText("Checking...");
+        optionsButton.setEnabled(false);
+
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                final BranchContext ctx;
+                try {
+                    ctx = awaitTaskResult(startup.branch);
+                } catch (Throwable ex) {
+                    try {
+                        showError(ex);
+                    } catch (Throwable ignored) {}
+                    System.exit(0);
+                    return;
+                }
+                LauncherUpdateState update;
+                try {
+                    update = awaitTaskResult(startup.launcherUpdate);
+                } catch (Throwable ex) {
+                    System.err.println("[mod-updater] Launcher self-update check failed: " + ex.getMessage());
+                    update = null;
+                }
+                final LauncherUpdateState finalUpdate = update;
+                SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        if (launcherState != null) {
+                            launcherState.branch = ctx;
+                            launcherState.hasUpdate = !ctx.upToDate;
+                            launcherState.launcherUpdate = finalUpdate;
+                            restartBackgroundResourceSync(launcherState);
+                        }
+                        updateLauncherButton.setVisible(finalUpdate != null && finalUpdate.updateAvailable && finalUpdate.asset != null);
+                        playButton.setText("Play");
+                        playButton.setEnabled(true);
+                        optionsButton.setEnabled(true);
+                        // Startup ends when Play can be clicked
+                        LauncherTrace.mark(LauncherTrace.PHASE, "interactive");
+                        LauncherTrace.finish();
+                    }
+                });
+            }
+        }, "ModUpdater-StartupWait");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static boolean startMandatoryLauncherSelfUpdate(
+            final JFrame frame,
+            final LauncherState launcherState,
+            final JPanel cardPanel,
+            final CardLayout cards,
+            final JComponent bottomBg,
+            final JComponent root,
+            final ProgressCanvas progressCanvas) {
+
         if (!hasBlockingLauncherSelfUpdate(launcherState)) {
             return false;
         }
@@ -1745,7 +2713,7 @@ public final class ModUpdaterGUI {
         }
 
         ui.setPhaseText("Downloading launcher update...");
-        Path download = downloadToTemp(ui, update.asset.url, update.asset.name, 0.0, 0.75);
+        Path download = downloadToTemp(ui, update.asset, 0.0, 0.75);
 
         ui.setPhaseText("Installing launcher update...");
         ui.progress(82);
@@ -1866,7 +2834,7 @@ public final class ModUpdaterGUI {
                     dialog.setIconImages(icons);
                 }
             } else {
-                java.util.List<Image> icons = loadAppIcons();
+                java.util.List<Image> icons = appIcons();
                 if (icons != null && !icons.isEmpty()) {
                     dialog.setIconImages(icons);
                 }
@@ -1882,7 +2850,7 @@ public final class ModUpdaterGUI {
         JPanel header = new JPanel(new BorderLayout());
         header.setOpaque(false);
         JLabel title = new JLabel("Launcher options");
-        Font base = UI_BASE_FONT != null ? UI_BASE_FONT : title.getFont();
+        Font base = uiBaseFont(title.getFont());
         title.setFont(base.deriveFont(Font.BOLD, 14f));
         title.setHorizontalAlignment(SwingConstants.CENTER);
         header.add(title, BorderLayout.CENTER);
@@ -1978,7 +2946,7 @@ public final class ModUpdaterGUI {
         });
         center.add(clearBackupsButton, c);
         
-        // Fetch Resources row - deletes resources folder and performs a full re-download.
+        // Fetch Resources row - rebuilds the resources folder from the pack and swaps it in.
         c.gridx = 0;
         c.gridy = 4;
         c.weightx = 0;
@@ -2000,7 +2968,7 @@ public final class ModUpdaterGUI {
                 
                 int confirm = JOptionPane.showConfirmDialog(
                         dialog,
-                        "This will delete your local resources folder and re-download everything.\nContinue?",
+                        "This will replace your local resources folder with a fresh copy of the pack.\nContinue?",
                         "Fetch Resources",
                         JOptionPane.YES_NO_OPTION,
                         JOptionPane.WARNING_MESSAGE);
@@ -2015,18 +2983,21 @@ public final class ModUpdaterGUI {
                 
                 fetchResourcesButton.setEnabled(false);
                 fetchResourcesButton.setText("Fetching...");
+                // Its snapshot of resources/ is about to be replaced
+                if (launcherState != null && launcherState.backgroundSync != null) {
+                    launcherState.backgroundSync.cancel();
+                }
                 
                 Thread worker = new Thread(new Runnable() {
                     public void run() {
                         try {
-                            Path resourcesDir = finalMinecraftDir.resolve("resources");
-                            deleteDirectoryTree(resourcesDir);
-                            
+                            // Built beside the live folder and swapped in, so a failure leaves it intact
                             ResourceSyncResult syncResult = syncResourcePack(
                                     repo,
                                     branch,
                                     finalMinecraftDir,
                                     ResourceSyncMode.FULL,
+                                    true,
                                     true);
                             logResourceSyncResult(syncResult);
                             
@@ -2140,6 +3111,7 @@ public final class ModUpdaterGUI {
                     SwingUtilities.invokeLater(new Runnable() {
                         public void run() {
                             loadNewsPage(newsPane, newsUrl, ctx.latest);
+                            restartBackgroundResourceSync(launcherState);
                             playButton.setText("Play");
                             playButton.setEnabled(true);
                         }
@@ -2165,7 +3137,7 @@ public final class ModUpdaterGUI {
         frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
         frame.setResizable(true);
         frame.setMinimumSize(new Dimension(520, 300));
-        List<Image> icons = loadAppIcons();
+        List<Image> icons = appIcons();
         if (!icons.isEmpty()) {
             frame.setIconImages(icons);
             Image best = pickLargestIcon(icons);
@@ -2242,8 +3214,8 @@ public final class ModUpdaterGUI {
                 no.putClientProperty("baseW", Integer.valueOf(baseW));
                 no.putClientProperty("baseH", Integer.valueOf(baseH));
                 // Regular, consistent font sizing
-                yes.setFont((UI_BASE_FONT != null ? UI_BASE_FONT : yes.getFont()).deriveFont(Font.PLAIN, 11.15f));
-                no.setFont((UI_BASE_FONT != null ? UI_BASE_FONT : no.getFont()).deriveFont(Font.PLAIN, 11.15f));
+                yes.setFont(uiBaseFont(yes.getFont()).deriveFont(Font.PLAIN, 11.15f));
+                no.setFont(uiBaseFont(no.getFont()).deriveFont(Font.PLAIN, 11.15f));
                 yes.revalidate();
                 no.revalidate();
                 int sidePad = 48 * k;
@@ -2292,22 +3264,59 @@ public final class ModUpdaterGUI {
 
     private static void runUpdate(ProgressUI ui, Path minecraftDir, Path instanceRoot, String mode, String jarRegex,
                                   ReleaseAsset jarAsset, ReleaseAsset serverJarAsset, ReleaseAsset assetsZip, LatestRelease latest, String jarmodName) throws Exception {
+        // The LAN server jar does not depend on the patch jar, so it downloads alongside it
+        // and keeps going while assets are extracted; both share one bar, weighted by size.
+        CombinedProgress combined = new CombinedProgress(ui, 0.0, 0.95,
+                assetWeight(jarAsset), assetWeight(serverJarAsset), assetWeight(jarAsset) * 0.3);
+        ProgressUI downloadUi = combined.part(0);
+        ProgressUI extractUi = combined.part(2);
+        Future<Path> serverDownload = startLanServerJarDownload(combined.part(1), minecraftDir, serverJarAsset, latest);
+        boolean ok = false;
+        try {
+            if (jarAsset != null && serverDownload != null) {
+                ui.setPhaseText("Downloading update and LAN server jar...");
+            }
+            runPatchUpdate(ui, downloadUi, extractUi, minecraftDir, instanceRoot, mode, jarRegex, jarAsset, serverDownload != null, latest, jarmodName);
+            if (serverDownload != null && !serverDownload.isDone()) {
+                ui.setPhaseText("Downloading LAN server jar...");
+            }
+            installLanServerJar(ui, minecraftDir, serverJarAsset, latest, serverDownload);
+            ok = true;
+        } finally {
+            if (!ok && serverDownload != null) {
+                serverDownload.cancel(true);
+            }
+        }
+        ui.progress(98);
+        // Assets now extracted from the mod jar itself.
+        
+        // Note: Bouncy Castle dependency for friends system crypto is optional.
+        // The friends system works without it (just without cryptographic verification).
+        // Users who want crypto can manually add bcprov-jdk18on-1.78.1.jar as a jarmod.
+    }
+
+    /** Downloads, extracts and installs the patch jar for {@code mode}; progress goes to the download and extraction parts. */
+    private static void runPatchUpdate(ProgressUI ui, ProgressUI downloadUi, ProgressUI extractUi, Path minecraftDir, Path instanceRoot,
+            String mode, String jarRegex, ReleaseAsset jarAsset, boolean serverInFlight, LatestRelease latest, String jarmodName) throws Exception {
         if ("mods".equalsIgnoreCase(mode)) {
             if (jarAsset != null) {
                 Path modsDir = minecraftDir.resolve("mods");
                 ensureDir(modsDir);
 
                 Path existing = findExistingMatching(modsDir, jarRegex);
+                InstalledMarker installed = existing != null ? readMarker(existing) : null;
+                Path base = null;
                 if (existing != null) {
                     Path backup = withUniqueSuffix(existing, ".bak");
                     ui.setPhaseText("Backing up existing mod...");
                     Files.move(existing, backup, StandardCopyOption.REPLACE_EXISTING);
+                    base = backup;
                 }
 
-                ui.setPhaseText("Downloading mod...");
-                Path downloaded = downloadToTemp(ui, jarAsset.url, jarAsset.name, 0.0, 0.7);
+                if (!serverInFlight) ui.setPhaseText("Downloading mod...");
+                Path downloaded = downloadReleaseJar(downloadUi, latest, jarAsset, base, installed, 0.0, 1.0);
                 ui.setPhaseText("Extracting assets...");
-                extractAssetsFromJarToResources(ui, downloaded, minecraftDir, 0.7, 0.9);
+                extractAssetsFromJarToResources(extractUi, downloaded, minecraftDir, 0.0, 1.0);
 
                 Path dest = modsDir.resolve(jarAsset.name);
                 ui.setPhaseText("Installing mod jar...");
@@ -2323,11 +3332,11 @@ public final class ModUpdaterGUI {
                 ensureDir(jarmodsDir);
 
                 // Download, then extract assets and install as fixed name (jarmodName)
-                ui.setPhaseText("Downloading jarmod...");
-                Path downloaded = downloadToTemp(ui, jarAsset.url, jarAsset.name, 0.0, 0.7);
-                ui.setPhaseText("Extracting assets...");
-                extractAssetsFromJarToResources(ui, downloaded, minecraftDir, 0.7, 0.9);
                 Path dest = pickJarmodTarget(jarmodsDir, jarmodName);
+                if (!serverInFlight) ui.setPhaseText("Downloading jarmod...");
+                Path downloaded = downloadReleaseJar(downloadUi, latest, jarAsset, dest, readMarker(dest), 0.0, 1.0);
+                ui.setPhaseText("Extracting assets...");
+                extractAssetsFromJarToResources(extractUi, downloaded, minecraftDir, 0.0, 1.0);
                 if (Files.isRegularFile(dest)) {
                     Path backup = withUniqueSuffix(dest, ".bak");
                     ui.setPhaseText("Backing up existing jarmod...");
@@ -2343,10 +3352,10 @@ public final class ModUpdaterGUI {
             if (jarAsset != null) {
                 Path clientJar = resolveClientJarPath(minecraftDir, null);
                 if (clientJar == null) throw new IllegalArgumentException("Cannot resolve client jar at 'bin/minecraft.jar'.");
-                ui.setPhaseText("Downloading client jar...");
-                Path downloaded = downloadToTemp(ui, jarAsset.url, jarAsset.name, 0.0, 0.7);
+                if (!serverInFlight) ui.setPhaseText("Downloading client jar...");
+                Path downloaded = downloadReleaseJar(downloadUi, latest, jarAsset, clientJar, readMarker(clientJar), 0.0, 1.0);
                 ui.setPhaseText("Extracting assets...");
-                extractAssetsFromJarToResources(ui, downloaded, minecraftDir, 0.7, 0.9);
+                extractAssetsFromJarToResources(extractUi, downloaded, minecraftDir, 0.0, 1.0);
                 Path backup = withUniqueSuffix(clientJar, ".bak");
                 ui.setPhaseText("Backing up old jar...");
                 Files.copy(clientJar, backup, StandardCopyOption.REPLACE_EXISTING);
@@ -2359,23 +3368,42 @@ public final class ModUpdaterGUI {
         } else {
             throw new IllegalArgumentException("Unsupported mode: " + mode);
         }
-        installLanServerJar(ui, minecraftDir, serverJarAsset, latest);
-        // Assets now extracted from the mod jar itself.
-        
-        // Note: Bouncy Castle dependency for friends system crypto is optional.
-        // The friends system works without it (just without cryptographic verification).
-        // Users who want crypto can manually add bcprov-jdk18on-1.78.1.jar as a jarmod.
     }
 
-    private static void installLanServerJar(ProgressUI ui, Path minecraftDir, ReleaseAsset serverJarAsset, LatestRelease latest) throws Exception {
+    /** Starts downloading the LAN server jar on its own thread; null when the release has none. */
+    private static Future<Path> startLanServerJarDownload(final ProgressUI ui, Path minecraftDir, final ReleaseAsset serverJarAsset,
+            final LatestRelease latest) throws IOException {
+        if (serverJarAsset == null) return null;
+        Path lanServerDir = minecraftDir.resolve(LAN_SERVER_DIR_NAME);
+        ensureDir(lanServerDir);
+        final Path dest = lanServerDir.resolve(LAN_SERVER_JAR_NAME);
+        ExecutorService pool = LauncherRuntime.newWorkerPool("ModUpdater-ServerJar", 1);
+        try {
+            return pool.submit(new Callable<Path>() {
+                public Path call() throws IOException {
+                    return downloadReleaseJar(ui, latest, serverJarAsset, dest, readMarker(dest), 0.0, 1.0);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void installLanServerJar(ProgressUI ui, Path minecraftDir, ReleaseAsset serverJarAsset, LatestRelease latest,
+            Future<Path> download) throws Exception {
         if (serverJarAsset == null) {
             ui.log("No server jar in this release; skipping LAN server install.");
             return;
         }
-        Path lanServerDir = minecraftDir.resolve(LAN_SERVER_DIR_NAME);
-        ensureDir(lanServerDir);
-        Path dest = lanServerDir.resolve(LAN_SERVER_JAR_NAME);
-        Path downloaded = downloadToTemp(ui, serverJarAsset.url, serverJarAsset.name, 0.9, 0.98);
+        Path dest = minecraftDir.resolve(LAN_SERVER_DIR_NAME).resolve(LAN_SERVER_JAR_NAME);
+        Path downloaded;
+        try {
+            downloaded = download.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
         if (Files.isRegularFile(dest)) {
             Path backup = withUniqueSuffix(dest, ".bak");
             ui.setPhaseText("Backing up LAN server jar...");
@@ -2395,6 +3423,9 @@ public final class ModUpdaterGUI {
      *
      * Full mode:
      * - Replaces every asset file from the archive
+     * - Builds the new tree in resources.next (hard-linked from resources/ so unchanged
+     *   files are not rewritten) and swaps it in only once the sync succeeded; the old
+     *   tree is kept as resources.rollback until a later launcher session
      *
      * @param repo GitHub repository in owner/repo format
      * @param branch Preferred branch (defaults to main when missing)
@@ -2405,6 +3436,14 @@ public final class ModUpdaterGUI {
      * @throws IOException when strict mode is enabled and sync fails
      */
     private static ResourceSyncResult syncResourcePack(String repo, String branch, Path minecraftDir, ResourceSyncMode mode, boolean strict) throws IOException {
+        return syncResourcePack(repo, branch, minecraftDir, mode, strict, false);
+    }
+    
+    /**
+     * @param clean In full mode, also drop local files the source does not contain, so
+     *              the result matches a fresh download of the pack
+     */
+    private static ResourceSyncResult syncResourcePack(String repo, String branch, Path minecraftDir, ResourceSyncMode mode, boolean strict, boolean clean) throws IOException {
         ResourceSyncResult result = new ResourceSyncResult();
         result.mode = mode != null ? mode : ResourceSyncMode.SMART;
         
@@ -2427,6 +3466,8 @@ public final class ModUpdaterGUI {
             return result;
         }
         
+        recoverResourceTreeSwap(minecraftDir);
+        
         String repoTrimmed = repo.trim();
         String effectiveBranch = normalizeResourcePackBranch(branch);
         System.out.println("[mod-updater] Syncing resource pack from: " + repoTrimmed + " (branch=" + effectiveBranch + ", mode=" + result.mode + ")");
@@ -2436,9 +3477,79 @@ public final class ModUpdaterGUI {
             System.out.println("[mod-updater] Full sync policy: re-download and replace all resource-pack assets.");
         }
         
+        // One small conditional request tells us whether the branch moved since the last sync
+        ResourcePackHead head = fetchResourcePackHead(repoTrimmed, effectiveBranch, minecraftDir);
+        if (result.mode == ResourceSyncMode.SMART && !strict && head != null && head.matchesLastSync(minecraftDir)) {
+            System.out.println("[mod-updater] Resource sync: branch head " + shortSha(head.sha) + " unchanged since last sync; skipping archive download.");
+            result.success = true;
+            result.unchangedHead = true;
+            result.sourceBranch = effectiveBranch;
+            return result;
+        }
+        
+        Path resourcesDir = minecraftDir.resolve("resources").normalize();
+        Path targetDir = resourcesDir;
+        if (result.mode == ResourceSyncMode.FULL) {
+            try {
+                targetDir = prepareResourceStagingTree(minecraftDir, RESOURCE_NEXT_DIR_NAME, false);
+            } catch (IOException e) {
+                return failResourceSync(result, "Could not prepare " + RESOURCE_NEXT_DIR_NAME + ": " + e.getMessage(), e, strict);
+            }
+        }
+        try {
+            if (!syncResourcePackInto(repoTrimmed, effectiveBranch, head, targetDir, strict, result)) {
+                return result;
+            }
+            if (!targetDir.equals(resourcesDir)) {
+                try {
+                    if (clean) {
+                        pruneResourceTree(targetDir, result.sourceAssetPaths);
+                    }
+                    swapInResourceTree(minecraftDir);
+                } catch (IOException e) {
+                    result.success = false;
+                    return failResourceSync(result, "Could not swap in the synced resources: " + e.getMessage(), e, strict);
+                }
+            }
+            if (head != null && effectiveBranch.equals(result.sourceBranch)) {
+                recordResourcePackSync(head, minecraftDir);
+            }
+            return result;
+        } finally {
+            if (!targetDir.equals(resourcesDir)) {
+                try { deleteDirectoryTree(targetDir); } catch (IOException ignored) {}
+            }
+        }
+    }
+    
+    /**
+     * Applies the pack to resourcesDir: per-file from the git tree when few files
+     * changed, else the branch archive, streamed first and downloaded to disk as the
+     * last resort. Returns whether one of them succeeded.
+     */
+    private static boolean syncResourcePackInto(String repo, String branch, ResourcePackHead head, Path resourcesDir, boolean strict, ResourceSyncResult result) throws IOException {
+        // Another instance may already have fetched this commit into the shared cache
+        if (head != null && applyCachedResourceArchive(repo, branch, head, resourcesDir, result)) {
+            return true;
+        }
+        
+        // Per-file sync against the commit's git tree; the archive remains the fallback
+        if (head != null && syncResourcePackFromTree(repo, branch, head, resourcesDir, result)) {
+            return true;
+        }
+        
+        // Mirrors ordered by their recorded history; both archive paths use this order
+        List<ResourceArchiveCandidate> candidates = rankResourceArchiveCandidates(buildResourceArchiveCandidates(repo, branch), result);
+        
+        // Extract while the archive downloads; saving it to disk first is the fallback
+        if (streamResourcePackArchive(repo, head, candidates, branch, resourcesDir, result)) {
+            result.success = true;
+            return true;
+        }
+        
         ResourceArchiveDownload archive = null;
         try {
-            archive = downloadResourcePackArchive(repoTrimmed, effectiveBranch, result);
+            archive = downloadResourcePackArchive(repo, candidates, result);
             if (archive == null || archive.zipPath == null) {
                 String detail = result.describeFailure();
                 String msg = "Failed to download resource pack archive.";
@@ -2446,24 +3557,19 @@ public final class ModUpdaterGUI {
                     throw new IOException(msg + (detail.length() > 0 ? " " + detail : ""));
                 }
                 System.err.println("[mod-updater] Warning: " + msg + (detail.length() > 0 ? " " + detail : ""));
-                return result;
+                return false;
             }
             
             result.sourceUrl = archive.url;
             result.sourceBranch = archive.branch;
             System.out.println("[mod-updater] Resource sync: downloaded archive from " + archive.url + " (branch=" + archive.branch + "), applying fixes...");
-            extractResourcePackArchive(archive.zipPath, minecraftDir, result.mode, result);
+            storeResourceArchiveInCache(repo, head, archive.zipPath);
+            extractResourcePackArchive(archive.zipPath, resourcesDir, result.mode, result);
             result.success = true;
-            return result;
+            return true;
         } catch (IOException e) {
-            String msg = e.getMessage() != null ? e.getMessage() : e.toString();
-            result.errors.add(msg);
-            if (strict) {
-                String detail = result.describeFailure();
-                throw new IOException("Resource pack sync failed in strict mode: " + msg + (detail.length() > 0 ? " | " + detail : ""), e);
-            }
-            System.err.println("[mod-updater] Warning: Failed to sync resource pack: " + msg);
-            return result;
+            failResourceSync(result, e.getMessage() != null ? e.getMessage() : e.toString(), e, strict);
+            return false;
         } finally {
             if (archive != null && archive.zipPath != null) {
                 try { Files.deleteIfExists(archive.zipPath); } catch (IOException ignored) {}
@@ -2471,1184 +3577,3827 @@ public final class ModUpdaterGUI {
         }
     }
     
-    private static void logResourceSyncResult(ResourceSyncResult result) {
-        if (result == null) return;
-        if (result.success) {
-            System.out.println("[mod-updater] Resource pack sync complete (" + result.mode + "): copied="
-                    + result.copiedFiles
-                    + ", langRefreshed=" + result.langFilesRefreshed
-                    + ", missingCopied=" + result.missingFilesCopied
-                    + ", skippedExisting=" + result.skippedExistingFiles
-                    + ", sourceBranch=" + (result.sourceBranch != null ? result.sourceBranch : "?")
-                    + ", sourceUrl=" + (result.sourceUrl != null ? result.sourceUrl : "?"));
-            if (!result.missingAssetDetails.isEmpty()) {
-                for (int i = 0; i < result.missingAssetDetails.size(); i++) {
-                    System.out.println("[mod-updater] Missing asset detected and restored: " + result.missingAssetDetails.get(i));
-                }
-            }
-            if (result.suppressedMissingDetails > 0) {
-                System.out.println("[mod-updater] Missing asset restore logs truncated: +" + result.suppressedMissingDetails + " more files.");
-            }
-            if (!result.refreshedLanguageDetails.isEmpty()) {
-                for (int i = 0; i < result.refreshedLanguageDetails.size(); i++) {
-                    System.out.println("[mod-updater] Language file refreshed: " + result.refreshedLanguageDetails.get(i));
-                }
+    /**
+     * Download-cache key for the pack at one commit: codeload's commit-pinned archive
+     * URL, whose content never changes.
+     */
+    private static String resourceArchiveCacheUrl(String repo, String commitSha) {
+        return "https://codeload.github.com/" + repo + "/zip/" + commitSha.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Applies the branch archive for head's commit from the shared download cache.
+     * Returns false on a miss, leaving the tree untouched.
+     */
+    private static boolean applyCachedResourceArchive(String repo, String branch, ResourcePackHead head, Path resourcesDir, ResourceSyncResult result) {
+        if (head.sha == null || downloadCacheDir() == null) return false;
+        String url = resourceArchiveCacheUrl(repo, head.sha);
+        Path zip = null;
+        try {
+            zip = Files.createTempFile("resourcepack-" + sanitizeTempName(repo) + "-", ".zip");
+            if (materializeFromDownloadCache(url, null, zip) == null) return false;
+            extractResourcePackArchive(zip, resourcesDir, result.mode, result);
+            result.sourceUrl = url;
+            result.sourceBranch = branch;
+            result.attempts.add(url + " [branch=" + branch + ", download cache] -> OK");
+            result.success = true;
+            return true;
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Resource sync: cached archive for " + shortSha(head.sha) + " unusable (" + ex.getMessage() + "); downloading instead.");
+            return false;
+        } finally {
+            if (zip != null) {
+                try { Files.deleteIfExists(zip); } catch (IOException ignored) {}
             }
-            if (result.suppressedLanguageDetails > 0) {
-                System.out.println("[mod-updater] Language refresh logs truncated: +" + result.suppressedLanguageDetails + " more files.");
+        }
+    }
+    
+    /**
+     * Adds a downloaded branch archive to the shared cache under head's commit, but only
+     * when the archive says it is that commit: GitHub writes the commit SHA into the zip
+     * comment. An archive from a mirror that does not, or from a branch that moved after
+     * the head was read, stays out of the cache.
+     */
+    private static void storeResourceArchiveInCache(String repo, ResourcePackHead head, Path zip) {
+        if (head == null || head.sha == null || downloadCacheDir() == null) return;
+        ZipFile zf = null;
+        try {
+            zf = new ZipFile(zip.toFile());
+            String comment = zf.getComment();
+            if (comment == null || !head.sha.equalsIgnoreCase(comment.trim())) return;
+            zf.close();
+            zf = null;
+            storeInDownloadCache(resourceArchiveCacheUrl(repo, head.sha), zip.getFileName().toString(), fileDigestHex(zip, "SHA-256"), zip);
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Resource sync: could not cache the archive for " + shortSha(head.sha) + ": " + ex.getMessage());
+        } finally {
+            if (zf != null) {
+                try { zf.close(); } catch (IOException ignored) {}
             }
-        } else {
+        }
+    }
+    
+    private static ResourceSyncResult failResourceSync(ResourceSyncResult result, String msg, IOException cause, boolean strict) throws IOException {
+        result.errors.add(msg);
+        if (strict) {
             String detail = result.describeFailure();
-            if (detail != null && detail.length() > 0) {
-                System.err.println("[mod-updater] Resource pack sync incomplete: " + detail);
-            }
+            throw new IOException("Resource pack sync failed in strict mode: " + msg + (detail.length() > 0 ? " | " + detail : ""), cause);
         }
+        System.err.println("[mod-updater] Warning: Failed to sync resource pack: " + msg);
+        return result;
     }
     
-    private static ResourceArchiveDownload downloadResourcePackArchive(String repo, String branch, ResourceSyncResult result) {
-        List<ResourceArchiveCandidate> candidates = buildResourceArchiveCandidates(repo, branch);
-        if (candidates.isEmpty()) {
-            System.err.println("[mod-updater] Resource sync: no archive candidates were generated.");
-            return null;
+    /** Starts the background sync for the state's current branch, or cancels it while Force update is set. */
+    private static void restartBackgroundResourceSync(LauncherState state) {
+        if (state == null || state.backgroundSync == null) return;
+        if (state.forceUpdate || state.resourcePackRepo == null || state.resourcePackRepo.trim().isEmpty() || state.minecraftDir == null) {
+            state.backgroundSync.cancel();
+            return;
         }
-        System.out.println("[mod-updater] Resource sync: will try " + candidates.size() + " archive source candidate(s).");
-        for (ResourceArchiveCandidate candidate : candidates) {
-            for (int attempt = 1; attempt <= RESOURCE_ARCHIVE_RETRIES; attempt++) {
-                Path downloaded = null;
-                String label = candidate.url + " [branch=" + candidate.branch + ", try=" + attempt + "/" + RESOURCE_ARCHIVE_RETRIES + "]";
-                System.out.println("[mod-updater] Resource sync: trying source " + label);
-                try {
-                    downloaded = downloadUrlToTempWithTimeout(
-                            candidate.url,
-                            "resourcepack-" + sanitizeTempName(repo) + "-" + sanitizeTempName(candidate.branch) + "-" + System.currentTimeMillis() + "-" + attempt + ".zip",
-                            RESOURCE_ARCHIVE_TIMEOUT_MS);
-                    if (!isValidZipArchive(downloaded)) {
-                        throw new IOException("Downloaded file is not a valid ZIP archive.");
-                    }
-                    result.attempts.add(label + " -> OK");
-                    return new ResourceArchiveDownload(downloaded, candidate.url, candidate.branch);
-                } catch (IOException ex) {
-                    String err = ex.getMessage() != null ? ex.getMessage() : ex.toString();
-                    result.attempts.add(label + " -> FAIL: " + err);
-                    result.errors.add(label + " -> " + err);
-                    if (attempt < RESOURCE_ARCHIVE_RETRIES) {
-                        System.err.println("[mod-updater] Resource sync: source failed (" + err + "). Retrying same source...");
-                    } else {
-                        System.err.println("[mod-updater] Resource sync: source exhausted (" + err + "). Moving to next fallback source...");
-                    }
-                    if (downloaded != null) {
-                        try { Files.deleteIfExists(downloaded); } catch (IOException ignored) {}
+        state.backgroundSync.start(state.resourcePackRepo.trim(), currentResourcePackBranch(state), state.minecraftDir);
+    }
+    
+    /**
+     * Resource sync for the launch paths: commits what the background sync staged for
+     * this branch when it is usable, otherwise syncs now as before.
+     */
+    private static ResourceSyncResult syncResourcePackForLaunch(LauncherState state, ResourceSyncMode mode, boolean strict) throws IOException {
+        String branch = currentResourcePackBranch(state);
+        if (state.backgroundSync != null) {
+            if (mode == ResourceSyncMode.SMART && !strict && state.resourcePackRepo != null) {
+                StagedResourceSync staged = state.backgroundSync.take(state.resourcePackRepo.trim(), branch);
+                if (staged != null) {
+                    if (System.currentTimeMillis() - staged.stagedAtMs <= BACKGROUND_SYNC_MAX_AGE_MS) {
+                        return commitStagedResourceSync(staged, state.minecraftDir);
                     }
-                    if (attempt < RESOURCE_ARCHIVE_RETRIES) {
-                        sleepQuietly(RESOURCE_ARCHIVE_RETRY_BASE_DELAY_MS * attempt);
+                    System.out.println("[mod-updater] Background resource sync: staged result is stale; syncing now.");
+                    if (staged.dir != null) {
+                        try { deleteDirectoryTree(staged.dir); } catch (IOException ignored) {}
                     }
                 }
+            } else {
+                state.backgroundSync.cancel();
             }
         }
-        return null;
+        return syncResourcePack(state.resourcePackRepo, branch, state.minecraftDir, mode, strict);
     }
     
-    private static List<ResourceArchiveCandidate> buildResourceArchiveCandidates(String repo, String preferredBranch) {
-        String branch = normalizeResourcePackBranch(preferredBranch);
-        List<String> branches = new ArrayList<String>();
-        branches.add(branch);
-        if ("main".equalsIgnoreCase(branch)) {
-            branches.add("master");
-        }
+    /**
+     * The speculative half of a SMART sync: checks the branch head and, unless it is
+     * unchanged since the last sync, applies the pack to resources.prefetch, a hard-linked
+     * copy of resources/. Nothing live is touched. Returns null when the sync failed, was
+     * cancelled, or the filesystem has no hard links (copying the whole tree just in case
+     * is not worth it); the launch path then syncs as usual.
+     */
+    private static StagedResourceSync stageResourcePackSync(String repo, String branch, Path minecraftDir, AtomicBoolean cancelled) throws IOException {
+        String effectiveBranch = normalizeResourcePackBranch(branch);
+        StagedResourceSync staged = new StagedResourceSync();
+        staged.repo = repo;
+        staged.branch = branch;
+        staged.result = new ResourceSyncResult();
+        staged.result.mode = ResourceSyncMode.SMART;
+        System.out.println("[mod-updater] Background resource sync: staging " + repo + " (branch=" + effectiveBranch + ").");
         
-        List<ResourceArchiveCandidate> urls = new ArrayList<ResourceArchiveCandidate>();
-        for (String b : branches) {
-            urls.add(new ResourceArchiveCandidate("https://github.com/" + repo + "/archive/refs/heads/" + b + ".zip", b));
-            urls.add(new ResourceArchiveCandidate("https://codeload.github.com/" + repo + "/zip/refs/heads/" + b, b));
-        }
+        staged.head = fetchResourcePackHead(repo, effectiveBranch, minecraftDir);
+        if (staged.head != null && staged.head.matchesLastSync(minecraftDir)) {
+            System.out.println("[mod-updater] Background resource sync: branch head " + shortSha(staged.head.sha) + " unchanged since last sync; nothing to stage.");
+            staged.result.success = true;
+            staged.result.unchangedHead = true;
+            staged.result.sourceBranch = effectiveBranch;
+            staged.stagedAtMs = System.currentTimeMillis();
+            return staged;
+        }
+        if (cancelled.get()) return null;
         
-        // Fallback mirror after all GitHub endpoints
-        for (String b : branches) {
-            urls.add(new ResourceArchiveCandidate("https://cdn.jsdelivr.net/gh/" + repo + "@" + b + "/.zip", b));
+        Path dir;
+        try {
+            dir = prepareResourceStagingTree(minecraftDir, RESOURCE_PREFETCH_DIR_NAME, true);
+        } catch (IOException ex) {
+            System.out.println("[mod-updater] Background resource sync: not staging (" + ex.getMessage() + ").");
+            deleteDirectoryTree(minecraftDir.resolve(RESOURCE_PREFETCH_DIR_NAME));
+            return null;
+        }
+        boolean keep = false;
+        try {
+            keep = syncResourcePackInto(repo, effectiveBranch, staged.head, dir, false, staged.result) && !cancelled.get();
+            if (!keep) return null;
+            staged.dir = dir;
+            staged.stagedAtMs = System.currentTimeMillis();
+            System.out.println("[mod-updater] Background resource sync: staged " + staged.result.copiedFiles + " file(s) in "
+                    + RESOURCE_PREFETCH_DIR_NAME + "; committing on Play.");
+            return staged;
+        } finally {
+            if (!keep) {
+                try { deleteDirectoryTree(dir); } catch (IOException ignored) {}
+            }
         }
-        return urls;
     }
     
-    private static String normalizeResourcePackBranch(String branch) {
-        if (branch == null) return "main";
-        String trimmed = branch.trim();
-        return trimmed.length() > 0 ? trimmed : "main";
+    /**
+     * Moves what the background sync wrote (result.writtenPaths) into resources/; the
+     * rest of the staging tree is only links to the live files as they were at staging
+     * time, which an update may have replaced since, so it is never copied back.
+     * Language files replace the live copy; other files are only added where resources/
+     * still lacks them, the SMART rule, so assets written since staging (e.g. from the
+     * patch jar) are kept.
+     */
+    private static ResourceSyncResult commitStagedResourceSync(StagedResourceSync staged, Path minecraftDir) throws IOException {
+        ResourceSyncResult result = staged.result;
+        if (staged.dir != null) {
+            Path stagingDir = staged.dir.normalize();
+            Path resourcesDir = minecraftDir.resolve("resources").normalize();
+            int moved = 0;
+            int kept = 0;
+            try {
+                for (String rel : result.writtenPaths) {
+                    Path file = stagingDir.resolve(rel).normalize();
+                    if (!file.startsWith(stagingDir) || !Files.isRegularFile(file)) continue;
+                    Path live = resourcesDir.resolve(rel).normalize();
+                    ensureDir(live.getParent());
+                    if (isLanguageAssetPath(rel)) {
+                        Files.move(file, live, StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        try {
+                            Files.move(file, live);
+                        } catch (FileAlreadyExistsException alreadyExists) {
+                            kept++;
+                            continue;
+                        }
+                    }
+                    moved++;
+                }
+            } finally {
+                try { deleteDirectoryTree(stagingDir); } catch (IOException ignored) {}
+            }
+            System.out.println("[mod-updater] Background resource sync: committed " + moved + " staged file(s)"
+                    + (kept > 0 ? ", kept " + kept + " written locally since staging" : "") + ".");
+        } else {
+            System.out.println("[mod-updater] Background resource sync: nothing to commit.");
+        }
+        if (staged.head != null && !result.unchangedHead && normalizeResourcePackBranch(staged.branch).equals(result.sourceBranch)) {
+            recordResourcePackSync(staged.head, minecraftDir);
+        }
+        return result;
     }
     
-    private static void extractResourcePackArchive(Path zipPath, Path minecraftDir, ResourceSyncMode mode, ResourceSyncResult result) throws IOException {
-        Path resourcesDir = minecraftDir.resolve("resources").normalize();
-        Path assetsRoot = resourcesDir.resolve("assets").normalize();
-        ensureDir(assetsRoot);
+    /**
+     * Creates a hard-linked copy of resources/ named {@code dirName} (resources.next for
+     * FULL syncs), so files the sync does not replace cost no I/O. Falls back to copying
+     * (keeping mtimes, which the asset index relies on) where the filesystem has no hard
+     * links, unless {@code linksOnly} asks to fail instead.
+     */
+    private static Path prepareResourceStagingTree(Path minecraftDir, String dirName, final boolean linksOnly) throws IOException {
+        final Path live = minecraftDir.resolve("resources").normalize();
+        final Path next = minecraftDir.resolve(dirName).normalize();
+        deleteDirectoryTree(next);
+        ensureDir(next.resolve("assets"));
+        if (!Files.isDirectory(live)) return next;
         
-        byte[] buf = new byte[64 * 1024];
-        ZipInputStream zis = new ZipInputStream(new BufferedInputStream(new FileInputStream(zipPath.toFile())));
-        try {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                if (entry.isDirectory()) {
-                    zis.closeEntry();
-                    continue;
+        final AtomicBoolean linksSupported = new AtomicBoolean(true);
+        final AtomicLong linked = new AtomicLong();
+        final AtomicLong copied = new AtomicLong();
+        Files.walkFileTree(live, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                ensureDir(next.resolve(live.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+            
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+                Path target = next.resolve(live.relativize(file).toString());
+                if (linksSupported.get()) {
+                    try {
+                        Files.createLink(target, file);
+                        linked.incrementAndGet();
+                        return FileVisitResult.CONTINUE;
+                    } catch (UnsupportedOperationException | FileSystemException noLinks) {
+                        if (linksOnly) throw new IOException("no hard links in " + live);
+                        linksSupported.set(false);
+                    }
                 }
-                
-                String name = entry.getName().replace('\\', '/');
-                int slashIdx = name.indexOf('/');
-                if (slashIdx < 0 || slashIdx + 1 >= name.length()) {
-                    zis.closeEntry();
-                    continue;
-                }
-                
-                String relativePath = name.substring(slashIdx + 1);
-                if (!relativePath.startsWith("assets/")) {
-                    zis.closeEntry();
-                    continue;
-                }
-                
-                Path rel;
-                try {
-                    rel = Paths.get(relativePath).normalize();
-                } catch (InvalidPathException badPath) {
-                    zis.closeEntry();
-                    continue;
-                }
-                if (rel.isAbsolute()) {
-                    zis.closeEntry();
-                    continue;
-                }
-                
-                String relNorm = rel.toString().replace('\\', '/');
-                if (relNorm.startsWith("..")) {
-                    zis.closeEntry();
-                    continue;
-                }
-                
-                Path dest = resourcesDir.resolve(rel).normalize();
-                if (!dest.startsWith(resourcesDir)) {
-                    zis.closeEntry();
-                    continue;
-                }
-                
-                boolean isLangFile = isLanguageAssetPath(relNorm);
-                boolean shouldCopy;
-                boolean replaceExisting = false;
-                if (mode == ResourceSyncMode.FULL) {
-                    shouldCopy = true;
-                    replaceExisting = true;
-                } else if (isLangFile) {
-                    shouldCopy = true;
-                    replaceExisting = true;
-                } else if (Files.exists(dest)) {
-                    shouldCopy = false;
-                    result.skippedExistingFiles++;
-                } else {
-                    shouldCopy = true;
+                Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                copied.incrementAndGet();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        System.out.println("[mod-updater] Resource sync: staging in " + next.getFileName()
+                + " (" + linked.get() + " files linked, " + copied.get() + " copied).");
+        return next;
+    }
+    
+    /** Deletes files under resourcesDir that are not in keep, then any directories left empty. */
+    private static void pruneResourceTree(final Path resourcesDir, final Set<String> keep) throws IOException {
+        if (keep.isEmpty()) return; // Never empty the tree because a source listed nothing
+        final AtomicLong removed = new AtomicLong();
+        Files.walkFileTree(resourcesDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String rel = resourcesDir.relativize(file).toString().replace('\\', '/');
+                if (!keep.contains(rel)) {
+                    Files.deleteIfExists(file);
+                    removed.incrementAndGet();
                 }
-                
-                if (!shouldCopy) {
-                    zis.closeEntry();
-                    continue;
-                }
-                
-                boolean existedBefore = Files.exists(dest);
-                byte[] previousLangBytes = null;
-                if (isLangFile && existedBefore) {
-                    try {
-                        previousLangBytes = Files.readAllBytes(dest);
-                    } catch (IOException ignored) {}
-                }
-                
-                ensureDir(dest.getParent());
-                try {
-                    if (replaceExisting) {
-                        Files.copy(zis, dest, StandardCopyOption.REPLACE_EXISTING);
-                    } else {
-                        Files.copy(zis, dest);
+                return FileVisitResult.CONTINUE;
+            }
+            
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) throw exc;
+                if (!dir.equals(resourcesDir)) {
+                    try {
+                        Files.delete(dir);
+                    } catch (DirectoryNotEmptyException notEmpty) {
+                        // still holds pack files
                     }
-                    result.copiedFiles++;
-                    if (isLangFile) {
-                        result.langFilesRefreshed++;
-                        result.addRefreshedLanguageDetail(relNorm);
-                        if (existedBefore) {
-                            boolean changed = true;
-                            try {
-                                byte[] currentBytes = Files.readAllBytes(dest);
-                                if (previousLangBytes != null) {
-                                    changed = !Arrays.equals(previousLangBytes, currentBytes);
-                                }
-                            } catch (IOException ignored) {}
-                            if (changed) {
-                                System.out.println("[mod-updater] Language overwrite applied (updated content): " + relNorm);
-                            } else {
-                                System.out.println("[mod-updater] Language overwrite applied (content unchanged): " + relNorm);
-                            }
-                        } else {
-                            System.out.println("[mod-updater] Language file missing; installed latest version: " + relNorm);
-                        }
-                    } else if (mode == ResourceSyncMode.SMART) {
-                        result.missingFilesCopied++;
-                        result.addMissingAssetDetail(relNorm);
-                    }
-                } catch (FileAlreadyExistsException alreadyExists) {
-                    result.skippedExistingFiles++;
                 }
-                zis.closeEntry();
+                return FileVisitResult.CONTINUE;
             }
-        } finally {
-            try { zis.close(); } catch (IOException ignored) {}
+        });
+        if (removed.get() > 0) {
+            System.out.println("[mod-updater] Resource sync: removed " + removed.get() + " local files not present in the pack.");
         }
     }
     
-    private static boolean isLanguageAssetPath(String relativePath) {
-        if (relativePath == null) return false;
-        String norm = relativePath.replace('\\', '/').toLowerCase(Locale.ROOT);
-        return norm.startsWith("assets/minecraft/lang/") && !norm.endsWith("/");
-    }
-    
-    private static String sanitizeTempName(String name) {
-        if (name == null || name.isEmpty()) return "unknown";
-        return name.replaceAll("[^A-Za-z0-9._-]", "_");
-    }
-    
-    private static Path downloadUrlToTempWithTimeout(String url, String suggestedName, int timeoutMs) throws IOException {
-        String tmpDir = System.getProperty("java.io.tmpdir");
-        Path tmp = Paths.get(tmpDir, suggestedName);
-        HttpURLConnection conn = openHttpConnection(url, timeoutMs, timeoutMs, "ModUpdaterGUI/1.0");
-        conn.setUseCaches(false);
-        conn.setRequestProperty("Cache-Control", "no-cache, no-store, max-age=0");
-        conn.setRequestProperty("Pragma", "no-cache");
-        conn.setInstanceFollowRedirects(true);
-        
-        int code = conn.getResponseCode();
-        if (code < 200 || code >= 300) {
-            InputStream err = conn.getErrorStream();
-            String body = err != null ? readAll(err) : "";
-            throw new IOException("HTTP " + code + " " + truncateErrorBody(body));
+    /**
+     * Replaces resources/ with resources.next. The live tree is renamed to
+     * resources.rollback first (its mtime stamped with the swap time) and is restored
+     * if the second rename fails.
+     */
+    private static void swapInResourceTree(Path minecraftDir) throws IOException {
+        Path live = minecraftDir.resolve("resources");
+        Path next = minecraftDir.resolve(RESOURCE_NEXT_DIR_NAME);
+        Path rollback = minecraftDir.resolve(RESOURCE_ROLLBACK_DIR_NAME);
+        deleteDirectoryTree(rollback);
+        boolean hadLive = Files.exists(live);
+        if (hadLive) {
+            moveDirectory(live, rollback);
+            try {
+                Files.setLastModifiedTime(rollback, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {}
         }
-        
-        InputStream in = new BufferedInputStream(conn.getInputStream());
-        FileOutputStream out = new FileOutputStream(tmp.toFile());
-        byte[] buf = new byte[64 * 1024];
-        int n;
         try {
-            while ((n = in.read(buf)) != -1) {
-                out.write(buf, 0, n);
+            moveDirectory(next, live);
+        } catch (IOException ex) {
+            if (hadLive) {
+                try { moveDirectory(rollback, live); } catch (IOException ignored) {}
             }
-        } finally {
-            try { in.close(); } catch (IOException ignored) {}
-            try { out.close(); } catch (IOException ignored) {}
+            throw ex;
         }
-        return tmp;
+        System.out.println("[mod-updater] Resource sync: swapped in the synced tree"
+                + (hadLive ? "; previous tree kept as " + RESOURCE_ROLLBACK_DIR_NAME + "." : "."));
     }
     
-    private static boolean isValidZipArchive(Path zipPath) {
-        if (zipPath == null || !Files.isRegularFile(zipPath)) return false;
-        ZipFile zip = null;
+    /**
+     * Tidies up after earlier FULL syncs: restores resources.rollback when a swap was
+     * interrupted between its two renames, discards a rollback left by an earlier
+     * launcher session (the swapped-in tree has been launched since), and removes an
+     * abandoned resources.next.
+     */
+    private static void recoverResourceTreeSwap(Path minecraftDir) {
+        Path live = minecraftDir.resolve("resources");
+        Path next = minecraftDir.resolve(RESOURCE_NEXT_DIR_NAME);
+        Path rollback = minecraftDir.resolve(RESOURCE_ROLLBACK_DIR_NAME);
         try {
-            zip = new ZipFile(zipPath.toFile());
-            zip.entries();
-            return true;
-        } catch (IOException ignored) {
-            return false;
-        } finally {
-            if (zip != null) {
-                try { zip.close(); } catch (IOException ignored) {}
+            if (Files.isDirectory(rollback)) {
+                if (!Files.exists(live)) {
+                    moveDirectory(rollback, live);
+                    System.out.println("[mod-updater] Resource sync: restored resources/ from " + RESOURCE_ROLLBACK_DIR_NAME + " after an interrupted swap.");
+                } else if (Files.getLastModifiedTime(rollback).toMillis() < LAUNCHER_SESSION_START_MS) {
+                    deleteDirectoryTree(rollback);
+                }
             }
+            deleteDirectoryTree(next);
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Resource sync: could not clean up earlier staging trees: " + ex.getMessage());
         }
     }
     
-    private static void sleepQuietly(long millis) {
-        if (millis <= 0) return;
+    private static void moveDirectory(Path source, Path target) throws IOException {
         try {
-            Thread.sleep(millis);
-        } catch (InterruptedException ignored) {
-            Thread.currentThread().interrupt();
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target);
         }
     }
     
+    /** Loads the asset index for resourcesDir; resources.next and resources.prefetch share the live tree's index. */
+    private static ResourceAssetIndex loadResourceAssetIndex(Path resourcesDir) throws IOException {
+        Path persistedRoot = resourcesDir;
+        String dirName = String.valueOf(resourcesDir.getFileName());
+        if (RESOURCE_NEXT_DIR_NAME.equals(dirName) || RESOURCE_PREFETCH_DIR_NAME.equals(dirName)) {
+            persistedRoot = resourcesDir.resolveSibling("resources");
+        }
+        return ResourceAssetIndex.load(resourcesDir, persistedRoot, launcherDataDir().resolve(RESOURCE_INDEX_NAME));
+    }
+    
     /**
-     * Installs the macOS LWJGL3 patch that tells Prism to add -XstartOnFirstThread.
-     * This is how modern Minecraft handles GLFW's main thread requirement on macOS.
-     * The patch file tells Prism Launcher to add the required JVM argument automatically.
-     * 
-     * @param instanceRoot The Prism instance root directory
+     * Resolves the current commit of the resource pack branch with the commits API
+     * ("application/vnd.github.sha" returns just the 40-char SHA) and the ETag from the
+     * previous check, so an unchanged branch costs a single 304. Returns null when the
+     * head cannot be determined; callers then fall back to a normal sync.
      */
-    private static void installMacOSPatch(Path instanceRoot) {
-        // Only needed on macOS
-        String os = System.getProperty("os.name", "").toLowerCase();
-        if (!os.contains("mac")) {
-            return;
-        }
-        
-        Path patchesDir = instanceRoot.resolve("patches");
-        Path patchFile = patchesDir.resolve("lwjgl3-macos.json");
-        
-        // Check if already installed with current version (1.1.0 adds headless mode)
-        if (Files.exists(patchFile)) {
+    private static ResourcePackHead fetchResourcePackHead(String repo, String branch, Path minecraftDir) {
+        Path statePath = launcherDataDir().resolve(RESOURCE_SYNC_STATE_NAME);
+        Properties state = readPropertiesQuietly(statePath);
+        if (state == null) state = new Properties();
+        String key = sanitizeTempName(repo) + "@" + sanitizeTempName(branch);
+        ResourcePackHead head = new ResourcePackHead(statePath, state, key);
+        try {
+            String url = RESOURCE_API_BASE + "/repos/" + repo + "/commits/" + branch;
+            HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
+            conn.setRequestMethod("GET");
+            conn.setUseCaches(false);
+            conn.setRequestProperty("Accept", "application/vnd.github.sha");
+            String token = getenv("GITHUB_TOKEN");
+            if (token != null && !token.trim().isEmpty()) {
+                conn.setRequestProperty("Authorization", "token " + token.trim());
+            }
+            String storedSha = state.getProperty(key + ".sha");
+            String storedEtag = state.getProperty(key + ".etag");
+            if (storedSha != null && storedEtag != null) {
+                conn.setRequestProperty("If-None-Match", storedEtag);
+            }
+            int code = LauncherHttp.status(conn);
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && storedSha != null) {
+                LauncherHttp.discard(conn);
+                head.sha = storedSha;
+                head.etag = storedEtag;
+                return head;
+            }
+            if (code < 200 || code >= 300) {
+                LauncherHttp.discard(conn);
+                System.err.println("[mod-updater] Resource sync: could not resolve branch head (HTTP " + code + "); syncing without it.");
+                return null;
+            }
+            InputStream in = LauncherHttp.body(conn);
+            String sha;
             try {
-                String content = new String(Files.readAllBytes(patchFile), "UTF-8");
-                if (content.contains("\"version\": \"1.1.0\"") && content.contains("headless")) {
-                    return; // Already up to date
-                }
-                // Old version - delete and reinstall
-                Files.delete(patchFile);
-                System.out.println("[mod-updater] Updating macOS patch to v1.1.0 (adds headless mode)");
-            } catch (Exception e) {
-                // If can't read, try to reinstall
+                sha = readAll(in).trim();
+            } finally {
+                closeQuietly(in);
             }
-        }
-        
-        try {
-            ensureDir(patchesDir);
-            
-            // Create the patch file that tells Prism to add macOS-specific JVM args
-            // XstartOnFirstThread is needed for GLFW, headless=true allows AWT operations
-            String patchContent = 
-                "{\n" +
-                "    \"formatVersion\": 1,\n" +
-                "    \"name\": \"LWJGL 3 macOS Support\",\n" +
-                "    \"uid\": \"org.lwjgl3.macos.fix\",\n" +
-                "    \"version\": \"1.1.0\",\n" +
-                "    \"+traits\": [\n" +
-                "        \"XstartOnFirstThread\"\n" +
-                "    ],\n" +
-                "    \"+jvmArgs\": [\n" +
-                "        \"-Djava.awt.headless=true\"\n" +
-                "    ],\n" +
-                "    \"requires\": [],\n" +
-                "    \"compatibleJavaMajors\": [8, 11, 17, 21]\n" +
-                "}\n";
-            
-            Files.write(patchFile, patchContent.getBytes("UTF-8"));
-            System.out.println("[mod-updater] Installed macOS LWJGL3 patch: " + patchFile);
-            
-        } catch (Exception e) {
-            System.err.println("[mod-updater] Warning: Failed to install macOS patch: " + e.getMessage());
+            if (!sha.matches("[0-9a-fA-F]{40}")) {
+                return null;
+            }
+            head.sha = sha.toLowerCase(Locale.ROOT);
+            head.etag = conn.getHeaderField("ETag");
+            return head;
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Resource sync: branch head check failed (" + ex.getMessage() + "); syncing without it.");
+            return null;
         }
     }
-    
+
     /**
-     * Installs the custom net.minecraft.json patch for macOS compatibility.
-     * Downloads from GitHub if not already present in the patches directory.
-     * This patch is essential for proper game operation on macOS.
-     * 
-     * @param instanceRoot The Prism instance root directory
+     * Incremental sync: lists the commit's files with the recursive git tree API, diffs
+     * them against the local asset index by git blob SHA-1 and fetches only what differs
+     * from raw.githubusercontent.com (pinned to the commit), in parallel. SMART keeps its
+     * usual rules (refresh changed language files, restore missing assets); FULL replaces
+     * every file whose content differs. Returns false, with the reason recorded in
+     * {@code result.attempts}, when the archive path should be used instead: truncated
+     * tree, too many changed files, or any error.
      */
-    private static void installNetMinecraftJsonPatch(Path instanceRoot) {
-        // Only needed on macOS
-        String os = System.getProperty("os.name", "").toLowerCase();
-        if (!os.contains("mac")) {
-            return;
-        }
-        
-        Path patchesDir = instanceRoot.resolve("patches");
-        Path patchFile = patchesDir.resolve("net.minecraft.json");
-        
-        // Check if already installed
-        if (Files.exists(patchFile)) {
-            System.out.println("[mod-updater] net.minecraft.json patch already installed");
-            return;
-        }
-        
+    private static boolean syncResourcePackFromTree(final String repo, String branch, final ResourcePackHead head, final Path resourcesDir, ResourceSyncResult result) {
+        String treeUrl = RESOURCE_API_BASE + "/repos/" + repo + "/git/trees/" + head.sha + "?recursive=1";
+        String label = "git tree " + shortSha(head.sha) + " [branch=" + branch + "]";
+        ResourceSyncResult attempt = new ResourceSyncResult();
+        attempt.mode = result.mode;
         try {
-            ensureDir(patchesDir);
+            ResourceTree tree = fetchResourceTree(treeUrl);
+            if (tree.truncated) {
+                result.attempts.add(label + " -> SKIP: tree listing truncated");
+                return false;
+            }
+            if (tree.blobs.isEmpty()) {
+                result.attempts.add(label + " -> SKIP: no assets/ files in tree");
+                return false;
+            }
             
-            // Download from GitHub releases
-            String downloadUrl = "https://github.com/MinecraftOldschoolEdition/net.minecraft.json/releases/download/1.0/net.minecraft.json";
-            System.out.println("[mod-updater] Downloading net.minecraft.json from GitHub...");
-            
-            HttpURLConnection conn = openHttpConnection(downloadUrl, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
-            conn.setInstanceFollowRedirects(true);
+            final ResourceAssetIndex index = loadResourceAssetIndex(resourcesDir);
+            final List<ResourceTreeBlob> toFetch = new ArrayList<ResourceTreeBlob>();
+            final Map<String, Boolean> existed = new HashMap<String, Boolean>();
+            for (ResourceTreeBlob blob : tree.blobs) {
+                Path dest = resolveResourceAssetPath(resourcesDir, blob.path);
+                if (dest == null) continue;
+                boolean isLangFile = isLanguageAssetPath(blob.path);
+                boolean present = index.contains(blob.path);
+                if (present && attempt.mode == ResourceSyncMode.SMART && !isLangFile) {
+                    attempt.skippedExistingFiles++;
+                    continue;
+                }
+                if (present && blob.sha.equals(index.gitBlobSha1(blob.path))) {
+                    if (isLangFile) {
+                        System.out.println("[mod-updater] Language file up to date: " + blob.path);
+                    }
+                    attempt.skippedExistingFiles++;
+                    continue;
+                }
+                existed.put(blob.path, Boolean.valueOf(present));
+                toFetch.add(blob);
+            }
+            if (toFetch.size() > RESOURCE_TREE_MAX_CHANGED_FILES) {
+                result.attempts.add(label + " -> SKIP: " + toFetch.size() + " changed files, archive is cheaper");
+                return false;
+            }
             
-            int responseCode = conn.getResponseCode();
-            if (responseCode != 200) {
-                System.err.println("[mod-updater] Failed to download net.minecraft.json: HTTP " + responseCode);
-                return;
+            final AtomicLong bytes = new AtomicLong();
+            final ConnectionScope scope = CONNECTION_SCOPE.get();
+            ExecutorService pool = LauncherRuntime.newWorkerPool("ModUpdater-ResourceFetch", RESOURCE_FETCH_THREADS);
+            try {
+                List<Future<Long>> futures = new ArrayList<Future<Long>>();
+                for (final ResourceTreeBlob blob : toFetch) {
+                    futures.add(pool.submit(new Callable<Long>() {
+                        public Long call() throws IOException {
+                            CONNECTION_SCOPE.set(scope);
+                            try {
+                                return Long.valueOf(fetchResourceBlob(repo, head.sha, blob, resourcesDir, index));
+                            } finally {
+                                CONNECTION_SCOPE.remove();
+                            }
+                        }
+                    }));
+                }
+                for (Future<Long> f : futures) {
+                    bytes.addAndGet(awaitTaskResult(f).longValue());
+                }
+            } finally {
+                pool.shutdownNow();
+                index.save();
             }
             
-            // Download and write to patch file
-            try (InputStream in = new BufferedInputStream(conn.getInputStream());
-                 FileOutputStream out = new FileOutputStream(patchFile.toFile())) {
-                byte[] buf = new byte[8192];
-                int n;
-                while ((n = in.read(buf)) != -1) {
-                    out.write(buf, 0, n);
+            // Counts are tallied in tree order so they do not depend on fetch timing
+            for (ResourceTreeBlob blob : toFetch) {
+                attempt.copiedFiles++;
+                attempt.writtenPaths.add(blob.path);
+                if (isLanguageAssetPath(blob.path)) {
+                    attempt.langFilesRefreshed++;
+                    attempt.addRefreshedLanguageDetail(blob.path);
+                    System.out.println("[mod-updater] Language overwrite applied (updated content): " + blob.path);
+                } else if (attempt.mode == ResourceSyncMode.SMART || !existed.get(blob.path).booleanValue()) {
+                    attempt.missingFilesCopied++;
+                    attempt.addMissingAssetDetail(blob.path);
                 }
             }
-            System.out.println("[mod-updater] Installed net.minecraft.json patch: " + patchFile);
+            System.out.println("[mod-updater] Resource sync: fetched " + toFetch.size() + " of " + tree.blobs.size()
+                    + " files (" + bytes.get() + " bytes) from " + shortSha(head.sha) + ".");
             
-        } catch (Exception e) {
-            System.err.println("[mod-updater] Warning: Failed to install net.minecraft.json patch: " + e.getMessage());
+            result.success = true;
+            result.sourceUrl = treeUrl;
+            result.sourceBranch = branch;
+            result.copiedFiles += attempt.copiedFiles;
+            result.langFilesRefreshed += attempt.langFilesRefreshed;
+            result.missingFilesCopied += attempt.missingFilesCopied;
+            result.skippedExistingFiles += attempt.skippedExistingFiles;
+            result.writtenPaths.addAll(attempt.writtenPaths);
+            for (String d : attempt.missingAssetDetails) result.addMissingAssetDetail(d);
+            for (String d : attempt.refreshedLanguageDetails) result.addRefreshedLanguageDetail(d);
+            result.suppressedMissingDetails += attempt.suppressedMissingDetails;
+            result.suppressedLanguageDetails += attempt.suppressedLanguageDetails;
+            for (ResourceTreeBlob blob : tree.blobs) result.sourceAssetPaths.add(blob.path);
+            result.attempts.add(label + " -> OK (" + toFetch.size() + " files, " + bytes.get() + " bytes)");
+            return true;
+        } catch (Exception ex) {
+            String err = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+            result.attempts.add(label + " -> FAIL: " + err);
+            System.err.println("[mod-updater] Resource sync: per-file sync failed (" + err + "); falling back to the branch archive.");
+            return false;
         }
     }
-    
+
+    private static ResourceTree fetchResourceTree(String treeUrl) throws IOException {
+        HttpURLConnection conn = openHttpConnection(treeUrl, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Accept", "application/vnd.github+json");
+        LauncherHttp.acceptGzip(conn);
+        String token = getenv("GITHUB_TOKEN");
+        if (token != null && !token.trim().isEmpty()) {
+            conn.setRequestProperty("Authorization", "token " + token.trim());
+        }
+        int code = LauncherHttp.status(conn);
+        if (code < 200 || code >= 300) {
+            String body = LauncherHttp.errorBody(conn);
+            throw new IOException("Git tree API HTTP " + code + " " + truncateErrorBody(body));
+        }
+        InputStream in = LauncherHttp.body(conn);
+        try {
+            return readResourceTree(in);
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /** Reads a git tree API response, keeping the blobs under assets/. */
+    private static ResourceTree readResourceTree(InputStream in) throws IOException {
+        ResourceTree tree = new ResourceTree();
+        JsonPullReader r = new JsonPullReader(in);
+        r.beginObject();
+        while (r.hasNext()) {
+            String field = r.nextName();
+            if ("truncated".equals(field)) {
+                tree.truncated = r.nextBoolean(false);
+            } else if ("tree".equals(field) && r.peek() == '[') {
+                r.beginArray();
+                while (r.hasNext()) {
+                    String path = null, type = null, sha = null;
+                    long size = -1L;
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        String key = r.nextName();
+                        if ("path".equals(key)) path = r.nextStringOrNull();
+                        else if ("type".equals(key)) type = r.nextStringOrNull();
+                        else if ("sha".equals(key)) sha = r.nextStringOrNull();
+                        else if ("size".equals(key)) size = r.nextLong(-1L);
+                        else r.skipValue();
+                    }
+                    r.endObject();
+                    if ("blob".equals(type) && path != null && sha != null && path.startsWith("assets/")) {
+                        tree.blobs.add(new ResourceTreeBlob(path, sha, size));
+                    }
+                }
+                r.endArray();
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        return tree;
+    }
+
     /**
-     * Ensures Bouncy Castle library is installed for cryptographic operations.
-     * Downloads from Maven Central if not present. Uses libraries folder for classpath inclusion.
+     * Downloads one file into place, verifying its git blob SHA-1 while streaming, and
+     * records it in the index. Returns the number of bytes transferred.
      */
-    private static void ensureBouncyCastleDependency(ProgressUI ui, Path instanceRoot) {
+    private static long fetchResourceBlob(String repo, String commit, ResourceTreeBlob blob, Path resourcesDir, ResourceAssetIndex index) throws IOException {
+        Path dest = resolveResourceAssetPath(resourcesDir, blob.path);
+        if (dest == null) throw new IOException("Unsafe resource path: " + blob.path);
+        String url = RESOURCE_RAW_BASE + "/" + repo + "/" + commit + "/" + encodeUrlPath(blob.path);
+        // On Java 11+ the blobs share one multiplexed HTTP/2 connection
+        InputStream in;
+        long contentLength;
+        LauncherHttp.Response response = LauncherRuntime.http2Get(url, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
+        if (response != null) {
+            if (response.status < 200 || response.status >= 300) {
+                closeQuietly(response.body);
+                throw new IOException("HTTP " + response.status + " for " + blob.path);
+            }
+            in = response.body;
+            contentLength = response.contentLength;
+        } else {
+            HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
+            conn.setInstanceFollowRedirects(true);
+            int code = LauncherHttp.status(conn);
+            if (code < 200 || code >= 300) {
+                LauncherHttp.discard(conn);
+                throw new IOException("HTTP " + code + " for " + blob.path);
+            }
+            in = LauncherHttp.body(conn);
+            contentLength = conn.getContentLengthLong();
+        }
+        long expectedSize = blob.size >= 0 ? blob.size : contentLength;
+        Path tmp = null;
+        long written = 0L;
         try {
-            // Use libraries folder instead of jarmods - this adds to classpath without merging
-            Path librariesDir = instanceRoot.resolve("libraries");
-            ensureDir(librariesDir);
-            
-            // Check if BC jar already exists in libraries
-            Path bcJar = librariesDir.resolve(BC_JAR_NAME);
-            if (Files.isRegularFile(bcJar)) {
-                ui.log("Bouncy Castle already installed: " + bcJar.getFileName());
-                return;
+            MessageDigest sha1 = newGitBlobDigest(expectedSize);
+            ensureDir(dest.getParent());
+            tmp = Files.createTempFile(dest.getParent(), dest.getFileName().toString(), ".part");
+            OutputStream out = Files.newOutputStream(tmp);
+            byte[] buf = new byte[16 * 1024];
+            int n;
+            try {
+                while ((n = in.read(buf)) != -1) {
+                    sha1.update(buf, 0, n);
+                    out.write(buf, 0, n);
+                    written += n;
+                }
+            } finally {
+                closeQuietly(in);
+                out.close();
             }
-            
-            // Also check jarmods folder (user might have added manually)
-            Path jarmodsDir = instanceRoot.resolve("jarmods");
-            if (Files.isDirectory(jarmodsDir)) {
-                File[] files = jarmodsDir.toFile().listFiles();
-                if (files != null) {
-                    for (File f : files) {
-                        if (f.isFile() && f.getName().contains("bcprov") && f.getName().endsWith(".jar")) {
-                            ui.log("Bouncy Castle found in jarmods: " + f.getName());
-                            return;
-                        }
-                    }
+            String actual = toHex(sha1.digest());
+            if (written != expectedSize || !actual.equals(blob.sha)) {
+                throw new IOException("Content mismatch for " + blob.path + " (expected blob " + blob.sha + ", got " + actual + ")");
+            }
+            try {
+                Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING);
+            }
+            index.record(blob.path, dest, blob.sha);
+            return written;
+        } finally {
+            closeQuietly(in);
+            if (tmp != null) Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** SHA-1 primed with git's "blob <size>\0" header, so the digest equals the blob id. */
+    private static MessageDigest newGitBlobDigest(long size) throws IOException {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(("blob " + size + "\0").getBytes(StandardCharsets.US_ASCII));
+            return md;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("SHA-1 not available", ex);
+        }
+    }
+
+    private static long crc32(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                crc.update(buf, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static String gitBlobSha1(Path file) throws IOException {
+        MessageDigest md = newGitBlobDigest(Files.size(file));
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                md.update(buf, 0, n);
+            }
+        }
+        return toHex(md.digest());
+    }
+
+    private static String encodeUrlPath(String path) throws UnsupportedEncodingException {
+        StringBuilder sb = new StringBuilder(path.length() + 16);
+        for (String segment : path.split("/")) {
+            if (sb.length() > 0) sb.append('/');
+            sb.append(URLEncoder.encode(segment, "UTF-8").replace("+", "%20"));
+        }
+        return sb.toString();
+    }
+
+    /** Destination for an archive-relative "assets/..." path, or null if it would escape the resources dir. */
+    private static Path resolveResourceAssetPath(Path resourcesDir, String relativePath) {
+        Path rel;
+        try {
+            rel = Paths.get(relativePath).normalize();
+        } catch (InvalidPathException badPath) {
+            return null;
+        }
+        if (rel.isAbsolute() || rel.toString().replace('\\', '/').startsWith("..")) return null;
+        Path dest = resourcesDir.resolve(rel).normalize();
+        return dest.startsWith(resourcesDir) ? dest : null;
+    }
+
+    private static void recordResourcePackSync(ResourcePackHead head, Path minecraftDir) {
+        Properties state = head.state;
+        state.setProperty(head.key + ".sha", head.sha);
+        if (head.etag != null) {
+            state.setProperty(head.key + ".etag", head.etag);
+        } else {
+            state.remove(head.key + ".etag");
+        }
+        state.setProperty(head.key + ".minecraftDir", minecraftDir.toAbsolutePath().normalize().toString());
+        state.remove(head.key + ".assetFiles");
+        String indexStamp = ResourceAssetIndex.savedStamp(launcherDataDir().resolve(RESOURCE_INDEX_NAME));
+        if (indexStamp != null) {
+            state.setProperty(head.key + ".assetIndex", indexStamp);
+        } else {
+            state.remove(head.key + ".assetIndex");
+        }
+        try {
+            writePropertiesAtomically(head.statePath, state, "Resource pack sync state");
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Failed to write resource sync state: " + ex.getMessage());
+        }
+    }
+
+    private static String shortSha(String sha) {
+        return sha != null && sha.length() > 12 ? sha.substring(0, 12) : sha;
+    }
+    
+    private static void logResourceSyncResult(ResourceSyncResult result) {
+        if (result == null) return;
+        if (result.success && result.unchangedHead) {
+            System.out.println("[mod-updater] Resource pack sync complete (" + result.mode + "): branch unchanged, nothing to do.");
+            return;
+        }
+        if (result.success) {
+            System.out.println("[mod-updater] Resource pack sync complete (" + result.mode + "): copied="
+                    + result.copiedFiles
+                    + ", langRefreshed=" + result.langFilesRefreshed
+                    + ", missingCopied=" + result.missingFilesCopied
+                    + ", skippedExisting=" + result.skippedExistingFiles
+                    + ", sourceBranch=" + (result.sourceBranch != null ? result.sourceBranch : "?")
+                    + ", sourceUrl=" + (result.sourceUrl != null ? result.sourceUrl : "?"));
+            if (!result.missingAssetDetails.isEmpty()) {
+                for (int i = 0; i < result.missingAssetDetails.size(); i++) {
+                    System.out.println("[mod-updater] Missing asset detected and restored: " + result.missingAssetDetails.get(i));
                 }
             }
-            
-            ui.setPhaseText("Installing crypto library...");
-            ui.log("Downloading Bouncy Castle from Maven Central...");
-            
-            // Download from Maven
-            Path downloaded = downloadFromUrl(ui, BC_MAVEN_URL, BC_JAR_NAME);
-            if (downloaded == null || !Files.isRegularFile(downloaded)) {
-                ui.log("Warning: Failed to download Bouncy Castle. Some features may be unavailable.");
-                return;
+            if (result.suppressedMissingDetails > 0) {
+                System.out.println("[mod-updater] Missing asset restore logs truncated: +" + result.suppressedMissingDetails + " more files.");
             }
-            
-            // Move to libraries folder
-            Files.move(downloaded, bcJar, StandardCopyOption.REPLACE_EXISTING);
-            ui.log("Installed: " + bcJar.getFileName());
-            ui.log("Note: You may need to add this library to your instance manually via Prism Launcher.");
-            
-        } catch (Exception e) {
-            // Don't fail the whole update if BC install fails
-            System.err.println("Warning: Could not install Bouncy Castle dependency: " + e.getMessage());
-            if (ui != null) {
-                ui.log("Warning: Crypto library install failed. Some features may be unavailable.");
+            if (!result.refreshedLanguageDetails.isEmpty()) {
+                for (int i = 0; i < result.refreshedLanguageDetails.size(); i++) {
+                    System.out.println("[mod-updater] Language file refreshed: " + result.refreshedLanguageDetails.get(i));
+                }
+            }
+            if (result.suppressedLanguageDetails > 0) {
+                System.out.println("[mod-updater] Language refresh logs truncated: +" + result.suppressedLanguageDetails + " more files.");
+            }
+        } else {
+            String detail = result.describeFailure();
+            if (detail != null && detail.length() > 0) {
+                System.err.println("[mod-updater] Resource pack sync incomplete: " + detail);
             }
         }
     }
     
     /**
-     * Download a file from a URL to a temp location.
+     * Extracts the preferred branch archive while it downloads. Selected entries are
+     * written to a staging directory and moved into resources/ only after the stream
+     * ended with an intact end-of-central-directory record, so a truncated or corrupt
+     * transfer leaves the tree untouched. Returns false on any failure; the caller then
+     * downloads the archive to disk and extracts it from there.
      */
-    private static Path downloadFromUrl(ProgressUI ui, String urlStr, String filename) {
-        try {
-            String tmpDir = System.getProperty("java.io.tmpdir");
-            Path tmp = Paths.get(tmpDir, filename);
-            HttpURLConnection conn = openHttpConnection(urlStr, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdater/1.0");
-            int code = conn.getResponseCode();
-            if (code < 200 || code >= 300) {
-                System.err.println("Download failed: HTTP " + code + " for " + urlStr);
-                return null;
-            }
+    private static boolean streamResourcePackArchive(String repo, ResourcePackHead head, List<ResourceArchiveCandidate> candidates, String branch,
+            Path resourcesDir, ResourceSyncResult result) {
+        if (candidates.isEmpty()) return false;
+        String label = "archive mirrors [branch=" + normalizeResourcePackBranch(branch) + ", streamed]";
+        
+        Path staging = resourcesDir.resolveSibling(RESOURCE_STAGING_DIR_NAME).normalize();
+        ResourceAssetIndex index = null;
+        HedgedResponse response = null;
+        HttpURLConnection conn = null;
+        Path cacheCopy = null;
+        OutputStream cacheOut = null;
+        try {
+            ensureDir(resourcesDir.resolve("assets"));
+            deleteDirectoryTree(staging);
+            index = loadResourceAssetIndex(resourcesDir);
             
-            long total = conn.getContentLengthLong();
-            InputStream in = new BufferedInputStream(conn.getInputStream());
-            FileOutputStream out = new FileOutputStream(tmp.toFile());
+            response = openHedgedResourceArchive(candidates);
+            long transferStart = System.nanoTime();
+            ResourceArchiveCandidate candidate = candidates.get(response.index);
+            conn = response.conn;
+            label = candidate.url + " [branch=" + candidate.branch + ", streamed]";
+            System.out.println("[mod-updater] Resource sync: streaming " + label);
+            long contentLength = conn.getContentLengthLong();
+            
+            List<PlannedAssetEntry> plan = new ArrayList<PlannedAssetEntry>();
+            Set<String> sourcePaths = new HashSet<String>();
+            int skipped = 0;
+            int streamedEntries = 0;
             byte[] buf = new byte[64 * 1024];
-            int n;
-            long downloaded = 0;
-            try {
-                while ((n = in.read(buf)) != -1) {
-                    out.write(buf, 0, n);
-                    downloaded += n;
+            // A copy for the shared download cache, which keeps archives by commit
+            if (head != null && head.sha != null && downloadCacheDir() != null) {
+                cacheCopy = Files.createTempFile("resourcepack-" + sanitizeTempName(repo) + "-", ".zip");
+                cacheOut = new BufferedOutputStream(Files.newOutputStream(cacheCopy), 64 * 1024);
+            }
+            ZipTailInputStream tail = new ZipTailInputStream(new BufferedInputStream(response.in, 64 * 1024), cacheOut);
+            ZipInputStream zis = new ZipInputStream(tail);
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                streamedEntries++;
+                String relNorm = entry.isDirectory() ? null : archiveEntryAssetPath(entry.getName());
+                Path dest = relNorm != null ? resourcesDir.resolve(relNorm).normalize() : null;
+                if (dest == null || !dest.startsWith(resourcesDir)) {
+                    zis.closeEntry();
+                    continue;
                 }
-            } finally {
-                try { in.close(); } catch (IOException ignored) {}
-                try { out.close(); } catch (IOException ignored) {}
+                sourcePaths.add(relNorm);
+                
+                boolean isLangFile = isLanguageAssetPath(relNorm);
+                boolean existedBefore = index.contains(relNorm);
+                boolean replaceExisting = result.mode == ResourceSyncMode.FULL || isLangFile;
+                if (existedBefore && (!replaceExisting || (!isLangFile && index.matchesCrc32(relNorm, entry.getSize(), entry.getCrc())))) {
+                    skipped++;
+                    zis.closeEntry();
+                    continue;
+                }
+                PlannedAssetEntry planned = new PlannedAssetEntry(entry, relNorm, dest, isLangFile, replaceExisting, existedBefore);
+                if (isLangFile && existedBefore) {
+                    try {
+                        planned.previousLangSha = index.gitBlobSha1(relNorm);
+                    } catch (IOException ignored) {}
+                }
+                planned.staged = staging.resolve(relNorm);
+                ensureDir(planned.staged.getParent());
+                planned.writtenSha = copyEntryWithGitBlobSha1(zis, planned.staged, entry.getSize(), true, buf);
+                zis.closeEntry();
+                planned.crc32 = entry.getCrc(); // known once the entry (and any data descriptor) was read
+                plan.add(planned);
+            }
+            // The central directory follows the last entry; read it through the tail buffer
+            while (tail.read(buf, 0, buf.length) != -1) {
+                // drain
+            }
+            if (contentLength >= 0 && tail.totalBytes() != contentLength) {
+                throw new IOException("Archive stream ended after " + tail.totalBytes() + " of " + contentLength + " bytes");
+            }
+            verifyStreamedZipEnd(tail, streamedEntries);
+            // Fully read: closing (rather than disconnecting) hands the socket back for reuse
+            closeQuietly(response.in);
+            conn = null;
+            recordMirrorOutcome(candidate.url, true, response.firstByteMs, tail.totalBytes(), (System.nanoTime() - transferStart) / 1000000L);
+            if (cacheOut != null) {
+                cacheOut.close();
+                cacheOut = null;
+                storeResourceArchiveInCache(repo, head, cacheCopy);
+            }
+            
+            for (PlannedAssetEntry planned : plan) {
+                ensureDir(planned.dest.getParent());
+                try {
+                    if (planned.replaceExisting) {
+                        Files.move(planned.staged, planned.dest, StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        Files.move(planned.staged, planned.dest);
+                    }
+                    planned.written = true;
+                    index.record(planned.relNorm, planned.dest, planned.writtenSha, planned.crc32);
+                } catch (FileAlreadyExistsException alreadyExists) {
+                    // Appeared since the index was loaded; SMART keeps the local copy
+                }
+            }
+            result.skippedExistingFiles += skipped;
+            result.sourceAssetPaths.addAll(sourcePaths);
+            tallyPlannedAssetEntries(plan, result.mode, index, result);
+            result.sourceUrl = candidate.url;
+            result.sourceBranch = candidate.branch;
+            result.attempts.add(label + " -> OK (" + tail.totalBytes() + " bytes)");
+            System.out.println("[mod-updater] Resource sync: streamed " + tail.totalBytes() + " bytes from " + candidate.url
+                    + " (branch=" + candidate.branch + "); " + plan.size() + " files staged and applied.");
+            return true;
+        } catch (IOException ex) {
+            String err = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+            result.attempts.add(label + " -> FAIL: " + err);
+            System.err.println("[mod-updater] Resource sync: streamed extraction failed (" + err + "); falling back to a full archive download.");
+            if (response != null && !(ex instanceof FileSystemException)) {
+                recordMirrorOutcome(candidates.get(response.index).url, false, response.firstByteMs, 0L, 0L);
+            }
+            return false;
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+            closeQuietly(cacheOut);
+            if (cacheCopy != null) {
+                try { Files.deleteIfExists(cacheCopy); } catch (IOException ignored) {}
+            }
+            try { deleteDirectoryTree(staging); } catch (IOException ignored) {}
+            if (index != null) {
+                index.save();
             }
-            return tmp;
-        } catch (Exception e) {
-            System.err.println("Download error: " + e.getMessage());
-            return null;
         }
     }
     
     /**
-     * Creates a jarmod patch file for Prism/MultiMC to recognize the jarmod.
-     * This creates a file in patches/ that tells the launcher about the jarmod.
+     * Checks the end-of-central-directory record of a streamed archive: it has to end
+     * the stream exactly, the central directory has to finish where it starts, and it
+     * has to list as many entries as were streamed. ZIP64 archives are not handled
+     * here and fail the check, which sends the caller down the on-disk path.
      */
-    private static void createJarmodPatch(Path instanceRoot, String jarFileName, String displayName) {
-        try {
-            // Generate a UUID for the jarmod
-            String uuid = java.util.UUID.randomUUID().toString();
-            
-            // First, rename the jar to use the UUID (this is how Prism expects jarmods)
-            Path jarmodsDir = instanceRoot.resolve("jarmods");
-            Path originalJar = jarmodsDir.resolve(jarFileName);
-            Path uuidJar = jarmodsDir.resolve(uuid + ".jar");
+    private static void verifyStreamedZipEnd(ZipTailInputStream stream, int streamedEntries) throws IOException {
+        byte[] tail = stream.tailBytes();
+        for (int i = tail.length - 22; i >= 0; i--) {
+            if (readLittleEndian(tail, i, 4) != 0x06054b50L) continue;
+            int commentLength = (int) readLittleEndian(tail, i + 20, 2);
+            if (i + 22 + commentLength != tail.length) continue;
             
-            if (Files.isRegularFile(originalJar)) {
-                Files.move(originalJar, uuidJar, StandardCopyOption.REPLACE_EXISTING);
+            long listedEntries = readLittleEndian(tail, i + 10, 2);
+            long directorySize = readLittleEndian(tail, i + 12, 4);
+            long directoryOffset = readLittleEndian(tail, i + 16, 4);
+            if (listedEntries == 0xFFFFL || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+                throw new IOException("ZIP64 archive cannot be verified while streaming");
             }
-            
-            // Create the patches directory if it doesn't exist
-            Path patchesDir = instanceRoot.resolve("patches");
-            if (!Files.isDirectory(patchesDir)) {
-                Files.createDirectories(patchesDir);
+            long recordOffset = stream.totalBytes() - tail.length + i;
+            if (directoryOffset + directorySize != recordOffset) {
+                throw new IOException("Central directory does not end at the end-of-central-directory record");
             }
-            
-            // Create the patch file
-            String patchUid = "custom.jarmod." + uuid;
-            Path patchFile = patchesDir.resolve(patchUid + ".json");
-            
-            // Check if patch already exists
-            if (Files.isRegularFile(patchFile)) {
-                System.out.println("Patch file already exists: " + patchFile.getFileName());
-                return;
+            if (listedEntries != (streamedEntries & 0xFFFF)) {
+                throw new IOException("Archive lists " + listedEntries + " entries but " + streamedEntries + " were streamed");
             }
-            
-            // Build the patch JSON
-            String patchJson = "{\n" +
-                "    \"formatVersion\": 1,\n" +
-                "    \"name\": \"" + displayName + " (jar mod)\",\n" +
-                "    \"uid\": \"" + patchUid + "\",\n" +
-                "    \"version\": \"1\",\n" +
-                "    \"jarMods\": [\n" +
-                "        {\n" +
-                "            \"name\": \"" + jarFileName + "\",\n" +
-                "            \"originalFileName\": \"" + jarFileName + "\"\n" +
-                "        }\n" +
-                "    ]\n" +
-                "}";
-            
-            Files.write(patchFile, patchJson.getBytes(StandardCharsets.UTF_8));
-            System.out.println("Created jarmod patch: " + patchFile.getFileName());
-            
-        } catch (Exception e) {
-            System.err.println("Warning: Could not create jarmod patch: " + e.getMessage());
-            e.printStackTrace();
+            return;
+        }
+        throw new IOException("End-of-central-directory record not found; archive is truncated");
+    }
+    
+    private static long readLittleEndian(byte[] data, int offset, int length) {
+        long value = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xFF);
         }
+        return value;
     }
     
     /**
-     * Silent version of BC check - runs without UI progress, for use when skipping updates.
+     * Races the archive mirrors of each branch with openHedgedConnection. Fallback
+     * branches (master for main) are only tried once every mirror of the preferred
+     * branch failed, so a slow mirror never swaps in a different branch's content.
      */
-    private static void ensureBouncyCastleDependencySilent(final Path instanceRoot) {
-        if (instanceRoot == null) return;
-        
-        // Run in background thread to not block UI
-        Thread t = new Thread(new Runnable() {
-            public void run() {
+    private static HedgedResponse openHedgedResourceArchive(List<ResourceArchiveCandidate> candidates) throws IOException {
+        Set<String> branches = new LinkedHashSet<String>();
+        for (ResourceArchiveCandidate c : candidates) branches.add(c.branch);
+        IOException last = null;
+        for (String groupBranch : branches) {
+            List<Integer> group = new ArrayList<Integer>();
+            List<String> urls = new ArrayList<String>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if (candidates.get(i).branch.equals(groupBranch)) {
+                    group.add(Integer.valueOf(i));
+                    urls.add(candidates.get(i).url);
+                }
+            }
+            try {
+                HedgedResponse r = openHedgedConnection(urls, RESOURCE_ARCHIVE_TIMEOUT_MS);
+                return new HedgedResponse(group.get(r.index).intValue(), r.conn, r.in, r.firstByteMs);
+            } catch (IOException ex) {
+                last = ex;
+                System.err.println("[mod-updater] Resource sync: no mirror of branch " + groupBranch + " responded (" + ex.getMessage() + ").");
+            }
+        }
+        throw last != null ? last : new IOException("No archive candidates");
+    }
+    
+    /**
+     * Hedged GET: starts the first URL and, whenever no first byte has arrived within
+     * the hedge delay (or every started request failed), starts the next one as well.
+     * The first response to deliver a byte wins; the others are disconnected. The delay
+     * adapts to the first-byte times of earlier winners.
+     */
+    private static HedgedResponse openHedgedConnection(final List<String> urls, final int timeoutMs) throws IOException {
+        if (urls.isEmpty()) throw new IOException("No URLs to request");
+        final LinkedBlockingQueue<Object> outcomes = new LinkedBlockingQueue<Object>();
+        final List<HttpURLConnection> connections = Collections.synchronizedList(new ArrayList<HttpURLConnection>());
+        final AtomicBoolean decided = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newCachedThreadPool(new ThreadFactory() {
+            private int count;
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ModUpdater-Hedge-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        long hedgeDelay = hedgeDelayMs();
+        long[] startedAt = new long[urls.size()];
+        boolean[] finished = new boolean[urls.size()];
+        int started = 0;
+        int failed = 0;
+        IOException lastError = null;
+        HedgedResponse winner = null;
+        try {
+            while (true) {
+                if (started == failed && started < urls.size()) {
+                    startedAt[started] = System.nanoTime();
+                    startHedgedAttempt(pool, urls, started++, timeoutMs, outcomes, connections, decided);
+                }
+                Object outcome;
                 try {
-                    Path librariesDir = instanceRoot.resolve("libraries");
-                    if (!Files.isDirectory(librariesDir)) {
-                        Files.createDirectories(librariesDir);
+                    outcome = outcomes.poll(started < urls.size() ? hedgeDelay : 2L * timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a response", ex);
+                }
+                if (outcome == null) {
+                    if (started >= urls.size()) {
+                        throw new IOException("No response within " + (2L * timeoutMs) + " ms");
                     }
-                    
-                    // Check if BC already exists in libraries
-                    Path bcJar = librariesDir.resolve(BC_JAR_NAME);
-                    if (Files.isRegularFile(bcJar)) {
-                        return; // Already installed
+                    System.out.println("[mod-updater] No first byte after " + hedgeDelay + " ms; hedging with " + urls.get(started));
+                    startedAt[started] = System.nanoTime();
+                    startHedgedAttempt(pool, urls, started++, timeoutMs, outcomes, connections, decided);
+                    continue;
+                }
+                if (outcome instanceof HedgedResponse) {
+                    winner = (HedgedResponse) outcome;
+                    if (started > 1) {
+                        System.out.println("[mod-updater] Hedged request won by " + urls.get(winner.index) + " (" + started + " started).");
                     }
-                    
-                    // Check jarmods folder too
-                    Path jarmodsDir = instanceRoot.resolve("jarmods");
-                    if (Files.isDirectory(jarmodsDir)) {
-                        File[] files = jarmodsDir.toFile().listFiles();
-                        if (files != null) {
-                            for (File f : files) {
-                                if (f.isFile() && f.getName().contains("bcprov") && f.getName().endsWith(".jar")) {
-                                    return; // Already have a version
-                                }
-                            }
+                    // Losers were at least this slow to answer; that also counts as having tried them
+                    for (int i = 0; i < started; i++) {
+                        if (i != winner.index && !finished[i]) {
+                            recordMirrorSlow(urls.get(i), (System.nanoTime() - startedAt[i]) / 1000000L);
                         }
                     }
-                    
-                    System.out.println("[ModUpdater] Installing Bouncy Castle crypto library...");
-                    
-                    // Download from Maven
-                    Path downloaded = downloadFromUrl(null, BC_MAVEN_URL, BC_JAR_NAME);
-                    if (downloaded == null || !Files.isRegularFile(downloaded)) {
-                        System.err.println("[ModUpdater] Failed to download Bouncy Castle.");
+                    return winner;
+                }
+                HedgeFailure failure = (HedgeFailure) outcome;
+                finished[failure.index] = true;
+                recordMirrorOutcome(urls.get(failure.index), false, -1L, 0L, 0L);
+                failed++;
+                lastError = failure.error;
+                if (failed == urls.size()) {
+                    throw lastError;
+                }
+            }
+        } finally {
+            // Every exit but the winner's return, timeouts and interrupts included, leaves
+            // nothing connected; attempts that connect after this see decided and disconnect
+            decided.set(true);
+            List<HttpURLConnection> losers = new ArrayList<HttpURLConnection>();
+            synchronized (connections) {
+                for (HttpURLConnection c : connections) {
+                    if (winner == null || c != winner.conn) losers.add(c);
+                }
+            }
+            // Responses that arrived while the outcome was being handled lost too
+            Object late;
+            while ((late = outcomes.poll()) != null) {
+                if (late instanceof HedgedResponse && late != winner) {
+                    losers.add(((HedgedResponse) late).conn);
+                }
+            }
+            disconnectInBackground(losers);
+            pool.shutdown();
+        }
+    }
+    
+    private static void startHedgedAttempt(ExecutorService pool, final List<String> urls, final int index, final int timeoutMs,
+            final LinkedBlockingQueue<Object> outcomes, final List<HttpURLConnection> connections, final AtomicBoolean decided) {
+        final ConnectionScope scope = CONNECTION_SCOPE.get();
+        pool.execute(new Runnable() {
+            public void run() {
+                CONNECTION_SCOPE.set(scope);
+                long startNanos = System.nanoTime();
+                HttpURLConnection conn = null;
+                try {
+                    conn = openHttpConnection(urls.get(index), timeoutMs, timeoutMs, "ModUpdaterGUI/1.0");
+                    conn.setInstanceFollowRedirects(true);
+                    connections.add(conn);
+                    if (decided.get()) {
+                        conn.disconnect();
                         return;
                     }
-                    
-                    // Move to libraries folder
-                    Files.move(downloaded, bcJar, StandardCopyOption.REPLACE_EXISTING);
-                    System.out.println("[ModUpdater] Installed: " + bcJar.getFileName());
-                    System.out.println("[ModUpdater] Note: You may need to add this library to your instance manually.");
-                    
-                } catch (Exception e) {
-                    System.err.println("[ModUpdater] Warning: Could not install Bouncy Castle: " + e.getMessage());
+                    int code = LauncherHttp.status(conn);
+                    if (code != 200) {
+                        LauncherHttp.discard(conn);
+                        throw new DownloadStatusException(code, "HTTP " + code + " from " + urls.get(index));
+                    }
+                    PushbackInputStream in = new PushbackInputStream(LauncherHttp.body(conn), 1);
+                    int first = in.read();
+                    if (first < 0) {
+                        throw new EOFException("Empty response from " + urls.get(index));
+                    }
+                    in.unread(first);
+                    long firstByteMs = (System.nanoTime() - startNanos) / 1000000L;
+                    if (decided.get()) {
+                        // Nobody polls for outcomes any more
+                        conn.disconnect();
+                        return;
+                    }
+                    recordHedgeFirstByte(firstByteMs);
+                    outcomes.add(new HedgedResponse(index, conn, in, firstByteMs));
+                } catch (IOException ex) {
+                    if (conn != null) conn.disconnect();
+                    outcomes.add(new HedgeFailure(index, decided.get() ? new IOException("cancelled") : ex));
+                } catch (RuntimeException ex) {
+                    if (conn != null) conn.disconnect();
+                    outcomes.add(new HedgeFailure(index, new IOException(ex.toString(), ex)));
+                } finally {
+                    CONNECTION_SCOPE.remove();
                 }
             }
-        }, "BC-Installer");
-        t.setDaemon(true);
-        t.start();
+        });
+    }
+    
+    /**
+     * Disconnects conns off the calling thread. disconnect() first closes the response
+     * stream, which waits for a read blocked on it, so a mirror that is still holding
+     * back its first byte would otherwise hold up the caller until that byte arrives.
+     */
+    private static void disconnectInBackground(Collection<HttpURLConnection> conns) {
+        if (conns.isEmpty()) return;
+        ExecutorService pool = Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ModUpdater-Disconnect");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        for (final HttpURLConnection conn : conns) {
+            pool.execute(new Runnable() {
+                public void run() {
+                    conn.disconnect();
+                }
+            });
+        }
+        pool.shutdown();
+    }
+    
+    private static long hedgeDelayMs() {
+        double ewma = HEDGE_FIRST_BYTE_EWMA_MS;
+        if (ewma < 0) return HEDGE_DEFAULT_DELAY_MS;
+        return Math.max(HEDGE_MIN_DELAY_MS, Math.min(HEDGE_MAX_DELAY_MS, (long) (ewma * 3.0)));
+    }
+    
+    private static synchronized void recordHedgeFirstByte(long millis) {
+        double ewma = HEDGE_FIRST_BYTE_EWMA_MS;
+        HEDGE_FIRST_BYTE_EWMA_MS = ewma < 0 ? millis : ewma * 0.7 + millis * 0.3;
+    }
+    
+    private static ResourceArchiveDownload downloadResourcePackArchive(String repo, List<ResourceArchiveCandidate> candidates, ResourceSyncResult result) {
+        if (candidates.isEmpty()) {
+            System.err.println("[mod-updater] Resource sync: no archive candidates were generated.");
+            return null;
+        }
+        System.out.println("[mod-updater] Resource sync: will try " + candidates.size() + " archive source candidate(s).");
         
-        // Wait briefly for it to complete (but don't block too long)
+        // One hedged round across the mirrors first; the sequential retries below are the fallback
+        Path hedged = null;
+        String hedgedLabel = "archive mirrors [hedged]";
+        HedgedResponse response = null;
         try {
-            t.join(5000); // Wait up to 5 seconds
-        } catch (InterruptedException ignored) {}
+            response = openHedgedResourceArchive(candidates);
+            long transferStart = System.nanoTime();
+            ResourceArchiveCandidate candidate = candidates.get(response.index);
+            hedgedLabel = candidate.url + " [branch=" + candidate.branch + ", hedged]";
+            // The winner goes first in the fallback so it picks up the hedged .part file
+            if (response.index > 0) {
+                candidates = new ArrayList<ResourceArchiveCandidate>(candidates);
+                candidates.add(0, candidates.remove(response.index));
+            }
+            hedged = transferHedgedToPart(response, candidate.url, resourceArchiveName(repo, candidate));
+            long bytes = Files.size(hedged);
+            if (!isValidZipArchive(hedged)) {
+                throw new IOException("Downloaded file is not a valid ZIP archive.");
+            }
+            recordMirrorOutcome(candidate.url, true, response.firstByteMs, bytes, (System.nanoTime() - transferStart) / 1000000L);
+            result.attempts.add(hedgedLabel + " -> OK");
+            return new ResourceArchiveDownload(hedged, candidate.url, candidate.branch);
+        } catch (IOException ex) {
+            String err = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+            if (response != null) {
+                recordMirrorOutcome(candidates.get(response.index).url, false, response.firstByteMs, 0L, 0L);
+            }
+            result.attempts.add(hedgedLabel + " -> FAIL: " + err);
+            System.err.println("[mod-updater] Resource sync: hedged download failed (" + err + "). Trying sources one by one...");
+            if (hedged != null) {
+                try { Files.deleteIfExists(hedged); } catch (IOException ignored) {}
+            }
+        }
+        
+        for (ResourceArchiveCandidate candidate : candidates) {
+            for (int attempt = 1; attempt <= RESOURCE_ARCHIVE_RETRIES; attempt++) {
+                Path downloaded = null;
+                String label = candidate.url + " [branch=" + candidate.branch + ", try=" + attempt + "/" + RESOURCE_ARCHIVE_RETRIES + "]";
+                System.out.println("[mod-updater] Resource sync: trying source " + label);
+                long attemptStart = System.nanoTime();
+                try {
+                    // Stable name so a retry (or the next launch) resumes the same .part file
+                    downloaded = downloadUrlToTempWithTimeout(candidate.url, resourceArchiveName(repo, candidate), RESOURCE_ARCHIVE_TIMEOUT_MS);
+                    if (!isValidZipArchive(downloaded)) {
+                        throw new IOException("Downloaded file is not a valid ZIP archive.");
+                    }
+                    recordMirrorOutcome(candidate.url, true, -1L, Files.size(downloaded), (System.nanoTime() - attemptStart) / 1000000L);
+                    result.attempts.add(label + " -> OK");
+                    return new ResourceArchiveDownload(downloaded, candidate.url, candidate.branch);
+                } catch (IOException ex) {
+                    String err = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+                    recordMirrorOutcome(candidate.url, false, -1L, 0L, 0L);
+                    result.attempts.add(label + " -> FAIL: " + err);
+                    result.errors.add(label + " -> " + err);
+                    if (attempt < RESOURCE_ARCHIVE_RETRIES) {
+                        System.err.println("[mod-updater] Resource sync: source failed (" + err + "). Retrying same source...");
+                    } else {
+                        System.err.println("[mod-updater] Resource sync: source exhausted (" + err + "). Moving to next fallback source...");
+                    }
+                    if (downloaded != null) {
+                        try { Files.deleteIfExists(downloaded); } catch (IOException ignored) {}
+                    }
+                    if (attempt < RESOURCE_ARCHIVE_RETRIES) {
+                        sleepQuietly(RESOURCE_ARCHIVE_RETRY_BASE_DELAY_MS * attempt);
+                    }
+                }
+            }
+        }
+        return null;
     }
-
-    private static void extractAssetsSubtree(ProgressUI ui, Path zipPath, Path minecraftDir) throws IOException {
-        Path assetsTarget1 = minecraftDir.resolve("resources").resolve("assets");
-        Path assetsTarget2 = minecraftDir.resolve("assets");
-        ensureDir(assetsTarget1);
-        ensureDir(assetsTarget2);
-
-        ZipInputStream zin = new ZipInputStream(Files.newInputStream(zipPath));
+    
+    private static String resourceArchiveName(String repo, ResourceArchiveCandidate candidate) {
+        return "resourcepack-" + sanitizeTempName(repo) + "-" + sanitizeTempName(candidate.branch) + ".zip";
+    }
+    
+    /**
+     * Streams the hedged winner into the same .part file and sidecar that
+     * downloadResumable keeps for its URL, recording the validators before the body.
+     * An interrupted transfer leaves both behind, so the sequential fallback resumes
+     * it with Range / If-Range instead of starting over. Fails straight away when
+     * another launcher holds the download lock; the fallback then waits for it.
+     */
+    private static Path transferHedgedToPart(HedgedResponse response, String url, String fileName) throws IOException {
+        HttpURLConnection conn = response.conn;
+        FileChannel lockChannel = null;
+        boolean done = false;
         try {
-            ZipEntry e;
-            while ((e = zin.getNextEntry()) != null) {
-                if (e.isDirectory()) continue;
-                String name = e.getName().replace('\\', '/');
+            Path partDir = Paths.get(System.getProperty("java.io.tmpdir"), DOWNLOAD_PART_DIR_NAME);
+            String urlKey = downloadKey(url);
+            String safeName = resumablePartName(url, fileName);
+            Path part = partDir.resolve(safeName + ".part");
+            Path meta = partDir.resolve(safeName + ".part.properties");
+            Path target = ensureParent(partDir.resolve(urlKey).resolve(fileName));
+            lockChannel = FileChannel.open(partDir.resolve(safeName + ".part.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException ex) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException("Another download of " + fileName + " is in progress");
+            }
 
-                // Try to normalize to extract only resources/assets/* subtree
-                int idx = name.indexOf("resources/assets/");
-                Path dest;
-                if (idx >= 0) {
-                    String rel = name.substring(idx + "resources/assets/".length());
-                    dest = assetsTarget1.resolve(rel);
-                } else if (name.startsWith("assets/") || name.contains("/assets/")) {
-                    String rel = name.substring(name.indexOf("assets/" ) + "assets/".length());
-                    // If the instance uses separate resources/assets, place under resources/assets
-                    dest = assetsTarget1.resolve(rel);
-                } else if (name.startsWith("resources/") || name.contains("/resources/")) {
-                    // Some releases may package directly under resources/*
-                    String rel = name.substring(name.indexOf("resources/") + "resources/".length());
-                    dest = minecraftDir.resolve("resources").resolve(rel);
-                } else {
-                    continue; // skip unrelated files
+            // A 200 from byte zero replaces whatever an earlier run left behind
+            discardPartialDownload(part, meta);
+            long total = conn.getContentLengthLong();
+            Properties state = new Properties();
+            state.setProperty("url", url);
+            String etag = conn.getHeaderField("ETag");
+            String lastModified = conn.getHeaderField("Last-Modified");
+            if (etag != null) state.setProperty("etag", etag);
+            if (lastModified != null) state.setProperty("lastModified", lastModified);
+            if (total >= 0) state.setProperty("length", String.valueOf(total));
+            writePropertiesAtomically(meta, state, "Resumable download state");
+
+            InputStream in = response.in;
+            FileOutputStream out = new FileOutputStream(part.toFile());
+            byte[] buf = new byte[64 * 1024];
+            long written = 0L;
+            int n;
+            try {
+                while ((n = in.read(buf)) != -1) {
+                    out.write(buf, 0, n);
+                    written += n;
                 }
-
-                ensureDir(dest.getParent());
-                Files.copy(zin, dest, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                try { out.close(); } catch (IOException ignored) {}
+            }
+            if (total >= 0 && written != total) {
+                throw new IOException("Incomplete download of " + fileName + ": " + written + " of " + total + " bytes");
             }
+            // A branch archive URL cannot be looked up in the download cache later; the
+            // caller caches the archive under its commit instead
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(meta);
+            done = true;
+            return target;
         } finally {
-            try { zin.close(); } catch (IOException ignored) {}
+            if (!done) conn.disconnect();
+            closeQuietly(response.in);
+            // Closing the channel releases the lock
+            closeQuietly(lockChannel);
         }
-        ui.log("Assets extracted.");
     }
-
-    private static void extractAssetsFromJarToResources(ProgressUI ui, Path jarPath, Path minecraftDir, double start, double end) throws IOException {
-        Path resourcesDir = minecraftDir.resolve("resources");
-        Path assetsDir = resourcesDir.resolve("assets");
-        ensureDir(assetsDir);
-
-        ZipFile zipFile = new ZipFile(jarPath.toFile());
+    
+    /**
+     * Orders candidates by expected time to a successful download from the recorded
+     * mirror history, keeping the preferred branch ahead of fallback branches. Now and
+     * then (and always once a mirror has gone untried for a day) the least recently
+     * tried mirror is moved to the front so a recovered mirror can win again. The chosen
+     * order and its reasons are added to the attempt log.
+     */
+    private static List<ResourceArchiveCandidate> rankResourceArchiveCandidates(List<ResourceArchiveCandidate> candidates, ResourceSyncResult result) {
+        if (candidates.size() < 2) return candidates;
+        long now = System.currentTimeMillis();
+        Properties stats = readPropertiesQuietly(launcherDataDir().resolve(MIRROR_STATS_NAME));
+        if (stats == null) stats = new Properties();
+        final long expectedBytes = parseLongOrDefault(stats.getProperty("@archiveBytes"), MIRROR_PRIOR_ARCHIVE_BYTES);
+        
+        Set<String> branches = new LinkedHashSet<String>();
+        for (ResourceArchiveCandidate c : candidates) branches.add(c.branch);
+        List<ResourceArchiveCandidate> ordered = new ArrayList<ResourceArchiveCandidate>();
+        for (String b : branches) {
+            List<ResourceArchiveCandidate> group = new ArrayList<ResourceArchiveCandidate>();
+            final Map<ResourceArchiveCandidate, MirrorStats> byCandidate = new HashMap<ResourceArchiveCandidate, MirrorStats>();
+            for (ResourceArchiveCandidate c : candidates) {
+                if (!c.branch.equals(b)) continue;
+                group.add(c);
+                byCandidate.put(c, loadMirrorStats(stats, mirrorHost(c.url), now));
+            }
+            // Stable sort: equal estimates keep the static order
+            Collections.sort(group, new Comparator<ResourceArchiveCandidate>() {
+                public int compare(ResourceArchiveCandidate a, ResourceArchiveCandidate c) {
+                    return Double.compare(byCandidate.get(a).expectedMillis(expectedBytes), byCandidate.get(c).expectedMillis(expectedBytes));
+                }
+            });
+            
+            ResourceArchiveCandidate probe = null;
+            for (ResourceArchiveCandidate c : group) {
+                if (probe == null || byCandidate.get(c).updated < byCandidate.get(probe).updated) probe = c;
+            }
+            boolean stale = probe != null && now - byCandidate.get(probe).updated > MIRROR_PROBE_INTERVAL_MS;
+            if (probe != null && probe != group.get(0) && (stale || Math.random() < MIRROR_PROBE_CHANCE)) {
+                group.remove(probe);
+                group.add(0, probe);
+            } else {
+                probe = null;
+            }
+            
+            StringBuilder why = new StringBuilder("mirror order [branch=" + b + "]:");
+            for (ResourceArchiveCandidate c : group) {
+                MirrorStats ms = byCandidate.get(c);
+                why.append(' ').append(mirrorHost(c.url));
+                if (c == probe) {
+                    why.append(" (probe: ").append(ms.updated > 0 ? "untried for " + ((now - ms.updated) / 60000L) + " min" : "no history").append(')');
+                } else if (ms.updated == 0) {
+                    why.append(" (no history)");
+                } else {
+                    why.append(String.format(Locale.ROOT, " (~%.1fs, %.0f%% ok)", ms.expectedMillis(expectedBytes) / 1000.0, ms.successProbability() * 100.0));
+                }
+            }
+            result.attempts.add(why.toString());
+            System.out.println("[mod-updater] Resource sync: " + why);
+            ordered.addAll(group);
+        }
+        return ordered;
+    }
+    
+    private static String mirrorHost(String url) {
         try {
-            int total = zipFile.size();
-            int processed = 0;
-            Enumeration<? extends ZipEntry> it = zipFile.entries();
-            while (it.hasMoreElements()) {
-                ZipEntry e = it.nextElement();
-                processed++;
-                String name = e.getName().replace('\\', '/');
-                if (e.isDirectory()) continue;
-                Path dest = null;
-                if (name.startsWith("assets/")) {
-                    String rel = name.substring("assets/".length());
-                    dest = assetsDir.resolve(rel);
-                } else if (name.startsWith("resources/assets/")) {
-                    String rel = name.substring("resources/assets/".length());
-                    dest = assetsDir.resolve(rel);
-                } else if (name.startsWith("resources/")) {
-                    String rel = name.substring("resources/".length());
-                    dest = resourcesDir.resolve(rel);
+            String host = new URL(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : url;
+        } catch (IOException ex) {
+            return url;
+        }
+    }
+    
+    /** Reads one host's history, applying the decay for the time since it was recorded. */
+    private static MirrorStats loadMirrorStats(Properties stats, String host, long now) {
+        MirrorStats ms = new MirrorStats();
+        ms.updated = parseLongOrDefault(stats.getProperty(host + ".updated"), 0L);
+        double decay = ms.updated > 0 ? Math.pow(0.5, Math.max(0L, now - ms.updated) / (double) MIRROR_STATS_HALF_LIFE_MS) : 1.0;
+        ms.successes = parseDoubleOrDefault(stats.getProperty(host + ".successes"), 0.0) * decay;
+        ms.failures = parseDoubleOrDefault(stats.getProperty(host + ".failures"), 0.0) * decay;
+        ms.firstByteMs = parseDoubleOrDefault(stats.getProperty(host + ".firstByteMs"), -1.0);
+        ms.bytesPerSecond = parseDoubleOrDefault(stats.getProperty(host + ".bytesPerSecond"), -1.0);
+        return ms;
+    }
+    
+    /**
+     * Adds one attempt to the mirror history. firstByteMs and transfer figures are
+     * folded into moving averages when known (>= 0 / > 0).
+     */
+    private static void recordMirrorOutcome(String url, boolean success, long firstByteMs, long bytes, long transferMs) {
+        synchronized (MIRROR_STATS_LOCK) {
+            Path file = launcherDataDir().resolve(MIRROR_STATS_NAME);
+            Properties stats = readPropertiesQuietly(file);
+            if (stats == null) stats = new Properties();
+            String host = mirrorHost(url);
+            long now = System.currentTimeMillis();
+            MirrorStats ms = loadMirrorStats(stats, host, now);
+            if (success) {
+                ms.successes += 1.0;
+                if (bytes > 0 && transferMs > 0) {
+                    double rate = bytes * 1000.0 / transferMs;
+                    ms.bytesPerSecond = ms.bytesPerSecond > 0 ? ms.bytesPerSecond * 0.7 + rate * 0.3 : rate;
                 }
-                if (dest != null) {
-                    ensureDir(dest.getParent());
-                    try (InputStream in = zipFile.getInputStream(e)) {
-                        Files.copy(in, dest, StandardCopyOption.REPLACE_EXISTING);
-                    }
+                if (bytes > 0) {
+                    stats.setProperty("@archiveBytes", String.valueOf(bytes));
                 }
-                double frac = start + (end - start) * (processed / (double) Math.max(1, total));
-                ui.progress((int) Math.round(frac * 100));
+            } else {
+                ms.failures += 1.0;
+            }
+            if (firstByteMs >= 0) {
+                ms.firstByteMs = ms.firstByteMs >= 0 ? ms.firstByteMs * 0.7 + firstByteMs * 0.3 : firstByteMs;
+            }
+            ms.updated = now;
+            storeMirrorStats(stats, host, ms);
+            try {
+                writePropertiesAtomically(file, stats, "Archive mirror history (decayed counts, moving averages)");
+            } catch (IOException ex) {
+                System.err.println("[mod-updater] Failed to save mirror stats: " + ex.getMessage());
             }
-        } finally {
-            try { zipFile.close(); } catch (IOException ignored) {}
         }
     }
-
-    private static boolean isUpToDate(Path minecraftDir, Path instanceRoot, String mode, String jarRegex, ReleaseAsset jarAsset, ReleaseAsset serverJarAsset, String latestTag, String jarmodName) throws IOException {
-        boolean patchUpToDate = jarAsset == null || isPatchJarUpToDate(minecraftDir, instanceRoot, mode, jarRegex, latestTag, jarmodName);
-        boolean serverUpToDate = serverJarAsset == null || isLanServerJarUpToDate(minecraftDir, latestTag);
-        return patchUpToDate && serverUpToDate;
-    }
-
-    private static boolean isPatchJarUpToDate(Path minecraftDir, Path instanceRoot, String mode, String jarRegex, String latestTag, String jarmodName) throws IOException {
-        if ("mods".equalsIgnoreCase(mode)) {
-            Path modsDir = minecraftDir.resolve("mods");
-            Path existing = findExistingMatching(modsDir, jarRegex);
-            if (existing == null) return false;
-            InstalledMarker m = readMarker(existing);
-            return m != null && equalsSafe(m.tag, latestTag);
-        } else if ("clientJar".equalsIgnoreCase(mode)) {
-            Path client = resolveClientJarPath(minecraftDir, null);
-            if (client == null) return false;
-            InstalledMarker m = readMarker(client);
-            return m != null && equalsSafe(m.tag, latestTag);
-        } else if ("jarmods".equalsIgnoreCase(mode)) {
-            if (instanceRoot == null) return false;
-            Path jarmodsDir = instanceRoot.resolve("jarmods");
-            if (!Files.isDirectory(jarmodsDir)) return false;
-            Path target = pickJarmodTarget(jarmodsDir, jarmodName);
-            if (target == null || !Files.isRegularFile(target)) return false;
-            InstalledMarker m = readMarker(target);
-            return m != null && equalsSafe(m.tag, latestTag);
-        }
-        return false;
+    
+    /** A hedged request that lost: it took at least elapsedMs to answer, which is not a failure. */
+    private static void recordMirrorSlow(String url, long elapsedMs) {
+        synchronized (MIRROR_STATS_LOCK) {
+            Path file = launcherDataDir().resolve(MIRROR_STATS_NAME);
+            Properties stats = readPropertiesQuietly(file);
+            if (stats == null) stats = new Properties();
+            String host = mirrorHost(url);
+            long now = System.currentTimeMillis();
+            MirrorStats ms = loadMirrorStats(stats, host, now);
+            ms.firstByteMs = Math.max(ms.firstByteMs, (double) elapsedMs);
+            ms.updated = now;
+            storeMirrorStats(stats, host, ms);
+            try {
+                writePropertiesAtomically(file, stats, "Archive mirror history (decayed counts, moving averages)");
+            } catch (IOException ex) {
+                System.err.println("[mod-updater] Failed to save mirror stats: " + ex.getMessage());
+            }
+        }
+    }
+    
+    private static void storeMirrorStats(Properties stats, String host, MirrorStats ms) {
+        stats.setProperty(host + ".successes", String.format(Locale.ROOT, "%.4f", ms.successes));
+        stats.setProperty(host + ".failures", String.format(Locale.ROOT, "%.4f", ms.failures));
+        stats.setProperty(host + ".firstByteMs", String.format(Locale.ROOT, "%.1f", ms.firstByteMs));
+        stats.setProperty(host + ".bytesPerSecond", String.format(Locale.ROOT, "%.1f", ms.bytesPerSecond));
+        stats.setProperty(host + ".updated", String.valueOf(ms.updated));
+    }
+    
+    private static double parseDoubleOrDefault(String value, double fallback) {
+        if (value == null) return fallback;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+    
+    private static List<ResourceArchiveCandidate> buildResourceArchiveCandidates(String repo, String preferredBranch) {
+        String branch = normalizeResourcePackBranch(preferredBranch);
+        List<String> branches = new ArrayList<String>();
+        branches.add(branch);
+        if ("main".equalsIgnoreCase(branch)) {
+            branches.add("master");
+        }
+        
+        List<ResourceArchiveCandidate> urls = new ArrayList<ResourceArchiveCandidate>();
+        for (String b : branches) {
+            urls.add(new ResourceArchiveCandidate("https://github.com/" + repo + "/archive/refs/heads/" + b + ".zip", b));
+            urls.add(new ResourceArchiveCandidate("https://codeload.github.com/" + repo + "/zip/refs/heads/" + b, b));
+        }
+        
+        // Fallback mirror after all GitHub endpoints
+        for (String b : branches) {
+            urls.add(new ResourceArchiveCandidate("https://cdn.jsdelivr.net/gh/" + repo + "@" + b + "/.zip", b));
+        }
+        return urls;
+    }
+    
+    private static String normalizeResourcePackBranch(String branch) {
+        if (branch == null) return "main";
+        String trimmed = branch.trim();
+        return trimmed.length() > 0 ? trimmed : "main";
+    }
+    
+    private static void extractResourcePackArchive(Path zipPath, Path resourcesDir, ResourceSyncMode mode, ResourceSyncResult result) throws IOException {
+        Path assetsRoot = resourcesDir.resolve("assets").normalize();
+        ensureDir(assetsRoot);
+        // One walk up front; existence and lang-change checks below are map lookups
+        final ResourceAssetIndex index = loadResourceAssetIndex(resourcesDir);
+        
+        final ZipFile zip = new ZipFile(zipPath.toFile());
+        try {
+            // Decide everything from the central directory before inflating anything
+            List<PlannedAssetEntry> plan = new ArrayList<PlannedAssetEntry>();
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) continue;
+                
+                String relNorm = archiveEntryAssetPath(entry.getName());
+                if (relNorm == null) continue;
+                Path dest = resourcesDir.resolve(relNorm).normalize();
+                if (!dest.startsWith(resourcesDir)) continue;
+                result.sourceAssetPaths.add(relNorm);
+                
+                boolean isLangFile = isLanguageAssetPath(relNorm);
+                boolean existedBefore = index.contains(relNorm);
+                boolean replaceExisting = mode == ResourceSyncMode.FULL || isLangFile;
+                // FULL keeps files whose size and CRC-32 match the central directory
+                if (existedBefore && (!replaceExisting || (!isLangFile && index.matchesCrc32(relNorm, entry.getSize(), entry.getCrc())))) {
+                    result.skippedExistingFiles++;
+                    continue;
+                }
+                PlannedAssetEntry planned = new PlannedAssetEntry(entry, relNorm, dest, isLangFile, replaceExisting, existedBefore);
+                if (isLangFile && existedBefore) {
+                    try {
+                        planned.previousLangSha = index.gitBlobSha1(relNorm);
+                    } catch (IOException ignored) {}
+                }
+                plan.add(planned);
+            }
+            
+            writePlannedAssetEntries(zip, plan, index);
+            
+            // Tally in archive order so counts and log lines do not depend on worker timing
+            tallyPlannedAssetEntries(plan, mode, index, result);
+        } finally {
+            try { zip.close(); } catch (IOException ignored) {}
+            index.save();
+        }
+    }
+    
+    /** Adds written entries to the sync result, in plan order, and logs language refreshes. */
+    private static void tallyPlannedAssetEntries(List<PlannedAssetEntry> plan, ResourceSyncMode mode, ResourceAssetIndex index, ResourceSyncResult result) {
+        for (PlannedAssetEntry planned : plan) {
+            if (!planned.written) {
+                result.skippedExistingFiles++;
+                continue;
+            }
+            result.copiedFiles++;
+            result.writtenPaths.add(planned.relNorm);
+            if (planned.isLangFile) {
+                result.langFilesRefreshed++;
+                result.addRefreshedLanguageDetail(planned.relNorm);
+                if (planned.existedBefore) {
+                    boolean changed = true;
+                    try {
+                        String currentSha = planned.writtenSha != null ? planned.writtenSha : index.gitBlobSha1(planned.relNorm);
+                        if (planned.previousLangSha != null) {
+                            changed = !planned.previousLangSha.equals(currentSha);
+                        }
+                    } catch (IOException ignored) {}
+                    if (changed) {
+                        System.out.println("[mod-updater] Language overwrite applied (updated content): " + planned.relNorm);
+                    } else {
+                        System.out.println("[mod-updater] Language overwrite applied (content unchanged): " + planned.relNorm);
+                    }
+                } else {
+                    System.out.println("[mod-updater] Language file missing; installed latest version: " + planned.relNorm);
+                }
+            } else if (mode == ResourceSyncMode.SMART) {
+                result.missingFilesCopied++;
+                result.addMissingAssetDetail(planned.relNorm);
+            }
+        }
+    }
+    
+    /**
+     * Maps an archive entry name ("repo-branch/assets/...") to its path relative to
+     * resources/, or null when the entry is outside assets/ or tries to escape it.
+     */
+    private static String archiveEntryAssetPath(String entryName) {
+        String name = entryName.replace('\\', '/');
+        int slashIdx = name.indexOf('/');
+        if (slashIdx < 0 || slashIdx + 1 >= name.length()) return null;
+        
+        String relativePath = name.substring(slashIdx + 1);
+        if (!relativePath.startsWith("assets/")) return null;
+        
+        Path rel;
+        try {
+            rel = Paths.get(relativePath).normalize();
+        } catch (InvalidPathException badPath) {
+            return null;
+        }
+        if (rel.isAbsolute()) return null;
+        
+        String relNorm = rel.toString().replace('\\', '/');
+        if (relNorm.startsWith("..")) return null;
+        return relNorm;
+    }
+    
+    /** Inflates and writes the planned entries across a bounded worker pool. */
+    private static void writePlannedAssetEntries(final ZipFile zip, List<PlannedAssetEntry> plan, final ResourceAssetIndex index) throws IOException {
+        if (plan.isEmpty()) return;
+        int threads = Math.max(1, Math.min(Math.min(Runtime.getRuntime().availableProcessors(), RESOURCE_EXTRACT_MAX_THREADS), plan.size()));
+        ExecutorService pool = LauncherRuntime.newWorkerPool("ModUpdater-ResourceExtract", threads);
+        final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>() {
+            @Override
+            protected byte[] initialValue() {
+                return new byte[64 * 1024];
+            }
+        };
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final PlannedAssetEntry planned : plan) {
+                futures.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        ensureDir(planned.dest.getParent());
+                        InputStream in = zip.getInputStream(planned.entry);
+                        try {
+                            planned.writtenSha = copyEntryWithGitBlobSha1(in, planned.dest, planned.entry.getSize(), planned.replaceExisting, buffers.get());
+                            planned.written = true;
+                        } catch (FileAlreadyExistsException alreadyExists) {
+                            return null;
+                        } finally {
+                            closeQuietly(in);
+                        }
+                        index.record(planned.relNorm, planned.dest, planned.writtenSha, planned.entry.getCrc());
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> f : futures) {
+                try {
+                    awaitTaskResult(f);
+                } catch (IOException | RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new IOException("Resource extraction interrupted", ex);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Streams a zip entry to dest and returns the git blob SHA-1 of what was written,
+     * hashed on the way through. Returns null when the entry did not declare its size,
+     * since the blob header has to be hashed before the content. An existing file is
+     * unlinked rather than truncated, so a hard-linked original stays intact.
+     */
+    private static String copyEntryWithGitBlobSha1(InputStream in, Path dest, long size, boolean replaceExisting, byte[] buf) throws IOException {
+        MessageDigest md = size >= 0 ? newGitBlobDigest(size) : null;
+        if (replaceExisting) {
+            Files.deleteIfExists(dest);
+        }
+        OutputStream out = Files.newOutputStream(dest, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        long written = 0;
+        try {
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+                if (md != null) md.update(buf, 0, n);
+                written += n;
+            }
+        } finally {
+            out.close();
+        }
+        return md != null && written == size ? toHex(md.digest()) : null;
+    }
+    
+    private static boolean isLanguageAssetPath(String relativePath) {
+        if (relativePath == null) return false;
+        String norm = relativePath.replace('\\', '/').toLowerCase(Locale.ROOT);
+        return norm.startsWith("assets/minecraft/lang/") && !norm.endsWith("/");
+    }
+    
+    private static String sanitizeTempName(String name) {
+        if (name == null || name.isEmpty()) return "unknown";
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+    
+    private static Path downloadUrlToTempWithTimeout(String url, String suggestedName, int timeoutMs) throws IOException {
+        // The caller retries per candidate, so a single attempt here; a failed
+        // attempt leaves its .part file behind for the caller's next try.
+        return downloadResumable(null, Collections.singletonList(url), suggestedName, null, timeoutMs, true, 1, 0.0, 1.0);
+    }
+    
+    private static boolean isValidZipArchive(Path zipPath) {
+        if (zipPath == null || !Files.isRegularFile(zipPath)) return false;
+        ZipFile zip = null;
+        try {
+            zip = new ZipFile(zipPath.toFile());
+            zip.entries();
+            return true;
+        } catch (IOException ignored) {
+            return false;
+        } finally {
+            if (zip != null) {
+                try { zip.close(); } catch (IOException ignored) {}
+            }
+        }
+    }
+    
+    private static void sleepQuietly(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Installs the macOS LWJGL3 patch that tells Prism to add -XstartOnFirstThread.
+     * This is how modern Minecraft handles GLFW's main thread requirement on macOS.
+     * The patch file tells Prism Launcher to add the required JVM argument automatically.
+     * 
+     * @param instanceRoot The Prism instance root directory
+     */
+    private static void installMacOSPatch(Path instanceRoot) {
+        // Only needed on macOS
+        String os = System.getProperty("os.name", "").toLowerCase();
+        if (!os.contains("mac")) {
+            return;
+        }
+        
+        Path patchesDir = instanceRoot.resolve("patches");
+        Path patchFile = patchesDir.resolve("lwjgl3-macos.json");
+        
+        // Check if already installed with current version (1.1.0 adds headless mode)
+        if (Files.exists(patchFile)) {
+            try {
+                String content = new String(Files.readAllBytes(patchFile), "UTF-8");
+                if (content.contains("\"version\": \"1.1.0\"") && content.contains("headless")) {
+                    return; // Already up to date
+                }
+                // Old version - delete and reinstall
+                Files.delete(patchFile);
+                System.out.println("[mod-updater] Updating macOS patch to v1.1.0 (adds headless mode)");
+            } catch (Exception e) {
+                // If can't read, try to reinstall
+            }
+        }
+        
+        try {
+            ensureDir(patchesDir);
+            
+            // Create the patch file that tells Prism to add macOS-specific JVM args
+            // XstartOnFirstThread is needed for GLFW, headless=true allows AWT operations
+            String patchContent = 
+                "{\n" +
+                "    \"formatVersion\": 1,\n" +
+                "    \"name\": \"LWJGL 3 macOS Support\",\n" +
+                "    \"uid\": \"org.lwjgl3.macos.fix\",\n" +
+                "    \"version\": \"1.1.0\",\n" +
+                "    \"+traits\": [\n" +
+                "        \"XstartOnFirstThread\"\n" +
+                "    ],\n" +
+                "    \"+jvmArgs\": [\n" +
+                "        \"-Djava.awt.headless=true\"\n" +
+                "    ],\n" +
+                "    \"requires\": [],\n" +
+                "    \"compatibleJavaMajors\": [8, 11, 17, 21]\n" +
+                "}\n";
+            
+            Files.write(patchFile, patchContent.getBytes("UTF-8"));
+            System.out.println("[mod-updater] Installed macOS LWJGL3 patch: " + patchFile);
+            
+        } catch (Exception e) {
+            System.err.println("[mod-updater] Warning: Failed to install macOS patch: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Installs the custom net.minecraft.json patch for macOS compatibility.
+     * Downloads from GitHub if not already present in the patches directory.
+     * This patch is essential for proper game operation on macOS.
+     * 
+     * @param instanceRoot The Prism instance root directory
+     */
+    private static void installNetMinecraftJsonPatch(Path instanceRoot) {
+        // Only needed on macOS
+        String os = System.getProperty("os.name", "").toLowerCase();
+        if (!os.contains("mac")) {
+            return;
+        }
+        
+        Path patchesDir = instanceRoot.resolve("patches");
+        Path patchFile = patchesDir.resolve("net.minecraft.json");
+        
+        // Check if already installed
+        if (Files.exists(patchFile)) {
+            System.out.println("[mod-updater] net.minecraft.json patch already installed");
+            return;
+        }
+        
+        try {
+            ensureDir(patchesDir);
+            
+            // Download from GitHub releases
+            String downloadUrl = "https://github.com/MinecraftOldschoolEdition/net.minecraft.json/releases/download/1.0/net.minecraft.json";
+            System.out.println("[mod-updater] Downloading net.minecraft.json from GitHub...");
+            
+            HttpURLConnection conn = openHttpConnection(downloadUrl, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
+            conn.setInstanceFollowRedirects(true);
+            
+            int responseCode = LauncherHttp.status(conn);
+            if (responseCode != 200) {
+                LauncherHttp.discard(conn);
+                System.err.println("[mod-updater] Failed to download net.minecraft.json: HTTP " + responseCode);
+                return;
+            }
+            
+            // Download and write to patch file
+            try (InputStream in = new BufferedInputStream(LauncherHttp.body(conn));
+                 FileOutputStream out = new FileOutputStream(patchFile.toFile())) {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    out.write(buf, 0, n);
+                }
+            }
+            System.out.println("[mod-updater] Installed net.minecraft.json patch: " + patchFile);
+            
+        } catch (Exception e) {
+            System.err.println("[mod-updater] Warning: Failed to install net.minecraft.json patch: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Ensures Bouncy Castle library is installed for cryptographic operations.
+     * Downloads from Maven Central if not present. Uses libraries folder for classpath inclusion.
+     */
+    private static void ensureBouncyCastleDependency(ProgressUI ui, Path instanceRoot) {
+        try {
+            // Use libraries folder instead of jarmods - this adds to classpath without merging
+            Path librariesDir = instanceRoot.resolve("libraries");
+            ensureDir(librariesDir);
+            
+            // Check if BC jar already exists in libraries
+            Path bcJar = librariesDir.resolve(BC_JAR_NAME);
+            if (Files.isRegularFile(bcJar)) {
+                ui.log("Bouncy Castle already installed: " + bcJar.getFileName());
+                return;
+            }
+            
+            // Also check jarmods folder (user might have added manually)
+            Path jarmodsDir = instanceRoot.resolve("jarmods");
+            if (Files.isDirectory(jarmodsDir)) {
+                File[] files = jarmodsDir.toFile().listFiles();
+                if (files != null) {
+                    for (File f : files) {
+                        if (f.isFile() && f.getName().contains("bcprov") && f.getName().endsWith(".jar")) {
+                            ui.log("Bouncy Castle found in jarmods: " + f.getName());
+                            return;
+                        }
+                    }
+                }
+            }
+            
+            ui.setPhaseText("Installing crypto library...");
+            ui.log("Downloading Bouncy Castle from Maven Central...");
+            
+            // Download from Maven
+            Path downloaded = downloadMavenArtifact(BC_JAR_NAME, BC_MAVEN_URL, BC_MAVEN_MIRROR_URL);
+            if (downloaded == null || !Files.isRegularFile(downloaded)) {
+                ui.log("Warning: Failed to download Bouncy Castle. Some features may be unavailable.");
+                return;
+            }
+            
+            // Move to libraries folder
+            Files.move(downloaded, bcJar, StandardCopyOption.REPLACE_EXISTING);
+            ui.log("Installed: " + bcJar.getFileName());
+            ui.log("Note: You may need to add this library to your instance manually via Prism Launcher.");
+            
+        } catch (Exception e) {
+            // Don't fail the whole update if BC install fails
+            System.err.println("Warning: Could not install Bouncy Castle dependency: " + e.getMessage());
+            if (ui != null) {
+                ui.log("Warning: Crypto library install failed. Some features may be unavailable.");
+            }
+        }
+    }
+    
+    /**
+     * Download a Maven Central artifact to a temp location, verified against the
+     * {@code .sha1} file published next to it. A copy that fails the check is fetched
+     * again from the next host in {@code mirrorUrls}.
+     */
+    private static Path downloadMavenArtifact(String filename, String... mirrorUrls) {
+        try {
+            String sha1 = fetchPublishedChecksum(mirrorUrls[0] + ".sha1", 40);
+            ExpectedDigest expected = null;
+            if (sha1 != null) {
+                expected = new ExpectedDigest("SHA-1", sha1, "Maven Central .sha1");
+            } else {
+                System.err.println("[mod-updater] Could not read the .sha1 for " + filename + "; downloading unverified.");
+            }
+            return downloadResumable(null, Arrays.asList(mirrorUrls), filename, expected, HTTP_TIMEOUT_MS, false, DOWNLOAD_ATTEMPTS, 0.0, 1.0);
+        } catch (Exception e) {
+            System.err.println("Download error: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Creates a jarmod patch file for Prism/MultiMC to recognize the jarmod.
+     * This creates a file in patches/ that tells the launcher about the jarmod.
+     */
+    private static void createJarmodPatch(Path instanceRoot, String jarFileName, String displayName) {
+        try {
+            // Generate a UUID for the jarmod
+            String uuid = java.util.UUID.randomUUID().toString();
+            
+            // First, rename the jar to use the UUID (this is how Prism expects jarmods)
+            Path jarmodsDir = instanceRoot.resolve("jarmods");
+            Path originalJar = jarmodsDir.resolve(jarFileName);
+            Path uuidJar = jarmodsDir.resolve(uuid + ".jar");
+            
+            if (Files.isRegularFile(originalJar)) {
+                Files.move(originalJar, uuidJar, StandardCopyOption.REPLACE_EXISTING);
+            }
+            
+            // Create the patches directory if it doesn't exist
+            Path patchesDir = instanceRoot.resolve("patches");
+            if (!Files.isDirectory(patchesDir)) {
+                Files.createDirectories(patchesDir);
+            }
+            
+            // Create the patch file
+            String patchUid = "custom.jarmod." + uuid;
+            Path patchFile = patchesDir.resolve(patchUid + ".json");
+            
+            // Check if patch already exists
+            if (Files.isRegularFile(patchFile)) {
+                System.out.println("Patch file already exists: " + patchFile.getFileName());
+                return;
+            }
+            
+            // Build the patch JSON
+            String patchJson = "{\n" +
+                "    \"formatVersion\": 1,\n" +
+                "    \"name\": \"" + displayName + " (jar mod)\",\n" +
+                "    \"uid\": \"" + patchUid + "\",\n" +
+                "    \"version\": \"1\",\n" +
+                "    \"jarMods\": [\n" +
+                "        {\n" +
+                "            \"name\": \"" + jarFileName + "\",\n" +
+                "            \"originalFileName\": \"" + jarFileName + "\"\n" +
+                "        }\n" +
+                "    ]\n" +
+                "}";
+            
+            Files.write(patchFile, patchJson.getBytes(StandardCharsets.UTF_8));
+            System.out.println("Created jarmod patch: " + patchFile.getFileName());
+            
+        } catch (Exception e) {
+            System.err.println("Warning: Could not create jarmod patch: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Silent version of BC check - runs without UI progress, for use when skipping updates.
+     */
+    private static void ensureBouncyCastleDependencySilent(final Path instanceRoot) {
+        if (instanceRoot == null) return;
+        
+        // Run in background thread to not block UI
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    Path librariesDir = instanceRoot.resolve("libraries");
+                    if (!Files.isDirectory(librariesDir)) {
+                        Files.createDirectories(librariesDir);
+                    }
+                    
+                    // Check if BC already exists in libraries
+                    Path bcJar = librariesDir.resolve(BC_JAR_NAME);
+                    if (Files.isRegularFile(bcJar)) {
+                        return; // Already installed
+                    }
+                    
+                    // Check jarmods folder too
+                    Path jarmodsDir = instanceRoot.resolve("jarmods");
+                    if (Files.isDirectory(jarmodsDir)) {
+                        File[] files = jarmodsDir.toFile().listFiles();
+                        if (files != null) {
+                            for (File f : files) {
+                                if (f.isFile() && f.getName().contains("bcprov") && f.getName().endsWith(".jar")) {
+                                    return; // Already have a version
+                                }
+                            }
+                        }
+                    }
+                    
+                    System.out.println("[ModUpdater] Installing Bouncy Castle crypto library...");
+                    
+                    // Download from Maven
+                    Path downloaded = downloadMavenArtifact(BC_JAR_NAME, BC_MAVEN_URL, BC_MAVEN_MIRROR_URL);
+                    if (downloaded == null || !Files.isRegularFile(downloaded)) {
+                        System.err.println("[ModUpdater] Failed to download Bouncy Castle.");
+                        return;
+                    }
+                    
+                    // Move to libraries folder
+                    Files.move(downloaded, bcJar, StandardCopyOption.REPLACE_EXISTING);
+                    System.out.println("[ModUpdater] Installed: " + bcJar.getFileName());
+                    System.out.println("[ModUpdater] Note: You may need to add this library to your instance manually.");
+                    
+                } catch (Exception e) {
+                    System.err.println("[ModUpdater] Warning: Could not install Bouncy Castle: " + e.getMessage());
+                }
+            }
+        }, "BC-Installer");
+        t.setDaemon(true);
+        t.start();
+        
+        // Wait briefly for it to complete (but don't block too long)
+        try {
+            t.join(5000); // Wait up to 5 seconds
+        } catch (InterruptedException ignored) {}
+    }
+
+    private static void extractAssetsSubtree(ProgressUI ui, Path zipPath, Path minecraftDir) throws IOException {
+        Path assetsTarget1 = minecraftDir.resolve("resources").resolve("assets");
+        Path assetsTarget2 = minecraftDir.resolve("assets");
+        ensureDir(assetsTarget1);
+        ensureDir(assetsTarget2);
+
+        ZipInputStream zin = new ZipInputStream(Files.newInputStream(zipPath));
+        try {
+            ZipEntry e;
+            while ((e = zin.getNextEntry()) != null) {
+                if (e.isDirectory()) continue;
+                String name = e.getName().replace('\\', '/');
+
+                // Try to normalize to extract only resources/assets/* subtree
+                int idx = name.indexOf("resources/assets/");
+                Path dest;
+                if (idx >= 0) {
+                    String rel = name.substring(idx + "resources/assets/".length());
+                    dest = assetsTarget1.resolve(rel);
+                } else if (name.startsWith("assets/") || name.contains("/assets/")) {
+                    String rel = name.substring(name.indexOf("assets/" ) + "assets/".length());
+                    // If the instance uses separate resources/assets, place under resources/assets
+                    dest = assetsTarget1.resolve(rel);
+                } else if (name.startsWith("resources/") || name.contains("/resources/")) {
+                    // Some releases may package directly under resources/*
+                    String rel = name.substring(name.indexOf("resources/") + "resources/".length());
+                    dest = minecraftDir.resolve("resources").resolve(rel);
+                } else {
+                    continue; // skip unrelated files
+                }
+
+                ensureDir(dest.getParent());
+                Files.copy(zin, dest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            try { zin.close(); } catch (IOException ignored) {}
+        }
+        ui.log("Assets extracted.");
+    }
+
+    /**
+     * Copies the jar's assets/, resources/assets/ and resources/ entries into resources/.
+     * A file whose size and CRC-32 already match its entry is left untouched, mtime
+     * included, so the game's resource caches stay valid; CRCs of files under assets/ come
+     * from the resource asset index and are only recomputed for files that changed since
+     * it was saved. Everything else is written to a temp file and renamed into place.
+     */
+    private static void extractAssetsFromJarToResources(ProgressUI ui, Path jarPath, Path minecraftDir, double start, double end) throws IOException {
+        Path resourcesDir = minecraftDir.resolve("resources");
+        Path assetsDir = resourcesDir.resolve("assets");
+        ensureDir(assetsDir);
+        ResourceAssetIndex index = loadResourceAssetIndex(resourcesDir);
+        byte[] buf = new byte[64 * 1024];
+        int written = 0;
+        int unchanged = 0;
+
+        ZipFile zipFile = new ZipFile(jarPath.toFile());
+        try {
+            int total = zipFile.size();
+            int processed = 0;
+            Enumeration<? extends ZipEntry> it = zipFile.entries();
+            while (it.hasMoreElements()) {
+                ZipEntry e = it.nextElement();
+                processed++;
+                String name = e.getName().replace('\\', '/');
+                if (e.isDirectory()) continue;
+                Path dest = null;
+                if (name.startsWith("assets/")) {
+                    String rel = name.substring("assets/".length());
+                    dest = assetsDir.resolve(rel);
+                } else if (name.startsWith("resources/assets/")) {
+                    String rel = name.substring("resources/assets/".length());
+                    dest = assetsDir.resolve(rel);
+                } else if (name.startsWith("resources/")) {
+                    String rel = name.substring("resources/".length());
+                    dest = resourcesDir.resolve(rel);
+                }
+                if (dest != null) {
+                    String rel = resourcesDir.relativize(dest).toString().replace('\\', '/');
+                    boolean indexed = rel.startsWith("assets/");
+                    if (jarAssetUnchanged(index, indexed, rel, dest, e)) {
+                        unchanged++;
+                    } else {
+                        ensureDir(dest.getParent());
+                        try (InputStream in = zipFile.getInputStream(e)) {
+                            replaceFileAtomically(in, dest, buf);
+                        }
+                        if (indexed) {
+                            index.record(rel, dest, null, e.getCrc());
+                        }
+                        written++;
+                    }
+                }
+                double frac = start + (end - start) * (processed / (double) Math.max(1, total));
+                ui.progress((int) Math.round(frac * 100));
+            }
+        } finally {
+            try { zipFile.close(); } catch (IOException ignored) {}
+            index.save();
+        }
+        System.out.println("[mod-updater] Assets from " + jarPath.getFileName() + ": " + written + " written, " + unchanged + " already up to date.");
+    }
+
+    /** True when dest already has the entry's size and CRC-32; files outside the index are hashed directly. */
+    private static boolean jarAssetUnchanged(ResourceAssetIndex index, boolean indexed, String rel, Path dest, ZipEntry e) throws IOException {
+        if (e.getSize() < 0 || e.getCrc() < 0) return false;
+        if (indexed) {
+            return index.matchesCrc32(rel, e.getSize(), e.getCrc());
+        }
+        try {
+            return Files.size(dest) == e.getSize() && crc32(dest) == e.getCrc();
+        } catch (NoSuchFileException missing) {
+            return false;
+        }
+    }
+
+    /** Writes {@code in} to a temp file next to dest and renames it over dest. */
+    private static void replaceFileAtomically(InputStream in, Path dest, byte[] buf) throws IOException {
+        Path tmp = Files.createTempFile(dest.getParent(), dest.getFileName().toString(), ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    out.write(buf, 0, n);
+                }
+            }
+            try {
+                Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean isUpToDate(Path minecraftDir, Path instanceRoot, String mode, String jarRegex, ReleaseAsset jarAsset, ReleaseAsset serverJarAsset, String latestTag, String jarmodName) throws IOException {
+        boolean patchUpToDate = jarAsset == null || isPatchJarUpToDate(minecraftDir, instanceRoot, mode, jarRegex, latestTag, jarmodName);
+        boolean serverUpToDate = serverJarAsset == null || isLanServerJarUpToDate(minecraftDir, latestTag);
+        return patchUpToDate && serverUpToDate;
+    }
+
+    private static boolean isPatchJarUpToDate(Path minecraftDir, Path instanceRoot, String mode, String jarRegex, String latestTag, String jarmodName) throws IOException {
+        if ("mods".equalsIgnoreCase(mode)) {
+            Path modsDir = minecraftDir.resolve("mods");
+            Path existing = findExistingMatching(modsDir, jarRegex);
+            if (existing == null) return false;
+            InstalledMarker m = readMarker(existing);
+            return m != null && equalsSafe(m.tag, latestTag);
+        } else if ("clientJar".equalsIgnoreCase(mode)) {
+            Path client = resolveClientJarPath(minecraftDir, null);
+            if (client == null) return false;
+            InstalledMarker m = readMarker(client);
+            return m != null && equalsSafe(m.tag, latestTag);
+        } else if ("jarmods".equalsIgnoreCase(mode)) {
+            if (instanceRoot == null) return false;
+            Path jarmodsDir = instanceRoot.resolve("jarmods");
+            if (!Files.isDirectory(jarmodsDir)) return false;
+            Path target = pickJarmodTarget(jarmodsDir, jarmodName);
+            if (target == null || !Files.isRegularFile(target)) return false;
+            InstalledMarker m = readMarker(target);
+            return m != null && equalsSafe(m.tag, latestTag);
+        }
+        return false;
+    }
+
+    private static boolean isLanServerJarUpToDate(Path minecraftDir, String latestTag) {
+        if (minecraftDir == null) return false;
+        Path serverJar = minecraftDir.resolve(LAN_SERVER_DIR_NAME).resolve(LAN_SERVER_JAR_NAME);
+        if (!Files.isRegularFile(serverJar)) return false;
+        InstalledMarker m = readMarker(serverJar);
+        return m != null && equalsSafe(m.tag, latestTag);
+    }
+    
+    /**
+     * Opens an HTTP/HTTPS connection with consistent timeout/user-agent settings; see
+     * {@link LauncherHttp} for the trust roots and for how responses must be released.
+     */
+    private static HttpURLConnection openHttpConnection(String url, int connectTimeoutMs, int readTimeoutMs, String userAgent) throws IOException {
+        HttpURLConnection conn = LauncherHttp.open(url, connectTimeoutMs, readTimeoutMs, userAgent);
+        ConnectionScope scope = CONNECTION_SCOPE.get();
+        if (scope != null) scope.add(conn);
+        return conn;
+    }
+
+    /**
+     * Fetches the latest release of a repository, using conditional requests against the
+     * on-disk release cache. A 304 answer skips both the body transfer and the parse; 304s
+     * are also much cheaper against GitHub's unauthenticated rate limit.
+     */
+    private static LatestRelease fetchLatestRelease(String repo) throws IOException {
+        ReleaseCacheEntry cached = loadReleaseCache(repo);
+        String token = getenv("GITHUB_TOKEN");
+
+        // Try /releases/latest first
+        String url = String.format(GITHUB_API_LATEST, repo);
+        HttpURLConnection conn = openGitHubApiConnection(url, token, cached != null && "latest".equals(cached.source) ? cached : null);
+        int code = LauncherHttp.status(conn);
+        if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            LauncherHttp.discard(conn);
+            System.out.println("[mod-updater] Release metadata for " + repo + " unchanged (HTTP 304); using cached release " + cached.release.tag + ".");
+            return cached.release;
+        }
+        if (code >= 200 && code < 300) {
+            LatestRelease release;
+            InputStream in = LauncherHttp.body(conn);
+            try {
+                release = readRelease(in);
+            } finally {
+                closeQuietly(in);
+            }
+            storeReleaseCache(repo, "latest", conn, release);
+            return release;
+        }
+        String body = LauncherHttp.errorBody(conn);
+        
+        // If /releases/latest returns 404, fall back to /releases and pick the first one
+        if (code == 404) {
+            String fallbackUrl = "https://api.github.com/repos/" + repo + "/releases";
+            HttpURLConnection fallbackConn = openGitHubApiConnection(fallbackUrl, token, cached != null && "releases".equals(cached.source) ? cached : null);
+            int fallbackCode = LauncherHttp.status(fallbackConn);
+            if (fallbackCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                LauncherHttp.discard(fallbackConn);
+                System.out.println("[mod-updater] Release list for " + repo + " unchanged (HTTP 304); using cached release " + cached.release.tag + ".");
+                return cached.release;
+            }
+            if (fallbackCode < 200 || fallbackCode >= 300) {
+                String fallbackBody = LauncherHttp.errorBody(fallbackConn);
+                LatestRelease stale = staleReleaseOnRateLimit(repo, fallbackConn, fallbackCode, cached);
+                if (stale != null) return stale;
+                throw new IOException("GitHub API error: HTTP " + fallbackCode + " " + truncateErrorBody(fallbackBody));
+            }
+            // Only the first (newest) release of the array is read
+            LatestRelease release;
+            InputStream fallbackIn = LauncherHttp.body(fallbackConn);
+            try {
+                release = readRelease(fallbackIn);
+            } finally {
+                closeQuietly(fallbackIn);
+            }
+            storeReleaseCache(repo, "releases", fallbackConn, release);
+            return release;
+        }
+        
+        LatestRelease stale = staleReleaseOnRateLimit(repo, conn, code, cached);
+        if (stale != null) return stale;
+        throw new IOException("GitHub API error: HTTP " + code + " " + truncateErrorBody(body));
+    }
+
+    private static HttpURLConnection openGitHubApiConnection(String url, String token, ReleaseCacheEntry validator) throws IOException {
+        HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
+        conn.setRequestMethod("GET");
+        conn.setUseCaches(false);
+        conn.setRequestProperty("Accept", "application/vnd.github+json");
+        LauncherHttp.acceptGzip(conn);
+        if (token != null && !token.trim().isEmpty()) {
+            conn.setRequestProperty("Authorization", "token " + token.trim());
+        }
+        if (validator != null) {
+            if (validator.etag != null) {
+                conn.setRequestProperty("If-None-Match", validator.etag);
+            }
+            if (validator.lastModified != null) {
+                conn.setRequestProperty("If-Modified-Since", validator.lastModified);
+            }
+        }
+        return conn;
+    }
+
+    /** When GitHub rate-limits us, a previously cached release is better than failing the launch. */
+    private static LatestRelease staleReleaseOnRateLimit(String repo, HttpURLConnection conn, int code, ReleaseCacheEntry cached) {
+        if (cached == null || !isRateLimited(conn, code)) return null;
+        System.err.println("[mod-updater] GitHub API returned HTTP " + code + " for " + repo + "; using cached release " + cached.release.tag + ".");
+        return cached.release;
+    }
+
+    /**
+     * 429, or a 403 that GitHub marks as a rate limit: X-RateLimit-Remaining: 0, or a
+     * Retry-After from the secondary limits. Any other 403 (bad token, private or
+     * renamed repo, abuse block) is reported as an error.
+     */
+    private static boolean isRateLimited(HttpURLConnection conn, int code) {
+        if (code == 429) return true;
+        if (code != 403) return false;
+        String remaining = conn.getHeaderField("X-RateLimit-Remaining");
+        return (remaining != null && "0".equals(remaining.trim())) || conn.getHeaderField("Retry-After") != null;
+    }
+
+    private static Path launcherDataDir() {
+        Path dir = LAUNCHER_DATA_DIR;
+        if (dir != null) return dir;
+        Path jarDir = getJarDir();
+        return jarDir != null ? jarDir : Paths.get("tools", "mod-updater");
+    }
+
+    private static Path releaseCachePath(String repo) {
+        return launcherDataDir().resolve(RELEASE_CACHE_DIR_NAME).resolve(sanitizeTempName(repo) + ".properties");
+    }
+
+    private static ReleaseCacheEntry loadReleaseCache(String repo) {
+        Properties p = readPropertiesQuietly(releaseCachePath(repo));
+        if (p == null) return null;
+        String source = p.getProperty("source");
+        String etag = p.getProperty("etag");
+        String lastModified = p.getProperty("lastModified");
+        if (source == null || (etag == null && lastModified == null)) return null;
+        ReleaseCacheEntry entry = new ReleaseCacheEntry();
+        entry.source = source;
+        entry.etag = etag;
+        entry.lastModified = lastModified;
+        LatestRelease r = new LatestRelease();
+        r.tag = p.getProperty("tag");
+        r.name = p.getProperty("name");
+        r.body = p.getProperty("body");
+        r.htmlUrl = p.getProperty("htmlUrl");
+        r.zipballUrl = p.getProperty("zipballUrl");
+        r.assets = new ArrayList<ReleaseAsset>();
+        int count = 0;
+        try { count = Integer.parseInt(p.getProperty("assets", "0")); } catch (NumberFormatException ignored) {}
+        for (int i = 0; i < count; i++) {
+            String name = p.getProperty("asset." + i + ".name");
+            String assetUrl = p.getProperty("asset." + i + ".url");
+            if (name == null || assetUrl == null) continue;
+            ReleaseAsset a = new ReleaseAsset();
+            a.name = name;
+            a.url = assetUrl;
+            try { a.size = Long.parseLong(p.getProperty("asset." + i + ".size", "-1")); } catch (NumberFormatException ignored) {}
+            a.digest = p.getProperty("asset." + i + ".digest");
+            a.updatedAt = p.getProperty("asset." + i + ".updatedAt");
+            r.assets.add(a);
+        }
+        linkChecksumSidecars(r.assets);
+        entry.release = r;
+        return entry;
+    }
+
+    private static void storeReleaseCache(String repo, String source, HttpURLConnection conn, LatestRelease release) {
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+        if (release == null || (etag == null && lastModified == null)) return;
+        Properties p = new Properties();
+        p.setProperty("repo", repo);
+        p.setProperty("source", source);
+        if (etag != null) p.setProperty("etag", etag);
+        if (lastModified != null) p.setProperty("lastModified", lastModified);
+        if (release.tag != null) p.setProperty("tag", release.tag);
+        if (release.name != null) p.setProperty("name", release.name);
+        if (release.body != null) p.setProperty("body", release.body);
+        if (release.htmlUrl != null) p.setProperty("htmlUrl", release.htmlUrl);
+        if (release.zipballUrl != null) p.setProperty("zipballUrl", release.zipballUrl);
+        List<ReleaseAsset> assets = release.assets != null ? release.assets : Collections.<ReleaseAsset>emptyList();
+        p.setProperty("assets", String.valueOf(assets.size()));
+        for (int i = 0; i < assets.size(); i++) {
+            ReleaseAsset a = assets.get(i);
+            p.setProperty("asset." + i + ".name", a.name);
+            p.setProperty("asset." + i + ".url", a.url);
+            if (a.size >= 0) p.setProperty("asset." + i + ".size", String.valueOf(a.size));
+            if (a.digest != null) p.setProperty("asset." + i + ".digest", a.digest);
+            if (a.updatedAt != null) p.setProperty("asset." + i + ".updatedAt", a.updatedAt);
+        }
+        try {
+            writePropertiesAtomically(releaseCachePath(repo), p, "Cached GitHub release metadata (conditional request validators)");
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Failed to write release cache for " + repo + ": " + ex.getMessage());
+        }
+    }
+
+    private static Properties readPropertiesQuietly(Path file) {
+        if (file == null || !Files.isRegularFile(file)) return null;
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            p.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return p;
+        } catch (IOException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a properties file via temp file + rename so concurrent launchers never
+     * observe a half-written state file.
+     */
+    private static void writePropertiesAtomically(Path file, Properties p, String comment) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        ensureDir(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer w = new OutputStreamWriter(Files.newOutputStream(tmp), StandardCharsets.UTF_8)) {
+                p.store(w, comment);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c == null) return;
+        try { c.close(); } catch (IOException ignored) {}
+    }
+    
+    /**
+     * Reads a release from a GitHub API response stream in one pass. Accepts either a
+     * single release object (/releases/latest) or an array (/releases), in which case
+     * only the first element is parsed and the rest of the payload is never read.
+     */
+    private static LatestRelease readRelease(InputStream in) throws IOException {
+        JsonPullReader r = new JsonPullReader(in);
+        int first = r.peek();
+        if (first == '[') {
+            r.beginArray();
+            if (!r.hasNext()) return emptyRelease(); // No releases yet
+            return readReleaseObject(r);
+        }
+        if (first != '{') return emptyRelease();
+        return readReleaseObject(r);
+    }
+
+    private static LatestRelease emptyRelease() {
+        LatestRelease r = new LatestRelease();
+        r.assets = new ArrayList<ReleaseAsset>();
+        return r;
+    }
+
+    private static LatestRelease readReleaseObject(JsonPullReader r) throws IOException {
+        LatestRelease release = emptyRelease();
+        r.beginObject();
+        while (r.hasNext()) {
+            String field = r.nextName();
+            // Only top-level keys are matched here, so nested "name" fields (assets,
+            // uploader, author) can no longer be mistaken for the release name.
+            if ("tag_name".equals(field)) release.tag = r.nextStringOrNull();
+            else if ("name".equals(field)) release.name = r.nextStringOrNull();
+            else if ("body".equals(field)) release.body = r.nextStringOrNull();
+            else if ("html_url".equals(field)) release.htmlUrl = r.nextStringOrNull();
+            else if ("zipball_url".equals(field)) release.zipballUrl = r.nextStringOrNull();
+            else if ("assets".equals(field) && r.peek() == '[') readReleaseAssets(r, release.assets);
+            else r.skipValue();
+        }
+        r.endObject();
+        return release;
+    }
+
+    private static void readReleaseAssets(JsonPullReader r, List<ReleaseAsset> out) throws IOException {
+        r.beginArray();
+        while (r.hasNext()) {
+            if (r.peek() != '{') {
+                r.skipValue();
+                continue;
+            }
+            ReleaseAsset a = new ReleaseAsset();
+            r.beginObject();
+            while (r.hasNext()) {
+                String field = r.nextName();
+                if ("name".equals(field)) a.name = r.nextStringOrNull();
+                else if ("browser_download_url".equals(field)) a.url = r.nextStringOrNull();
+                else if ("size".equals(field)) a.size = r.nextLong(-1L);
+                else if ("digest".equals(field)) a.digest = r.nextStringOrNull();
+                else if ("updated_at".equals(field)) a.updatedAt = r.nextStringOrNull();
+                else r.skipValue();
+            }
+            r.endObject();
+            if (a.url == null) continue;
+            if (a.name == null) {
+                // Derive the file name from the URL tail
+                int slash = a.url.lastIndexOf('/');
+                a.name = (slash >= 0 && slash + 1 < a.url.length()) ? a.url.substring(slash + 1) : a.url;
+            }
+            out.add(a);
+        }
+        r.endArray();
+        linkChecksumSidecars(out);
+    }
+
+    private static String extractString(String text, String regex) {
+        Matcher m = Pattern.compile(regex, Pattern.DOTALL).matcher(text);
+        if (m.find()) return unescapeJson(m.group(1));
+        return null;
+    }
+
+    // Simple HTML builder for the embedded patch-notes view, using the GitHub
+    // latest-release metadata as a fallback when no explicit newsUrl is given.
+    private static String buildReleaseHtml(LatestRelease latest, Exception loadError) {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("<html><head><style>");
+        sb.append("body { background-color:#101010; color:#e0e0e0; font-family:sans-serif; font-size:12px; }");
+        sb.append("h1 { font-size:16px; margin:0 0 8px 0; }");
+        sb.append("a { color:#68a0ff; }");
+        sb.append("pre { white-space:pre-wrap; }");
+        sb.append("</style></head><body>");
+
+        String title = null;
+        if (latest != null) {
+            if (latest.name != null && !latest.name.isEmpty()) title = latest.name;
+            else if (latest.tag != null && !latest.tag.isEmpty()) title = "Release " + latest.tag;
+        }
+        if (title == null) title = "Latest release";
+        sb.append("<h1>").append(htmlEscape(title)).append("</h1>");
+
+        if (latest != null && latest.tag != null) {
+            sb.append("<div style='color:#a0a0a0;margin-bottom:8px;'>Tag: ")
+              .append(htmlEscape(latest.tag));
+            if (latest.htmlUrl != null && !latest.htmlUrl.isEmpty()) {
+                sb.append(" &middot; <a href=\"")
+                  .append(htmlEscape(latest.htmlUrl))
+                  .append("\">View on GitHub</a>");
+            }
+            sb.append("</div>");
+        }
+
+        String body = latest != null ? latest.body : null;
+        if (body != null && body.trim().length() > 0) {
+            String norm = body.replace("\r\n", "\n").replace("\r", "\n");
+            String[] lines = norm.split("\n");
+            sb.append("<pre>");
+            for (int i = 0; i < lines.length; i++) {
+                sb.append(htmlEscape(lines[i]));
+                if (i + 1 < lines.length) sb.append("\n");
+            }
+            sb.append("</pre>");
+        } else {
+            sb.append("<p>No detailed patch notes were provided for this release.</p>");
+        }
+
+        if (loadError != null) {
+            String msg = loadError.getMessage() != null ? loadError.getMessage() : loadError.toString();
+            sb.append("<hr><p style='color:#ff8080;'>Failed to load external news page: ")
+              .append(htmlEscape(msg))
+              .append("</p>");
+        }
+
+        sb.append("</body></html>");
+        return sb.toString();
+    }
+
+    private static String htmlEscape(String s) {
+        if (s == null) return "";
+        StringBuilder out = new StringBuilder(s.length() + 16);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&': out.append("&amp;"); break;
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&#39;"); break;
+                default: out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static int findMatchingBrace(String s, int openIdx) {
+        return findMatchingDelimiter(s, openIdx, '{', '}');
+    }
+
+    private static int findMatchingDelimiter(String s, int openIdx, char open, char close) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = openIdx; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' && !isEscaped(s, i)) {
+                inString = !inString;
+                continue;
+            }
+            if (inString) continue;
+            if (c == open) {
+                depth++;
+            } else if (c == close) {
+                depth--;
+                if (depth == 0) return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isEscaped(String s, int idx) {
+        int backslashes = 0;
+        for (int i = idx - 1; i >= 0 && s.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return (backslashes % 2) == 1;
+    }
+
+    private static String unescapeJson(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(i + 1);
+                if (n == '"' || n == '\\' || n == '/') { out.append(n); i++; }
+                else if (n == 'b') { out.append('\b'); i++; }
+                else if (n == 'f') { out.append('\f'); i++; }
+                else if (n == 'n') { out.append('\n'); i++; }
+                else if (n == 'r') { out.append('\r'); i++; }
+                else if (n == 't') { out.append('\t'); i++; }
+                else if (n == 'u' && i + 5 < s.length()) {
+                    String hex = s.substring(i + 2, i + 6);
+                    try { out.append((char) Integer.parseInt(hex, 16)); } catch (NumberFormatException ignored) { out.append('?'); }
+                    i += 5;
+                } else { out.append(n); i++; }
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static ReleaseAsset selectAsset(List<ReleaseAsset> assets, String assetRegex) {
+        Pattern p = Pattern.compile(assetRegex);
+        for (ReleaseAsset a : assets) {
+            if (p.matcher(a.name).find()) return a;
+        }
+        return null;
+    }
+
+    private static ReleaseAsset selectOptionalAsset(List<ReleaseAsset> assets, String assetRegex) {
+        if (assetRegex == null || assetRegex.trim().length() == 0) {
+            return null;
+        }
+        return selectAsset(assets, assetRegex);
+    }
+
+    private static Path downloadToTemp(ProgressUI ui, ReleaseAsset asset, double start, double end) throws IOException {
+        return downloadResumable(ui, Collections.singletonList(asset.url), asset.name, expectedAssetDigest(asset), HTTP_TIMEOUT_MS, false, DOWNLOAD_ATTEMPTS, start, end);
+    }
+
+    /**
+     * Downloads a release jar, preferring a binary delta against the installed copy
+     * {@code base} (described by {@code installed}, its marker) when the release publishes
+     * one for the installed tag, then an entry-level update that only fetches the zip
+     * entries that differ from {@code base}. Falls back to the full asset whenever neither
+     * works out or the result fails verification.
+     */
+    private static Path downloadReleaseJar(ProgressUI ui, LatestRelease latest, ReleaseAsset asset, Path base, InstalledMarker installed,
+            double start, double end) throws IOException {
+        Path rebuilt = tryDeltaUpdate(ui, latest, asset, base, installed, start, end);
+        if (rebuilt == null && (installed == null || !equalsSafe(installed.tag, latest.tag))) {
+            rebuilt = tryZipEntryUpdate(ui, asset, base, start, end);
+        }
+        return rebuilt != null ? rebuilt : downloadToTemp(ui, asset, start, end);
+    }
+
+    /** The jar rebuilt from a "<asset>.<fromTag>.delta" release asset, or null to download the full asset. */
+    private static Path tryDeltaUpdate(ProgressUI ui, LatestRelease latest, ReleaseAsset asset, Path base, InstalledMarker installed,
+            double start, double end) {
+        if (base == null || installed == null || installed.tag == null || !Files.isRegularFile(base)) return null;
+        if (installed.tag.equals(latest.tag)) return null;
+        String deltaName = asset.name + "." + installed.tag + ".delta";
+        ReleaseAsset deltaAsset = null;
+        for (ReleaseAsset a : latest.assets) {
+            if (deltaName.equals(a.name)) {
+                deltaAsset = a;
+                break;
+            }
+        }
+        if (deltaAsset == null) return null;
+        Path delta = null;
+        Path out = null;
+        try {
+            ExpectedDigest expected = expectedAssetDigest(asset);
+            System.out.println("[mod-updater] Updating " + asset.name + " from " + installed.tag + " with delta " + deltaName
+                    + (deltaAsset.size >= 0 ? " (" + deltaAsset.size + " bytes" + (asset.size >= 0 ? " instead of " + asset.size : "") + ")" : "") + ".");
+            delta = downloadToTemp(ui, deltaAsset, start, start + (end - start) * 0.9);
+            out = Paths.get(System.getProperty("java.io.tmpdir"), asset.name + ".rebuilt");
+            String[] sha = applyBinaryDelta(base, delta, out);
+            // The published digest of the full asset wins; the delta's own header covers releases without one
+            String want = expected != null && "SHA-256".equals(expected.algorithm) ? expected.hex : sha[1];
+            if (!want.equalsIgnoreCase(sha[0])) {
+                throw new IOException("rebuilt jar has sha256 " + sha[0] + ", expected " + want);
+            }
+            Path target = Paths.get(System.getProperty("java.io.tmpdir"), asset.name);
+            Files.move(out, target, StandardCopyOption.REPLACE_EXISTING);
+            if (ui != null) ui.progress((int) Math.round(end * 100));
+            System.out.println("[mod-updater] Rebuilt " + asset.name + " from delta; sha256 verified.");
+            return target;
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Delta update of " + asset.name + " failed (" + ex.getMessage() + "); downloading the full asset.");
+            return null;
+        } finally {
+            if (delta != null) {
+                try { Files.deleteIfExists(delta); } catch (IOException ignored) {}
+            }
+            if (out != null) {
+                try { Files.deleteIfExists(out); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Builds the new release jar from the installed one plus Range requests for the
+     * entries that changed. The remote central directory is read from the tail of the
+     * asset; entries whose name, method, CRC and sizes match {@code base} keep their
+     * compressed bytes from the local file, the rest are fetched (nearby spans share one
+     * request). Reused entries are written back at their published offsets with local
+     * headers and data descriptors framed the way the fetched entries show the asset's
+     * writer frames them, so the result is byte-identical to the published asset and is
+     * checked against its digest like a full download. Every entry's CRC is read back
+     * too, which is all there is to check when no digest is published. Null means
+     * download the full asset.
+     */
+    private static Path tryZipEntryUpdate(ProgressUI ui, ReleaseAsset asset, Path base, double start, double end) {
+        if (base == null || !Files.isRegularFile(base) || !asset.name.toLowerCase(Locale.ROOT).endsWith(".jar")) return null;
+        Path image = null;
+        FileChannel imageChannel = null;
+        try {
+            RemoteFileInfo info = fetchRemoteFileInfo(asset.url);
+            if (info == null || info.length <= 0 || "none".equalsIgnoreCase(info.acceptRanges)) return null;
+            String validator = info.etag != null && !info.etag.startsWith("W/") ? info.etag : info.lastModified;
+            image = Paths.get(System.getProperty("java.io.tmpdir"), asset.name + ".ranges");
+            Files.deleteIfExists(image);
+            imageChannel = FileChannel.open(image, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.SPARSE);
+            AtomicLong received = new AtomicLong();
+            AtomicBoolean aborted = new AtomicBoolean(false);
+            List<HttpURLConnection> openConnections = Collections.synchronizedList(new ArrayList<HttpURLConnection>());
+            
+            // End-of-central-directory record plus the largest possible comment
+            long tailStart = Math.max(0L, info.length - (22 + 0xFFFF));
+            if (!fetchSegment(asset.url, imageChannel, tailStart, info.length - 1, validator, HTTP_TIMEOUT_MS, received, aborted, openConnections)) {
+                return null;
+            }
+            long[] dir = locateCentralDirectory(imageChannel, info.length);
+            if (dir[0] < tailStart) {
+                if (!fetchSegment(asset.url, imageChannel, dir[0], tailStart - 1, validator, HTTP_TIMEOUT_MS, received, aborted, openConnections)) {
+                    return null;
+                }
+            }
+            List<ZipEntrySpan> remote = readCentralDirectory(imageChannel, dir);
+            if (remote.isEmpty()) return null;
+            
+            Map<String, ZipEntrySpan> installed = new HashMap<String, ZipEntrySpan>();
+            try (FileChannel local = FileChannel.open(base, StandardOpenOption.READ)) {
+                for (ZipEntrySpan e : readCentralDirectory(local, locateCentralDirectory(local, local.size()))) {
+                    installed.put(e.name, e);
+                }
+            }
+            
+            // Remote spans [first, last] still to fetch, merging neighbours
+            List<long[]> ranges = new ArrayList<long[]>();
+            long changedBytes = 0L;
+            int reused = 0;
+            if (remote.get(0).localOffset > 0) {
+                // Whatever precedes the first entry (a launcher stub, say) is copied as is
+                ranges.add(new long[] { 0L, remote.get(0).localOffset - 1 });
+            }
+            for (ZipEntrySpan e : remote) {
+                ZipEntrySpan have = installed.get(e.name);
+                if (have != null && have.method == e.method && have.crc == e.crc && have.compressedSize == e.compressedSize
+                        && have.size == e.size) {
+                    e.reuse = have;
+                    reused++;
+                    continue;
+                }
+                changedBytes += e.localEnd - e.localOffset;
+                long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+                if (last != null && e.localOffset - last[1] - 1 <= ZIP_DIFF_COALESCE_GAP_BYTES) {
+                    last[1] = e.localEnd - 1;
+                } else {
+                    ranges.add(new long[] { e.localOffset, e.localEnd - 1 });
+                }
+            }
+            if (reused == 0 || changedBytes > info.length * ZIP_DIFF_MAX_CHANGED_FRACTION || ranges.size() > ZIP_DIFF_MAX_RANGES) {
+                return null;
+            }
+            // The tail request already covered whatever lies past tailStart
+            long rangeBytes = 0L;
+            int requests = 0;
+            for (long[] r : ranges) {
+                if (r[1] >= tailStart) r[1] = tailStart - 1;
+                if (r[0] <= r[1]) {
+                    rangeBytes += r[1] - r[0] + 1;
+                    requests++;
+                }
+            }
+            System.out.println("[mod-updater] Updating " + asset.name + " entry by entry: reusing " + reused + " of " + remote.size()
+                    + " entries from " + base.getFileName() + ", fetching " + rangeBytes + " of " + info.length + " bytes in "
+                    + requests + " more request(s).");
+            long fetchedBefore = received.get();
+            for (long[] r : ranges) {
+                if (r[0] > r[1]) continue;
+                if (!fetchSegment(asset.url, imageChannel, r[0], r[1], validator, HTTP_TIMEOUT_MS, received, aborted, openConnections)) {
+                    return null;
+                }
+                if (ui != null && rangeBytes > 0) {
+                    double frac = (received.get() - fetchedBefore) / (double) rangeBytes;
+                    ui.progress((int) Math.round((start + (end - start) * 0.9 * frac) * 100));
+                }
+            }
+            
+            // Every byte outside the reused entries is now in the image; frame those the same way
+            int layout = chooseLocalLayout(remote, imageChannel, tailStart);
+            if (layout < 0) throw new IOException("local headers are framed in a way the assembler cannot reproduce");
+            try (FileChannel local = FileChannel.open(base, StandardOpenOption.READ)) {
+                for (ZipEntrySpan e : remote) {
+                    if (e.reuse != null) writeReusedEntry(e, layout, local, imageChannel);
+                }
+            }
+            imageChannel.close();
+            imageChannel = null;
+            verifyZipEntries(image, remote.size());
+            ExpectedDigest expected = expectedAssetDigest(asset);
+            if (expected != null) {
+                String actual = fileDigestHex(image, expected.algorithm);
+                if (!expected.hex.equalsIgnoreCase(actual)) {
+                    throw new IOException("assembled jar has " + expected.algorithm + " " + actual + ", expected " + expected.hex
+                            + " (" + expected.source + ")");
+                }
+            }
+            Path target = Paths.get(System.getProperty("java.io.tmpdir"), asset.name);
+            Files.move(image, target, StandardCopyOption.REPLACE_EXISTING);
+            image = null;
+            if (ui != null) ui.progress((int) Math.round(end * 100));
+            System.out.println("[mod-updater] Assembled " + asset.name + " from " + base.getFileName() + " and "
+                    + received.get() + " fetched bytes; " + (expected != null ? expected.algorithm + " verified." : "entry CRCs verified."));
+            return target;
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Entry-level update of " + asset.name + " failed (" + ex.getMessage() + "); downloading the full asset.");
+            return null;
+        } finally {
+            closeQuietly(imageChannel);
+            if (image != null) {
+                try { Files.deleteIfExists(image); } catch (IOException ignored) {}
+            }
+        }
     }
 
-    private static boolean isLanServerJarUpToDate(Path minecraftDir, String latestTag) {
-        if (minecraftDir == null) return false;
-        Path serverJar = minecraftDir.resolve(LAN_SERVER_DIR_NAME).resolve(LAN_SERVER_JAR_NAME);
-        if (!Files.isRegularFile(serverJar)) return false;
-        InstalledMarker m = readMarker(serverJar);
-        return m != null && equalsSafe(m.tag, latestTag);
-    }
-    
     /**
-     * Opens an HTTP/HTTPS connection with consistent timeout/user-agent settings.
-     * HTTPS connections use a compatibility trust manager that adds OS trust roots.
+     * Finds the end-of-central-directory record in the last bytes of a zip of
+     * {@code length} bytes and returns {directory offset, directory size, entry count}.
+     * ZIP64 archives and archives with data after the directory are rejected.
      */
-    private static HttpURLConnection openHttpConnection(String url, int connectTimeoutMs, int readTimeoutMs, String userAgent) throws IOException {
-        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-        conn.setConnectTimeout(connectTimeoutMs);
-        conn.setReadTimeout(readTimeoutMs);
-        if (userAgent != null && !userAgent.isEmpty()) {
-            conn.setRequestProperty("User-Agent", userAgent);
-        }
-        if (conn instanceof HttpsURLConnection) {
-            SSLSocketFactory factory = getTlsSocketFactory();
-            if (factory != null) {
-                ((HttpsURLConnection) conn).setSSLSocketFactory(factory);
+    private static long[] locateCentralDirectory(FileChannel channel, long length) throws IOException {
+        int tailLength = (int) Math.min(length, 22 + 0xFFFF);
+        byte[] tail = new byte[tailLength];
+        readFully(channel, length - tailLength, tail, 0, tailLength);
+        for (int i = tail.length - 22; i >= 0; i--) {
+            if (readLittleEndian(tail, i, 4) != 0x06054b50L) continue;
+            int commentLength = (int) readLittleEndian(tail, i + 20, 2);
+            if (i + 22 + commentLength != tail.length) continue;
+            long entries = readLittleEndian(tail, i + 10, 2);
+            long size = readLittleEndian(tail, i + 12, 4);
+            long offset = readLittleEndian(tail, i + 16, 4);
+            if (entries == 0xFFFFL || size == 0xFFFFFFFFL || offset == 0xFFFFFFFFL) {
+                throw new IOException("ZIP64 archives are not supported");
             }
+            if (offset + size != length - tail.length + i) {
+                throw new IOException("Central directory does not end at the end-of-central-directory record");
+            }
+            return new long[] { offset, size, entries };
         }
-        return conn;
+        throw new IOException("End-of-central-directory record not found");
     }
-    
-    private static SSLSocketFactory getTlsSocketFactory() {
-        if (TLS_SOCKET_FACTORY != null || TLS_SOCKET_FACTORY_INIT_FAILED) {
-            return TLS_SOCKET_FACTORY;
+
+    /** Parses the central directory located by locateCentralDirectory; entries come back in local-offset order. */
+    private static List<ZipEntrySpan> readCentralDirectory(FileChannel channel, long[] dir) throws IOException {
+        if (dir[1] > Integer.MAX_VALUE) throw new IOException("Central directory too large");
+        byte[] data = new byte[(int) dir[1]];
+        readFully(channel, dir[0], data, 0, data.length);
+        List<ZipEntrySpan> entries = new ArrayList<ZipEntrySpan>();
+        int pos = 0;
+        while (pos + 46 <= data.length) {
+            if (readLittleEndian(data, pos, 4) != 0x02014b50L) throw new IOException("Bad central directory record at " + pos);
+            int nameLength = (int) readLittleEndian(data, pos + 28, 2);
+            int extraLength = (int) readLittleEndian(data, pos + 30, 2);
+            int commentLength = (int) readLittleEndian(data, pos + 32, 2);
+            int recordLength = 46 + nameLength + extraLength + commentLength;
+            if (pos + recordLength > data.length) throw new IOException("Truncated central directory");
+            ZipEntrySpan e = new ZipEntrySpan();
+            e.flags = (int) readLittleEndian(data, pos + 8, 2);
+            e.method = (int) readLittleEndian(data, pos + 10, 2);
+            e.crc = readLittleEndian(data, pos + 16, 4);
+            e.compressedSize = readLittleEndian(data, pos + 20, 4);
+            e.size = readLittleEndian(data, pos + 24, 4);
+            e.localOffset = readLittleEndian(data, pos + 42, 4);
+            if ((e.flags & 0x0001) != 0) throw new IOException("Encrypted entries are not supported");
+            if (e.compressedSize == 0xFFFFFFFFL || e.size == 0xFFFFFFFFL || e.localOffset == 0xFFFFFFFFL) {
+                throw new IOException("ZIP64 entries are not supported");
+            }
+            e.name = new String(data, pos + 46, nameLength, (e.flags & 0x0800) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+            e.record = Arrays.copyOfRange(data, pos, pos + recordLength);
+            entries.add(e);
+            pos += recordLength;
         }
-        synchronized (TLS_SOCKET_FACTORY_LOCK) {
-            if (TLS_SOCKET_FACTORY != null || TLS_SOCKET_FACTORY_INIT_FAILED) {
-                return TLS_SOCKET_FACTORY;
+        if (pos != data.length || entries.size() != (dir[2] & 0xFFFF)) throw new IOException("Central directory does not match its end record");
+        Collections.sort(entries, new Comparator<ZipEntrySpan>() {
+            @Override
+            public int compare(ZipEntrySpan a, ZipEntrySpan b) {
+                return Long.compare(a.localOffset, b.localOffset);
             }
-            try {
-                List<X509TrustManager> managers = new ArrayList<X509TrustManager>();
-                X509TrustManager defaultManager = loadDefaultTrustManager();
-                if (defaultManager != null) {
-                    managers.add(defaultManager);
-                }
-                X509TrustManager windowsManager = loadTrustManagerFromKeyStore("Windows-ROOT");
-                if (windowsManager != null) {
-                    managers.add(windowsManager);
-                }
-                X509TrustManager osBundleManager = loadTrustManagerFromSystemCaBundle();
-                if (osBundleManager != null) {
-                    managers.add(osBundleManager);
-                }
-                if (managers.isEmpty()) {
-                    TLS_SOCKET_FACTORY_INIT_FAILED = true;
-                    return null;
+        });
+        for (int i = 0; i < entries.size(); i++) {
+            ZipEntrySpan e = entries.get(i);
+            e.localEnd = i + 1 < entries.size() ? entries.get(i + 1).localOffset : dir[0];
+            if (e.localOffset + 30 + e.compressedSize > e.localEnd) throw new IOException("Entry " + e.name + " overlaps its neighbour");
+        }
+        return entries;
+    }
+
+    /** Local-header layout bit: headers keep the CRC and sizes even when a data descriptor follows. */
+    private static final int ZIP_LAYOUT_SIZES_IN_HEADER = 1;
+    /** Local-header layout bit: data descriptors carry no 0x08074b50 signature. */
+    private static final int ZIP_LAYOUT_UNSIGNED_DESCRIPTOR = 2;
+    /** Local-header layout bit: local headers have no extra field, whatever the directory's says. */
+    private static final int ZIP_LAYOUT_NO_LOCAL_EXTRA = 4;
+
+    /**
+     * The first framing layout (ZIP_LAYOUT_* bits, 0 being java.util.zip's) that reproduces
+     * the local header and data descriptor of every entry already fetched in full: the
+     * changed ones and any inside the tail request. -1 when none does, since then reused
+     * entries cannot be framed byte-identically. With nothing fetched to compare against,
+     * java.util.zip's layout is assumed and the digest check decides.
+     */
+    private static int chooseLocalLayout(List<ZipEntrySpan> remote, FileChannel image, long tailStart) throws IOException {
+        for (int layout = 0; layout < 8; layout++) {
+            boolean matches = true;
+            for (ZipEntrySpan e : remote) {
+                if (e.reuse != null && e.localOffset < tailStart) continue;
+                byte[][] framing = localFraming(e, layout);
+                if (!framingMatches(image, e, framing)) {
+                    matches = false;
+                    break;
                 }
-                
-                X509TrustManager merged = managers.size() == 1 ? managers.get(0) : mergeTrustManagers(managers);
-                SSLContext ctx = SSLContext.getInstance("TLS");
-                ctx.init(null, new TrustManager[] { merged }, new SecureRandom());
-                TLS_SOCKET_FACTORY = ctx.getSocketFactory();
-                return TLS_SOCKET_FACTORY;
-            } catch (Exception ex) {
-                TLS_SOCKET_FACTORY_INIT_FAILED = true;
-                System.err.println("[mod-updater] TLS compatibility initialization failed; using default JVM trust store only: " + ex.getMessage());
-                return null;
             }
+            if (matches) return layout;
         }
+        return -1;
     }
-    
-    private static X509TrustManager loadDefaultTrustManager() throws GeneralSecurityException {
-        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-        tmf.init((KeyStore) null);
-        return firstX509TrustManager(tmf.getTrustManagers());
+
+    private static boolean framingMatches(FileChannel image, ZipEntrySpan e, byte[][] framing) throws IOException {
+        if (framing[0].length + e.compressedSize + framing[1].length != e.localEnd - e.localOffset) return false;
+        byte[] actual = new byte[framing[0].length];
+        readFully(image, e.localOffset, actual, 0, actual.length);
+        if (!Arrays.equals(actual, framing[0])) return false;
+        actual = new byte[framing[1].length];
+        readFully(image, e.localEnd - actual.length, actual, 0, actual.length);
+        return Arrays.equals(actual, framing[1]);
     }
-    
-    private static X509TrustManager loadTrustManagerFromKeyStore(String keyStoreType) {
-        try {
-            KeyStore ks = KeyStore.getInstance(keyStoreType);
-            ks.load(null, null);
-            return loadTrustManager(ks);
-        } catch (Exception ignored) {
-            return null;
+
+    /**
+     * {local header, data descriptor (possibly empty)} for {@code e} as a writer using
+     * {@code layout} frames it, built from the central-directory record.
+     */
+    private static byte[][] localFraming(ZipEntrySpan e, int layout) {
+        byte[] record = e.record;
+        int nameLength = (int) readLittleEndian(record, 28, 2);
+        int extraLength = (layout & ZIP_LAYOUT_NO_LOCAL_EXTRA) != 0 ? 0 : (int) readLittleEndian(record, 30, 2);
+        boolean descriptor = (e.flags & 0x0008) != 0;
+        ByteBuffer header = ByteBuffer.allocate(30 + nameLength + extraLength).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x04034b50);
+        header.put(record, 6, 2);                          // version needed
+        header.put(record, 8, 2);                          // flags
+        header.put(record, 10, 2);                         // method
+        header.put(record, 12, 4);                         // time, date
+        if (descriptor && (layout & ZIP_LAYOUT_SIZES_IN_HEADER) == 0) {
+            header.putInt(0).putInt(0).putInt(0);
+        } else {
+            header.put(record, 16, 12);                    // crc, sizes
         }
+        header.putShort((short) nameLength);
+        header.putShort((short) extraLength);
+        header.put(record, 46, nameLength);
+        header.put(record, 46 + nameLength, extraLength);
+        if (!descriptor) return new byte[][] { header.array(), new byte[0] };
+        boolean signed = (layout & ZIP_LAYOUT_UNSIGNED_DESCRIPTOR) == 0;
+        ByteBuffer trailer = ByteBuffer.allocate(signed ? 16 : 12).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        if (signed) trailer.putInt(0x08074b50);
+        trailer.put(record, 16, 12);                       // crc, sizes
+        return new byte[][] { header.array(), trailer.array() };
     }
-    
-    private static X509TrustManager loadTrustManagerFromSystemCaBundle() {
-        for (int i = 0; i < OS_CA_BUNDLE_PATHS.length; i++) {
-            Path bundlePath = Paths.get(OS_CA_BUNDLE_PATHS[i]);
-            if (!Files.isRegularFile(bundlePath)) {
-                continue;
-            }
-            try (InputStream in = Files.newInputStream(bundlePath)) {
-                CertificateFactory cf = CertificateFactory.getInstance("X.509");
-                Collection<? extends Certificate> certs = cf.generateCertificates(in);
-                if (certs == null || certs.isEmpty()) {
-                    continue;
+
+    /** Writes a reused entry into the image at its published offset: framing from the layout, data from {@code local}. */
+    private static void writeReusedEntry(ZipEntrySpan e, int layout, FileChannel local, FileChannel image) throws IOException {
+        byte[][] framing = localFraming(e, layout);
+        if (framing[0].length + e.compressedSize + framing[1].length != e.localEnd - e.localOffset) {
+            throw new IOException("Entry " + e.name + " does not fill its published span");
+        }
+        writeFully(image, e.localOffset, framing[0]);
+        long dataStart = localDataOffset(local, e.reuse);
+        long target = e.localOffset + framing[0].length;
+        long copied = 0L;
+        while (copied < e.compressedSize) {
+            long n = local.transferTo(dataStart + copied, e.compressedSize - copied, image.position(target + copied));
+            if (n <= 0) throw new EOFException("Entry " + e.name + " ended early");
+            copied += n;
+        }
+        writeFully(image, e.localEnd - framing[1].length, framing[1]);
+    }
+
+    private static void writeFully(FileChannel channel, long position, byte[] data) throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(data);
+        while (bb.hasRemaining()) {
+            channel.write(bb, position + bb.position());
+        }
+    }
+
+    /** Offset of an entry's compressed data: past its local header, whose name and extra lengths may differ from the directory's. */
+    private static long localDataOffset(FileChannel channel, ZipEntrySpan e) throws IOException {
+        byte[] header = new byte[30];
+        readFully(channel, e.localOffset, header, 0, header.length);
+        if (readLittleEndian(header, 0, 4) != 0x04034b50L) throw new IOException("Bad local header for " + e.name);
+        long dataStart = e.localOffset + 30 + readLittleEndian(header, 26, 2) + readLittleEndian(header, 28, 2);
+        if (dataStart + e.compressedSize > e.localEnd) throw new IOException("Entry " + e.name + " overruns its span");
+        return dataStart;
+    }
+
+    /** Reads every entry back; ZipInputStream checks each one's CRC and sizes against its local header. */
+    private static void verifyZipEntries(Path jar, int expectedEntries) throws IOException {
+        int count = 0;
+        byte[] buf = new byte[64 * 1024];
+        try (ZipInputStream zin = new ZipInputStream(new BufferedInputStream(Files.newInputStream(jar), 64 * 1024))) {
+            while (zin.getNextEntry() != null) {
+                while (zin.read(buf) != -1) {
+                    // CRC is checked when the entry is exhausted
                 }
-                KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-                ks.load(null, null);
-                int idx = 0;
-                for (Certificate cert : certs) {
-                    ks.setCertificateEntry("os-ca-" + idx++, cert);
+                count++;
+            }
+        }
+        if (count != expectedEntries) throw new IOException("assembled jar has " + count + " entries, expected " + expectedEntries);
+        new ZipFile(jar.toFile()).close();
+    }
+
+    private static void readFully(FileChannel channel, long position, byte[] dst, int off, int len) throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(dst, off, len);
+        while (bb.hasRemaining()) {
+            int n = channel.read(bb, position + bb.position() - off);
+            if (n < 0) throw new EOFException("File ended at byte " + (position + bb.position() - off));
+        }
+    }
+
+    /**
+     * Rebuilds a file from {@code source} and a delta, writing it to {@code out}. Returns
+     * {the SHA-256 of what was written, the SHA-256 the delta header promises}. Format,
+     * integers big-endian:
+     * <pre>
+     * "MCDELTA1"                    magic
+     * u64 sourceLength              size of the file the delta applies to
+     * u64 targetLength              size of the rebuilt file
+     * 32 bytes                      SHA-256 of the rebuilt file
+     * then instructions, until END:
+     *   0x01 u64 offset u32 length  COPY length bytes of source starting at offset
+     *   0x02 u32 length bytes...    INSERT the literal bytes that follow
+     *   0x00                        END
+     * </pre>
+     * Unchanged classes keep their compressed bytes from one jar build to the next, so a
+     * jar delta is mostly COPY instructions plus the changed entries and central directory.
+     */
+    private static String[] applyBinaryDelta(Path source, Path delta, Path out) throws IOException {
+        MessageDigest sha256 = newMessageDigest("SHA-256");
+        try (FileChannel src = FileChannel.open(source, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(delta), 64 * 1024));
+             OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), 64 * 1024)) {
+            byte[] magic = new byte[DELTA_MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, DELTA_MAGIC)) throw new IOException("not a delta file");
+            long sourceLength = in.readLong();
+            long targetLength = in.readLong();
+            byte[] promised = new byte[32];
+            in.readFully(promised);
+            if (sourceLength != src.size()) {
+                throw new IOException("installed file is " + src.size() + " bytes, delta expects " + sourceLength);
+            }
+            byte[] buf = new byte[64 * 1024];
+            long written = 0L;
+            while (true) {
+                int op = in.readUnsignedByte();
+                if (op == 0x00) break;
+                long length;
+                if (op == 0x01) {
+                    long offset = in.readLong();
+                    length = in.readInt() & 0xFFFFFFFFL;
+                    if (offset < 0 || offset + length > sourceLength) throw new IOException("COPY outside the source file");
+                    long pos = offset;
+                    long remaining = length;
+                    while (remaining > 0) {
+                        ByteBuffer bb = ByteBuffer.wrap(buf, 0, (int) Math.min(buf.length, remaining));
+                        int n = src.read(bb, pos);
+                        if (n <= 0) throw new EOFException("source ended early");
+                        os.write(buf, 0, n);
+                        sha256.update(buf, 0, n);
+                        pos += n;
+                        remaining -= n;
+                    }
+                } else if (op == 0x02) {
+                    length = in.readInt() & 0xFFFFFFFFL;
+                    long remaining = length;
+                    while (remaining > 0) {
+                        int n = (int) Math.min(buf.length, remaining);
+                        in.readFully(buf, 0, n);
+                        os.write(buf, 0, n);
+                        sha256.update(buf, 0, n);
+                        remaining -= n;
+                    }
+                } else {
+                    throw new IOException("unknown delta instruction " + op);
                 }
-                return loadTrustManager(ks);
-            } catch (Exception ignored) {
-                // Try next candidate path.
+                written += length;
+                if (written > targetLength) throw new IOException("delta writes past the target length");
             }
+            if (written != targetLength) throw new IOException("delta rebuilt " + written + " of " + targetLength + " bytes");
+            return new String[] { toHex(sha256.digest()), toHex(promised) };
         }
-        return null;
     }
-    
-    private static X509TrustManager loadTrustManager(KeyStore keyStore) throws GeneralSecurityException {
-        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-        tmf.init(keyStore);
-        return firstX509TrustManager(tmf.getTrustManagers());
+
+    /**
+     * The checksum a release asset must match: the API's {@code digest} field, else a
+     * {@code <asset>.sha256} file published in the same release. Null when neither exists.
+     */
+    private static ExpectedDigest expectedAssetDigest(ReleaseAsset asset) {
+        String sha = sha256FromDigest(asset.digest);
+        if (sha != null) return new ExpectedDigest("SHA-256", sha, "release digest");
+        if (asset.checksumUrl == null) return null;
+        sha = fetchPublishedChecksum(asset.checksumUrl, 64);
+        if (sha != null) return new ExpectedDigest("SHA-256", sha, asset.name + ".sha256");
+        System.err.println("[mod-updater] Could not read " + asset.name + ".sha256; downloading unverified.");
+        return null;
     }
-    
-    private static X509TrustManager firstX509TrustManager(TrustManager[] trustManagers) {
-        if (trustManagers == null) {
+
+    /** First {@code hexLength}-digit hex token of a small checksum file ("<hex>  <name>" or bare hex), or null. */
+    private static String fetchPublishedChecksum(String url, int hexLength) {
+        try {
+            HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
+            conn.setInstanceFollowRedirects(true);
+            int code = LauncherHttp.status(conn);
+            if (code < 200 || code >= 300) {
+                LauncherHttp.discard(conn);
+                return null;
+            }
+            InputStream in = LauncherHttp.body(conn);
+            String text;
+            try {
+                text = readAll(in);
+            } finally {
+                closeQuietly(in);
+            }
+            Matcher m = Pattern.compile("(?<![0-9a-fA-F])[0-9a-fA-F]{" + hexLength + "}(?![0-9a-fA-F])").matcher(text);
+            return m.find() ? m.group().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException ex) {
             return null;
         }
-        for (int i = 0; i < trustManagers.length; i++) {
-            if (trustManagers[i] instanceof X509TrustManager) {
-                return (X509TrustManager) trustManagers[i];
+    }
+
+    /** Points each asset at a {@code <name>.sha256} sidecar published alongside it, if any. */
+    private static void linkChecksumSidecars(List<ReleaseAsset> assets) {
+        Map<String, String> urlsByName = new HashMap<String, String>();
+        for (ReleaseAsset a : assets) {
+            urlsByName.put(a.name, a.url);
+        }
+        for (ReleaseAsset a : assets) {
+            a.checksumUrl = urlsByName.get(a.name + ".sha256");
+        }
+    }
+
+    /**
+     * Downloads {@code url} to java.io.tmpdir/{@code fileName}, resuming interrupted
+     * transfers. Bytes land in a .part file next to a small properties sidecar holding
+     * the validator (ETag / Last-Modified) and expected length; a retry, or the next
+     * launch, continues with Range + If-Range so a changed file is re-sent in full.
+     * The shared download cache is consulted first and filled afterwards. When
+     * {@code expected} is given, the digest computed while the bytes were written must
+     * match it; a mismatch discards the file and retries from the next of
+     * {@code mirrorUrls} with caches bypassed.
+     */
+    private static Path downloadResumable(ProgressUI ui, List<String> mirrorUrls, String fileName, ExpectedDigest expected, int timeoutMs, boolean noCache, int attempts, double start, double end) throws IOException {
+        String tmpDir = System.getProperty("java.io.tmpdir");
+        String expectedSha256 = expected != null && "SHA-256".equals(expected.algorithm) ? expected.hex : null;
+        // Keyed by URL: the release and beta repos both ship a patch.jar, and two
+        // launchers may share one tmpdir
+        Path partDir = Paths.get(tmpDir, DOWNLOAD_PART_DIR_NAME);
+        String urlKey = downloadKey(mirrorUrls.get(0));
+        Path target = partDir.resolve(urlKey).resolve(fileName);
+        Path cached = materializeFromDownloadCache(mirrorUrls.get(0), expectedSha256, ensureParent(target));
+        if (cached != null) {
+            if (ui != null) ui.progress((int) Math.round(end * 100));
+            return cached;
+        }
+        String safeName = resumablePartName(mirrorUrls.get(0), fileName);
+        Path part = partDir.resolve(safeName + ".part");
+        Path meta = partDir.resolve(safeName + ".part.properties");
+
+        FileChannel lockChannel = FileChannel.open(partDir.resolve(safeName + ".part.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (!acquireDownloadLock(lockChannel, fileName)) {
+                throw new IOException("Timed out waiting for another download of " + fileName + " to finish");
+            }
+            // Whoever held the lock may have just finished this very file
+            cached = materializeFromDownloadCache(mirrorUrls.get(0), expectedSha256, target);
+            if (cached != null) {
+                if (ui != null) ui.progress((int) Math.round(end * 100));
+                return cached;
             }
+            return transferResumable(ui, mirrorUrls, fileName, expected, timeoutMs, noCache, attempts, part, meta, target, start, end);
+        } finally {
+            // Closing the channel releases the lock
+            closeQuietly(lockChannel);
         }
-        return null;
     }
-    
-    private static X509TrustManager mergeTrustManagers(final List<X509TrustManager> managers) {
-        return new X509TrustManager() {
-            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-                CertificateException last = null;
-                for (int i = 0; i < managers.size(); i++) {
-                    try {
-                        managers.get(i).checkClientTrusted(chain, authType);
-                        return;
-                    } catch (CertificateException ex) {
-                        last = ex;
-                    }
+
+    private static Path transferResumable(ProgressUI ui, List<String> mirrorUrls, String fileName, ExpectedDigest expected, int timeoutMs,
+            boolean noCache, int attempts, Path part, Path meta, Path target, double start, double end) throws IOException {
+        IOException lastError = null;
+        int mirror = 0;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            String url = mirrorUrls.get(mirror);
+            try {
+                DownloadDigests digests = new DownloadDigests(expected);
+                // Segmented mode only for a fresh first attempt; anything it cannot
+                // handle falls through to the resumable single stream.
+                boolean segmented = attempt == 1 && DOWNLOAD_CONNECTIONS > 1 && !Files.exists(part)
+                        && transferSegmented(ui, url, fileName, part, timeoutMs, DOWNLOAD_CONNECTIONS, start, end);
+                if (segmented) {
+                    // Segments arrive out of order, so they are hashed in one pass afterwards
+                    digests.updateFromFile(part, Files.size(part));
+                } else {
+                    transferToPart(ui, url, fileName, part, meta, timeoutMs, noCache, digests, start, end);
                 }
-                if (last != null) throw last;
-                throw new CertificateException("No trust manager accepted the client certificate chain.");
-            }
-            
-            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
-                CertificateException last = null;
-                for (int i = 0; i < managers.size(); i++) {
-                    try {
-                        managers.get(i).checkServerTrusted(chain, authType);
-                        return;
-                    } catch (CertificateException ex) {
-                        last = ex;
-                    }
+                digests.finish();
+                if (expected != null && !expected.hex.equalsIgnoreCase(digests.hex(expected.algorithm))) {
+                    discardPartialDownload(part, meta);
+                    throw new ChecksumMismatchException("Checksum mismatch for " + fileName + " from " + mirrorHost(url) + ": expected "
+                            + expected.algorithm + " " + expected.hex + " (" + expected.source + ") but got " + digests.hex(expected.algorithm));
                 }
-                if (last != null) throw last;
-                throw new CertificateException("No trust manager accepted the server certificate chain.");
-            }
-            
-            public X509Certificate[] getAcceptedIssuers() {
-                LinkedHashSet<X509Certificate> issuers = new LinkedHashSet<X509Certificate>();
-                for (int i = 0; i < managers.size(); i++) {
-                    X509Certificate[] certs = managers.get(i).getAcceptedIssuers();
-                    if (certs != null && certs.length > 0) {
-                        issuers.addAll(Arrays.asList(certs));
-                    }
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+                Files.deleteIfExists(meta);
+                // Only content a later lookup can find: by published SHA-256 or immutable URL
+                if (expected != null || isImmutableDownloadUrl(url)) {
+                    storeInDownloadCache(url, fileName, digests.sha256Hex(), target);
+                }
+                return target;
+            } catch (ChecksumMismatchException ex) {
+                // A corrupt or stale copy: fetch it again elsewhere, past any intermediate cache
+                lastError = ex;
+                mirror = (mirror + 1) % mirrorUrls.size();
+                noCache = true;
+                if (attempt < attempts) {
+                    System.err.println("[mod-updater] " + ex.getMessage() + "; retrying from " + mirrorHost(mirrorUrls.get(mirror)) + ".");
                 }
-                return issuers.toArray(new X509Certificate[issuers.size()]);
+                continue;
+            } catch (DownloadStatusException ex) {
+                // Client errors (404 etc.) will not go away by retrying
+                if (!ex.isRetryable()) throw ex;
+                lastError = ex;
+            } catch (IOException ex) {
+                lastError = ex;
+            }
+            if (attempt < attempts) {
+                System.err.println("[mod-updater] Download of " + fileName + " interrupted (" + lastError.getMessage() + "); retrying with resume...");
+                sleepQuietly(RESOURCE_ARCHIVE_RETRY_BASE_DELAY_MS * attempt);
             }
-        };
+        }
+        throw lastError;
     }
 
-    private static LatestRelease fetchLatestRelease(String repo) throws IOException {
-        // Try /releases/latest first
-        String url = String.format(GITHUB_API_LATEST, repo);
-        HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Accept", "application/vnd.github+json");
-        String token = getenv("GITHUB_TOKEN");
-        if (token != null && !token.trim().isEmpty()) {
-            conn.setRequestProperty("Authorization", "token " + token.trim());
+    private static void transferToPart(ProgressUI ui, String url, String fileName, Path part, Path meta, int timeoutMs, boolean noCache,
+            DownloadDigests digests, double start, double end) throws IOException {
+        Properties previous = readPropertiesQuietly(meta);
+        long have = Files.isRegularFile(part) ? Files.size(part) : 0L;
+        String validator = null;
+        if (have > 0 && previous != null && url.equals(previous.getProperty("url"))) {
+            validator = resumeValidator(previous);
         }
-        int code = conn.getResponseCode();
-        InputStream in = code >= 200 && code < 300 ? conn.getInputStream() : conn.getErrorStream();
-        String body = readAll(in);
-        
-        // If /releases/latest returns 404, fall back to /releases and pick the first one
-        if (code == 404) {
-            String fallbackUrl = "https://api.github.com/repos/" + repo + "/releases";
-            HttpURLConnection fallbackConn = openHttpConnection(fallbackUrl, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
-            fallbackConn.setRequestMethod("GET");
-            fallbackConn.setRequestProperty("Accept", "application/vnd.github+json");
-            if (token != null && !token.trim().isEmpty()) {
-                fallbackConn.setRequestProperty("Authorization", "token " + token.trim());
+        if (have > 0 && validator == null) {
+            // Without a validator we cannot prove the partial bytes belong to the current file
+            discardPartialDownload(part, meta);
+            have = 0L;
+            previous = null;
+        }
+
+        HttpURLConnection conn = openHttpConnection(url, timeoutMs, timeoutMs, "ModUpdaterGUI/1.0");
+        conn.setUseCaches(false);
+        conn.setInstanceFollowRedirects(true);
+        if (noCache) {
+            conn.setRequestProperty("Cache-Control", "no-cache, no-store, max-age=0");
+            conn.setRequestProperty("Pragma", "no-cache");
+        }
+        if (have > 0) {
+            conn.setRequestProperty("Range", "bytes=" + have + "-");
+            conn.setRequestProperty("If-Range", validator);
+        }
+
+        int code = LauncherHttp.status(conn);
+        if (code == 416 && have > 0) {
+            LauncherHttp.discard(conn);
+            long expected = parseLongOrDefault(previous.getProperty("length"), -1L);
+            if (expected == have) {
+                // Previous run finished the transfer but never promoted the .part file
+                digests.updateFromFile(part, have);
+                return;
             }
-            int fallbackCode = fallbackConn.getResponseCode();
-            InputStream fallbackIn = fallbackCode >= 200 && fallbackCode < 300 ? fallbackConn.getInputStream() : fallbackConn.getErrorStream();
-            String fallbackBody = readAll(fallbackIn);
-            if (fallbackCode < 200 || fallbackCode >= 300) {
-                throw new IOException("GitHub API error: HTTP " + fallbackCode + " " + truncateErrorBody(fallbackBody));
+            discardPartialDownload(part, meta);
+            throw new IOException("Server rejected resume range for " + fileName + "; restarting from zero");
+        }
+        if (code < 200 || code >= 300) {
+            String body = LauncherHttp.errorBody(conn);
+            throw new DownloadStatusException(code, "HTTP " + code + " " + truncateErrorBody(body));
+        }
+
+        boolean append = false;
+        long total;
+        if (code == HttpURLConnection.HTTP_PARTIAL && have > 0) {
+            long[] range = parseContentRange(conn.getHeaderField("Content-Range"));
+            if (range == null || range[0] != have) {
+                conn.disconnect();
+                discardPartialDownload(part, meta);
+                throw new IOException("Unexpected Content-Range for " + fileName + ": " + conn.getHeaderField("Content-Range"));
             }
-            // Parse first release from array
-            return parseFirstReleaseFromArray(fallbackBody);
-        }
-        
-        if (code < 200 || code >= 300) {
-            throw new IOException("GitHub API error: HTTP " + code + " " + truncateErrorBody(body));
-        }
-        return parseLatestRelease(body);
-    }
-    
-    private static LatestRelease parseFirstReleaseFromArray(String json) {
-        // The /releases endpoint returns an array; extract the first object
-        // Find first { after the opening [
-        int start = json.indexOf('[');
-        if (start < 0) return parseLatestRelease(json); // Not an array, try as single object
-        int braceStart = json.indexOf('{', start);
-        if (braceStart < 0) return new LatestRelease(); // Empty array
-        // Find matching closing brace
-        int depth = 0;
-        int braceEnd = -1;
-        for (int i = braceStart; i < json.length(); i++) {
-            char c = json.charAt(i);
-            if (c == '{') depth++;
-            else if (c == '}') {
-                depth--;
-                if (depth == 0) {
-                    braceEnd = i;
-                    break;
+            append = true;
+            total = range[1];
+            System.out.println("[mod-updater] Resuming download of " + fileName + " at " + have + " bytes.");
+            digests.updateFromFile(part, have);
+        } else {
+            // 200: fresh download, or the server ignored Range / If-Range no longer matched
+            have = 0L;
+            total = conn.getContentLengthLong();
+        }
+
+        // Record the validators before any body bytes so an interruption can be resumed
+        Properties state = new Properties();
+        state.setProperty("url", url);
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+        if (append && previous != null) {
+            if (etag == null) etag = previous.getProperty("etag");
+            if (lastModified == null) lastModified = previous.getProperty("lastModified");
+        }
+        if (etag != null) state.setProperty("etag", etag);
+        if (lastModified != null) state.setProperty("lastModified", lastModified);
+        if (total >= 0) state.setProperty("length", String.valueOf(total));
+        writePropertiesAtomically(meta, state, "Resumable download state");
+
+        InputStream in = new BufferedInputStream(LauncherHttp.body(conn));
+        FileOutputStream out = new FileOutputStream(part.toFile(), append);
+        byte[] buf = new byte[64 * 1024];
+        int n;
+        long done = have;
+        try {
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+                digests.update(buf, 0, n);
+                done += n;
+                if (ui != null && total > 0L) {
+                    double frac = start + (end - start) * (done / (double) total);
+                    ui.progress((int) Math.round(frac * 100));
                 }
             }
+        } finally {
+            try { in.close(); } catch (IOException ignored) {}
+            try { out.close(); } catch (IOException ignored) {}
+        }
+        if (total >= 0 && done != total) {
+            throw new IOException("Incomplete download of " + fileName + ": " + done + " of " + total + " bytes");
         }
-        if (braceEnd < 0) return new LatestRelease();
-        String firstRelease = json.substring(braceStart, braceEnd + 1);
-        return parseLatestRelease(firstRelease);
-    }
-
-    private static LatestRelease parseLatestRelease(String json) {
-        LatestRelease r = new LatestRelease();
-        r.tag = extractString(json, "\"tag_name\"\\s*:\\s*\"(.*?)\"");
-        r.name = extractString(json, "\"name\"\\s*:\\s*\"(.*?)\"");
-        r.body = extractString(json, "\"body\"\\s*:\\s*\"(.*?)\"");
-        r.htmlUrl = extractString(json, "\"html_url\"\\s*:\\s*\"(.*?)\"");
-        r.zipballUrl = extractString(json, "\"zipball_url\"\\s*:\\s*\"(.*?)\"");
-        r.assets = extractAssets(json);
-        return r;
     }
 
-    private static String extractString(String text, String regex) {
-        Matcher m = Pattern.compile(regex, Pattern.DOTALL).matcher(text);
-        if (m.find()) return unescapeJson(m.group(1));
-        return null;
-    }
+    /**
+     * Fetches a large asset over several parallel byte-range connections into one
+     * preallocated .part file using positional FileChannel writes. Release CDNs tend to
+     * cap per-connection throughput, so this helps on fast links. Returns false, leaving
+     * no .part file behind, when the asset is small, its length is unknown, the server
+     * ignores Range, or any segment fails; the caller then uses a single stream.
+     */
+    private static boolean transferSegmented(final ProgressUI ui, final String url, final String fileName, final Path part,
+            final int timeoutMs, int connections, double start, double end) {
+        final RemoteFileInfo info;
+        try {
+            info = fetchRemoteFileInfo(url);
+        } catch (IOException ex) {
+            return false;
+        }
+        if (info == null || info.length < SEGMENTED_DOWNLOAD_MIN_BYTES || "none".equalsIgnoreCase(info.acceptRanges)) return false;
+        final long total = info.length;
+        // Pin every segment to the probed version of the file; a change mid-way turns into a 200.
+        final String validator = info.etag != null && !info.etag.startsWith("W/") ? info.etag : info.lastModified;
+
+        int segments = (int) Math.min(connections, total / (SEGMENTED_DOWNLOAD_MIN_BYTES / 4));
+        if (segments < 2) return false;
+        System.out.println("[mod-updater] Downloading " + fileName + " (" + total + " bytes) over " + segments + " connections.");
+
+        final AtomicLong received = new AtomicLong();
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final List<HttpURLConnection> openConnections = Collections.synchronizedList(new ArrayList<HttpURLConnection>());
+        ExecutorService pool = LauncherRuntime.newWorkerPool("ModUpdater-Segment", segments);
+        FileChannel channel = null;
+        boolean ok = false;
+        try {
+            RandomAccessFile raf = new RandomAccessFile(part.toFile(), "rw");
+            raf.setLength(total);
+            channel = raf.getChannel();
+            final FileChannel out = channel;
+
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            long chunk = total / segments;
+            for (int i = 0; i < segments; i++) {
+                final long first = i * chunk;
+                final long last = (i == segments - 1) ? total - 1 : first + chunk - 1;
+                futures.add(pool.submit(new Callable<Boolean>() {
+                    public Boolean call() throws IOException {
+                        return fetchSegment(url, out, first, last, validator, timeoutMs, received, aborted, openConnections);
+                    }
+                }));
+            }
 
-    private static List<ReleaseAsset> extractAssets(String json) {
-        // Robust scan based solely on browser_download_url; derive the name from the URL tail
-        List<ReleaseAsset> list = new ArrayList<ReleaseAsset>();
-        Pattern p = Pattern.compile("\\\"browser_download_url\\\"\\s*:\\s*\\\"(.*?)\\\"", Pattern.DOTALL);
-        Matcher m = p.matcher(json);
-        while (m.find()) {
-            String url = unescapeJson(m.group(1));
-            String name = url;
-            int slash = url.lastIndexOf('/');
-            if (slash >= 0 && slash + 1 < url.length()) name = url.substring(slash + 1);
-            ReleaseAsset a = new ReleaseAsset();
-            a.name = name;
-            a.url = url;
-            list.add(a);
+            // Merge segment progress into the single ProgressUI from this thread
+            boolean rangeIgnored = false;
+            while (true) {
+                boolean allDone = true;
+                for (Future<Boolean> f : futures) {
+                    if (!f.isDone()) {
+                        allDone = false;
+                    } else if (!awaitTaskResult(f).booleanValue()) {
+                        rangeIgnored = true;
+                    }
+                }
+                if (ui != null) {
+                    double frac = start + (end - start) * (received.get() / (double) total);
+                    ui.progress((int) Math.round(frac * 100));
+                }
+                if (allDone || rangeIgnored) break;
+                sleepQuietly(100L);
+            }
+            if (rangeIgnored) {
+                System.out.println("[mod-updater] Server ignored Range for " + fileName + "; using a single connection.");
+                return false;
+            }
+            if (received.get() != total) {
+                throw new IOException("Segmented download incomplete: " + received.get() + " of " + total + " bytes");
+            }
+            channel.force(false);
+            ok = true;
+            return true;
+        } catch (Exception ex) {
+            System.err.println("[mod-updater] Segmented download of " + fileName + " failed (" + ex.getMessage() + "); using a single connection.");
+            return false;
+        } finally {
+            if (!ok) {
+                aborted.set(true);
+                synchronized (openConnections) {
+                    for (HttpURLConnection c : openConnections) c.disconnect();
+                }
+            }
+            pool.shutdownNow();
+            closeQuietly(channel);
+            if (!ok) {
+                try { Files.deleteIfExists(part); } catch (IOException ignored) {}
+            }
         }
-        return list;
     }
 
-    // Simple HTML builder for the embedded patch-notes view, using the GitHub
-    // latest-release metadata as a fallback when no explicit newsUrl is given.
-    private static String buildReleaseHtml(LatestRelease latest, Exception loadError) {
-        StringBuilder sb = new StringBuilder(4096);
-        sb.append("<html><head><style>");
-        sb.append("body { background-color:#101010; color:#e0e0e0; font-family:sans-serif; font-size:12px; }");
-        sb.append("h1 { font-size:16px; margin:0 0 8px 0; }");
-        sb.append("a { color:#68a0ff; }");
-        sb.append("pre { white-space:pre-wrap; }");
-        sb.append("</style></head><body>");
-
-        String title = null;
-        if (latest != null) {
-            if (latest.name != null && !latest.name.isEmpty()) title = latest.name;
-            else if (latest.tag != null && !latest.tag.isEmpty()) title = "Release " + latest.tag;
+    /** Fetches bytes first..last into {@code out}; returns false if the server answered 200 (Range not honoured). */
+    private static boolean fetchSegment(String url, FileChannel out, long first, long last, String validator, int timeoutMs,
+            AtomicLong received, AtomicBoolean aborted, List<HttpURLConnection> openConnections) throws IOException {
+        HttpURLConnection conn = openHttpConnection(url, timeoutMs, timeoutMs, "ModUpdaterGUI/1.0");
+        openConnections.add(conn);
+        conn.setUseCaches(false);
+        conn.setInstanceFollowRedirects(true);
+        conn.setRequestProperty("Range", "bytes=" + first + "-" + last);
+        if (validator != null) {
+            conn.setRequestProperty("If-Range", validator);
+        }
+        int code = LauncherHttp.status(conn);
+        if (code == HttpURLConnection.HTTP_OK) {
+            conn.disconnect();
+            return false;
         }
-        if (title == null) title = "Latest release";
-        sb.append("<h1>").append(htmlEscape(title)).append("</h1>");
+        if (code != HttpURLConnection.HTTP_PARTIAL) {
+            String body = LauncherHttp.errorBody(conn);
+            throw new DownloadStatusException(code, "HTTP " + code + " " + truncateErrorBody(body));
+        }
+        long[] range = parseContentRange(conn.getHeaderField("Content-Range"));
+        if (range == null || range[0] != first) {
+            throw new IOException("Unexpected Content-Range: " + conn.getHeaderField("Content-Range"));
+        }
+        InputStream in = LauncherHttp.body(conn);
+        byte[] buf = new byte[64 * 1024];
+        long pos = first;
+        try {
+            int n;
+            while (pos <= last && !aborted.get() && (n = in.read(buf, 0, (int) Math.min(buf.length, last - pos + 1))) != -1) {
+                ByteBuffer bb = ByteBuffer.wrap(buf, 0, n);
+                while (bb.hasRemaining()) {
+                    pos += out.write(bb, pos);
+                }
+                received.addAndGet(n);
+            }
+        } finally {
+            closeQuietly(in);
+        }
+        if (pos != last + 1) {
+            throw new IOException("Segment " + first + "-" + last + " ended early at byte " + pos);
+        }
+        return true;
+    }
 
-        if (latest != null && latest.tag != null) {
-            sb.append("<div style='color:#a0a0a0;margin-bottom:8px;'>Tag: ")
-              .append(htmlEscape(latest.tag));
-            if (latest.htmlUrl != null && !latest.htmlUrl.isEmpty()) {
-                sb.append(" &middot; <a href=\"")
-                  .append(htmlEscape(latest.htmlUrl))
-                  .append("\">View on GitHub</a>");
+    /**
+     * Serves a download from the user-level content-addressed cache shared by all
+     * instances. The key is the expected SHA-256 when the release API published one,
+     * otherwise the URL index, which only records URLs whose content never changes.
+     * The blob is copied rather than hard-linked, because the target gets installed and
+     * may later be rewritten in place. The copy is hashed as it is written, and a blob
+     * that no longer matches its name is deleted and reported as a miss. Returns null on
+     * a miss.
+     */
+    private static Path materializeFromDownloadCache(String url, String expectedSha256, Path target) {
+        Path cacheDir = downloadCacheDir();
+        if (cacheDir == null) return null;
+        String sha = expectedSha256;
+        if (sha == null && isImmutableDownloadUrl(url)) {
+            Properties index = readPropertiesQuietly(cacheDir.resolve(DOWNLOAD_CACHE_INDEX_NAME));
+            sha = index != null ? index.getProperty(url) : null;
+        }
+        if (sha == null) return null;
+        Path blob = downloadCacheBlob(cacheDir, sha);
+        if (!Files.isRegularFile(blob)) return null;
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            MessageDigest md = newMessageDigest("SHA-256");
+            InputStream in = new DigestInputStream(Files.newInputStream(blob), md);
+            try {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                closeQuietly(in);
+            }
+            String actual = toHex(md.digest());
+            if (!sha.equalsIgnoreCase(actual)) {
+                System.err.println("[mod-updater] Download cache entry " + sha.substring(0, 12) + " is corrupt (content hashes to "
+                        + actual.substring(0, 12) + "); discarding it.");
+                Files.deleteIfExists(blob);
+                return null;
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            // Last-modified time doubles as the LRU clock
+            Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+            System.out.println("[mod-updater] Using shared download cache for " + target.getFileName() + " (sha256 " + sha.substring(0, 12) + ").");
+            return target;
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Download cache read failed for " + url + ": " + ex.getMessage());
+            return null;
+        } finally {
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
             }
-            sb.append("</div>");
         }
+    }
 
-        String body = latest != null ? latest.body : null;
-        if (body != null && body.trim().length() > 0) {
-            String norm = body.replace("\r\n", "\n").replace("\r", "\n");
-            String[] lines = norm.split("\n");
-            sb.append("<pre>");
-            for (int i = 0; i < lines.length; i++) {
-                sb.append(htmlEscape(lines[i]));
-                if (i + 1 < lines.length) sb.append("\n");
+    /**
+     * Adds a fresh, already verified download (whose SHA-256 is {@code sha}) to the
+     * shared cache and trims the cache back under its size cap.
+     */
+    private static void storeInDownloadCache(String url, String fileName, String sha, Path file) {
+        Path cacheDir = downloadCacheDir();
+        if (cacheDir == null) return;
+        try {
+            Path blob = downloadCacheBlob(cacheDir, sha);
+            if (!Files.isRegularFile(blob)) {
+                ensureDir(blob.getParent());
+                Path tmp = Files.createTempFile(blob.getParent(), sha, ".tmp");
+                try {
+                    Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+                    try {
+                        Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException ex) {
+                        Files.move(tmp, blob, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (FileAlreadyExistsException ex) {
+                        // Another instance stored the same content first
+                    }
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
             }
-            sb.append("</pre>");
-        } else {
-            sb.append("<p>No detailed patch notes were provided for this release.</p>");
+            if (isImmutableDownloadUrl(url)) {
+                recordDownloadCacheUrl(cacheDir, url, sha);
+            }
+            evictDownloadCache(cacheDir);
+        } catch (IOException ex) {
+            System.err.println("[mod-updater] Failed to add " + fileName + " to the download cache: " + ex.getMessage());
         }
+    }
 
-        if (loadError != null) {
-            String msg = loadError.getMessage() != null ? loadError.getMessage() : loadError.toString();
-            sb.append("<hr><p style='color:#ff8080;'>Failed to load external news page: ")
-              .append(htmlEscape(msg))
-              .append("</p>");
+    /**
+     * Adds url -> sha to the URL index. The read-modify-write is serialized across
+     * threads and across launcher instances sharing the cache; otherwise two
+     * downloads finishing together would each write back an index without the
+     * other's entry.
+     */
+    private static void recordDownloadCacheUrl(Path cacheDir, String url, String sha) throws IOException {
+        Path indexPath = cacheDir.resolve(DOWNLOAD_CACHE_INDEX_NAME);
+        synchronized (DOWNLOAD_CACHE_INDEX_LOCK) {
+            FileChannel lockChannel = FileChannel.open(cacheDir.resolve(DOWNLOAD_CACHE_INDEX_NAME + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                lockChannel.lock();
+                Properties index = readPropertiesQuietly(indexPath);
+                if (index == null) index = new Properties();
+                if (!sha.equals(index.getProperty(url))) {
+                    index.setProperty(url, sha);
+                    writePropertiesAtomically(indexPath, index, "Immutable download URL -> sha256");
+                }
+            } finally {
+                // Closing the channel releases the lock
+                closeQuietly(lockChannel);
+            }
         }
-
-        sb.append("</body></html>");
-        return sb.toString();
     }
 
-    private static String htmlEscape(String s) {
-        if (s == null) return "";
-        StringBuilder out = new StringBuilder(s.length() + 16);
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            switch (c) {
-                case '&': out.append("&amp;"); break;
-                case '<': out.append("&lt;"); break;
-                case '>': out.append("&gt;"); break;
-                case '"': out.append("&quot;"); break;
-                case '\'': out.append("&#39;"); break;
-                default: out.append(c);
+    /** Deletes least-recently-used blobs until the cache fits under DOWNLOAD_CACHE_MAX_BYTES. */
+    private static void evictDownloadCache(Path cacheDir) throws IOException {
+        Path blobs = cacheDir.resolve("sha256");
+        if (!Files.isDirectory(blobs)) return;
+        final List<Path> files = new ArrayList<Path>();
+        final Map<Path, BasicFileAttributes> attrs = new HashMap<Path, BasicFileAttributes>();
+        Files.walkFileTree(blobs, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes a) {
+                if (a.isRegularFile() && !file.getFileName().toString().endsWith(".tmp")) {
+                    files.add(file);
+                    attrs.put(file, a);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        long total = 0L;
+        for (Path f : files) total += attrs.get(f).size();
+        if (total <= DOWNLOAD_CACHE_MAX_BYTES) return;
+        Collections.sort(files, new Comparator<Path>() {
+            public int compare(Path a, Path b) {
+                return attrs.get(a).lastModifiedTime().compareTo(attrs.get(b).lastModifiedTime());
             }
+        });
+        for (Path f : files) {
+            if (total <= DOWNLOAD_CACHE_MAX_BYTES) break;
+            long size = attrs.get(f).size();
+            try {
+                Files.deleteIfExists(f);
+                total -= size;
+                System.out.println("[mod-updater] Evicted " + f.getFileName() + " from the download cache.");
+            } catch (IOException ignored) {}
         }
-        return out.toString();
     }
 
-    private static int findMatchingBracket(String s, int openIdx) {
-        return findMatchingDelimiter(s, openIdx, '[', ']');
+    /** Null when the cache is disabled (downloadCacheMaxMb=0). */
+    private static Path downloadCacheDir() {
+        if (DOWNLOAD_CACHE_MAX_BYTES <= 0L) return null;
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        String home = System.getProperty("user.home", ".");
+        Path base;
+        if (os.contains("win")) {
+            String local = getenv("LOCALAPPDATA");
+            base = (local != null && !local.isEmpty()) ? Paths.get(local) : Paths.get(home, "AppData", "Local");
+        } else if (os.contains("mac")) {
+            base = Paths.get(home, "Library", "Caches");
+        } else {
+            String xdg = getenv("XDG_CACHE_HOME");
+            base = (xdg != null && !xdg.isEmpty()) ? Paths.get(xdg) : Paths.get(home, ".cache");
+        }
+        return base.resolve("mcose-launcher").resolve("download-cache");
     }
 
-    private static int findMatchingBrace(String s, int openIdx) {
-        return findMatchingDelimiter(s, openIdx, '{', '}');
+    private static Path downloadCacheBlob(Path cacheDir, String sha256) {
+        String key = sha256.toLowerCase(Locale.ROOT);
+        return cacheDir.resolve("sha256").resolve(key.substring(0, 2)).resolve(key);
     }
 
-    private static int findMatchingDelimiter(String s, int openIdx, char open, char close) {
-        int depth = 0;
-        boolean inString = false;
-        for (int i = openIdx; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '"' && !isEscaped(s, i)) {
-                inString = !inString;
-                continue;
-            }
-            if (inString) continue;
-            if (c == open) {
-                depth++;
-            } else if (c == close) {
-                depth--;
-                if (depth == 0) return i;
-            }
-        }
-        return -1;
+    /**
+     * URLs whose bytes never change for a given URL: GitHub release downloads (the tag
+     * is part of the path) and versioned Maven Central artifacts. Branch archives are
+     * deliberately excluded.
+     */
+    private static boolean isImmutableDownloadUrl(String url) {
+        if (url == null) return false;
+        return url.contains("/releases/download/") || url.startsWith("https://repo1.maven.org/maven2/")
+                || url.startsWith("https://repo.maven.apache.org/maven2/")
+                || (url.startsWith("https://codeload.github.com/") && url.matches(".*/zip/[0-9a-f]{40}"));
     }
 
-    private static boolean isEscaped(String s, int idx) {
-        int backslashes = 0;
-        for (int i = idx - 1; i >= 0 && s.charAt(i) == '\\'; i--) {
-            backslashes++;
+    /** Extracts the hex hash from a GitHub asset digest ("sha256:<hex>"), or null. */
+    private static String sha256FromDigest(String digest) {
+        if (digest == null) return null;
+        String d = digest.trim();
+        if (!d.regionMatches(true, 0, "sha256:", 0, 7)) return null;
+        String hex = d.substring(7).toLowerCase(Locale.ROOT);
+        return hex.matches("[0-9a-f]{64}") ? hex : null;
+    }
+
+    private static MessageDigest newMessageDigest(String algorithm) throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(algorithm + " not available", ex);
         }
-        return (backslashes % 2) == 1;
     }
 
-    private static String unescapeJson(String s) {
-        StringBuilder out = new StringBuilder(s.length());
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '\\' && i + 1 < s.length()) {
-                char n = s.charAt(i + 1);
-                if (n == '"' || n == '\\' || n == '/') { out.append(n); i++; }
-                else if (n == 'b') { out.append('\b'); i++; }
-                else if (n == 'f') { out.append('\f'); i++; }
-                else if (n == 'n') { out.append('\n'); i++; }
-                else if (n == 'r') { out.append('\r'); i++; }
-                else if (n == 't') { out.append('\t'); i++; }
-                else if (n == 'u' && i + 5 < s.length()) {
-                    String hex = s.substring(i + 2, i + 6);
-                    try { out.append((char) Integer.parseInt(hex, 16)); } catch (NumberFormatException ignored) { out.append('?'); }
-                    i += 5;
-                } else { out.append(n); i++; }
-            } else {
-                out.append(c);
+    private static String fileDigestHex(Path file, String algorithm) throws IOException {
+        MessageDigest md = newMessageDigest(algorithm);
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                md.update(buf, 0, n);
             }
         }
-        return out.toString();
+        return toHex(md.digest());
     }
 
-    private static ReleaseAsset selectAsset(List<ReleaseAsset> assets, String assetRegex) {
-        Pattern p = Pattern.compile(assetRegex);
-        for (ReleaseAsset a : assets) {
-            if (p.matcher(a.name).find()) return a;
-        }
-        return null;
-    }
-
-    private static ReleaseAsset selectOptionalAsset(List<ReleaseAsset> assets, String assetRegex) {
-        if (assetRegex == null || assetRegex.trim().length() == 0) {
-            return null;
-        }
-        return selectAsset(assets, assetRegex);
-    }
-
-    private static Path downloadToTemp(ProgressUI ui, String url, String suggestedName, double start, double end) throws IOException {
-        String tmpDir = System.getProperty("java.io.tmpdir");
-        Path tmp = Paths.get(tmpDir, suggestedName);
-        HttpURLConnection conn = openHttpConnection(url, HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, "ModUpdaterGUI/1.0");
-        int code = conn.getResponseCode();
-        if (code < 200 || code >= 300) {
-            InputStream err = conn.getErrorStream();
-            String body = err != null ? readAll(err) : "";
-            throw new IOException("Download failed: HTTP " + code + "\n" + body);
+    private static String toHex(byte[] bytes) {
+        char[] digits = "0123456789abcdef".toCharArray();
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = digits[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = digits[bytes[i] & 0xF];
         }
-        InputStream in = new BufferedInputStream(conn.getInputStream());
-        FileOutputStream out = new FileOutputStream(tmp.toFile());
-        byte[] buf = new byte[64 * 1024];
-        int n;
-        long total = 0;
-        long len = -1L;
-        try { len = conn.getContentLengthLong(); } catch (Throwable ignored) {}
+        return new String(out);
+    }
+
+    /** If-Range needs a strong validator: a strong ETag, otherwise Last-Modified. */
+    private static String resumeValidator(Properties state) {
+        String etag = state.getProperty("etag");
+        if (etag != null && !etag.startsWith("W/")) return etag;
+        return state.getProperty("lastModified");
+    }
+
+    /** Parses "bytes start-end/total" into {start, total}; total is -1 when given as '*'. */
+    private static long[] parseContentRange(String header) {
+        if (header == null) return null;
+        Matcher m = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)").matcher(header.trim());
+        if (!m.matches()) return null;
+        long first = Long.parseLong(m.group(1));
+        long total = "*".equals(m.group(3)) ? -1L : Long.parseLong(m.group(3));
+        return new long[] { first, total };
+    }
+
+    private static long parseLongOrDefault(String value, long fallback) {
+        if (value == null) return fallback;
         try {
-            while ((n = in.read(buf)) != -1) {
-                out.write(buf, 0, n);
-                total += n;
-                if (len > 0L) {
-                    double frac = start + (end - start) * (total / (double) len);
-                    ui.progress((int) Math.round(frac * 100));
-                }
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+
+    /** Short, filesystem-safe key for a download URL: the first 16 hex digits of its SHA-256. */
+    private static String downloadKey(String url) throws IOException {
+        return toHex(newMessageDigest("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+    }
+
+    private static Path ensureParent(Path file) throws IOException {
+        ensureDir(file.getParent());
+        return file;
+    }
+
+    /** Base name of the .part, .part.properties and .part.lock files of one URL's download. */
+    private static String resumablePartName(String url, String fileName) throws IOException {
+        return sanitizeTempName(fileName) + "-" + downloadKey(url);
+    }
+
+    /**
+     * Takes the exclusive lock guarding one URL's .part file, waiting up to
+     * DOWNLOAD_LOCK_WAIT_MS while another launcher (or thread) downloads the same file.
+     * The lock lives on a sibling .lock file: Windows locks are mandatory, so locking the
+     * .part itself would block this process's own writes through other handles.
+     */
+    private static boolean acquireDownloadLock(FileChannel channel, String fileName) throws IOException {
+        long deadline = System.currentTimeMillis() + DOWNLOAD_LOCK_WAIT_MS;
+        boolean announced = false;
+        while (true) {
+            try {
+                if (channel.tryLock() != null) return true;
+            } catch (OverlappingFileLockException heldInThisJvm) {
+                // Another thread of this launcher holds it
+            }
+            if (System.currentTimeMillis() >= deadline) return false;
+            if (!announced) {
+                System.out.println("[mod-updater] Waiting for another download of " + fileName + " to finish...");
+                announced = true;
+            }
+            try {
+                Thread.sleep(DOWNLOAD_LOCK_POLL_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the download lock of " + fileName);
             }
-        } finally {
-            try { in.close(); } catch (IOException ignored) {}
-            try { out.close(); } catch (IOException ignored) {}
         }
-        return tmp;
+    }
+
+    private static void discardPartialDownload(Path part, Path meta) {
+        try { Files.deleteIfExists(part); } catch (IOException ignored) {}
+        try { Files.deleteIfExists(meta); } catch (IOException ignored) {}
     }
 
     private static String readAll(InputStream in) throws IOException {
@@ -4039,6 +7788,64 @@ public final class ModUpdaterGUI {
         void log(String s);
     }
 
+    /**
+     * One progress bar for tasks running side by side: each part reports 0-100 through
+     * its own ProgressUI, and the parent sees the weighted sum mapped onto [start, end].
+     * Parts never move backwards and the parent only sees increases, so updates arriving
+     * from several threads cannot make the bar jitter.
+     */
+    private static final class CombinedProgress {
+        private final ProgressUI parent;
+        private final double start;
+        private final double end;
+        private final double[] weights;
+        private final double[] fractions;
+        private int lastPct = -1;
+
+        CombinedProgress(ProgressUI parent, double start, double end, double... weights) {
+            this.parent = parent;
+            this.start = start;
+            this.end = end;
+            this.weights = weights.clone();
+            this.fractions = new double[weights.length];
+        }
+
+        ProgressUI part(final int index) {
+            return new ProgressUI() {
+                public void progress(int pct) {
+                    update(index, pct / 100.0);
+                }
+                public void setPhaseText(String text) {
+                    parent.setPhaseText(text);
+                }
+                public void log(String s) {
+                    parent.log(s);
+                }
+            };
+        }
+
+        private synchronized void update(int index, double fraction) {
+            fractions[index] = Math.max(fractions[index], Math.max(0.0, Math.min(1.0, fraction)));
+            double done = 0.0;
+            double total = 0.0;
+            for (int i = 0; i < weights.length; i++) {
+                done += weights[i] * fractions[i];
+                total += weights[i];
+            }
+            int pct = (int) Math.round((start + (end - start) * (total > 0 ? done / total : 1.0)) * 100);
+            if (pct > lastPct) {
+                lastPct = pct;
+                parent.progress(pct);
+            }
+        }
+    }
+
+    /** Progress weight of a download: its size, or 1 MB when the release API did not report one. */
+    private static double assetWeight(ReleaseAsset asset) {
+        if (asset == null) return 0.0;
+        return asset.size > 0 ? asset.size : 1024.0 * 1024.0;
+    }
+
     private static final class ButtonProgressUI implements ProgressUI {
         private final JButton button;
         ButtonProgressUI(JButton button) {
@@ -4069,7 +7876,7 @@ public final class ModUpdaterGUI {
             setSize(854, 480);
             setLocationRelativeTo(null);
             this.canvas = new ProgressCanvas(bgPath);
-            List<Image> icons = loadAppIcons();
+            List<Image> icons = appIcons();
             if (!icons.isEmpty()) {
                 setIconImages(icons);
                 Image best = pickLargestIcon(icons);
@@ -4134,7 +7941,7 @@ public final class ModUpdaterGUI {
             // Integer scaling using ceiling so text scales sooner when window grows
             double layout = Math.min(w / 854.0, h / 480.0);
             int kk = (int) Math.max(1, Math.ceil(layout - 1e-6));
-            Font base = UI_BASE_FONT != null ? UI_BASE_FONT : getFont();
+            Font base = uiBaseFont(getFont());
             BufferedImage titleImg = renderTextRaster(title, base.deriveFont(Font.BOLD, 30f), fg);
             int tsw = titleImg.getWidth() * kk;
             int tsh = titleImg.getHeight() * kk;
@@ -4185,6 +7992,120 @@ public final class ModUpdaterGUI {
         String zipballUrl;
         List<ReleaseAsset> assets;
     }
+    private static final class ReleaseCacheEntry {
+        String source;
+        String etag;
+        String lastModified;
+        LatestRelease release;
+    }
+    /** One central-directory record of a jar, with the span its local entry occupies. */
+    private static final class ZipEntrySpan {
+        String name;
+        int flags;
+        int method;
+        long crc;
+        long compressedSize;
+        long size;
+        long localOffset;
+        /** End of the local entry (header, data, any data descriptor): the next entry's offset or the directory's. */
+        long localEnd;
+        /** Raw central-directory record; local headers of reused entries are rebuilt from it. */
+        byte[] record;
+        /** The installed jar's identical entry, when its bytes can be reused. */
+        ZipEntrySpan reuse;
+    }
+    /** Result of a HEAD probe against a download URL. */
+    private static final class RemoteFileInfo {
+        long length = -1L;
+        String etag;
+        String lastModified;
+        /** Raw Accept-Ranges header; many servers omit it even though they honour Range. */
+        String acceptRanges;
+    }
+    /** Downloaded bytes do not hash to the published checksum. */
+    private static final class ChecksumMismatchException extends IOException {
+        ChecksumMismatchException(String message) {
+            super(message);
+        }
+    }
+    
+    /** A published checksum a download must match. */
+    private static final class ExpectedDigest {
+        /** MessageDigest algorithm name, "SHA-256" or "SHA-1". */
+        final String algorithm;
+        final String hex;
+        /** Where the value came from, for log messages. */
+        final String source;
+        
+        ExpectedDigest(String algorithm, String hex, String source) {
+            this.algorithm = algorithm;
+            this.hex = hex;
+            this.source = source;
+        }
+    }
+    
+    /**
+     * Digests of a download, fed from the same buffers that are written to disk so
+     * verifying costs no second read of the file: always SHA-256 (the download cache
+     * key), plus the expected digest's algorithm when that is a different one.
+     */
+    private static final class DownloadDigests {
+        private final MessageDigest sha256;
+        private final MessageDigest other;
+        private String sha256Hex;
+        private String otherHex;
+        
+        DownloadDigests(ExpectedDigest expected) throws IOException {
+            sha256 = newMessageDigest("SHA-256");
+            other = expected != null && !"SHA-256".equals(expected.algorithm) ? newMessageDigest(expected.algorithm) : null;
+        }
+        
+        void update(byte[] buf, int off, int len) {
+            sha256.update(buf, off, len);
+            if (other != null) other.update(buf, off, len);
+        }
+        
+        /** Feeds the first {@code length} bytes of a file already on disk (a resumed prefix or a segmented download). */
+        void updateFromFile(Path file, long length) throws IOException {
+            byte[] buf = new byte[64 * 1024];
+            long remaining = length;
+            try (InputStream in = Files.newInputStream(file)) {
+                int n;
+                while (remaining > 0 && (n = in.read(buf, 0, (int) Math.min(buf.length, remaining))) != -1) {
+                    update(buf, 0, n);
+                    remaining -= n;
+                }
+            }
+            if (remaining > 0) throw new EOFException("File shorter than expected: " + file);
+        }
+        
+        void finish() {
+            sha256Hex = toHex(sha256.digest());
+            if (other != null) otherHex = toHex(other.digest());
+        }
+        
+        String sha256Hex() {
+            return sha256Hex;
+        }
+        
+        String hex(String algorithm) {
+            return "SHA-256".equals(algorithm) ? sha256Hex : otherHex;
+        }
+    }
+    
+    /** Non-2xx download response; 5xx, 408 and 429 are worth retrying, other client errors are not. */
+    private static final class DownloadStatusException extends IOException {
+        final int code;
+        
+        DownloadStatusException(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+        
+        boolean isRetryable() {
+            return code >= 500 || code == 408 || code == 429;
+        }
+    }
     private static final class NewsPage {
         final String html;
         final URL baseUrl;
@@ -4197,6 +8118,13 @@ public final class ModUpdaterGUI {
     private static final class ReleaseAsset {
         String name;
         String url;
+        /** Size in bytes as reported by the API, or -1 when unknown. */
+        long size = -1L;
+        /** Content digest as reported by the API (e.g. "sha256:..."), or null. */
+        String digest;
+        String updatedAt;
+        /** URL of a "<name>.sha256" asset in the same release, or null. */
+        String checksumUrl;
     }
     
     private static Path findBgPath(Path minecraftDir) {
@@ -4287,6 +8215,7 @@ public final class ModUpdaterGUI {
     }
 
     private static Font loadGameFont() {
+        LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "loadGameFont");
         try {
             Path dir = getJarDir();
             if (dir != null) {
@@ -4298,16 +8227,16 @@ public final class ModUpdaterGUI {
                     try { return Font.createFont(Font.TRUETYPE_FONT, in); } finally { in.close(); }
                 }
             }
-        } catch (Throwable ignored) {}
+        } catch (Throwable ignored) {
+        } finally {
+            span.end();
+        }
         return null;
     }
 
-    private static Font loadSystemSansFont() {
-        try {
-            // Prefer Swing LAF font if present
-            javax.swing.plaf.FontUIResource laf = (javax.swing.plaf.FontUIResource) UIManager.getFont("Label.font");
-            if (laf != null) return laf;
-        } catch (Throwable ignored) {}
+    private static Font loadSystemSansFont(Font lafFont) {
+        // Prefer Swing LAF font if present
+        if (lafFont != null) return lafFont;
         String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
         String fam;
         if (os.contains("mac")) fam = "Lucida Grande"; // classic macOS UI font (2011 era)
@@ -4319,10 +8248,162 @@ public final class ModUpdaterGUI {
         return new Font("SansSerif", Font.PLAIN, 12);
     }
 
-    private static Font detectBaseFont() {
-        Font f = loadGameFont();
-        if (f != null) return f;
-        return loadSystemSansFont();
+    /** The game font if one ships next to the jar, else {@code lafFont}, else a platform sans-serif. */
+    private static Font detectBaseFont(Font lafFont) {
+        LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "detectBaseFont");
+        try {
+            Font f = loadGameFont();
+            if (f != null) return f;
+            return loadSystemSansFont(lafFont);
+        } finally {
+            span.end();
+        }
+    }
+
+    // =========================================================================
+    // UI ASSETS
+    // =========================================================================
+
+    /**
+     * Fonts and images every launcher window needs, each loaded once. main() queues
+     * the font and texture as soon as the look-and-feel is set and the icons and logo
+     * once the directories are known, so decoding overlaps the config and network
+     * work; showLauncher() waits for all of them before building the window. Any
+     * asset asked for before it was queued (an early error dialog) is queued then.
+     */
+    private static final class UiAssets {
+        ExecutorService pool;
+        Future<Font> baseFont;
+        Future<BufferedImage> buttonTexture;
+        Future<List<Image>> appIcons;
+        Future<Image> logo;
+        /** Game directory the queued logo was looked up in. */
+        Path logoMinecraftDir;
+    }
+
+    /** Queues the base font and button texture; later calls do nothing. */
+    private static void startUiAssetLoading() {
+        synchronized (UI_ASSETS) {
+            if (UI_ASSETS.baseFont == null) {
+                // Read on this thread: the loader must see the look-and-feel's font, not a later override
+                Font laf = null;
+                try {
+                    laf = UIManager.getFont("Label.font");
+                } catch (Throwable ignored) {}
+                final Font lafFont = laf;
+                UI_ASSETS.baseFont = submitUiAsset(new Callable<Font>() {
+                    public Font call() {
+                        return detectBaseFont(lafFont);
+                    }
+                });
+            }
+            if (UI_ASSETS.buttonTexture == null) {
+                UI_ASSETS.buttonTexture = submitUiAsset(new Callable<BufferedImage>() {
+                    public BufferedImage call() {
+                        return loadButtonTexture();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Queues the window icons and, for a non-null {@code minecraftDir}, the launcher logo.
+     * Icons are looked up in INSTANCE_DIR, so call this once it has been set.
+     */
+    private static void startUiImageLoading(final Path minecraftDir) {
+        synchronized (UI_ASSETS) {
+            if (UI_ASSETS.appIcons == null) {
+                UI_ASSETS.appIcons = submitUiAsset(new Callable<List<Image>>() {
+                    public List<Image> call() {
+                        LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "loadAppIcons");
+                        try {
+                            return Collections.unmodifiableList(loadAppIcons());
+                        } finally {
+                            span.end();
+                        }
+                    }
+                });
+            }
+            if (UI_ASSETS.logo == null && minecraftDir != null) {
+                UI_ASSETS.logoMinecraftDir = minecraftDir;
+                UI_ASSETS.logo = submitUiAsset(new Callable<Image>() {
+                    public Image call() {
+                        LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "loadLauncherLogoImage");
+                        try {
+                            return loadLauncherLogoImage(minecraftDir);
+                        } finally {
+                            span.end();
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /** Caller holds the UI_ASSETS lock. */
+    private static <T> Future<T> submitUiAsset(Callable<T> task) {
+        if (UI_ASSETS.pool == null) {
+            UI_ASSETS.pool = LauncherRuntime.newWorkerPool("ModUpdater-Assets", UI_ASSET_THREADS);
+        }
+        return UI_ASSETS.pool.submit(task);
+    }
+
+    /** The asset-ready barrier: blocks until everything queued so far has loaded (or failed). */
+    private static void awaitUiAssets() {
+        LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "awaitUiAssets");
+        try {
+            uiBaseFont(null);
+            buttonTexture();
+            appIcons();
+            synchronized (UI_ASSETS) {
+                if (UI_ASSETS.logo == null) return;
+            }
+            uiAssetResult(UI_ASSETS.logo);
+        } finally {
+            span.end();
+        }
+    }
+
+    /** Base font for UI elements (the game font when available), or {@code fallback}. */
+    private static Font uiBaseFont(Font fallback) {
+        startUiAssetLoading();
+        Font f = uiAssetResult(UI_ASSETS.baseFont);
+        return f != null ? f : fallback;
+    }
+
+    /** Texture for classic Minecraft-style buttons (normal, hover and pressed states), or null. */
+    private static BufferedImage buttonTexture() {
+        startUiAssetLoading();
+        return uiAssetResult(UI_ASSETS.buttonTexture);
+    }
+
+    /** Window icons in several sizes; empty when none were found. Shared, so read-only. */
+    private static List<Image> appIcons() {
+        startUiImageLoading(null);
+        List<Image> icons = uiAssetResult(UI_ASSETS.appIcons);
+        return icons != null ? icons : Collections.<Image>emptyList();
+    }
+
+    private static Image launcherLogo(Path minecraftDir) {
+        Future<Image> queued;
+        synchronized (UI_ASSETS) {
+            queued = minecraftDir != null && minecraftDir.equals(UI_ASSETS.logoMinecraftDir) ? UI_ASSETS.logo : null;
+        }
+        return queued != null ? uiAssetResult(queued) : loadLauncherLogoImage(minecraftDir);
+    }
+
+    /** A loader failure only costs the asset, so it reads as missing like it did when loaded inline. */
+    private static <T> T uiAssetResult(Future<T> future) {
+        try {
+            return awaitTaskResult(future);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception ex) {
+            System.err.println("[mod-updater] Failed to load UI asset: " + ex);
+            return null;
+        }
     }
 
     private static List<Image> loadAppIcons() {
@@ -4466,12 +8547,16 @@ public final class ModUpdaterGUI {
     }
 
     private static BufferedImage loadButtonTexture() {
+        LauncherTrace.Span span = LauncherTrace.begin(LauncherTrace.PHASE, "loadButtonTexture");
         try {
             Path p = findButtonPath();
             if (p != null && Files.isRegularFile(p)) {
                 return ImageIO.read(p.toFile());
             }
-        } catch (Exception ignored) {}
+        } catch (Exception ignored) {
+        } finally {
+            span.end();
+        }
         return null;
     }
 
@@ -4549,7 +8634,7 @@ public final class ModUpdaterGUI {
         public void setPixelScale(int k) { this.pixelScale = Math.max(1, k); revalidate(); repaint(); }
         protected void paintComponent(Graphics g0) {
             Graphics2D g = (Graphics2D) g0;
-            Font base = UI_BASE_FONT != null ? UI_BASE_FONT : getFont();
+            Font base = uiBaseFont(getFont());
             Font f = base.deriveFont(bold ? Font.BOLD : Font.PLAIN, basePt);
             BufferedImage img = renderTextRaster(text, f, getForeground() != null ? getForeground() : new Color(202,202,202));
             int iw = img.getWidth(), ih = img.getHeight();
@@ -4564,7 +8649,7 @@ public final class ModUpdaterGUI {
             if (oldI != null) g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldI);
         }
         public Dimension getPreferredSize() {
-            Font base = UI_BASE_FONT != null ? UI_BASE_FONT : getFont();
+            Font base = uiBaseFont(getFont());
             Font f = base.deriveFont(bold ? Font.BOLD : Font.PLAIN, basePt);
             java.awt.font.FontRenderContext frc = new java.awt.font.FontRenderContext(null, false, false);
             java.awt.geom.Rectangle2D b = f.getStringBounds(text, frc);
@@ -4592,10 +8677,11 @@ public final class ModUpdaterGUI {
             } catch (Exception ignored) {}
 
             // Draw background using button.png if available
-            if (BUTTON_TEXTURE != null) {
+            BufferedImage texture = buttonTexture();
+            if (texture != null) {
                 Object oldI = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
                 g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-                g.drawImage(BUTTON_TEXTURE, 0, 0, getWidth(), getHeight(), null);
+                g.drawImage(texture, 0, 0, getWidth(), getHeight(), null);
                 if (oldI != null) g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldI);
             } else {
                 // Fallback flat style
@@ -4609,7 +8695,7 @@ public final class ModUpdaterGUI {
             String txt = getText();
             float basePt = 16f;
             try { if (getFont() != null) basePt = (float) getFont().getSize2D(); } catch (Exception ignored) {}
-            Font font = (UI_BASE_FONT != null ? UI_BASE_FONT : getFont()).deriveFont(Font.PLAIN, basePt);
+            Font font = uiBaseFont(getFont()).deriveFont(Font.PLAIN, basePt);
             // Button text: pure black, no shadow
             BufferedImage ras = renderTextRaster(txt, font, Color.BLACK);
             int iw = ras.getWidth(), ih = ras.getHeight();
@@ -4686,7 +8772,7 @@ public final class ModUpdaterGUI {
 
             // Text
             String txt = getText();
-            Font f = (UI_BASE_FONT != null ? UI_BASE_FONT : getFont());
+            Font f = uiBaseFont(getFont());
             g.setFont(f.deriveFont(Font.PLAIN, 13f));
             g.setColor(Color.BLACK);
             FontMetrics fm = g.getFontMetrics();
@@ -0,0 +1,273 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Build-time check for the hedged GET behind the resource pack archive download,
+// run by the build scripts against two local stand-in servers:
+//
+//   java -cp out:out-check HedgedConnectionCheck
+//
+// ModUpdaterGUI.openHedgedConnection is private, so it is reached by reflection.
+// A mirror that holds back its first byte must get a second request only once
+// hedgeDelayMs() has passed, the mirror that answers at once must win, and the
+// slow one must be disconnected. When no mirror ever completes its headers the
+// call must give up and disconnect all of them. Exits with status 1 when any
+// check fails.
+final class HedgedConnectionCheck {
+
+    private static final byte[] FAST_BODY = "fast mirror body".getBytes(StandardCharsets.UTF_8);
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Class<?> gui = Class.forName("ModUpdaterGUI");
+        Path dataDir = Files.createTempDirectory("hedge-check");
+        // Mirror statistics go to a scratch directory, not next to the build
+        setStatic(gui, "LAUNCHER_DATA_DIR", dataDir);
+        // First-byte history of 100 ms puts the hedge delay at its 250-300 ms floor
+        setStatic(gui, "HEDGE_FIRST_BYTE_EWMA_MS", Double.valueOf(100.0));
+        try {
+            checkFastMirrorWins(gui);
+            checkTimeoutDisconnectsAll(gui);
+        } finally {
+            deleteTree(dataDir);
+        }
+
+        if (failures > 0) {
+            System.err.println("HedgedConnectionCheck: " + failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("HedgedConnectionCheck: all checks passed");
+    }
+
+    /** Slow mirror first, fast mirror second: the fast one wins and the slow one is dropped. */
+    private static void checkFastMirrorWins(Class<?> gui) throws Exception {
+        final AtomicLong slowArrived = new AtomicLong();
+        final AtomicLong fastArrived = new AtomicLong();
+        final CountDownLatch slowDropped = new CountDownLatch(1);
+        HttpServer slow = startServer(new HttpHandler() {
+            public void handle(HttpExchange ex) throws IOException {
+                slowArrived.set(System.nanoTime());
+                ex.sendResponseHeaders(200, 0);
+                OutputStream out = ex.getResponseBody();
+                try {
+                    // Headers now, body only after 3 s; then keep writing until the client is gone
+                    sleep(3000L);
+                    byte[] chunk = new byte[8192];
+                    for (int i = 0; i < 100; i++) {
+                        out.write(chunk);
+                        out.flush();
+                        sleep(50L);
+                    }
+                } catch (IOException gone) {
+                    slowDropped.countDown();
+                } finally {
+                    ex.close();
+                }
+            }
+        });
+        HttpServer fast = startServer(new HttpHandler() {
+            public void handle(HttpExchange ex) throws IOException {
+                fastArrived.set(System.nanoTime());
+                ex.sendResponseHeaders(200, FAST_BODY.length);
+                ex.getResponseBody().write(FAST_BODY);
+                ex.close();
+            }
+        });
+        try {
+            long delayMs = ((Long) call(gui, "hedgeDelayMs", new Class<?>[0])).longValue();
+            List<String> urls = Arrays.asList(urlOf(slow, "/slow.zip"), urlOf(fast, "/fast.zip"));
+            long start = System.nanoTime();
+            Object winner = call(gui, "openHedgedConnection", new Class<?>[] { List.class, int.class }, urls, Integer.valueOf(10000));
+            long returnedMs = (System.nanoTime() - start) / 1000000L;
+
+            expect("first request goes to the first mirror", Boolean.TRUE, Boolean.valueOf(slowArrived.get() != 0L));
+            long hedgedAfterMs = (fastArrived.get() - start) / 1000000L;
+            if (fastArrived.get() == 0L || hedgedAfterMs < delayMs) {
+                fail("second request started after " + hedgedAfterMs + " ms, before the " + delayMs + " ms hedge delay");
+            }
+            expect("winner index", Integer.valueOf(1), field(winner, "index"));
+            InputStream in = (InputStream) field(winner, "in");
+            expect("winner body", new String(FAST_BODY, StandardCharsets.UTF_8), new String(readAll(in), StandardCharsets.UTF_8));
+            ((HttpURLConnection) field(winner, "conn")).disconnect();
+            if (returnedMs >= 3000L) {
+                fail("hedged request returned after " + returnedMs + " ms, not before the slow mirror's first byte");
+            }
+            if (!slowDropped.await(5, TimeUnit.SECONDS)) {
+                fail("slow mirror still connected 5 s after losing");
+            }
+            System.out.println("HedgedConnectionCheck: hedge delay " + delayMs + " ms, second request after " + hedgedAfterMs
+                    + " ms, fast mirror won after " + returnedMs + " ms");
+        } finally {
+            slow.stop(0);
+            fast.stop(0);
+        }
+    }
+
+    /**
+     * Mirrors that trickle header lines forever keep every read timeout from firing,
+     * so only the overall deadline ends the call; both connections must be closed then.
+     */
+    private static void checkTimeoutDisconnectsAll(Class<?> gui) throws Exception {
+        final CountDownLatch dropped = new CountDownLatch(2);
+        ServerSocket first = startTrickleServer(dropped);
+        ServerSocket second = startTrickleServer(dropped);
+        try {
+            List<String> urls = Arrays.asList(trickleUrl(first), trickleUrl(second));
+            long start = System.nanoTime();
+            try {
+                call(gui, "openHedgedConnection", new Class<?>[] { List.class, int.class }, urls, Integer.valueOf(400));
+                fail("no response: openHedgedConnection returned instead of throwing");
+            } catch (IOException expected) {
+                expect("no response: message", Boolean.TRUE, Boolean.valueOf(String.valueOf(expected.getMessage()).startsWith("No response within")));
+            }
+            long gaveUpMs = (System.nanoTime() - start) / 1000000L;
+            if (dropped.await(5, TimeUnit.SECONDS)) {
+                System.out.println("HedgedConnectionCheck: gave up on trickling mirrors after " + gaveUpMs + " ms, both disconnected");
+            } else {
+                fail("no response: " + dropped.getCount() + " mirror(s) still connected 5 s after giving up");
+            }
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    private static HttpServer startServer(HttpHandler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", handler);
+        // Daemon handler threads, so a handler still sleeping does not keep the JVM alive
+        server.setExecutor(Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "HedgedConnectionCheck-Server");
+                t.setDaemon(true);
+                return t;
+            }
+        }));
+        server.start();
+        return server;
+    }
+
+    private static String urlOf(HttpServer server, String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    /** Accepts connections and writes one header line every 100 ms until the write fails. */
+    private static ServerSocket startTrickleServer(final CountDownLatch dropped) throws IOException {
+        final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    final Socket s = server.accept();
+                    OutputStream out = s.getOutputStream();
+                    try {
+                        out.write("HTTP/1.1 200 OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                        for (int i = 0; i < 300; i++) {
+                            out.write("X-Pad: 0\r\n".getBytes(StandardCharsets.US_ASCII));
+                            out.flush();
+                            sleep(100L);
+                        }
+                    } catch (IOException gone) {
+                        dropped.countDown();
+                    } finally {
+                        s.close();
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        }, "HedgedConnectionCheck-Trickle");
+        t.setDaemon(true);
+        t.start();
+        return server;
+    }
+
+    private static String trickleUrl(ServerSocket server) {
+        return "http://127.0.0.1:" + server.getLocalPort() + "/archive.zip";
+    }
+
+    private static Object call(Class<?> owner, String name, Class<?>[] types, Object... args) throws Exception {
+        Method m = owner.getDeclaredMethod(name, types);
+        m.setAccessible(true);
+        try {
+            return m.invoke(null, args);
+        } catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
+    }
+
+    private static void setStatic(Class<?> owner, String name, Object value) throws Exception {
+        Field f = owner.getDeclaredField(name);
+        f.setAccessible(true);
+        f.set(null, value);
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(target);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteTree(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                for (Path child : children) deleteTree(child);
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private static void expect(String what, Object expected, Object actual) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            fail(what + ": expected <" + expected + "> but got <" + actual + ">");
+        }
+    }
+
+    private static void fail(String message) {
+        failures++;
+        System.err.println("FAIL " + message);
+    }
+}
@@ -0,0 +1,333 @@
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Build-time check for JsonPullReader and the release / git tree readers built on
+// it, run by the build scripts against the GitHub API payloads saved in
+// src/check/data:
+//
+//   java -cp out:out-check JsonPullReaderCheck src/check/data [--bench]
+//
+// The readers are private to ModUpdater and ModUpdaterGUI, so they are reached by
+// reflection. With --bench the streaming release reader is also timed against the
+// regex parser it replaced, which is kept below as RegexReleaseParser. Exits with
+// status 1 when any check fails.
+final class JsonPullReaderCheck {
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dataDir = Paths.get("src", "check", "data");
+        boolean bench = false;
+        for (String arg : args) {
+            if ("--bench".equals(arg)) bench = true;
+            else dataDir = Paths.get(arg);
+        }
+        byte[] latest = Files.readAllBytes(dataDir.resolve("release-latest.json"));
+        byte[] releases = Files.readAllBytes(dataDir.resolve("releases.json"));
+        byte[] tree = Files.readAllBytes(dataDir.resolve("tree.json"));
+
+        checkReader();
+        for (String owner : new String[] { "ModUpdater", "ModUpdaterGUI" }) {
+            checkRelease(owner, "release-latest.json", readRelease(owner, latest));
+            checkRelease(owner, "releases.json", readRelease(owner, releases));
+            // Only the first element is read, so a page cut off after it still parses
+            String text = new String(releases, StandardCharsets.UTF_8);
+            byte[] cut = text.substring(0, text.indexOf("\"v2.4.0\"")).getBytes(StandardCharsets.UTF_8);
+            checkRelease(owner, "releases.json (truncated)", readRelease(owner, cut));
+            Object empty = readRelease(owner, "[]".getBytes(StandardCharsets.UTF_8));
+            expect(owner + " []: tag", null, field(empty, "tag"));
+            expect(owner + " []: assets", Integer.valueOf(0), Integer.valueOf(((List<?>) field(empty, "assets")).size()));
+        }
+        checkTree(tree);
+
+        if (failures > 0) {
+            System.err.println("JsonPullReaderCheck: " + failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("JsonPullReaderCheck: all checks passed");
+        if (bench) {
+            benchmark(latest, releases);
+        }
+    }
+
+    private static void checkReader() throws IOException {
+        String json = "{\"a\": \"x\\u0041\\n\\\"q\\\"\", \"skip\": [1, {\"c\": \"]}\\\\\"}, [true]], \"n\": -12,"
+                + " \"t\": true, \"missing\": null, \"s\": \"v\"}";
+        JsonPullReader r = reader(json);
+        r.beginObject();
+        expect("reader: name", "a", r.nextName());
+        expect("reader: escapes", "xA\n\"q\"", r.nextString());
+        expect("reader: name before skip", "skip", r.nextName());
+        r.skipValue();
+        expect("reader: name after skip", "n", r.nextName());
+        expect("reader: long", Long.valueOf(-12L), Long.valueOf(r.nextLong(0L)));
+        r.nextName();
+        expect("reader: boolean", Boolean.TRUE, Boolean.valueOf(r.nextBoolean(false)));
+        r.nextName();
+        expect("reader: null long", Long.valueOf(7L), Long.valueOf(r.nextLong(7L)));
+        r.nextName();
+        expect("reader: string", "v", r.nextStringOrNull());
+        expect("reader: hasNext at end", Boolean.FALSE, Boolean.valueOf(r.hasNext()));
+        r.endObject();
+        expect("reader: end of input", Integer.valueOf(-1), Integer.valueOf(r.peek()));
+
+        try {
+            reader("\"unterminated").nextString();
+            fail("reader: unterminated string was accepted");
+        } catch (EOFException expected) {
+            // expected
+        }
+        try {
+            reader("[1]").beginObject();
+            fail("reader: '[' was accepted as '{'");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    private static void checkRelease(String owner, String source, Object release) throws Exception {
+        String label = owner + " " + source + ": ";
+        expect(label + "tag", "v2.4.1", field(release, "tag"));
+        if ("ModUpdaterGUI".equals(owner)) {
+            // A top-level match only: the author and uploader names come first
+            expect(label + "name", "Modpack 2.4.1", field(release, "name"));
+            String body = (String) field(release, "body");
+            expect(label + "body escapes", Boolean.TRUE, Boolean.valueOf(body != null
+                    && body.contains("Fixed \"name\": \"not-a-release\"") && body.contains("C:\\Games") && body.endsWith("tab:\tdone \u2713")));
+            expect(label + "zipball", "https://api.github.com/repos/example/modpack/zipball/v2.4.1", field(release, "zipballUrl"));
+        }
+        List<?> assets = (List<?>) field(release, "assets");
+        expect(label + "asset count", Integer.valueOf(3), Integer.valueOf(assets.size()));
+        if (assets.size() != 3) return;
+        Object jar = assets.get(0);
+        expect(label + "asset name", "patch.jar", field(jar, "name"));
+        expect(label + "asset url", "https://github.com/example/modpack/releases/download/v2.4.1/patch.jar", field(jar, "url"));
+        expect(label + "asset size", Long.valueOf(48213377L), field(jar, "size"));
+        expect(label + "asset digest", "sha256:6f1ed002ab5595859014ebf0951522d9a6b5a3f1c1f3bf8c3e4a2a1f0d9c8b7a", field(jar, "digest"));
+        expect(label + "asset updated_at", "2026-09-30T18:14:55Z", field(jar, "updatedAt"));
+        expect(label + "checksum sidecar", field(assets.get(1), "url"), field(jar, "checksumUrl"));
+        expect(label + "null digest", null, field(assets.get(1), "digest"));
+        expect(label + "unicode name", "lan-server-\u00e9dition.jar", field(assets.get(2), "name"));
+    }
+
+    private static void checkTree(byte[] json) throws Exception {
+        Object tree = invoke("ModUpdaterGUI", "readResourceTree", new ByteArrayInputStream(json));
+        expect("tree: truncated", Boolean.FALSE, field(tree, "truncated"));
+        List<?> blobs = (List<?>) field(tree, "blobs");
+        List<String> paths = new ArrayList<String>();
+        for (Object blob : blobs) paths.add((String) field(blob, "path"));
+        // Subtrees, submodules and files outside assets/ are left out
+        expect("tree: blob paths", "[assets/minecraft/lang/en_us.json, assets/minecraft/textures/block/stone [hd].png, assets/modid/sounds.json]",
+                paths.toString());
+        if (blobs.size() == 3) {
+            expect("tree: sha", "3b18e512dba79e4c8300dd08aeb37f8e728b8dad", field(blobs.get(1), "sha"));
+            expect("tree: size", Long.valueOf(18234L), field(blobs.get(1), "size"));
+            expect("tree: empty blob size", Long.valueOf(0L), field(blobs.get(0), "size"));
+        }
+        String truncated = new String(json, StandardCharsets.UTF_8).replace("\"truncated\": false", "\"truncated\": true");
+        Object partial = invoke("ModUpdaterGUI", "readResourceTree", new ByteArrayInputStream(truncated.getBytes(StandardCharsets.UTF_8)));
+        expect("tree: truncated flag", Boolean.TRUE, field(partial, "truncated"));
+    }
+
+    private static void benchmark(byte[] latest, byte[] releases) throws Exception {
+        // A full /releases page: 30 releases, of which only the first is wanted
+        String one = new String(latest, StandardCharsets.UTF_8).trim();
+        StringBuilder page = new StringBuilder("[");
+        for (int i = 0; i < 30; i++) page.append(i == 0 ? "" : ",\n").append(one);
+        byte[] fullPage = page.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        Method stream = Class.forName("ModUpdater").getDeclaredMethod("readRelease", InputStream.class);
+        stream.setAccessible(true);
+        System.out.println("Release parsing, microseconds per payload (lower is better):");
+        System.out.println(String.format("  %-28s %10s %10s", "payload", "regex", "streaming"));
+        benchmarkPayload("release-latest.json", latest, false, stream);
+        benchmarkPayload("releases.json", releases, true, stream);
+        benchmarkPayload("/releases page (30 items)", fullPage, true, stream);
+    }
+
+    private static void benchmarkPayload(String label, byte[] payload, boolean array, Method stream) throws Exception {
+        double regex = 0.0;
+        double streaming = 0.0;
+        // Alternate rounds so JIT warm-up and GC noise hit both parsers alike
+        for (int round = 0; round < 4; round++) {
+            regex = timeRegex(payload, array);
+            streaming = timeStreaming(payload, stream);
+        }
+        System.out.println(String.format("  %-28s %10.1f %10.1f", label, regex, streaming));
+    }
+
+    private static double timeRegex(byte[] payload, boolean array) {
+        int sink = 0;
+        int iterations = 0;
+        long start = System.nanoTime();
+        long deadline = start + 250000000L;
+        do {
+            // The old path read the whole body into a String first
+            String json = new String(payload, StandardCharsets.UTF_8);
+            List<String[]> assets = array ? RegexReleaseParser.parseFirstReleaseFromArray(json) : RegexReleaseParser.parseLatestRelease(json);
+            sink += assets.size();
+            iterations++;
+        } while (System.nanoTime() < deadline);
+        if (sink < 0) System.out.print("");
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private static double timeStreaming(byte[] payload, Method stream) throws Exception {
+        int sink = 0;
+        int iterations = 0;
+        long start = System.nanoTime();
+        long deadline = start + 250000000L;
+        do {
+            Object release = stream.invoke(null, new ByteArrayInputStream(payload));
+            sink += release.hashCode() & 1;
+            iterations++;
+        } while (System.nanoTime() < deadline);
+        if (sink < 0) System.out.print("");
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private static Object readRelease(String owner, byte[] json) throws Exception {
+        return invoke(owner, "readRelease", new ByteArrayInputStream(json));
+    }
+
+    private static Object invoke(String className, String method, InputStream in) throws Exception {
+        Method m = Class.forName(className).getDeclaredMethod(method, InputStream.class);
+        m.setAccessible(true);
+        try {
+            return m.invoke(null, in);
+        } catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(target);
+    }
+
+    private static JsonPullReader reader(String json) {
+        return new JsonPullReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void expect(String what, Object expected, Object actual) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            fail(what + ": expected <" + expected + "> but got <" + actual + ">");
+        }
+    }
+
+    private static void fail(String message) {
+        failures++;
+        System.err.println("FAIL " + message);
+    }
+
+    /** The regex release parser ModUpdater used before JsonPullReader; assets are {name, url} pairs. */
+    private static final class RegexReleaseParser {
+
+        static List<String[]> parseFirstReleaseFromArray(String json) {
+            int start = json.indexOf('[');
+            if (start < 0) return parseLatestRelease(json);
+            int braceStart = json.indexOf('{', start);
+            if (braceStart < 0) return new ArrayList<String[]>();
+            int depth = 0;
+            int braceEnd = -1;
+            for (int i = braceStart; i < json.length(); i++) {
+                char c = json.charAt(i);
+                if (c == '{') depth++;
+                else if (c == '}') {
+                    depth--;
+                    if (depth == 0) {
+                        braceEnd = i;
+                        break;
+                    }
+                }
+            }
+            if (braceEnd < 0) return new ArrayList<String[]>();
+            return parseLatestRelease(json.substring(braceStart, braceEnd + 1));
+        }
+
+        static List<String[]> parseLatestRelease(String json) {
+            String tag = extractString(json, "\"tag_name\"\\s*:\\s*\"(.*?)\"");
+            List<String[]> assets = extractAssets(json);
+            if (tag == null) assets.clear();
+            return assets;
+        }
+
+        private static String extractString(String text, String regex) {
+            Matcher m = Pattern.compile(regex, Pattern.DOTALL).matcher(text);
+            if (m.find()) return unescapeJson(m.group(1));
+            return null;
+        }
+
+        private static List<String[]> extractAssets(String json) {
+            List<String[]> list = new ArrayList<String[]>();
+            int idx = json.indexOf("\"assets\"");
+            if (idx < 0) return list;
+            int startArray = json.indexOf('[', idx);
+            if (startArray < 0) return list;
+            int endArray = findMatchingBracket(json, startArray);
+            if (endArray < 0) return list;
+            String assetsArray = json.substring(startArray + 1, endArray);
+            Matcher m = Pattern.compile("\\{(.*?)\\}", Pattern.DOTALL).matcher(assetsArray);
+            while (m.find()) {
+                String obj = m.group(1);
+                String name = extractString(obj, "\"name\"\\s*:\\s*\"(.*?)\"");
+                String url = extractString(obj, "\"browser_download_url\"\\s*:\\s*\"(.*?)\"");
+                if (name != null && url != null) list.add(new String[] { name, url });
+            }
+            return list;
+        }
+
+        private static int findMatchingBracket(String s, int openIdx) {
+            int depth = 0;
+            for (int i = openIdx; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '[') depth++;
+                else if (c == ']') {
+                    depth--;
+                    if (depth == 0) return i;
+                }
+            }
+            return -1;
+        }
+
+        private static String unescapeJson(String s) {
+            StringBuilder out = new StringBuilder(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '\\' && i + 1 < s.length()) {
+                    char n = s.charAt(i + 1);
+                    if (n == '"' || n == '\\' || n == '/') { out.append(n); i++; }
+                    else if (n == 'b') { out.append('\b'); i++; }
+                    else if (n == 'f') { out.append('\f'); i++; }
+                    else if (n == 'n') { out.append('\n'); i++; }
+                    else if (n == 'r') { out.append('\r'); i++; }
+                    else if (n == 't') { out.append('\t'); i++; }
+                    else if (n == 'u' && i + 5 < s.length()) {
+                        try { out.append((char) Integer.parseInt(s.substring(i + 2, i + 6), 16)); }
+                        catch (NumberFormatException ignored) { out.append('?'); }
+                        i += 5;
+                    } else { out.append(n); i++; }
+                } else {
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+    }
+}
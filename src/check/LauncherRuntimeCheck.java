@@ -0,0 +1,74 @@
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Build-time check for the multi-release GUI jar, run by the build scripts once
+// mod-updater-gui.jar exists:
+//
+//   java -cp out-check LauncherRuntimeCheck mod-updater-gui.jar
+//
+// It loads LauncherRuntime from the jar alone, the way the launcher does, and
+// asserts that the JVM picked the copy meant for its feature version: java8 below
+// 11, java11 up to 20, java21 from 21 on. A worker from newWorkerPool must be a
+// virtual thread exactly when the java21 copy is in use. Exits with status 1 on
+// a mismatch.
+final class LauncherRuntimeCheck {
+
+    public static void main(String[] args) throws Exception {
+        File jar = new File(args.length > 0 ? args[0] : "mod-updater-gui.jar");
+        int feature = featureVersion();
+        String expected = feature >= 21 ? "java21" : feature >= 11 ? "java11" : "java8";
+
+        // Parent is the platform loader, so nothing comes from the class path (out/)
+        // and java.net.http is still visible on 11+
+        URLClassLoader loader = new URLClassLoader(new URL[] { jar.toURI().toURL() }, ClassLoader.getSystemClassLoader().getParent());
+        Class<?> runtime = Class.forName("LauncherRuntime", true, loader);
+        Method implementation = runtime.getDeclaredMethod("implementation");
+        implementation.setAccessible(true);
+        String actual = (String) implementation.invoke(null);
+
+        Method newWorkerPool = runtime.getDeclaredMethod("newWorkerPool", String.class, int.class);
+        newWorkerPool.setAccessible(true);
+        ExecutorService pool = (ExecutorService) newWorkerPool.invoke(null, "RuntimeCheck", Integer.valueOf(1));
+        Thread worker;
+        try {
+            Future<Thread> f = pool.submit(new Callable<Thread>() {
+                public Thread call() {
+                    return Thread.currentThread();
+                }
+            });
+            worker = f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        boolean virtual = isVirtual(worker);
+
+        String result = "Java " + feature + " loaded LauncherRuntime " + actual + " from " + jar + " (worker " + worker.getName()
+                + (virtual ? ", virtual)" : ")");
+        if (!actual.startsWith(expected + " ") || virtual != "java21".equals(expected)) {
+            System.err.println("LauncherRuntimeCheck: expected " + expected + ": " + result);
+            System.exit(1);
+        }
+        System.out.println("LauncherRuntimeCheck: " + result);
+        loader.close();
+    }
+
+    /** "1.8" -> 8, "17" -> 17. */
+    private static int featureVersion() {
+        String spec = System.getProperty("java.specification.version");
+        if (spec.startsWith("1.")) spec = spec.substring(2);
+        return Integer.parseInt(spec);
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        try {
+            return ((Boolean) Thread.class.getMethod("isVirtual").invoke(thread)).booleanValue();
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Build-time check for the per-file resource pack sync, run by the build scripts
+// against a local stand-in for the GitHub git tree API and raw file host:
+//
+//   java -cp out:out-check ResourceTreeSyncCheck
+//
+// ModUpdaterGUI.syncResourcePackFromTree is private, so it is reached by
+// reflection, with RESOURCE_API_BASE and RESOURCE_RAW_BASE pointed at the stand-in.
+// After a first sync into an empty resources dir, a second commit that changes one
+// blob must fetch exactly that file, with exactly its byte count; an unchanged
+// commit must fetch nothing. Exits with status 1 when any check fails.
+final class ResourceTreeSyncCheck {
+
+    private static final String REPO = "example/pack";
+    private static final String COMMIT_1 = "1111111111111111111111111111111111111111";
+    private static final String COMMIT_2 = "2222222222222222222222222222222222222222";
+
+    private static int failures;
+
+    /** Commit -> (path -> content) served by the stand-in. */
+    private static final Map<String, Map<String, byte[]>> COMMITS = new LinkedHashMap<String, Map<String, byte[]>>();
+    /** Raw file requests seen since the last reset, as "path:bytes". */
+    private static final List<String> FETCHES = new ArrayList<String>();
+    private static int treeRequests;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, byte[]> first = new LinkedHashMap<String, byte[]>();
+        first.put("assets/minecraft/lang/en_us.json", bytes("{\"menu.play\":\"Play\"}"));
+        first.put("assets/minecraft/textures/block/stone.png", filler(4096, 1));
+        first.put("assets/minecraft/textures/block/dirt.png", filler(2500, 2));
+        first.put("assets/minecraft/sounds/dig/stone 1.ogg", filler(777, 3));
+        Map<String, byte[]> second = new LinkedHashMap<String, byte[]>(first);
+        second.put("assets/minecraft/textures/block/dirt.png", filler(3123, 4));
+        COMMITS.put(COMMIT_1, first);
+        COMMITS.put(COMMIT_2, second);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/", new HttpHandler() {
+            public void handle(HttpExchange ex) throws IOException {
+                serveTree(ex);
+            }
+        });
+        server.createContext("/raw/", new HttpHandler() {
+            public void handle(HttpExchange ex) throws IOException {
+                serveRaw(ex);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ResourceTreeSyncCheck-Server");
+                t.setDaemon(true);
+                return t;
+            }
+        }));
+        server.start();
+
+        Class<?> gui = Class.forName("ModUpdaterGUI");
+        Path root = Files.createTempDirectory("tree-sync-check");
+        try {
+            String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            setStatic(gui, "RESOURCE_API_BASE", base + "/api");
+            setStatic(gui, "RESOURCE_RAW_BASE", base + "/raw");
+            setStatic(gui, "LAUNCHER_DATA_DIR", root.resolve("data"));
+            Path resourcesDir = root.resolve("resources");
+            Files.createDirectories(resourcesDir);
+
+            // First sync: every file is missing
+            Object result = sync(gui, COMMIT_1, resourcesDir, "SMART");
+            expect("first sync: success", Boolean.TRUE, field(result, "success"));
+            expect("first sync: files fetched", Integer.valueOf(first.size()), Integer.valueOf(FETCHES.size()));
+            expectTree("first sync", resourcesDir, first);
+
+            // Same commit again: nothing to fetch
+            reset();
+            result = sync(gui, COMMIT_1, resourcesDir, "FULL");
+            expect("unchanged commit: success", Boolean.TRUE, field(result, "success"));
+            expect("unchanged commit: fetches", "[]", FETCHES.toString());
+
+            // One blob changed: only that file, only its bytes
+            reset();
+            result = sync(gui, COMMIT_2, resourcesDir, "FULL");
+            String changed = "assets/minecraft/textures/block/dirt.png";
+            int changedBytes = second.get(changed).length;
+            expect("one changed blob: success", Boolean.TRUE, field(result, "success"));
+            expect("one changed blob: tree requests", Integer.valueOf(1), Integer.valueOf(treeRequests));
+            expect("one changed blob: fetches", "[" + changed + ":" + changedBytes + "]", FETCHES.toString());
+            expect("one changed blob: copied files", Integer.valueOf(1), field(result, "copiedFiles"));
+            List<?> attempts = (List<?>) field(result, "attempts");
+            String last = attempts.isEmpty() ? "" : String.valueOf(attempts.get(attempts.size() - 1));
+            expect("one changed blob: reported", Boolean.TRUE, Boolean.valueOf(last.endsWith("OK (1 files, " + changedBytes + " bytes)")));
+            expectTree("one changed blob", resourcesDir, second);
+            System.out.println("ResourceTreeSyncCheck: changed blob fetched alone (" + changedBytes + " bytes of "
+                    + totalBytes(second) + " in the tree)");
+        } finally {
+            server.stop(0);
+            deleteTree(root);
+        }
+
+        if (failures > 0) {
+            System.err.println("ResourceTreeSyncCheck: " + failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("ResourceTreeSyncCheck: all checks passed");
+    }
+
+    private static Object sync(Class<?> gui, String commit, Path resourcesDir, String mode) throws Exception {
+        Class<?> headClass = Class.forName("ModUpdaterGUI$ResourcePackHead");
+        Constructor<?> newHead = headClass.getDeclaredConstructor(Path.class, Properties.class, String.class);
+        newHead.setAccessible(true);
+        Object head = newHead.newInstance(resourcesDir.resolveSibling("state.properties"), new Properties(), "check");
+        setField(head, "sha", commit);
+
+        Class<?> resultClass = Class.forName("ModUpdaterGUI$ResourceSyncResult");
+        Constructor<?> newResult = resultClass.getDeclaredConstructor();
+        newResult.setAccessible(true);
+        Object result = newResult.newInstance();
+        Class<?> modeClass = Class.forName("ModUpdaterGUI$ResourceSyncMode");
+        for (Object constant : modeClass.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(mode)) setField(result, "mode", constant);
+        }
+
+        Method m = gui.getDeclaredMethod("syncResourcePackFromTree", String.class, String.class, headClass, Path.class, resultClass);
+        m.setAccessible(true);
+        try {
+            m.invoke(null, REPO, "main", head, resourcesDir, result);
+        } catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
+        return result;
+    }
+
+    /** GET /api/repos/{repo}/git/trees/{commit}?recursive=1 */
+    private static void serveTree(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String prefix = "/api/repos/" + REPO + "/git/trees/";
+        Map<String, byte[]> files = path.startsWith(prefix) ? COMMITS.get(path.substring(prefix.length())) : null;
+        if (files == null) {
+            respond(ex, 404, bytes("{\"message\":\"Not Found\"}"));
+            return;
+        }
+        synchronized (ResourceTreeSyncCheck.class) {
+            treeRequests++;
+        }
+        StringBuilder json = new StringBuilder("{\"sha\":\"tree\",\"tree\":[");
+        json.append("{\"path\":\"assets\",\"mode\":\"040000\",\"type\":\"tree\",\"sha\":\"").append(gitBlobSha1(new byte[0])).append("\"},");
+        json.append("{\"path\":\"README.md\",\"mode\":\"100644\",\"type\":\"blob\",\"sha\":\"").append(gitBlobSha1(bytes("x")))
+                .append("\",\"size\":1}");
+        for (Map.Entry<String, byte[]> e : files.entrySet()) {
+            json.append(",{\"path\":\"").append(e.getKey()).append("\",\"mode\":\"100644\",\"type\":\"blob\",\"sha\":\"")
+                    .append(gitBlobSha1(e.getValue())).append("\",\"size\":").append(e.getValue().length).append('}');
+        }
+        json.append("],\"truncated\":false}");
+        respond(ex, 200, bytes(json.toString()));
+    }
+
+    /** GET /raw/{repo}/{commit}/{path} */
+    private static void serveRaw(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String prefix = "/raw/" + REPO + "/";
+        byte[] body = null;
+        String file = null;
+        if (path.startsWith(prefix)) {
+            String rest = path.substring(prefix.length());
+            int slash = rest.indexOf('/');
+            Map<String, byte[]> files = slash > 0 ? COMMITS.get(rest.substring(0, slash)) : null;
+            file = slash > 0 ? rest.substring(slash + 1) : null;
+            body = files != null ? files.get(file) : null;
+        }
+        if (body == null) {
+            respond(ex, 404, bytes("404: Not Found"));
+            return;
+        }
+        synchronized (ResourceTreeSyncCheck.class) {
+            FETCHES.add(file + ":" + body.length);
+        }
+        respond(ex, 200, body);
+    }
+
+    private static void respond(HttpExchange ex, int code, byte[] body) throws IOException {
+        ex.sendResponseHeaders(code, body.length);
+        OutputStream out = ex.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    private static synchronized void reset() {
+        FETCHES.clear();
+        treeRequests = 0;
+    }
+
+    private static void expectTree(String what, Path resourcesDir, Map<String, byte[]> files) throws IOException {
+        for (Map.Entry<String, byte[]> e : files.entrySet()) {
+            Path file = resourcesDir.resolve(e.getKey());
+            if (!Files.isRegularFile(file)) {
+                fail(what + ": missing " + e.getKey());
+            } else if (!Arrays.equals(e.getValue(), Files.readAllBytes(file))) {
+                fail(what + ": wrong content in " + e.getKey());
+            }
+        }
+    }
+
+    private static String gitBlobSha1(byte[] content) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            sha1.update(bytes("blob " + content.length + "\0"));
+            sha1.update(content);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : sha1.digest()) hex.append(String.format("%02x", Integer.valueOf(b & 0xff)));
+            return hex.toString();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static byte[] filler(int length, int seed) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) b[i] = (byte) (i * 31 + seed);
+        return b;
+    }
+
+    private static long totalBytes(Map<String, byte[]> files) {
+        long total = 0L;
+        for (byte[] b : files.values()) total += b.length;
+        return total;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void setStatic(Class<?> owner, String name, Object value) throws Exception {
+        Field f = owner.getDeclaredField(name);
+        f.setAccessible(true);
+        f.set(null, value);
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(target);
+    }
+
+    private static void deleteTree(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                for (Path child : children) deleteTree(child);
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private static void expect(String what, Object expected, Object actual) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            fail(what + ": expected <" + expected + "> but got <" + actual + ">");
+        }
+    }
+
+    private static void fail(String message) {
+        failures++;
+        System.err.println("FAIL " + message);
+    }
+}
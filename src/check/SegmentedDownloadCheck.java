@@ -0,0 +1,351 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Build-time check for the segmented download behind large release assets, run by
+// the build scripts against a local stand-in server that caps the throughput of
+// each connection, the way release CDNs do:
+//
+//   java -cp out:out-check SegmentedDownloadCheck [--bench [connections]]
+//
+// ModUpdaterGUI.downloadResumable and transferSegmented are private, so they are
+// reached by reflection. With DOWNLOAD_CONNECTIONS above 1 the file must arrive
+// intact over parallel Range requests that cover it exactly once; a server that
+// answers 200 to Range must leave no .part behind and the download must finish over
+// a single stream. With --bench, DOWNLOAD_CONNECTIONS=1 is timed against N (default
+// 4) on a slower per-connection cap. Exits with status 1 when any check fails.
+final class SegmentedDownloadCheck {
+
+    private static final int FILE_BYTES = 8 * 1024 * 1024;
+    private static final String ETAG = "\"segmented-check-1\"";
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        boolean bench = false;
+        int benchConnections = 4;
+        for (int i = 0; i < args.length; i++) {
+            if ("--bench".equals(args[i])) {
+                bench = true;
+                if (i + 1 < args.length && args[i + 1].matches("\\d+")) benchConnections = Integer.parseInt(args[++i]);
+            }
+        }
+        byte[] content = new byte[FILE_BYTES];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) (i * 131 + (i >>> 13));
+
+        Class<?> gui = Class.forName("ModUpdaterGUI");
+        Path root = Files.createTempDirectory("segmented-check");
+        String previousTmp = System.getProperty("java.io.tmpdir");
+        // Part files go to a scratch tmpdir, and nothing is read from or added to the shared download cache
+        System.setProperty("java.io.tmpdir", root.toString());
+        setStatic(gui, "DOWNLOAD_CACHE_MAX_BYTES", Long.valueOf(0L));
+        setStatic(gui, "LAUNCHER_DATA_DIR", root.resolve("data"));
+        try {
+            checkSegmented(gui, content);
+            checkRangeIgnored(gui, content);
+            if (bench) bench(gui, content, benchConnections);
+        } finally {
+            System.setProperty("java.io.tmpdir", previousTmp);
+            deleteTree(root);
+        }
+
+        if (failures > 0) {
+            System.err.println("SegmentedDownloadCheck: " + failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("SegmentedDownloadCheck: all checks passed");
+    }
+
+    /** Four connections, Range honoured: every byte is fetched once, in parallel. */
+    private static void checkSegmented(Class<?> gui, byte[] content) throws Exception {
+        StandIn server = new StandIn(content, 32L * 1024 * 1024, true);
+        try {
+            setStatic(gui, "DOWNLOAD_CONNECTIONS", Integer.valueOf(4));
+            Path file = download(gui, server.url("/segmented.jar"), "segmented.jar");
+            expect("segmented: content", Boolean.TRUE, Boolean.valueOf(Arrays.equals(content, Files.readAllBytes(file))));
+            expect("segmented: range requests", Integer.valueOf(4), Integer.valueOf(server.rangeRequests.get()));
+            expect("segmented: full requests", Integer.valueOf(0), Integer.valueOf(server.fullRequests.get()));
+            expect("segmented: body bytes sent", Long.valueOf(content.length), Long.valueOf(server.bodyBytes.get()));
+            if (server.maxConcurrent.get() < 2) {
+                fail("segmented: at most " + server.maxConcurrent.get() + " connection(s) were open at once");
+            }
+            expectNoPartFiles(gui, "segmented");
+        } finally {
+            server.close();
+        }
+    }
+
+    /** A server that answers 200 to Range: no segmented .part survives, one full stream completes. */
+    private static void checkRangeIgnored(Class<?> gui, byte[] content) throws Exception {
+        StandIn server = new StandIn(content, 32L * 1024 * 1024, false);
+        try {
+            setStatic(gui, "DOWNLOAD_CONNECTIONS", Integer.valueOf(4));
+            String url = server.url("/ignores-range.jar");
+            Path part = Files.createTempFile("ignores-range", ".part");
+            Files.delete(part);
+            Object segmented = call(gui, "transferSegmented", new Class<?>[] { Class.forName("ModUpdaterGUI$ProgressUI"), String.class,
+                    String.class, Path.class, int.class, int.class, double.class, double.class },
+                    null, url, "ignores-range.jar", part, Integer.valueOf(10000), Integer.valueOf(4), Double.valueOf(0.0), Double.valueOf(1.0));
+            expect("range ignored: transferSegmented", Boolean.FALSE, segmented);
+            expect("range ignored: .part left behind", Boolean.FALSE, Boolean.valueOf(Files.exists(part)));
+
+            server.reset();
+            Path file = download(gui, url, "ignores-range.jar");
+            expect("range ignored: content", Boolean.TRUE, Boolean.valueOf(Arrays.equals(content, Files.readAllBytes(file))));
+            if (server.fullRequests.get() < 1) {
+                fail("range ignored: no request without Range, so no single-stream fallback");
+            }
+            expectNoPartFiles(gui, "range ignored");
+        } finally {
+            server.close();
+        }
+    }
+
+    /** Times DOWNLOAD_CONNECTIONS=1 against N on a 2 MB/s per-connection cap. */
+    private static void bench(Class<?> gui, byte[] content, int connections) throws Exception {
+        long capBytesPerSecond = 2L * 1024 * 1024;
+        StandIn server = new StandIn(content, capBytesPerSecond, true);
+        try {
+            long[] millis = new long[2];
+            int[] settings = { 1, connections };
+            for (int i = 0; i < settings.length; i++) {
+                setStatic(gui, "DOWNLOAD_CONNECTIONS", Integer.valueOf(settings[i]));
+                String name = "bench-" + settings[i] + ".jar";
+                long start = System.nanoTime();
+                Path file = download(gui, server.url("/" + name), name);
+                millis[i] = (System.nanoTime() - start) / 1000000L;
+                expect("bench " + settings[i] + ": content", Boolean.TRUE, Boolean.valueOf(Arrays.equals(content, Files.readAllBytes(file))));
+                Files.delete(file);
+            }
+            System.out.println(String.format(Locale.ROOT, "SegmentedDownloadCheck: bench, %d MB at %d KB/s per connection:",
+                    Integer.valueOf(content.length / (1024 * 1024)), Long.valueOf(capBytesPerSecond / 1024)));
+            for (int i = 0; i < settings.length; i++) {
+                System.out.println(String.format(Locale.ROOT, "  DOWNLOAD_CONNECTIONS=%d  %6d ms  %6.2f MB/s", Integer.valueOf(settings[i]),
+                        Long.valueOf(millis[i]), Double.valueOf(content.length / 1048576.0 / (millis[i] / 1000.0))));
+            }
+            System.out.println(String.format(Locale.ROOT, "  speedup %.2fx", Double.valueOf(millis[0] / (double) Math.max(1L, millis[1]))));
+        } finally {
+            server.close();
+        }
+    }
+
+    private static Path download(Class<?> gui, String url, String fileName) throws Exception {
+        Class<?> ui = Class.forName("ModUpdaterGUI$ProgressUI");
+        Class<?> expected = Class.forName("ModUpdaterGUI$ExpectedDigest");
+        return (Path) call(gui, "downloadResumable", new Class<?>[] { ui, List.class, String.class, expected, int.class, boolean.class,
+                int.class, double.class, double.class },
+                null, Collections.singletonList(url), fileName, null, Integer.valueOf(10000), Boolean.TRUE, Integer.valueOf(1),
+                Double.valueOf(0.0), Double.valueOf(1.0));
+    }
+
+    private static void expectNoPartFiles(Class<?> gui, String what) throws Exception {
+        Path partDir = Paths.get(System.getProperty("java.io.tmpdir"), (String) getStatic(gui, "DOWNLOAD_PART_DIR_NAME"));
+        if (!Files.isDirectory(partDir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(partDir, "*.part")) {
+            for (Path p : files) fail(what + ": " + p.getFileName() + " left behind");
+        }
+    }
+
+    /**
+     * Minimal HTTP/1.1 server, one thread and one request per connection. Each
+     * response body is written at no more than capBytesPerSecond. With honourRange
+     * false every GET gets the whole file with 200, whatever its Range header says.
+     */
+    private static final class StandIn {
+        final ServerSocket server;
+        final byte[] content;
+        final long capBytesPerSecond;
+        final boolean honourRange;
+        final AtomicInteger rangeRequests = new AtomicInteger();
+        final AtomicInteger fullRequests = new AtomicInteger();
+        final AtomicLong bodyBytes = new AtomicLong();
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        StandIn(byte[] content, long capBytesPerSecond, boolean honourRange) throws IOException {
+            this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.content = content;
+            this.capBytesPerSecond = capBytesPerSecond;
+            this.honourRange = honourRange;
+            Thread acceptor = new Thread(new Runnable() {
+                public void run() {
+                    while (true) {
+                        final Socket s;
+                        try {
+                            s = server.accept();
+                        } catch (IOException closed) {
+                            return;
+                        }
+                        Thread t = new Thread(new Runnable() {
+                            public void run() {
+                                serve(s);
+                            }
+                        }, "SegmentedDownloadCheck-Conn");
+                        t.setDaemon(true);
+                        t.start();
+                    }
+                }
+            }, "SegmentedDownloadCheck-Accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        String url(String path) {
+            return "http://127.0.0.1:" + server.getLocalPort() + path;
+        }
+
+        void reset() {
+            rangeRequests.set(0);
+            fullRequests.set(0);
+            bodyBytes.set(0L);
+            maxConcurrent.set(0);
+        }
+
+        void close() throws IOException {
+            server.close();
+        }
+
+        private void serve(Socket s) {
+            int now = concurrent.incrementAndGet();
+            while (true) {
+                int max = maxConcurrent.get();
+                if (now <= max || maxConcurrent.compareAndSet(max, now)) break;
+            }
+            try {
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.ISO_8859_1));
+                String requestLine = in.readLine();
+                if (requestLine == null) return;
+                String range = null;
+                String ifRange = null;
+                String line;
+                while ((line = in.readLine()) != null && line.length() > 0) {
+                    int colon = line.indexOf(':');
+                    if (colon < 0) continue;
+                    String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                    String value = line.substring(colon + 1).trim();
+                    if ("range".equals(name)) range = value;
+                    else if ("if-range".equals(name)) ifRange = value;
+                }
+                OutputStream out = s.getOutputStream();
+                String common = "Content-Type: application/java-archive\r\nETag: " + ETAG + "\r\nConnection: close\r\n"
+                        + (honourRange ? "Accept-Ranges: bytes\r\n" : "");
+                if (requestLine.startsWith("HEAD ")) {
+                    out.write(ascii("HTTP/1.1 200 OK\r\n" + common + "Content-Length: " + content.length + "\r\n\r\n"));
+                    out.flush();
+                    return;
+                }
+                long first = 0L;
+                long last = content.length - 1;
+                boolean partial = false;
+                if (range != null && honourRange && (ifRange == null || ETAG.equals(ifRange)) && range.startsWith("bytes=")) {
+                    String spec = range.substring("bytes=".length());
+                    int dash = spec.indexOf('-');
+                    first = Long.parseLong(spec.substring(0, dash));
+                    if (dash + 1 < spec.length()) last = Math.min(last, Long.parseLong(spec.substring(dash + 1)));
+                    partial = true;
+                    rangeRequests.incrementAndGet();
+                } else {
+                    fullRequests.incrementAndGet();
+                }
+                long length = last - first + 1;
+                out.write(ascii((partial ? "HTTP/1.1 206 Partial Content\r\n" : "HTTP/1.1 200 OK\r\n") + common
+                        + (partial ? "Content-Range: bytes " + first + "-" + last + "/" + content.length + "\r\n" : "")
+                        + "Content-Length: " + length + "\r\n\r\n"));
+                writeThrottled(out, (int) first, (int) length);
+            } catch (IOException clientGone) {
+            } finally {
+                concurrent.decrementAndGet();
+                try { s.close(); } catch (IOException ignored) {}
+            }
+        }
+
+        /** Writes 16 KB slices, sleeping so the connection stays under the cap. */
+        private void writeThrottled(OutputStream out, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            int sent = 0;
+            while (sent < length) {
+                int n = Math.min(16 * 1024, length - sent);
+                out.write(content, offset + sent, n);
+                sent += n;
+                bodyBytes.addAndGet(n);
+                long dueNanos = sent * 1000000000L / capBytesPerSecond;
+                long aheadMs = (dueNanos - (System.nanoTime() - start)) / 1000000L;
+                if (aheadMs > 0) {
+                    try {
+                        Thread.sleep(aheadMs);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            out.flush();
+        }
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static Object call(Class<?> owner, String name, Class<?>[] types, Object... args) throws Exception {
+        Method m = owner.getDeclaredMethod(name, types);
+        m.setAccessible(true);
+        try {
+            return m.invoke(null, args);
+        } catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
+    }
+
+    private static Object getStatic(Class<?> owner, String name) throws Exception {
+        Field f = owner.getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(null);
+    }
+
+    private static void setStatic(Class<?> owner, String name, Object value) throws Exception {
+        Field f = owner.getDeclaredField(name);
+        f.setAccessible(true);
+        f.set(null, value);
+    }
+
+    private static void deleteTree(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                for (Path child : children) deleteTree(child);
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private static void expect(String what, Object expected, Object actual) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            fail(what + ": expected <" + expected + "> but got <" + actual + ">");
+        }
+    }
+
+    private static void fail(String message) {
+        failures++;
+        System.err.println("FAIL " + message);
+    }
+}
@@ -0,0 +1,82 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import javax.net.ssl.SSLContext;
+
+// Shared java.net.http client behind LauncherRuntime.http2Get on Java 11+.
+//
+// One client for the whole process: it negotiates HTTP/2 via ALPN and then
+// multiplexes concurrent requests to the same host (e.g. the parallel
+// raw.githubusercontent.com blob fetches) over a single TLS connection.
+// Servers that only speak HTTP/1.1 get a pooled HTTP/1.1 connection instead.
+// Only the git tree blob fetches (ModUpdaterGUI.fetchResourceBlob) go through
+// here; every other request stays on HttpURLConnection via LauncherHttp.open.
+final class LauncherHttpClient {
+
+    /**
+     * Client-wide bound on establishing a connection. It is fixed because the client
+     * is shared; each call's own timeout is applied per request in get().
+     */
+    private static final int CONNECT_TIMEOUT_MS = 15000;
+
+    private static volatile HttpClient CLIENT;
+    private static final Object CLIENT_LOCK = new Object();
+
+    private LauncherHttpClient() {}
+
+    private static HttpClient client() {
+        HttpClient client = CLIENT;
+        if (client != null) return client;
+        synchronized (CLIENT_LOCK) {
+            if (CLIENT == null) {
+                HttpClient.Builder builder = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS));
+                SSLContext ctx = LauncherHttp.tlsContext();
+                if (ctx != null) {
+                    builder.sslContext(ctx);
+                }
+                CLIENT = builder.build();
+            }
+            return CLIENT;
+        }
+    }
+
+    /**
+     * The request timeout is the caller's: it covers connecting (within the client's
+     * own bound) and the wait for response headers, like HttpURLConnection's read
+     * timeout for the first byte.
+     */
+    static LauncherHttp.Response get(String url, int timeoutMs, String userAgent) throws IOException {
+        URI uri = URI.create(url);
+        URL hostUrl = uri.toURL();
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .GET();
+        if (userAgent != null && !userAgent.isEmpty()) {
+            request.header("User-Agent", userAgent);
+        }
+        long startNs = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = client().send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException ex) {
+            LauncherHttp.adopt(hostUrl, System.nanoTime() - startNs, -1, -1L, null, null);
+            throw ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting " + url);
+        }
+        return LauncherHttp.adopt(hostUrl, System.nanoTime() - startNs, response.statusCode(),
+                response.headers().firstValueAsLong("Content-Length").orElse(-1L),
+                response.headers().firstValue("Content-Encoding").orElse(null),
+                response.body());
+    }
+}
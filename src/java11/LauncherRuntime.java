@@ -0,0 +1,30 @@
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Java 11+ copy of LauncherRuntime (META-INF/versions/11): HTTP/2 through
+// java.net.http, platform threads as on Java 8. See src/LauncherRuntime.java.
+final class LauncherRuntime {
+
+    private LauncherRuntime() {}
+
+    static String implementation() {
+        return "java11 (HTTP/2 client, platform threads)";
+    }
+
+    static ExecutorService newWorkerPool(final String namePrefix, int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count;
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, namePrefix + "-" + (++count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    static LauncherHttp.Response http2Get(String url, int timeoutMs, String userAgent) throws IOException {
+        return LauncherHttpClient.get(url, timeoutMs, userAgent);
+    }
+}
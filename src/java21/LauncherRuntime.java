@@ -0,0 +1,26 @@
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Java 21+ copy of LauncherRuntime (META-INF/versions/21): the Java 11 HTTP/2
+// client, and worker pools backed by virtual threads. See src/LauncherRuntime.java.
+final class LauncherRuntime {
+
+    private LauncherRuntime() {}
+
+    static String implementation() {
+        return "java21 (HTTP/2 client, virtual threads)";
+    }
+
+    /**
+     * Still a fixed number of workers, so callers keep their concurrency caps, but each one is a
+     * virtual thread: a worker blocked on a socket or a file no longer holds an OS thread.
+     */
+    static ExecutorService newWorkerPool(String namePrefix, int threads) {
+        return Executors.newFixedThreadPool(threads, Thread.ofVirtual().name(namePrefix + "-", 1).factory());
+    }
+
+    static LauncherHttp.Response http2Get(String url, int timeoutMs, String userAgent) throws IOException {
+        return LauncherHttpClient.get(url, timeoutMs, userAgent);
+    }
+}